@@ -3,21 +3,37 @@ package com.example.anonymization;
 import com.example.anonymization.dto.AnonymizationFlatJsonRequestDto;
 import com.example.anonymization.dto.AnonymizationJsonLDRequestDto;
 import com.example.anonymization.service.AnonymizationService;
+import com.example.anonymization.service.ArrowService;
+import com.example.anonymization.service.CsvService;
+import com.example.anonymization.service.JsonLdOutput;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFLanguages;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
 @RestController
 public class AnonymizationRestController {
 
@@ -34,15 +50,67 @@ public class AnonymizationRestController {
         })))
         @PutMapping(value = "/api/anonymization", consumes = { "application/json",
                         "application/ld+json" }, produces = "application/json")
-        public ResponseEntity<String> anonymization(
-                        @Valid @RequestBody AnonymizationJsonLDRequestDto anonymizationRequest) {
+        public void anonymization(
+                        @Valid @RequestBody AnonymizationJsonLDRequestDto anonymizationRequest,
+                        HttpServletResponse response) throws IOException {
                 logger.info("Received JSON-LD anonymization request [configUrl={}]",
                                 anonymizationRequest.getConfigurationUrl());
                 long startTime = System.currentTimeMillis();
-                ResponseEntity<String> response = AnonymizationService.applyAnonymization(anonymizationRequest);
+                try (JsonLdOutput output = AnonymizationService.applyAnonymization(anonymizationRequest)) {
+                        writeJsonLd(output, response);
+                }
                 logger.info("JSON-LD anonymization completed [status={}, durationMs={}]",
-                                response.getStatusCode(), System.currentTimeMillis() - startTime);
-                return response;
+                                response.getStatus(), System.currentTimeMillis() - startTime);
+        }
+
+        @ApiResponses({
+                        @ApiResponse(responseCode = "202", description = "Accepted", content = @Content(mediaType = "application/json")),
+                        @ApiResponse(responseCode = "400", description = "Error", content = @Content(mediaType = "application/json"))
+        })
+        @Operation(summary = "Anonymization of input data (Turtle, N-Triples, RDF Thrift)", requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(required = true, content = {
+                        @Content(mediaType = "text/turtle", schema = @Schema(type = "string")),
+                        @Content(mediaType = "application/n-triples", schema = @Schema(type = "string")),
+                        @Content(mediaType = "application/rdf+thrift", schema = @Schema(type = "string", format = "binary"))
+        }))
+        @PutMapping(value = "/api/anonymization", consumes = { "text/turtle", "application/n-triples",
+                        "application/rdf+thrift" }, produces = "application/json")
+        public void anonymizationRdf(
+                        @Parameter(description = "The configuration URL") @RequestParam String configurationUrl,
+                        @Parameter(description = "If true, KPIs will be calculated and included in the response.") @RequestParam(defaultValue = "true") boolean calculateKpi,
+                        @Parameter(description = "If true, the original (non-anonymized) input data is also included in the response.") @RequestParam(defaultValue = "false") boolean includeOriginalData,
+                        @Parameter(description = "Random seed for anonymization processes to ensure reproducibility.") @RequestParam(required = false) Long randomSeed,
+                        @Parameter(description = "If true, adjusted attributes will be used for anonymization.") @RequestParam(defaultValue = "true") boolean useAdjustedAttributes,
+                        @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                        @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength,
+                        InputStream data,
+                        HttpServletResponse response) throws IOException {
+                Lang lang = RDFLanguages.contentTypeToLang(contentType.getType() + "/" + contentType.getSubtype());
+                logger.info("Received RDF anonymization request [configUrl={}, contentType={}]",
+                                configurationUrl, contentType);
+                long startTime = System.currentTimeMillis();
+                try (JsonLdOutput output = AnonymizationService.applyAnonymization(
+                                data,
+                                lang,
+                                contentLength != null ? contentLength : -1,
+                                configurationUrl,
+                                calculateKpi,
+                                includeOriginalData,
+                                randomSeed != null ? randomSeed : System.currentTimeMillis(),
+                                useAdjustedAttributes)) {
+                        writeJsonLd(output, response);
+                }
+                logger.info("RDF anonymization completed [status={}, durationMs={}]",
+                                response.getStatus(), System.currentTimeMillis() - startTime);
+        }
+
+        /**
+         * Writes the anonymized model to the response while the request model is still open
+         */
+        private static void writeJsonLd(JsonLdOutput output, HttpServletResponse response) throws IOException {
+                response.setStatus(HttpStatus.ACCEPTED.value());
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+                output.writeTo(response.getOutputStream());
         }
 
         @ApiResponses({
@@ -69,4 +137,84 @@ public class AnonymizationRestController {
                 return response;
         }
 
+        @ApiResponses({
+                        @ApiResponse(responseCode = "202", description = "Accepted", content = {
+                                        @Content(mediaType = "text/csv"),
+                                        @Content(mediaType = "application/json") }),
+                        @ApiResponse(responseCode = "400", description = "Error", content = @Content(mediaType = "application/json"))
+        })
+        @Operation(summary = "Anonymization of input data (CSV)", requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(required = true, description = "CSV data with the attribute names in the header row", content = @Content(mediaType = "text/csv", schema = @Schema(type = "string"))))
+        @PutMapping(value = "/api/anonymization/csv", consumes = "text/csv", produces = { "text/csv",
+                        "application/json" })
+        public ResponseEntity<String> anonymizationCsv(
+                        @Parameter(description = "The configuration URL") @RequestParam String configurationUrl,
+                        @Parameter(description = "Prefix of the anonymization properties") @RequestParam String prefix,
+                        @Parameter(description = "If true, KPIs will be calculated and included in the response.") @RequestParam(defaultValue = "true") boolean calculateKpi,
+                        @Parameter(description = "If true, the original (non-anonymized) input data is also included in the response.") @RequestParam(defaultValue = "false") boolean includeOriginalData,
+                        @Parameter(description = "Random seed for anonymization processes to ensure reproducibility.") @RequestParam(required = false) Long randomSeed,
+                        @Parameter(description = "If true, adjusted attributes will be used for anonymization.") @RequestParam(defaultValue = "true") boolean useAdjustedAttributes,
+                        @Parameter(description = "Format of the response: csv (data only) or json (flat JSON with KPIs)") @RequestParam(defaultValue = "csv") String format,
+                        InputStream data) throws JsonProcessingException {
+                logger.info("Received CSV anonymization request [configUrl={}, prefix={}, format={}]",
+                                configurationUrl, prefix, format);
+                long startTime = System.currentTimeMillis();
+                AnonymizationFlatJsonRequestDto anonymizationRequest = createTabularRequest(configurationUrl, prefix,
+                                calculateKpi, includeOriginalData, randomSeed, useAdjustedAttributes);
+                anonymizationRequest.setData(CsvService.read(data));
+                ResponseEntity<String> response = AnonymizationService.applyAnonymizationCsv(
+                                anonymizationRequest, !"json".equalsIgnoreCase(format));
+                logger.info("CSV anonymization completed [status={}, durationMs={}]",
+                                response.getStatusCode(), System.currentTimeMillis() - startTime);
+                return response;
+        }
+
+        @ApiResponses({
+                        @ApiResponse(responseCode = "202", description = "Accepted", content = {
+                                        @Content(mediaType = ArrowService.MEDIA_TYPE),
+                                        @Content(mediaType = "application/json") }),
+                        @ApiResponse(responseCode = "400", description = "Error", content = @Content(mediaType = "application/json"))
+        })
+        @Operation(summary = "Anonymization of input data (Arrow IPC stream)", requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(required = true, description = "Arrow IPC stream with one column per attribute", content = @Content(mediaType = ArrowService.MEDIA_TYPE, schema = @Schema(type = "string", format = "binary"))))
+        @PutMapping(value = "/api/anonymization/arrow", consumes = ArrowService.MEDIA_TYPE, produces = {
+                        ArrowService.MEDIA_TYPE, "application/json" })
+        public ResponseEntity<byte[]> anonymizationArrow(
+                        @Parameter(description = "The configuration URL") @RequestParam String configurationUrl,
+                        @Parameter(description = "Prefix of the anonymization properties") @RequestParam String prefix,
+                        @Parameter(description = "If true, KPIs will be calculated and included in the response.") @RequestParam(defaultValue = "true") boolean calculateKpi,
+                        @Parameter(description = "If true, the original (non-anonymized) input data is also included in the response.") @RequestParam(defaultValue = "false") boolean includeOriginalData,
+                        @Parameter(description = "Random seed for anonymization processes to ensure reproducibility.") @RequestParam(required = false) Long randomSeed,
+                        @Parameter(description = "If true, adjusted attributes will be used for anonymization.") @RequestParam(defaultValue = "true") boolean useAdjustedAttributes,
+                        @Parameter(description = "Format of the response: arrow (data only) or json (flat JSON with KPIs)") @RequestParam(defaultValue = "arrow") String format,
+                        InputStream data) throws JsonProcessingException {
+                logger.info("Received Arrow anonymization request [configUrl={}, prefix={}, format={}]",
+                                configurationUrl, prefix, format);
+                long startTime = System.currentTimeMillis();
+                AnonymizationFlatJsonRequestDto anonymizationRequest = createTabularRequest(configurationUrl, prefix,
+                                calculateKpi, includeOriginalData, randomSeed, useAdjustedAttributes);
+                ResponseEntity<byte[]> response = AnonymizationService.applyAnonymizationArrow(
+                                anonymizationRequest, ArrowService.read(data, prefix),
+                                !"json".equalsIgnoreCase(format));
+                logger.info("Arrow anonymization completed [status={}, durationMs={}]",
+                                response.getStatusCode(), System.currentTimeMillis() - startTime);
+                return response;
+        }
+
+        private static AnonymizationFlatJsonRequestDto createTabularRequest(
+                        String configurationUrl,
+                        String prefix,
+                        boolean calculateKpi,
+                        boolean includeOriginalData,
+                        Long randomSeed,
+                        boolean useAdjustedAttributes) {
+                AnonymizationFlatJsonRequestDto anonymizationRequest = new AnonymizationFlatJsonRequestDto();
+                anonymizationRequest.setConfigurationUrl(configurationUrl);
+                anonymizationRequest.setPrefix(prefix);
+                anonymizationRequest.setCalculateKpi(calculateKpi);
+                anonymizationRequest.setIncludeOriginalData(includeOriginalData);
+                if (randomSeed != null) {
+                        anonymizationRequest.setRandomSeed(randomSeed);
+                }
+                anonymizationRequest.setUseAdjustedAttributes(useAdjustedAttributes);
+                return anonymizationRequest;
+        }
 }
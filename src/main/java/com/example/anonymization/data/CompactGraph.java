@@ -0,0 +1,418 @@
+package com.example.anonymization.data;
+
+import org.apache.jena.graph.GraphEvents;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.graph.impl.GraphBase;
+import org.apache.jena.util.iterator.ExtendedIterator;
+import org.apache.jena.util.iterator.NiceIterator;
+import org.apache.jena.util.iterator.NullIterator;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Request scoped graph storing triples as ids of a node dictionary. Nodes are stored once and referenced by int ids
+ * through an open addressing table; the triples are kept in int arrays with index lists by subject, by predicate and
+ * by resource object, and a second open addressing table finds a triple by its ids. Literal objects are not indexed,
+ * patterns with a literal object are answered from the subject or predicate index.
+ * <p>
+ * Deleted triples are marked and skipped. Once at least half of the stored triples are deleted, the live triples and
+ * their nodes are copied into new arrays and the space of the deleted ones is reclaimed. Iterators see the triples
+ * present when they were created and may be used while the graph is modified; an iterator created before such a
+ * compaction keeps reading the previous arrays and does not see deletions made after it.
+ */
+final class CompactGraph extends GraphBase {
+
+    private static final int NONE = -1;
+    private static final int ANY = -2;
+    private static final int REMOVED = -3;
+    private static final int MIN_COMPACTION = 1024;
+
+    private Node[] nodes = new Node[256];
+    private int nodeCount = 0;
+    private int[] table = new int[512];
+
+    private int[] subjects = new int[256];
+    private int[] predicates = new int[256];
+    private int[] objects = new int[256];
+    private int tripleCount = 0;
+    private int removedCount = 0;
+    private int[] tripleTable = new int[512];
+    private int generation = 0;
+
+    private IntList[] bySubject = new IntList[256];
+    private IntList[] byPredicate = new IntList[256];
+    private IntList[] byObject = new IntList[256];
+
+    @Override
+    public void performAdd(Triple triple) {
+        store(id(triple.getSubject(), true), id(triple.getPredicate(), true), id(triple.getObject(), true));
+    }
+
+    @Override
+    public void performDelete(Triple triple) {
+        int s = id(triple.getSubject(), false);
+        int p = id(triple.getPredicate(), false);
+        int o = id(triple.getObject(), false);
+        if (s == NONE || p == NONE || o == NONE) {
+            return;
+        }
+        int slot = slotOf(s, p, o);
+        if (tripleTable[slot] == 0) {
+            return;
+        }
+        subjects[tripleTable[slot] - 1] = REMOVED;
+        removedCount++;
+        removeSlot(slot);
+        if (removedCount >= MIN_COMPACTION && removedCount * 2 >= tripleCount) {
+            compact();
+        }
+    }
+
+    @Override
+    protected int graphBaseSize() {
+        return tripleCount - removedCount;
+    }
+
+    @Override
+    protected boolean graphBaseContains(Triple triple) {
+        if (!triple.isConcrete()) {
+            return super.graphBaseContains(triple);
+        }
+        int s = id(triple.getSubject(), false);
+        int p = id(triple.getPredicate(), false);
+        int o = id(triple.getObject(), false);
+        return s != NONE && p != NONE && o != NONE && tripleTable[slotOf(s, p, o)] != 0;
+    }
+
+    @Override
+    protected ExtendedIterator<Triple> graphBaseFind(Triple pattern) {
+        int s = patternId(pattern.getSubject());
+        int p = patternId(pattern.getPredicate());
+        int o = patternId(pattern.getObject());
+        if (s == NONE || p == NONE || o == NONE) {
+            return NullIterator.instance();
+        }
+        IntList candidates = null;
+        if (s != ANY) {
+            candidates = shorter(candidates, bySubject[s]);
+        }
+        if (p != ANY) {
+            candidates = shorter(candidates, byPredicate[p]);
+        }
+        if (o != ANY && !nodes[o].isLiteral()) {
+            candidates = shorter(candidates, byObject[o]);
+        }
+        return new TripleIterator(candidates, s, p, o);
+    }
+
+    @Override
+    public void clear() {
+        nodes = new Node[256];
+        nodeCount = 0;
+        table = new int[512];
+        subjects = new int[256];
+        predicates = new int[256];
+        objects = new int[256];
+        tripleCount = 0;
+        removedCount = 0;
+        tripleTable = new int[512];
+        bySubject = new IntList[256];
+        byPredicate = new IntList[256];
+        byObject = new IntList[256];
+        generation++;
+        getEventManager().notifyEvent(this, GraphEvents.removeAll);
+    }
+
+    /**
+     * @return id of a concrete node of a pattern, NONE if it is not in the graph, or ANY for a wildcard
+     */
+    private int patternId(Node node) {
+        return node == null || !node.isConcrete() ? ANY : id(node, false);
+    }
+
+    /**
+     * @return the shorter of two index lists, where null stands for all triples as current and for no triple as
+     *         candidate
+     */
+    private static IntList shorter(IntList current, IntList candidate) {
+        if (candidate == null) {
+            return IntList.EMPTY;
+        }
+        return current == null || candidate.size < current.size ? candidate : current;
+    }
+
+    /**
+     * Stores a triple of node ids unless it is already contained
+     */
+    private void store(int s, int p, int o) {
+        int slot = slotOf(s, p, o);
+        if (tripleTable[slot] != 0) {
+            return;
+        }
+        if (tripleCount == subjects.length) {
+            int capacity = subjects.length * 2;
+            subjects = Arrays.copyOf(subjects, capacity);
+            predicates = Arrays.copyOf(predicates, capacity);
+            objects = Arrays.copyOf(objects, capacity);
+        }
+        int index = tripleCount++;
+        subjects[index] = s;
+        predicates[index] = p;
+        objects[index] = o;
+        tripleTable[slot] = index + 1;
+        if ((tripleCount - removedCount) * 2 > tripleTable.length) {
+            rehashTriples();
+        }
+        list(bySubject, s).add(index);
+        list(byPredicate, p).add(index);
+        if (!nodes[o].isLiteral()) {
+            list(byObject, o).add(index);
+        }
+    }
+
+    /**
+     * @return the slot of the triple table holding the triple, or the empty slot where it would be inserted
+     */
+    private int slotOf(int s, int p, int o) {
+        int mask = tripleTable.length - 1;
+        int slot = tripleHash(s, p, o) & mask;
+        while (true) {
+            int entry = tripleTable[slot];
+            if (entry == 0) {
+                return slot;
+            }
+            int index = entry - 1;
+            if (subjects[index] == s && predicates[index] == p && objects[index] == o) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Empties a slot of the triple table and moves the following entries of the probe sequence back
+     */
+    private void removeSlot(int slot) {
+        int mask = tripleTable.length - 1;
+        int free = slot;
+        int next = (free + 1) & mask;
+        while (tripleTable[next] != 0) {
+            int index = tripleTable[next] - 1;
+            int home = tripleHash(subjects[index], predicates[index], objects[index]) & mask;
+            // the entry may move to the free slot if its home slot is not between the free slot and its slot
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                tripleTable[free] = tripleTable[next];
+                free = next;
+            }
+            next = (next + 1) & mask;
+        }
+        tripleTable[free] = 0;
+    }
+
+    private void rehashTriples() {
+        tripleTable = new int[tripleTable.length * 2];
+        int mask = tripleTable.length - 1;
+        for (int index = 0; index < tripleCount; index++) {
+            if (subjects[index] == REMOVED) {
+                continue;
+            }
+            int slot = tripleHash(subjects[index], predicates[index], objects[index]) & mask;
+            while (tripleTable[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            tripleTable[slot] = index + 1;
+        }
+    }
+
+    /**
+     * Node ids are assigned in sequence, the multiplication scatters triples of consecutive ids over the table
+     */
+    private static int tripleHash(int s, int p, int o) {
+        return spread(((s * 31 + p) * 31 + o) * 0x9E3779B9);
+    }
+
+    /**
+     * Copies the live triples and the nodes they use into new arrays. The previous arrays are not changed, so open
+     * iterators continue on them.
+     */
+    private void compact() {
+        Node[] previousNodes = nodes;
+        int[] previousSubjects = subjects;
+        int[] previousPredicates = predicates;
+        int[] previousObjects = objects;
+        int previousCount = tripleCount;
+        int liveCount = tripleCount - removedCount;
+        int capacity = Math.max(256, Integer.highestOneBit(Math.max(1, liveCount)) * 2);
+        nodes = new Node[256];
+        nodeCount = 0;
+        table = new int[512];
+        subjects = new int[capacity];
+        predicates = new int[capacity];
+        objects = new int[capacity];
+        tripleCount = 0;
+        removedCount = 0;
+        tripleTable = new int[capacity * 2];
+        bySubject = new IntList[256];
+        byPredicate = new IntList[256];
+        byObject = new IntList[256];
+        generation++;
+        for (int index = 0; index < previousCount; index++) {
+            if (previousSubjects[index] != REMOVED) {
+                store(id(previousNodes[previousSubjects[index]], true),
+                        id(previousNodes[previousPredicates[index]], true),
+                        id(previousNodes[previousObjects[index]], true));
+            }
+        }
+    }
+
+    private IntList list(IntList[] lists, int id) {
+        IntList list = lists[id];
+        if (list == null) {
+            list = new IntList();
+            lists[id] = list;
+        }
+        return list;
+    }
+
+    private int id(Node node, boolean create) {
+        int mask = table.length - 1;
+        int slot = spread(node.hashCode()) & mask;
+        while (true) {
+            int entry = table[slot];
+            if (entry == 0) {
+                return create ? insert(node, slot) : NONE;
+            }
+            if (nodes[entry - 1].equals(node)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private int insert(Node node, int slot) {
+        int id = nodeCount++;
+        if (id == nodes.length) {
+            int capacity = nodes.length * 2;
+            nodes = Arrays.copyOf(nodes, capacity);
+            bySubject = Arrays.copyOf(bySubject, capacity);
+            byPredicate = Arrays.copyOf(byPredicate, capacity);
+            byObject = Arrays.copyOf(byObject, capacity);
+        }
+        nodes[id] = node;
+        table[slot] = id + 1;
+        if (nodeCount * 2 > table.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    private void rehash() {
+        table = new int[table.length * 2];
+        int mask = table.length - 1;
+        for (int id = 0; id < nodeCount; id++) {
+            int slot = spread(nodes[id].hashCode()) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = id + 1;
+        }
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Growable list of triple indices
+     */
+    private static final class IntList {
+
+        private static final IntList EMPTY = new IntList();
+
+        private int[] values = new int[4];
+        private int size = 0;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+
+    /**
+     * Iterator over the live triples of an index list, or of all triples, that match the bound ids. It reads the
+     * current arrays of the graph until they are replaced by a compaction or by clearing the graph, and the arrays
+     * it last read after that.
+     */
+    private final class TripleIterator extends NiceIterator<Triple> {
+
+        private final IntList candidates;
+        private final int end;
+        private final int s;
+        private final int p;
+        private final int o;
+        private final int generation = CompactGraph.this.generation;
+        private Node[] nodes;
+        private int[] subjects;
+        private int[] predicates;
+        private int[] objects;
+        private int position = 0;
+        private int next = NONE;
+        private Triple current;
+
+        TripleIterator(IntList candidates, int s, int p, int o) {
+            this.candidates = candidates;
+            this.end = candidates == null ? tripleCount : candidates.size;
+            this.s = s;
+            this.p = p;
+            this.o = o;
+            this.nodes = CompactGraph.this.nodes;
+            this.subjects = CompactGraph.this.subjects;
+            this.predicates = CompactGraph.this.predicates;
+            this.objects = CompactGraph.this.objects;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (generation == CompactGraph.this.generation) {
+                nodes = CompactGraph.this.nodes;
+                subjects = CompactGraph.this.subjects;
+                predicates = CompactGraph.this.predicates;
+                objects = CompactGraph.this.objects;
+            }
+            while (next == NONE && position < end) {
+                int index = candidates == null ? position : candidates.values[position];
+                position++;
+                if (subjects[index] != REMOVED
+                        && (s == ANY || subjects[index] == s)
+                        && (p == ANY || predicates[index] == p)
+                        && (o == ANY || objects[index] == o)) {
+                    next = index;
+                }
+            }
+            return next != NONE;
+        }
+
+        @Override
+        public Triple next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            current = Triple.create(nodes[subjects[next]], nodes[predicates[next]], nodes[objects[next]]);
+            next = NONE;
+            return current;
+        }
+
+        @Override
+        public void remove() {
+            if (current == null) {
+                throw new IllegalStateException();
+            }
+            delete(current);
+            current = null;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.anonymization.data;
+
+import com.example.anonymization.exceptions.AnonymizationException;
+import com.example.anonymization.service.anonymizer.Generalization;
+import org.apache.jena.graph.*;
+import org.apache.jena.rdf.model.*;
+import org.apache.jena.vocabulary.RDF;
+
+import java.util.*;
+
+import static com.example.anonymization.service.KpiService.*;
+
+/**
+ * Answers the queries of a request model with lookups in the indexes of its graph: the subjects of a type and the
+ * values of a subject and predicate are found by the subject, predicate and object indexes the graph keeps anyway,
+ * such as those of {@link CompactGraph}, so all stages of a request are answered without scanning the graph with
+ * SPARQL and without a second copy of the triples. Results correspond to the queries in
+ * {@link QueryBuildingService}.
+ */
+final class GraphIndex {
+
+    private static final Node TYPE = RDF.type.asNode();
+
+    private final Graph graph;
+
+    private GraphIndex(Graph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * @param model the request model
+     * @return the index of the model
+     */
+    static GraphIndex of(Model model) {
+        return new GraphIndex(model.getGraph());
+    }
+
+    /**
+     * @return the subjects of the type in the order of the graph
+     */
+    Set<Node> subjects(Node type) {
+        Set<Node> subjects = new LinkedHashSet<>();
+        graph.find(Node.ANY, TYPE, type).forEachRemaining(triple -> subjects.add(triple.getSubject()));
+        return subjects;
+    }
+
+    List<Node> values(Node subject, Node predicate) {
+        return graph.find(subject, predicate, Node.ANY).mapWith(Triple::getObject).toList();
+    }
+
+    /**
+     * @return true if the graph has a triple with the predicate
+     */
+    boolean contains(Node predicate) {
+        return graph.contains(Node.ANY, predicate, Node.ANY);
+    }
+
+    /**
+     * @see QueryService#getProperties(Model, org.apache.jena.query.Query, Set, Resource)
+     */
+    Set<Property> getProperties(Model model, Set<Property> configs, Resource objectType) {
+        Set<Property> properties = new HashSet<>();
+        Set<Node> subjects = subjects(objectType.asNode());
+        for (Property config : configs) {
+            Node predicate = config.asNode();
+            if (contains(predicate)
+                    && subjects.stream().anyMatch(subject -> graph.contains(subject, predicate, Node.ANY))) {
+                properties.add(model.getProperty(config.getURI()));
+            }
+        }
+        return properties;
+    }
+
+    /**
+     * @see QueryService#getRandomizationResults(Model, Resource, Property)
+     */
+    List<QueryService.RandomizationResult> getRandomizationResults(
+            Model model,
+            Resource anonymizationObject,
+            Property property) {
+        Node randomizedProperty = NodeCache.uri(property.getURI() + "_randomized");
+        List<QueryService.RandomizationResult> results = new ArrayList<>();
+        for (Node subject : subjects(anonymizationObject.asNode())) {
+            Resource object = model.wrapAsResource(subject);
+            for (Literal original : optionalLiterals(model, values(subject, property.asNode()))) {
+                for (Literal randomized : optionalLiterals(model, values(subject, randomizedProperty))) {
+                    results.add(new QueryService.RandomizationResult(object, original, randomized));
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * @see QueryService#getGeneralizationGroups(Model, org.apache.jena.query.Query, Set, Resource)
+     */
+    List<Set<Resource>> getGeneralizationGroups(Model model, Set<Property> properties, Resource anonymizationObject) {
+        Set<Node> subjects = subjects(anonymizationObject.asNode());
+        if (subjects.isEmpty()) {
+            return List.of();
+        }
+        List<Node> generalizedProperties = properties.stream()
+                .map(property -> NodeCache.uri(property.getURI() + "_generalized"))
+                .toList();
+        Map<List<Node>, Set<Resource>> groups = new LinkedHashMap<>();
+        for (Node subject : subjects) {
+            List<Node> key = new ArrayList<>(generalizedProperties.size());
+            generalizedProperties.forEach(property -> {
+                List<Node> values = values(subject, property);
+                key.add(values.isEmpty() ? null : values.getFirst());
+            });
+            groups.computeIfAbsent(key, _ -> new HashSet<>()).add(model.wrapAsResource(subject));
+        }
+        return new ArrayList<>(groups.values());
+    }
+
+    /**
+     * @see QueryService#getAllData(Model, Resource)
+     */
+    Set<Property> getLiteralProperties(Model model, Resource objectType) {
+        Set<Property> properties = new HashSet<>();
+        for (Node subject : subjects(objectType.asNode())) {
+            graph.find(subject, Node.ANY, Node.ANY).forEachRemaining(triple -> {
+                if (triple.getObject().isLiteral()) {
+                    properties.add(ResourceFactory.createProperty(triple.getPredicate().getURI()));
+                }
+            });
+        }
+        return properties;
+    }
+
+    /**
+     * @see QueryService#getGeneralizationData(Model, Resource, Set)
+     */
+    Map<Resource, Map<Property, Literal[]>> getGeneralizationData(
+            Model model,
+            Resource objectType,
+            Set<Property> properties) {
+        Node min = NodeCache.uri(Generalization.RDF_MIN);
+        Node max = NodeCache.uri(Generalization.RDF_MAX);
+        Map<Resource, Map<Property, Literal[]>> results = new HashMap<>();
+        for (Node subject : subjects(objectType.asNode())) {
+            Map<Property, Literal[]> values = new HashMap<>();
+            properties.forEach(property -> {
+                List<Node> generalized = values(subject, property.asNode());
+                if (!generalized.isEmpty() && !generalized.getFirst().isLiteral()) {
+                    values.put(property, new Literal[] {
+                            firstLiteral(model, values(generalized.getFirst(), min)),
+                            firstLiteral(model, values(generalized.getFirst(), max)) });
+                }
+            });
+            results.put(model.wrapAsResource(subject), values);
+        }
+        return results;
+    }
+
+    /**
+     * @see QueryService#getKAnonymity(Model, Collection)
+     */
+    Map<Resource, Long> getKAnonymity(Model model, Collection<Resource> objectTypes) {
+        Node kAnonymity = NodeCache.uri(K_ANONYMITY);
+        Map<Resource, Long> results = new HashMap<>();
+        for (Resource objectType : objectTypes) {
+            Node kpiObject = NodeCache.uri(KPI_OBJECT_URI + objectType.getLocalName());
+            values(kpiObject, kAnonymity).forEach(value -> results.put(
+                    model.wrapAsResource(kpiObject), literal(model, value).getLong()));
+        }
+        return results;
+    }
+
+    /**
+     * @see QueryService#getTypesForResources(Model, Resource)
+     */
+    Map<Resource, List<Resource>> getTypesForResources(Model model, Resource objectType) {
+        Node type = objectType.asNode();
+        Map<Resource, List<Resource>> results = new HashMap<>();
+        for (Node subject : subjects(type)) {
+            List<Resource> types = values(subject, TYPE).stream()
+                    .filter(other -> !other.equals(type))
+                    .map(model::wrapAsResource)
+                    .toList();
+            if (!types.isEmpty()) {
+                results.put(model.wrapAsResource(subject), new ArrayList<>(types));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * @see QueryService#getAttributeInformation(Model, Collection)
+     */
+    Map<Resource, List<QueryService.AttributeInformation>> getAttributeInformation(
+            Model model,
+            Collection<Resource> objectTypes) {
+        Node hasAttribute = NodeCache.uri(HAS_ATTRIBUTE_URI);
+        Node nrBucketsProperty = NodeCache.uri(NR_BUCKETS_URI);
+        Node anonymizationProperty = NodeCache.uri(ANONYMIZATION_TYP_URI);
+        Map<Resource, List<QueryService.AttributeInformation>> result = new HashMap<>();
+        for (Resource objectType : objectTypes) {
+            Node kpiObject = NodeCache.uri(KPI_OBJECT_URI + objectType.getLocalName());
+            for (Node attribute : values(kpiObject, hasAttribute)) {
+                for (Node anonymization : values(attribute, anonymizationProperty)) {
+                    for (Literal nrBuckets : optionalLiterals(model, values(attribute, nrBucketsProperty))) {
+                        result.computeIfAbsent(model.wrapAsResource(kpiObject), _ -> new ArrayList<>())
+                                .add(new QueryService.AttributeInformation(
+                                        model.wrapAsResource(attribute),
+                                        literal(model, anonymization).toString(),
+                                        nrBuckets == null ? null : nrBuckets.getLong()));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @see QueryService#deleteOriginalProperties(Model, org.apache.jena.update.UpdateRequest, Set, Resource)
+     */
+    void deleteOriginalProperties(Model model, Set<Property> properties, Resource objectType) {
+        List<Triple> triples = new ArrayList<>();
+        for (Node subject : subjects(objectType.asNode())) {
+            for (Property property : properties) {
+                for (Node value : values(subject, property.asNode())) {
+                    triples.add(Triple.create(subject, property.asNode(), value));
+                    graph.find(value, Node.ANY, Node.ANY).forEachRemaining(triples::add);
+                }
+            }
+        }
+        triples.forEach(graph::delete);
+    }
+
+    private static List<Literal> optionalLiterals(Model model, List<Node> values) {
+        if (values.isEmpty()) {
+            return Collections.singletonList(null);
+        }
+        return values.stream().map(value -> literal(model, value)).toList();
+    }
+
+    private static Literal firstLiteral(Model model, List<Node> values) {
+        return values.isEmpty() ? null : literal(model, values.getFirst());
+    }
+
+    private static Literal literal(Model model, Node value) {
+        if (!value.isLiteral()) {
+            throw new AnonymizationException("Literal expected, found " + value);
+        }
+        return model.asRDFNode(value).asLiteral();
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.anonymization.data;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.rdf.model.Literal;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.ResourceFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Canonical instances of the IRIs and literals written by every request: the configured attributes, their anonymized
+ * properties, the KPI and generalization vocabulary and the masking value. The instances are not bound to a model
+ * and are shared by all requests and threads. Once the cache is full, further terms are created without caching.
+ * Terms that only occur in request data, such as the predicates found in the data, are created without the cache, so
+ * requests cannot fill it.
+ */
+@Service
+public class NodeCache {
+
+    private static int maxSize = 100_000;
+
+    private static final Map<String, Property> properties = new ConcurrentHashMap<>();
+    private static final Map<String, Literal> literals = new ConcurrentHashMap<>();
+
+    @Value("${anonymization.node-cache.max-size:100000}")
+    void setMaxSize(int maxSize) {
+        NodeCache.maxSize = maxSize;
+    }
+
+    /**
+     * @return number of cached terms
+     */
+    static int size() {
+        return properties.size() + literals.size();
+    }
+
+    /**
+     * @param uri the IRI of the property
+     * @return the canonical property
+     */
+    public static Property property(String uri) {
+        Property property = properties.get(uri);
+        if (property != null) {
+            return property;
+        }
+        property = ResourceFactory.createProperty(uri);
+        if (properties.size() < maxSize) {
+            Property existing = properties.putIfAbsent(uri, property);
+            return existing != null ? existing : property;
+        }
+        return property;
+    }
+
+    /**
+     * @param uri the IRI
+     * @return the canonical node of the IRI
+     */
+    public static Node uri(String uri) {
+        return property(uri).asNode();
+    }
+
+    /**
+     * @param model the model the resource is used in
+     * @param uri the IRI of the resource
+     * @return a resource of the model with the canonical node of the IRI
+     */
+    public static Resource resource(Model model, String uri) {
+        return model.wrapAsResource(uri(uri));
+    }
+
+    /**
+     * @param value the lexical form
+     * @return the canonical xsd:string literal
+     */
+    public static Literal literal(String value) {
+        Literal literal = literals.get(value);
+        if (literal != null) {
+            return literal;
+        }
+        literal = ResourceFactory.createStringLiteral(value);
+        if (literals.size() < maxSize) {
+            Literal existing = literals.putIfAbsent(value, literal);
+            return existing != null ? existing : literal;
+        }
+        return literal;
+    }
+}
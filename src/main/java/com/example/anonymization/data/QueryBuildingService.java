@@ -2,16 +2,23 @@ package com.example.anonymization.data;
 
 import com.example.anonymization.service.anonymizer.Generalization;
 import org.apache.jena.query.ParameterizedSparqlString;
-import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.Property;
 import org.apache.jena.rdf.model.Resource;
 
 import java.util.Collection;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 public class QueryBuildingService {
 
+    /**
+     * @return the id of the shape of a query template built from the local names of the properties
+     */
+    static String shape(String name, Collection<Property> properties) {
+        StringBuilder shape = new StringBuilder(name);
+        properties.forEach(property -> shape.append(' ').append(property.getLocalName()));
+        return shape.toString();
+    }
+
     static String createConfigQuery() {
         return """
                     PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#>
@@ -28,54 +35,19 @@ public class QueryBuildingService {
                 """;
     }
 
-    static ParameterizedSparqlString createDataModelQuery(
-            Collection<Property> properties,
-            Resource anonymizationObject) {
-        ParameterizedSparqlString q = new ParameterizedSparqlString();
-        q.append("SELECT ?object");
-        properties.forEach(prop -> q.append(" ?_" + prop.getLocalName()));
-        q.append("\nWHERE {\n");
-        q.append("  ?object a <" + anonymizationObject.getURI() + ">.\n");
-        for (Property p : properties) {
-            String local = p.getLocalName();
-            q.append("  OPTIONAL { ?object ?" + local + " ?_" + local + ". }\n");
-            q.setParam(local, p);
-        }
-        q.append("}");
-        return q;
-    }
-
-    static ParameterizedSparqlString createAttributeOrderQuery(Resource attribute) {
-        String queryString = """
-                PREFIX soya: <https://w3id.org/soya/ns#>
-                PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#>
-                SELECT ?value
-                WHERE {
-                    ?attribute soya:classification ?o .
-                    ?o soya:attributeOrder ?head .
-                    ?head rdf:rest* ?cell .
-                    ?cell rdf:first ?value .
-                }
-                """;
-        ParameterizedSparqlString q = new ParameterizedSparqlString(queryString);
-        q.setParam("attribute", attribute);
-        return q;
-    }
-
-    static ParameterizedSparqlString createKpiDataQuery(Set<Property> properties, Resource kpiObject) {
-        ParameterizedSparqlString queryString = new ParameterizedSparqlString();
-        queryString.append("SELECT");
-        properties.forEach(property -> queryString.append(" ?_" + property.getLocalName()));
+    /**
+     * Template binding the KPI object to ?object and each property to the variable named after its local name
+     */
+    static String createKpiDataQuery(Collection<Property> properties) {
+        StringBuilder queryString = new StringBuilder("SELECT");
+        properties.forEach(property -> queryString.append(" ?_").append(property.getLocalName()));
         queryString.append("\nWHERE {\n");
-        properties.forEach(property -> {
-            queryString
-                    .append("  OPTIONAL { ?object ?" + property.getLocalName() + " ?_" + property.getLocalName() + " ");
-            queryString.append("FILTER(isLiteral(?_" + property.getLocalName() + ")) }\n");
-            queryString.setParam(property.getLocalName(), property);
-        });
+        properties.forEach(property -> queryString
+                .append("  OPTIONAL { ?object ?").append(property.getLocalName())
+                .append(" ?_").append(property.getLocalName())
+                .append(" FILTER(isLiteral(?_").append(property.getLocalName()).append(")) }\n"));
         queryString.append("}");
-        queryString.setParam("object", kpiObject);
-        return queryString;
+        return queryString.toString();
     }
 
     static ParameterizedSparqlString createPropertyQuery(Set<Property> configs, Resource anonymizationObject) {
@@ -122,21 +94,18 @@ public class QueryBuildingService {
         return queryString;
     }
 
-    static ParameterizedSparqlString createRandomizationQuery(Model model, Resource anonymizationObject,
-            Property property) {
-        ParameterizedSparqlString queryString = new ParameterizedSparqlString();
-        queryString.setCommandText("""
+    /**
+     * Template binding ?objectType, ?originalProperty and ?randomizedProperty
+     */
+    static String createRandomizationQuery() {
+        return """
                 SELECT ?object ?randomized ?original
                 WHERE {
                     ?object a ?objectType .
                     OPTIONAL { ?object ?originalProperty ?original . }
                     OPTIONAL { ?object ?randomizedProperty ?randomized . }
                 }
-                """);
-        queryString.setParam("objectType", anonymizationObject);
-        queryString.setParam("originalProperty", property);
-        queryString.setIri("randomizedProperty", property.getURI() + "_randomized");
-        return queryString;
+                """;
     }
 
     static ParameterizedSparqlString createGroupsQuery(Set<Property> properties, Resource anonymizationObject) {
@@ -162,100 +131,89 @@ public class QueryBuildingService {
         return queryString;
     }
 
-    static ParameterizedSparqlString createPropertyQuery(Resource objectType) {
-        String queryStr = "SELECT ?predicate\n" +
-                "WHERE {\n" +
-                "  ?s a <" + objectType.getURI() + "> ; ?predicate ?o .\n" +
-                "  FILTER(isLiteral(?o))\n" +
-                "}";
-
-        return new ParameterizedSparqlString(queryStr);
+    /**
+     * Template binding ?objectType
+     */
+    static String createPropertyQuery() {
+        return """
+                SELECT ?predicate
+                WHERE {
+                  ?s a ?objectType ; ?predicate ?o .
+                  FILTER(isLiteral(?o))
+                }
+                """;
     }
 
-    static ParameterizedSparqlString createGeneralizationData(Set<Property> properties, Resource anonymizationObject) {
-        ParameterizedSparqlString queryString = new ParameterizedSparqlString();
-        queryString.append("SELECT ?object");
+    /**
+     * Template binding ?objectType and each property to the variable named after its local name
+     */
+    static String createGeneralizationData(Collection<Property> properties) {
+        StringBuilder queryString = new StringBuilder("SELECT ?object");
         properties.forEach(property -> {
-            queryString.append(" ?_" + property.getLocalName());
-            queryString.append(" ?_min_" + property.getLocalName());
-            queryString.append(" ?_max_" + property.getLocalName());
+            queryString.append(" ?_").append(property.getLocalName());
+            queryString.append(" ?_min_").append(property.getLocalName());
+            queryString.append(" ?_max_").append(property.getLocalName());
         });
         queryString.append("\nWHERE {\n");
-        queryString.append("  ?object a <" + anonymizationObject.getURI() + ">.\n");
+        queryString.append("  ?object a ?objectType .\n");
         properties.forEach(property -> {
+            String local = property.getLocalName();
             queryString.append("  OPTIONAL { \n");
-            queryString.append("    ?object ?" + property.getLocalName() + " ?_" + property.getLocalName() + ".\n");
+            queryString.append("    ?object ?" + local + " ?_" + local + ".\n");
             queryString.append("  }\n");
             queryString.append("  OPTIONAL { \n");
-            queryString.append("    ?object ?" + property.getLocalName() + " ?_" + property.getLocalName() + ".\n");
-            queryString.append("    ?_" + property.getLocalName() + " <" + Generalization.RDF_MAX + "> ?_max_"
-                    + property.getLocalName() + ".\n");
+            queryString.append("    ?object ?" + local + " ?_" + local + ".\n");
+            queryString.append("    ?_" + local + " <" + Generalization.RDF_MAX + "> ?_max_" + local + ".\n");
             queryString.append("  }\n");
             queryString.append("  OPTIONAL { \n");
-            queryString.append("    ?object ?" + property.getLocalName() + " ?_" + property.getLocalName() + ".\n");
-            queryString.append("    ?_" + property.getLocalName() + " <" + Generalization.RDF_MIN + "> ?_min_"
-                    + property.getLocalName() + ".\n");
+            queryString.append("    ?object ?" + local + " ?_" + local + ".\n");
+            queryString.append("    ?_" + local + " <" + Generalization.RDF_MIN + "> ?_min_" + local + ".\n");
             queryString.append("  }\n");
-            queryString.setParam(property.getLocalName(), property);
         });
         queryString.append("}");
-        return queryString;
+        return queryString.toString();
     }
 
-    static ParameterizedSparqlString createKAnonymityQuery(Collection<Resource> objects, Property property) {
-        String valuesBlock = objects.stream().map(res -> "?" + res.getLocalName()).collect(Collectors.joining(" "));
-
-        String query = "SELECT ?object ?value\n" +
-                "WHERE {\n" +
-                "  VALUES ?object {" + valuesBlock + " }\n" +
-                "  ?object ?property ?value .\n" +
-                "}";
-
-        ParameterizedSparqlString pss = new ParameterizedSparqlString(query);
-
-        pss.setParam("property", property.asNode());
-        objects.forEach(obj -> pss.setParam(obj.getLocalName(), obj));
-
-        return pss;
+    /**
+     * Template binding the KPI object to ?object and the k-anonymity property to ?property
+     */
+    static String createKAnonymityQuery() {
+        return """
+                SELECT ?value
+                WHERE {
+                  ?object ?property ?value .
+                }
+                """;
     }
 
     /**
-     * Builds a SPARQL query that returns, for a flat json object type, all
+     * Builds a SPARQL query that returns, for a flat json object type bound to ?flatJson, the other types of all
      * resources of that type
      */
-    public static ParameterizedSparqlString createTypesForResourcesQuery(Resource resource) {
-        String query = "PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#>\n" +
-                "SELECT DISTINCT ?resource ?type\n" +
-                "WHERE {\n" +
-                "  ?resource rdf:type ?flatJson .\n" +
-                "  ?resource rdf:type ?type .\n" +
-                "  FILTER(?type != ?flatJson)\n" +
-                "}";
-
-        ParameterizedSparqlString pss = new ParameterizedSparqlString(query);
-        pss.setParam("flatJson", resource);
-        return pss;
+    public static String createTypesForResourcesQuery() {
+        return """
+                PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#>
+                SELECT DISTINCT ?resource ?type
+                WHERE {
+                  ?resource rdf:type ?flatJson .
+                  ?resource rdf:type ?type .
+                  FILTER(?type != ?flatJson)
+                }
+                """;
     }
 
-    static ParameterizedSparqlString createAttributeInformationQuery(
-            Collection<Resource> objects,
-            Property hasAttribute,
-            Property nrBuckets,
-            Property anonymization) {
-        String valuesBlock = objects.stream().map(res -> "?" + res.getLocalName()).collect(Collectors.joining(" "));
-        String query = "SELECT ?kpiObject ?attribute ?anonymization ?nrBuckets\n" +
-                "WHERE {\n" +
-                "  VALUES ?kpiObject { " + valuesBlock + " }\n" +
-                "  ?kpiObject ?hasAttribute ?attribute .\n" +
-                "  OPTIONAL {?attribute ?nrBucketsAttribute ?nrBuckets . }\n" +
-                "  ?attribute ?anonymizationAttribute ?anonymization .\n" +
-                "}";
-        ParameterizedSparqlString queryString = new ParameterizedSparqlString(query);
-        objects.forEach(obj -> queryString.setParam(obj.getLocalName(), obj));
-        queryString.setParam("hasAttribute", hasAttribute);
-        queryString.setParam("nrBucketsAttribute", nrBuckets);
-        queryString.setParam("anonymizationAttribute", anonymization);
-        return queryString;
+    /**
+     * Template binding ?kpiObject, ?hasAttribute, ?nrBucketsAttribute and ?anonymizationAttribute
+     */
+    static String createAttributeInformationQuery() {
+        return """
+                SELECT ?attribute ?anonymization ?nrBuckets
+                WHERE {
+                  ?kpiObject ?hasAttribute ?attribute .
+                  OPTIONAL {?attribute ?nrBucketsAttribute ?nrBuckets . }
+                  ?attribute ?anonymizationAttribute ?anonymization .
+                }
+                """;
     }
 
 }
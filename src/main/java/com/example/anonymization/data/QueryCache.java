@@ -0,0 +1,212 @@
+package com.example.anonymization.data;
+
+import jakarta.annotation.PostConstruct;
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.query.QuerySolutionMap;
+import org.apache.jena.query.ResultSet;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.sparql.algebra.Algebra;
+import org.apache.jena.sparql.algebra.Op;
+import org.apache.jena.sparql.core.Substitute;
+import org.apache.jena.sparql.engine.QueryIterator;
+import org.apache.jena.sparql.engine.ResultSetStream;
+import org.apache.jena.sparql.engine.binding.BindingLib;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Cache of compiled queries by the id of their shape. The query templates of {@link QueryBuildingService} only depend
+ * on the local names of the properties; resources and properties are substituted into the compiled algebra when the
+ * query is executed, so a template is built, parsed and compiled once and shared by all requests and threads. The
+ * least recently used shapes are evicted once the cache is full. The statistics are published as the MXBean
+ * {@value #OBJECT_NAME}.
+ */
+@Service
+public class QueryCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryCache.class);
+
+    static final String OBJECT_NAME = "com.example.anonymization:type=QueryCache";
+
+    private static int maxSize = 1000;
+
+    private static final Map<String, PreparedQuery> queries = new LinkedHashMap<>(16, 0.75f, true);
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+    private static final LongAdder evictions = new LongAdder();
+
+    @Value("${anonymization.query-cache.max-size:1000}")
+    void setMaxSize(int maxSize) {
+        QueryCache.maxSize = maxSize;
+    }
+
+    @PostConstruct
+    void registerStatistics() {
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new Statistics(), name);
+            }
+        } catch (JMException e) {
+            logger.warn("Query cache statistics could not be registered: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @param id the id of the query shape, which identifies the template
+     * @param template creates the query template if the shape is not cached
+     * @return the compiled query
+     */
+    static PreparedQuery query(String id, Supplier<String> template) {
+        PreparedQuery query;
+        synchronized (queries) {
+            query = queries.get(id);
+        }
+        if (query != null) {
+            hits.increment();
+            return query;
+        }
+        misses.increment();
+        query = PreparedQuery.of(QueryFactory.create(template.get()));
+        synchronized (queries) {
+            PreparedQuery existing = queries.putIfAbsent(id, query);
+            query = existing != null ? existing : query;
+            evictLeastRecentlyUsed();
+        }
+        logger.debug("Query compiled [id={}, cached={}, hits={}, misses={}, evictions={}]",
+                id, size(), hits.sum(), misses.sum(), evictions.sum());
+        return query;
+    }
+
+    /**
+     * Removes the least recently used shapes until the cache holds at most the maximum size, which may have been
+     * lowered since they were added
+     */
+    private static void evictLeastRecentlyUsed() {
+        Iterator<PreparedQuery> eldest = queries.values().iterator();
+        while (queries.size() > maxSize && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    /**
+     * @return number of queries served from the cache
+     */
+    public static long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of queries that had to be compiled
+     */
+    public static long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return number of query shapes evicted from the full cache
+     */
+    public static long evictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return number of cached query shapes
+     */
+    public static int size() {
+        synchronized (queries) {
+            return queries.size();
+        }
+    }
+
+    /**
+     * Select query compiled to an algebra expression and optimized like queries executed by ARQ
+     */
+    record PreparedQuery(List<String> resultVars, Op op) {
+
+        static PreparedQuery of(Query query) {
+            return new PreparedQuery(query.getResultVars(), Algebra.optimize(Algebra.compile(query)));
+        }
+
+        /**
+         * @param model the model the query is executed on
+         * @param bindings the values substituted for variables of the query
+         * @return the rows of the query
+         */
+        Rows select(Model model, QuerySolutionMap bindings) {
+            Op bound = bindings.varNames().hasNext() ? Substitute.substitute(op, BindingLib.asBinding(bindings)) : op;
+            QueryIterator iterator = Algebra.exec(bound, model.getGraph());
+            return new Rows(ResultSetStream.create(resultVars, model, iterator), iterator);
+        }
+    }
+
+    /**
+     * Rows of an executed query, to be closed after use
+     */
+    record Rows(ResultSet resultSet, QueryIterator iterator) implements AutoCloseable {
+
+        @Override
+        public void close() {
+            iterator.close();
+        }
+    }
+
+    /**
+     * Management interface of the cache statistics
+     */
+    public interface StatisticsMXBean {
+
+        long getHitCount();
+
+        long getMissCount();
+
+        long getEvictionCount();
+
+        int getSize();
+
+        int getMaxSize();
+    }
+
+    private static final class Statistics implements StatisticsMXBean {
+
+        @Override
+        public long getHitCount() {
+            return hitCount();
+        }
+
+        @Override
+        public long getMissCount() {
+            return missCount();
+        }
+
+        @Override
+        public long getEvictionCount() {
+            return evictionCount();
+        }
+
+        @Override
+        public int getSize() {
+            return size();
+        }
+
+        @Override
+        public int getMaxSize() {
+            return maxSize;
+        }
+    }
+}
@@ -2,15 +2,23 @@ package com.example.anonymization.data;
 
 import com.example.anonymization.exceptions.AnonymizationException;
 import com.example.anonymization.exceptions.RequestModelException;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
 import org.apache.jena.query.*;
 import org.apache.jena.rdf.model.*;
 import org.apache.jena.update.UpdateAction;
 import org.apache.jena.update.UpdateRequest;
+import org.apache.jena.util.iterator.ExtendedIterator;
+import org.apache.jena.vocabulary.RDF;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static com.example.anonymization.service.KpiService.*;
@@ -21,6 +29,34 @@ public class QueryService {
     private static final Logger logger = LoggerFactory.getLogger(QueryService.class);
 
     public static final String SOYA_URL = "http://ns.ownyourdata.eu/ns/soya-context/";
+    public static final String SOYA_NS = "https://w3id.org/soya/ns#";
+
+    private static boolean graphIndexEnabled = true;
+
+    @Value("${anonymization.graph-index.enabled:true}")
+    void setGraphIndexEnabled(boolean graphIndexEnabled) {
+        QueryService.graphIndexEnabled = graphIndexEnabled;
+    }
+
+    /**
+     * @return the index of the request model, or null if the queries are run against the graph
+     */
+    private static GraphIndex index(Model model) {
+        return graphIndexEnabled ? GraphIndex.of(model) : null;
+    }
+
+    /**
+     * Executes a cached query with the given variable bindings
+     * @param id the id of the query shape
+     * @param template creates the query template if the shape is not cached
+     */
+    private static QueryCache.Rows execute(
+            Model model,
+            String id,
+            Supplier<String> template,
+            QuerySolutionMap bindings) {
+        return QueryCache.query(id, template).select(model, bindings);
+    }
 
     /**
      * Fetches the configuration from an input model
@@ -32,14 +68,16 @@ public class QueryService {
     public static List<ConfigurationResult> getConfigurations(Model model) {
         logger.debug("Querying model for anonymization configurations");
         List<ConfigurationResult> configurations = new ArrayList<>();
-        try (QueryExecution qexec = QueryExecutionFactory.create(QueryBuildingService.createConfigQuery(), model)) {
-            ResultSet rs = qexec.execSelect();
+        try (QueryCache.Rows rows = execute(
+                model, "config",
+                QueryBuildingService::createConfigQuery, new QuerySolutionMap())) {
+            ResultSet rs = rows.resultSet();
             while (rs.hasNext()) {
                 // TODO maybe include check for Literal in query
                 QuerySolution solution = rs.nextSolution();
                 configurations.add(new ConfigurationResult(
-                        solution.getResource("?anonymizationObject"),
-                        ResourceFactory.createProperty(solution.getResource("?property").getURI()),
+                        ResourceFactory.createResource(solution.getResource("?anonymizationObject").getURI()),
+                        NodeCache.property(solution.getResource("?property").getURI()),
                         solution.getResource("?datatype"),
                         solution.getLiteral("?anonymization")));
             }
@@ -48,17 +86,64 @@ public class QueryService {
         return configurations;
     }
 
-    public static List<String> getAttributeOrder(Model model, Resource attribute) {
-        List<String> attributes = new ArrayList<>();
-        try (QueryExecution qexec = QueryExecutionFactory
-                .create(QueryBuildingService.createAttributeOrderQuery(attribute).asQuery(), model)) {
-            ResultSet rs = qexec.execSelect();
-            while (rs.hasNext()) {
-                QuerySolution solution = rs.nextSolution();
-                attributes.add(solution.get("?value").toString());
+    /**
+     * Extracts the attribute orders of all object generalizations in one pass over the classifications
+     *
+     * @param model the configuration model
+     * @return mapping of attribute URIs to their attribute order
+     */
+    public static Map<String, List<String>> getAttributeOrders(Model model) {
+        Property classification = model.createProperty(SOYA_NS + "classification");
+        Property attributeOrder = model.createProperty(SOYA_NS + "attributeOrder");
+        Map<String, List<String>> attributeOrders = new HashMap<>();
+        model.listStatements(null, classification, (RDFNode) null).forEachRemaining(statement -> {
+            if (!statement.getSubject().isURIResource() || !statement.getObject().isResource()) {
+                return;
             }
-        }
-        return attributes;
+            statement.getObject().asResource().listProperties(attributeOrder).forEachRemaining(order -> {
+                List<String> attributes = attributeOrders.computeIfAbsent(
+                        statement.getSubject().getURI(), _ -> new ArrayList<>());
+                if (order.getObject().canAs(RDFList.class)) {
+                    order.getObject().as(RDFList.class).iterator()
+                            .forEachRemaining(value -> attributes.add(value.toString()));
+                }
+            });
+        });
+        return attributeOrders;
+    }
+
+    /**
+     * Parses the query for the properties of an object type that are used in the data
+     *
+     * @param configs    configured properties
+     * @param objectType the object type to which anonymization is applied
+     * @return the parsed query to be used with {@link #getProperties(Model, Query, Set, Resource)}
+     */
+    public static Query preparePropertyQuery(Set<Property> configs, Resource objectType) {
+        return QueryBuildingService.createPropertyQuery(configs, objectType).asQuery();
+    }
+
+    /**
+     * Parses the query for the groups of identical generalized values
+     *
+     * @param properties          properties by which the result is grouped
+     * @param anonymizationObject the object type for which the data is returned
+     * @return the parsed query to be used with {@link #getGeneralizationGroups(Model, Query, Set, Resource)}
+     */
+    public static Query prepareGroupsQuery(Set<Property> properties, Resource anonymizationObject) {
+        return QueryBuildingService.createGroupsQuery(properties, anonymizationObject).asQuery();
+    }
+
+    /**
+     * Parses the update deleting the original values of the given properties
+     *
+     * @param properties the properties that are removed
+     * @param objectType the object type for which the data is removed
+     * @return the parsed update to be used with
+     *         {@link #deleteOriginalProperties(Model, UpdateRequest, Set, Resource)}
+     */
+    public static UpdateRequest prepareDeleteOriginalProperties(Set<Property> properties, Resource objectType) {
+        return QueryBuildingService.deleteOriginalPropertyQuery(properties, objectType).asUpdate();
     }
 
     /**
@@ -73,27 +158,101 @@ public class QueryService {
             Model model,
             Collection<Property> properties,
             Resource objectType) {
-        Query query = QueryBuildingService.createDataModelQuery(properties, objectType).asQuery();
         Map<Resource, Map<Property, RDFNode>> results = new HashMap<>();
-        try (QueryExecution qexec = QueryExecutionFactory.create(query, model)) {
-            ResultSet resultSet = qexec.execSelect();
-            while (resultSet.hasNext()) {
-                QuerySolution solution = resultSet.nextSolution();
-                Map<Property, RDFNode> propertyValues = new HashMap<>();
-                properties.forEach(property -> {
-                    RDFNode value = solution.get("_" + property.getLocalName());
-                    if (value != null) {
-                        propertyValues.put(property, value);
+        extractData(model, properties, objectType,
+                object -> results.put(object, new HashMap<>()),
+                (object, property, value) -> results.get(object).put(property, value));
+        return results;
+    }
+
+    /**
+     * Extracts the values of the given attributes per attribute. The resources of the object type are listed once
+     * and the value of each attribute is read directly from the graph index or the graph. If a resource has several
+     * values for an attribute, the first one found is used.
+     *
+     * @param model      the input model
+     * @param properties attributes for which data should be fetched
+     * @param objectType the type for which data should be fetched
+     * @return mapping of each attribute to the resources of the object type with a value and their value
+     */
+    public static Map<Property, Map<Resource, RDFNode>> getAttributeData(
+            Model model,
+            Collection<Property> properties,
+            Resource objectType) {
+        Map<Property, Map<Resource, RDFNode>> results = new HashMap<>();
+        properties.forEach(property -> results.put(property, new HashMap<>()));
+        extractData(model, properties, objectType,
+                object -> {
+                },
+                (object, property, value) -> results.get(property).put(object, value));
+        return results;
+    }
+
+    private interface ValueConsumer {
+        void accept(Resource object, Property property, RDFNode value);
+    }
+
+    private static void extractData(
+            Model model,
+            Collection<Property> properties,
+            Resource objectType,
+            Consumer<Resource> objectConsumer,
+            ValueConsumer valueConsumer) {
+        List<Property> propertyList = List.copyOf(properties);
+        Node[] predicates = propertyList.stream().map(Property::asNode).toArray(Node[]::new);
+        int[] multipleValues = new int[predicates.length];
+        int objects = 0;
+        GraphIndex index = index(model);
+        if (index != null) {
+            for (Node subject : index.subjects(objectType.asNode())) {
+                Resource object = model.wrapAsResource(subject);
+                objectConsumer.accept(object);
+                objects++;
+                for (int i = 0; i < predicates.length; i++) {
+                    List<Node> values = index.values(subject, predicates[i]);
+                    if (!values.isEmpty()) {
+                        valueConsumer.accept(object, propertyList.get(i), model.asRDFNode(values.getFirst()));
+                        if (values.size() > 1) {
+                            multipleValues[i]++;
+                        }
                     }
-                });
-                results.put(solution.getResource("object"), propertyValues);
+                }
+            }
+        } else {
+            Graph graph = model.getGraph();
+            ResIterator subjects = model.listSubjectsWithProperty(RDF.type, objectType);
+            try {
+                while (subjects.hasNext()) {
+                    Resource object = subjects.next();
+                    objectConsumer.accept(object);
+                    objects++;
+                    for (int i = 0; i < predicates.length; i++) {
+                        ExtendedIterator<Triple> values = graph.find(object.asNode(), predicates[i], Node.ANY);
+                        try {
+                            if (values.hasNext()) {
+                                valueConsumer.accept(
+                                        object, propertyList.get(i), model.asRDFNode(values.next().getObject()));
+                                if (values.hasNext()) {
+                                    multipleValues[i]++;
+                                }
+                            }
+                        } finally {
+                            values.close();
+                        }
+                    }
+                }
+            } finally {
+                subjects.close();
             }
-        } catch (Exception ex) {
-            logger.warn("Error fetching data for anonymization [objectType={}]: {}",
-                    objectType.getURI(), ex.getMessage());
-            throw new RequestModelException("Error during fetching data for anonymization: " + ex.getMessage());
         }
-        return results;
+        for (int i = 0; i < predicates.length; i++) {
+            if (multipleValues[i] > 0) {
+                logger.warn("Attribute with several values per object, only one is used [objectType={}, property={}, "
+                        + "objects={}]", objectType.getURI(), propertyList.get(i).getURI(), multipleValues[i]);
+            }
+        }
+        logger.debug("Data extracted [objectType={}, attributes={}, objects={}]",
+                objectType.getURI(), predicates.length, objects);
     }
 
     /**
@@ -104,14 +263,15 @@ public class QueryService {
      * @return mapping of resources of the object type with their property data
      */
     public static Map<Property, Literal> getDataKpi(Model model, Set<Property> properties) {
-        Query query = QueryBuildingService.createKpiDataQuery(
-                properties,
-                model.getResource(SOYA_URL + "kpiObjectAnonymizationDemo2") // TODO query for the right url (kpiObject +
-                                                                            // local url of resource)
-        ).asQuery();
+        QuerySolutionMap bindings = new QuerySolutionMap();
+        // TODO query for the right url (kpiObject + local url of resource)
+        bindings.add("object", model.getResource(SOYA_URL + "kpiObjectAnonymizationDemo2"));
+        properties.forEach(property -> bindings.add(property.getLocalName(), property));
         Map<Property, Literal> results = new HashMap<>();
-        try (QueryExecution qexec = QueryExecutionFactory.create(query, model)) {
-            ResultSet resultSet = qexec.execSelect();
+        try (QueryCache.Rows rows = execute(
+                model, QueryBuildingService.shape("kpiData", properties),
+                () -> QueryBuildingService.createKpiDataQuery(properties), bindings)) {
+            ResultSet resultSet = rows.resultSet();
             QuerySolution solution = resultSet.nextSolution();
             properties.forEach(property -> {
                 Literal value = solution.getLiteral("_" + property.getLocalName());
@@ -137,7 +297,27 @@ public class QueryService {
      *                   applied
      */
     public static Set<Property> getProperties(Model model, Set<Property> configs, Resource objectType) {
-        Query query = QueryBuildingService.createPropertyQuery(configs, objectType).asQuery();
+        return getProperties(model, preparePropertyQuery(configs, objectType), configs, objectType);
+    }
+
+    /**
+     * Extracts the parameters to with anonymization should be applied with a prepared query
+     *
+     * @param model      the input model
+     * @param query      the prepared property query, used if the graph index is disabled
+     * @param configs    configured properties the query was prepared for
+     * @param objectType definition of the object type to which anonymization is
+     *                   applied
+     */
+    public static Set<Property> getProperties(
+            Model model,
+            Query query,
+            Set<Property> configs,
+            Resource objectType) {
+        GraphIndex index = index(model);
+        if (index != null) {
+            return index.getProperties(model, configs, objectType);
+        }
         Set<Property> properties = new HashSet<>();
         try (QueryExecution qexec = QueryExecutionFactory.create(query, model)) {
             ResultSet resultSet = qexec.execSelect();
@@ -163,9 +343,29 @@ public class QueryService {
      * @param objectType the object type for which the data is removed
      */
     public static void deleteOriginalProperties(Model model, Set<Property> properties, Resource objectType) {
+        deleteOriginalProperties(model, prepareDeleteOriginalProperties(properties, objectType), properties,
+                objectType);
+    }
+
+    /**
+     * Deletes the original values with a prepared update
+     *
+     * @param model         the input model
+     * @param updateRequest the prepared delete update, used if the graph index is disabled
+     * @param properties    the properties the update was prepared for
+     * @param objectType    the object type for which the data is removed
+     */
+    public static void deleteOriginalProperties(
+            Model model,
+            UpdateRequest updateRequest,
+            Set<Property> properties,
+            Resource objectType) {
         try {
-            UpdateRequest updateRequest = QueryBuildingService.deleteOriginalPropertyQuery(properties, objectType)
-                    .asUpdate();
+            GraphIndex index = index(model);
+            if (index != null) {
+                index.deleteOriginalProperties(model, properties, objectType);
+                return;
+            }
             UpdateAction.execute(updateRequest, model);
         } catch (Exception ex) {
             logger.error("Error deleting original properties [objectType={}]: {}",
@@ -185,10 +385,19 @@ public class QueryService {
      */
     public static List<RandomizationResult> getRandomizationResults(Model model, Resource anonymizationObject,
             Property property) {
-        Query query = QueryBuildingService.createRandomizationQuery(model, anonymizationObject, property).asQuery();
+        GraphIndex index = index(model);
+        if (index != null) {
+            return index.getRandomizationResults(model, anonymizationObject, property);
+        }
+        QuerySolutionMap bindings = new QuerySolutionMap();
+        bindings.add("objectType", anonymizationObject);
+        bindings.add("originalProperty", property);
+        bindings.add("randomizedProperty", NodeCache.property(property.getURI() + "_randomized"));
         List<RandomizationResult> results = new ArrayList<>();
-        try (QueryExecution qe = QueryExecutionFactory.create(query, model)) {
-            ResultSet rs = qe.execSelect();
+        try (QueryCache.Rows rows = execute(
+                model, "randomization",
+                QueryBuildingService::createRandomizationQuery, bindings)) {
+            ResultSet rs = rows.resultSet();
             while (rs.hasNext()) {
                 QuerySolution sol = rs.next();
                 results.add(new RandomizationResult(
@@ -214,16 +423,37 @@ public class QueryService {
      */
     public static List<Set<Resource>> getGeneralizationGroups(Model model, Resource anonymizationObject,
             Set<Property> properties) {
-        ParameterizedSparqlString queryString = QueryBuildingService.createGroupsQuery(properties, anonymizationObject);
-        Query query = queryString.asQuery();
+        return getGeneralizationGroups(model, prepareGroupsQuery(properties, anonymizationObject), properties,
+                anonymizationObject);
+    }
+
+    /**
+     * Extracts a group representation of the generalization result with a prepared query
+     *
+     * @param model               the input model
+     * @param query               the prepared groups query, used if the graph index is disabled
+     * @param properties          the properties the query was prepared for
+     * @param anonymizationObject the object type for which the data is returned
+     * @return groups of resources with the same property values
+     */
+    public static List<Set<Resource>> getGeneralizationGroups(Model model, Query query,
+            Set<Property> properties, Resource anonymizationObject) {
+        GraphIndex index = index(model);
+        if (index != null) {
+            return index.getGeneralizationGroups(model, properties, anonymizationObject);
+        }
         List<Set<Resource>> results = new ArrayList<>();
         try (QueryExecution qe = QueryExecutionFactory.create(query, model)) {
             ResultSet rs = qe.execSelect();
             while (rs.hasNext()) {
                 QuerySolution sol = rs.next();
+                String values = sol.getLiteral("values").getLexicalForm();
+                if (values.isEmpty()) {
+                    // the aggregation over no objects yields a single group without members
+                    continue;
+                }
                 results.add(
-                        Arrays.stream(String.valueOf(sol.get("values"))
-                                .split(",")).map(uri -> model.createResource(uri.trim()))
+                        Arrays.stream(values.split(",")).map(uri -> model.createResource(uri.trim()))
                                 .collect(Collectors.toSet()));
             }
         } catch (Exception ex) {
@@ -242,12 +472,18 @@ public class QueryService {
      * @return mapping of resources of the object type with their property data
      */
     public static Map<Resource, Map<Property, RDFNode>> getAllData(Model model, Resource objectType) {
+        GraphIndex index = index(model);
+        if (index != null) {
+            return getData(model, index.getLiteralProperties(model, objectType), objectType);
+        }
         Set<Property> properties = new HashSet<>();
-        ParameterizedSparqlString pss = QueryBuildingService.createPropertyQuery(objectType);
-        try (QueryExecution qexec = QueryExecutionFactory.create(pss.asQuery(), model)) {
-            ResultSet rs = qexec.execSelect();
+        QuerySolutionMap bindings = new QuerySolutionMap();
+        bindings.add("objectType", objectType);
+        try (QueryCache.Rows rows = execute(model, "property", QueryBuildingService::createPropertyQuery, bindings)) {
+            ResultSet rs = rows.resultSet();
             while (rs.hasNext()) {
                 QuerySolution solution = rs.nextSolution();
+                // predicates of the request data are not cached, see NodeCache
                 properties.add(ResourceFactory.createProperty(solution.getResource("?predicate").getURI()));
             }
         }
@@ -269,11 +505,18 @@ public class QueryService {
             Model model,
             Resource objectType,
             Set<Property> properties) {
-        ParameterizedSparqlString queryString = QueryBuildingService.createGeneralizationData(properties, objectType);
-        Query query = queryString.asQuery();
+        GraphIndex index = index(model);
+        if (index != null) {
+            return index.getGeneralizationData(model, objectType, properties);
+        }
+        QuerySolutionMap bindings = new QuerySolutionMap();
+        bindings.add("objectType", objectType);
+        properties.forEach(property -> bindings.add(property.getLocalName(), property));
         Map<Resource, Map<Property, Literal[]>> results = new HashMap<>();
-        try (QueryExecution qe = QueryExecutionFactory.create(query, model)) {
-            ResultSet rs = qe.execSelect();
+        try (QueryCache.Rows rows = execute(
+                model, QueryBuildingService.shape("generalizationData", properties),
+                () -> QueryBuildingService.createGeneralizationData(properties), bindings)) {
+            ResultSet rs = rows.resultSet();
             while (rs.hasNext()) {
                 QuerySolution sol = rs.next();
                 Map<Property, Literal[]> values = new HashMap<>();
@@ -302,16 +545,23 @@ public class QueryService {
      * @return mapping of object types with their k-anonymity value
      */
     public static Map<Resource, Long> getKAnonymity(Model model, Collection<Resource> objectTypes) {
-        ParameterizedSparqlString queryString = QueryBuildingService.createKAnonymityQuery(
-                objectTypes.stream().map(o -> model.getResource(KPI_OBJECT_URI + o.getLocalName())).toList(),
-                model.createProperty(K_ANONYMITY));
-        Query query = queryString.asQuery();
+        GraphIndex index = index(model);
+        if (index != null) {
+            return index.getKAnonymity(model, objectTypes);
+        }
         Map<Resource, Long> results = new HashMap<>();
-        try (QueryExecution qe = QueryExecutionFactory.create(query, model)) {
-            ResultSet rs = qe.execSelect();
-            while (rs.hasNext()) {
-                QuerySolution sol = rs.next();
-                results.put(sol.getResource("object"), sol.getLiteral("value").getLong());
+        for (Resource objectType : objectTypes) {
+            Resource kpiObject = model.getResource(KPI_OBJECT_URI + objectType.getLocalName());
+            QuerySolutionMap bindings = new QuerySolutionMap();
+            bindings.add("object", kpiObject);
+            bindings.add("property", NodeCache.property(K_ANONYMITY));
+            try (QueryCache.Rows rows = execute(
+                    model, "kAnonymity",
+                    QueryBuildingService::createKAnonymityQuery, bindings)) {
+                ResultSet rs = rows.resultSet();
+                while (rs.hasNext()) {
+                    results.put(kpiObject, rs.next().getLiteral("value").getLong());
+                }
             }
         }
         return results;
@@ -325,11 +575,17 @@ public class QueryService {
      * @return mapping of resources with their types
      */
     public static Map<Resource, List<Resource>> getTypesForResources(Model model, Resource objectType) {
-        ParameterizedSparqlString queryString = QueryBuildingService.createTypesForResourcesQuery(objectType);
-        Query query = queryString.asQuery();
+        GraphIndex index = index(model);
+        if (index != null) {
+            return index.getTypesForResources(model, objectType);
+        }
+        QuerySolutionMap bindings = new QuerySolutionMap();
+        bindings.add("flatJson", objectType);
         Map<Resource, List<Resource>> results = new HashMap<>();
-        try (QueryExecution qe = QueryExecutionFactory.create(query, model)) {
-            ResultSet rs = qe.execSelect();
+        try (QueryCache.Rows rows = execute(
+                model, "typesForResources",
+                QueryBuildingService::createTypesForResourcesQuery, bindings)) {
+            ResultSet rs = rows.resultSet();
             while (rs.hasNext()) {
                 QuerySolution sol = rs.next();
                 Resource object = sol.getResource("resource");
@@ -351,23 +607,30 @@ public class QueryService {
      */
     public static Map<Resource, List<QueryService.AttributeInformation>> getAttributeInformation(
             Model model, Collection<Resource> objectTypes) {
-        ParameterizedSparqlString queryString = QueryBuildingService.createAttributeInformationQuery(
-                objectTypes.stream().map(o -> model.getResource(KPI_OBJECT_URI + o.getLocalName())).toList(),
-                model.createProperty(HAS_ATTRIBUTE_URI),
-                model.createProperty(NR_BUCKETS_URI),
-                model.createProperty(ANONYMIZATION_TYP_URI));
-        Query query = queryString.asQuery();
+        GraphIndex index = index(model);
+        if (index != null) {
+            return index.getAttributeInformation(model, objectTypes);
+        }
         Map<Resource, List<QueryService.AttributeInformation>> result = new HashMap<>();
-        try (QueryExecution qe = QueryExecutionFactory.create(query, model)) {
-            ResultSet rs = qe.execSelect();
-            while (rs.hasNext()) {
-                QuerySolution sol = rs.next();
-                Long nrBuckets = sol.getLiteral("nrBuckets") == null ? null : sol.getLiteral("nrBuckets").getLong();
-                result.putIfAbsent(sol.getResource("kpiObject"), new ArrayList<>());
-                result.get(sol.getResource("kpiObject")).add(new AttributeInformation(
-                        sol.getResource("attribute"),
-                        sol.getLiteral("anonymization").toString(),
-                        nrBuckets));
+        for (Resource objectType : objectTypes) {
+            Resource kpiObject = model.getResource(KPI_OBJECT_URI + objectType.getLocalName());
+            QuerySolutionMap bindings = new QuerySolutionMap();
+            bindings.add("kpiObject", kpiObject);
+            bindings.add("hasAttribute", NodeCache.property(HAS_ATTRIBUTE_URI));
+            bindings.add("nrBucketsAttribute", NodeCache.property(NR_BUCKETS_URI));
+            bindings.add("anonymizationAttribute", NodeCache.property(ANONYMIZATION_TYP_URI));
+            try (QueryCache.Rows rows = execute(
+                    model, "attributeInformation",
+                    QueryBuildingService::createAttributeInformationQuery, bindings)) {
+                ResultSet rs = rows.resultSet();
+                while (rs.hasNext()) {
+                    QuerySolution sol = rs.next();
+                    Long nrBuckets = sol.getLiteral("nrBuckets") == null ? null : sol.getLiteral("nrBuckets").getLong();
+                    result.computeIfAbsent(kpiObject, k -> new ArrayList<>()).add(new AttributeInformation(
+                            sol.getResource("attribute"),
+                            sol.getLiteral("anonymization").toString(),
+                            nrBuckets));
+                }
             }
         }
         return result;
@@ -0,0 +1,113 @@
+package com.example.anonymization.data;
+
+import org.apache.jena.dboe.base.file.Location;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.ReadWrite;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.tdb2.TDB2Factory;
+import org.apache.jena.tdb2.sys.TDBInternal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Model of one request, either in memory or in a temporary TDB2 dataset. A dataset on disk is used within one write
+ * transaction on the request thread and is deleted when the request model is closed.
+ *
+ * @see SpillService#open(long)
+ */
+public final class RequestModel implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestModel.class);
+
+    private final Model model;
+    private final Dataset dataset;
+    private final Path location;
+    private final boolean compact;
+    private final List<Model> outputs = new ArrayList<>();
+
+    private RequestModel(Model model, Dataset dataset, Path location, boolean compact) {
+        this.model = model;
+        this.dataset = dataset;
+        this.location = location;
+        this.compact = compact;
+    }
+
+    static RequestModel inMemory(boolean compact) {
+        return new RequestModel(memoryModel(compact), null, null, compact);
+    }
+
+    static RequestModel onDisk(Path location) {
+        // the connection is expelled from the connection cache of TDB2 and shut down on close
+        Dataset dataset = TDB2Factory.connectDataset(Location.create(location));
+        dataset.begin(ReadWrite.WRITE);
+        return new RequestModel(dataset.getDefaultModel(), dataset, location, false);
+    }
+
+    private static Model memoryModel(boolean compact) {
+        return compact ? ModelFactory.createModelForGraph(new CompactGraph()) : ModelFactory.createDefaultModel();
+    }
+
+    /**
+     * @return the model the request data is loaded into
+     */
+    public Model model() {
+        return model;
+    }
+
+    /**
+     * @return true if the request model is stored in a dataset on disk
+     */
+    public boolean isOnDisk() {
+        return dataset != null;
+    }
+
+    /**
+     * @return an empty model stored like the request model
+     */
+    public Model createModel() {
+        Model output = dataset == null
+                ? memoryModel(compact)
+                : dataset.getNamedModel("urn:anonymization:output:" + outputs.size());
+        outputs.add(output);
+        return output;
+    }
+
+    @Override
+    public void close() {
+        if (dataset == null) {
+            return;
+        }
+        try {
+            dataset.abort();
+            dataset.end();
+        } finally {
+            TDBInternal.expel(dataset.asDatasetGraph());
+            delete();
+        }
+    }
+
+    private void delete() {
+        try (Stream<Path> files = Files.walk(location)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> {
+                try {
+                    Files.delete(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            logger.debug("Request dataset deleted [location={}]", location);
+        } catch (IOException | UncheckedIOException e) {
+            logger.warn("Request dataset could not be deleted [location={}]: {}", location, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.anonymization.data;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.lang.ref.Cleaner;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Request content written once and read afterwards. The content is kept in memory up to a limit and moved to a
+ * temporary file in the spill directory when it grows beyond it. The file is deleted by {@link #delete()}, or when
+ * the buffer is no longer referenced.
+ *
+ * @see SpillService#buffer()
+ */
+public final class SpillBuffer extends OutputStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpillBuffer.class);
+    private static final Cleaner cleaner = Cleaner.create();
+
+    private final long limit;
+    private final Path directory;
+    private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+    private OutputStream file;
+    private Path path;
+    private Cleaner.Cleanable cleanable;
+    private long size = 0;
+
+    SpillBuffer(long limit, Path directory) {
+        this.limit = limit;
+        this.directory = directory;
+    }
+
+    /**
+     * @return a closed buffer with the given content
+     */
+    public static SpillBuffer of(byte[] content) {
+        SpillBuffer buffer = new SpillBuffer(Long.MAX_VALUE, null);
+        buffer.memory.writeBytes(content);
+        buffer.size = content.length;
+        return buffer;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        target(1).write(b);
+        size++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        target(len).write(b, off, len);
+        size += len;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (file != null) {
+            file.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (file != null) {
+            file.close();
+        }
+    }
+
+    /**
+     * @return number of bytes written
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return true if the content was moved to a file
+     */
+    public boolean isSpilled() {
+        return path != null;
+    }
+
+    /**
+     * @return stream over the content, to be used after the buffer is closed
+     */
+    public InputStream openStream() throws IOException {
+        return path != null
+                ? new BufferedInputStream(Files.newInputStream(path))
+                : new ByteArrayInputStream(memory.toByteArray());
+    }
+
+    /**
+     * Releases the content and deletes the file
+     */
+    public void delete() {
+        memory = new ByteArrayOutputStream();
+        if (cleanable != null) {
+            cleanable.clean();
+        }
+    }
+
+    private OutputStream target(int length) throws IOException {
+        if (file == null && size + length > limit) {
+            path = Files.createTempFile(directory, "anonymization-", ".data");
+            cleanable = cleaner.register(this, new DeleteFile(path));
+            file = new BufferedOutputStream(Files.newOutputStream(path));
+            memory.writeTo(file);
+            memory = new ByteArrayOutputStream();
+        }
+        return file != null ? file : memory;
+    }
+
+    private record DeleteFile(Path path) implements Runnable {
+
+        @Override
+        public void run() {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                logger.warn("Spilled request content could not be deleted [path={}]: {}",
+                        path, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.anonymization.data;
+
+import com.example.anonymization.exceptions.AnonymizationException;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.sparql.core.GraphView;
+import org.apache.jena.tdb2.DatabaseMgr;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Decides where the model of a request is kept. Requests from the configured size on are loaded into a temporary
+ * TDB2 dataset on local disk instead of the heap, so inputs larger than the memory can be anonymized. Other requests
+ * are kept in a {@link CompactGraph} or in a general purpose in-memory graph. Request bodies that are read before
+ * the model is opened are kept in a {@link SpillBuffer} that moves to the same directory from the buffer size on.
+ */
+@Service
+public class SpillService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpillService.class);
+
+    private static boolean enabled = false;
+    private static boolean compactGraph = true;
+    private static DataSize threshold = DataSize.ofGigabytes(1);
+    private static Path directory = Path.of(System.getProperty("java.io.tmpdir"));
+    private static DataSize bufferSize = DataSize.ofMegabytes(10);
+
+    @Value("${anonymization.spill.enabled:false}")
+    void setEnabled(boolean enabled) {
+        SpillService.enabled = enabled;
+    }
+
+    @Value("${anonymization.compact-graph.enabled:true}")
+    void setCompactGraph(boolean compactGraph) {
+        SpillService.compactGraph = compactGraph;
+    }
+
+    @Value("${anonymization.spill.threshold:1GB}")
+    void setThreshold(DataSize threshold) {
+        SpillService.threshold = threshold;
+    }
+
+    @Value("${anonymization.spill.directory:${java.io.tmpdir}}")
+    void setDirectory(String directory) {
+        SpillService.directory = Path.of(directory);
+    }
+
+    @Value("${anonymization.spill.buffer-size:10MB}")
+    void setBufferSize(DataSize bufferSize) {
+        SpillService.bufferSize = bufferSize;
+    }
+
+    /**
+     * Creates the model for a request
+     * @param size the size of the request data in bytes, negative if unknown
+     * @return the request model, to be closed when the request ends
+     */
+    public static RequestModel open(long size) {
+        boolean spill = size < 0 ? threshold.toBytes() == 0 : size >= threshold.toBytes();
+        if (!enabled || !spill) {
+            return RequestModel.inMemory(compactGraph);
+        }
+        try {
+            Files.createDirectories(directory);
+            Path location = Files.createTempDirectory(directory, "anonymization-");
+            logger.info("Spilling request to disk [size={}, location={}]", size, location);
+            return RequestModel.onDisk(location);
+        } catch (IOException e) {
+            throw new AnonymizationException("The request data could not be stored on disk: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @param graph a graph of a request model
+     * @return true if the graph is stored on disk
+     */
+    public static boolean isSpilled(Graph graph) {
+        return graph instanceof GraphView view && DatabaseMgr.isTDB2(view.getDataset());
+    }
+
+    /**
+     * @return true if requests from the threshold on are stored on disk
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Creates a buffer for request content that moves to the spill directory from the buffer size on, independent of
+     * whether request models are spilled
+     * @return the buffer, to be deleted when the content is no longer needed
+     */
+    public static SpillBuffer buffer() {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new AnonymizationException("The request data could not be stored on disk: " + e.getMessage());
+        }
+        return new SpillBuffer(bufferSize.toBytes(), directory);
+    }
+
+    /**
+     * Reads request content of unknown size into a {@link #buffer()}, so its size is known before the model is
+     * opened
+     * @return the closed buffer
+     */
+    public static SpillBuffer spool(InputStream content) throws IOException {
+        SpillBuffer buffer = buffer();
+        try (buffer) {
+            content.transferTo(buffer);
+        } catch (IOException | RuntimeException e) {
+            buffer.delete();
+            throw e;
+        }
+        return buffer;
+    }
+}
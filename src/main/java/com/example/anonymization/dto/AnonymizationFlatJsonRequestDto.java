@@ -1,14 +1,12 @@
 package com.example.anonymization.dto;
 
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 
-import java.util.List;
-import java.util.Map;
-
 @Data
 public class AnonymizationFlatJsonRequestDto {
 
@@ -20,9 +18,9 @@ public class AnonymizationFlatJsonRequestDto {
         @NotBlank(message = "Prefix is mandatory")
         private String prefix;
 
-        @Schema(description = "Data to be anonymized")
-        @NotEmpty(message = "data is mandatory")
-        private List<Map<String, Object>> data;
+        @ArraySchema(arraySchema = @Schema(description = "Data to be anonymized"), schema = @Schema(type = "object"))
+        @NotNull(message = "data is mandatory")
+        private FlatJsonPayload data;
 
         @Schema(description = "If true, KPIs will be calculated and included in the response.", defaultValue = "true")
         private boolean calculateKpi = true;
@@ -37,6 +35,12 @@ public class AnonymizationFlatJsonRequestDto {
         @Schema(description = "If true, adjusted attributes will be used for anonymization.", defaultValue = "true")
         private boolean useAdjustedAttributes = true;
 
+        @AssertTrue(message = "data is mandatory")
+        @Schema(hidden = true)
+        public boolean isDataPresent() {
+                return data == null || data.size() > 0;
+        }
+
         @AssertTrue(message = "useAdjustedAttributes must be true when includeOriginalData is true")
         @Schema(hidden = true)
         public boolean isValidAttributeConfiguration() {
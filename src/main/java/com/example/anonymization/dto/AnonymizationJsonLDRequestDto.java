@@ -1,6 +1,5 @@
 package com.example.anonymization.dto;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.NotBlank;
@@ -17,9 +16,9 @@ public class AnonymizationJsonLDRequestDto {
         @NotBlank(message = "configurationUrl is mandatory")
         private String configurationUrl;
 
-        @Schema(description = "Data to be anonymized", requiredMode = Schema.RequiredMode.REQUIRED)
+        @Schema(description = "Data to be anonymized", type = "object", requiredMode = Schema.RequiredMode.REQUIRED)
         @NotNull(message = "data is mandatory")
-        private JsonNode data;
+        private JsonLdPayload data;
 
         @Schema(description = "If true, KPIs will be calculated and included in the response.", defaultValue = "true")
         private boolean calculateKpi = true;
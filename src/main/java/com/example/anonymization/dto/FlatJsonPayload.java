@@ -0,0 +1,154 @@
+package com.example.anonymization.dto;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Flat JSON data of a request read directly from the token stream. Every distinct key is stored once and rows refer
+ * to it by index. Scalar values are kept in the string form the anonymization uses, and repeated values share one
+ * string instance. Nested objects and arrays are bound as maps and lists.
+ */
+@JsonDeserialize(using = FlatJsonPayload.Deserializer.class)
+public final class FlatJsonPayload {
+
+    private final List<String> keys;
+    private final int[][] rowKeys;
+    private final Object[][] rowValues;
+
+    public FlatJsonPayload(List<String> keys, int[][] rowKeys, Object[][] rowValues) {
+        this.keys = keys;
+        this.rowKeys = rowKeys;
+        this.rowValues = rowValues;
+    }
+
+    /**
+     * @return number of rows
+     */
+    public int size() {
+        return rowKeys.length;
+    }
+
+    /**
+     * @return the distinct keys in the order they first occur
+     */
+    public List<String> keys() {
+        return keys;
+    }
+
+    /**
+     * @param row index of the row
+     * @return indices into {@link #keys()} of the entries of the row
+     */
+    public int[] keyIndices(int row) {
+        return rowKeys[row];
+    }
+
+    /**
+     * @param row index of the row
+     * @return values of the entries of the row: a string, a map, a list or null
+     */
+    public Object[] values(int row) {
+        return rowValues[row];
+    }
+
+    /**
+     * @return estimate of the size of the data as JSON in bytes, from the keys and values of the rows
+     */
+    public long contentSize() {
+        long size = 2;
+        for (int row = 0; row < rowKeys.length; row++) {
+            for (int entry = 0; entry < rowKeys[row].length; entry++) {
+                Object value = rowValues[row][entry];
+                // quotes, colon and separator of the entry
+                size += keys.get(rowKeys[row][entry]).length() + String.valueOf(value).length() + 6;
+            }
+            size += 3;
+        }
+        return size;
+    }
+
+    static class Deserializer extends JsonDeserializer<FlatJsonPayload> {
+
+        @Override
+        public FlatJsonPayload deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (!parser.isExpectedStartArrayToken()) {
+                return (FlatJsonPayload) context.handleUnexpectedToken(FlatJsonPayload.class, parser);
+            }
+            List<String> keys = new ArrayList<>();
+            Map<String, Integer> keyIndices = new HashMap<>();
+            Map<String, String> dictionary = new HashMap<>();
+            List<int[]> rowKeys = new ArrayList<>();
+            List<Object[]> rowValues = new ArrayList<>();
+            List<Integer> entryKeys = new ArrayList<>();
+            List<Object> entryValues = new ArrayList<>();
+            // by key index: the number of the last row with the key, counted from 1, and its position in that row
+            int[] keyRows = new int[16];
+            int[] keyPositions = new int[16];
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (parser.currentToken() != JsonToken.START_OBJECT) {
+                    return (FlatJsonPayload) context.handleUnexpectedToken(FlatJsonPayload.class, parser);
+                }
+                entryKeys.clear();
+                entryValues.clear();
+                int row = rowKeys.size() + 1;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String key = parser.currentName();
+                    Integer keyIndex = keyIndices.get(key);
+                    if (keyIndex == null) {
+                        keyIndex = keys.size();
+                        keys.add(key);
+                        keyIndices.put(key, keyIndex);
+                        if (keyIndex == keyRows.length) {
+                            keyRows = Arrays.copyOf(keyRows, 2 * keyIndex);
+                            keyPositions = Arrays.copyOf(keyPositions, 2 * keyIndex);
+                        }
+                    }
+                    parser.nextToken();
+                    Object value = readValue(parser, context, dictionary);
+                    if (keyRows[keyIndex] == row) {
+                        // the last value of a duplicate key wins, as when binding to a map
+                        entryValues.set(keyPositions[keyIndex], value);
+                    } else {
+                        keyRows[keyIndex] = row;
+                        keyPositions[keyIndex] = entryKeys.size();
+                        entryKeys.add(keyIndex);
+                        entryValues.add(value);
+                    }
+                }
+                rowKeys.add(entryKeys.stream().mapToInt(Integer::intValue).toArray());
+                rowValues.add(entryValues.toArray());
+            }
+            return new FlatJsonPayload(
+                    List.copyOf(keys),
+                    rowKeys.toArray(new int[0][]),
+                    rowValues.toArray(new Object[0][]));
+        }
+
+        private static Object readValue(JsonParser parser, DeserializationContext context,
+                Map<String, String> dictionary) throws IOException {
+            JsonToken token = parser.currentToken();
+            if (token == JsonToken.VALUE_NULL) {
+                return null;
+            }
+            if (token.isStructStart()) {
+                return context.readValue(parser, Object.class);
+            }
+            String scalar = switch (token) {
+                case VALUE_NUMBER_INT -> parser.getNumberValue().toString();
+                case VALUE_NUMBER_FLOAT -> Double.toString(parser.getDoubleValue());
+                default -> parser.getText();
+            };
+            return dictionary.computeIfAbsent(scalar, value -> value);
+        }
+    }
+}
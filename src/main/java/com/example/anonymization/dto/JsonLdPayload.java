@@ -0,0 +1,71 @@
+package com.example.anonymization.dto;
+
+import com.example.anonymization.data.SpillBuffer;
+import com.example.anonymization.data.SpillService;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * JSON-LD data of a request as UTF-8 encoded JSON. The tokens of the request body are copied directly into a
+ * {@link SpillBuffer}, so neither a JSON tree nor a string of the data is built before it is handed to the JSON-LD
+ * parser, and data from the spill threshold on is kept on disk instead of the heap.
+ */
+@JsonDeserialize(using = JsonLdPayload.Deserializer.class)
+public final class JsonLdPayload implements AutoCloseable {
+
+    private final SpillBuffer content;
+
+    public JsonLdPayload(byte[] content) {
+        this(SpillBuffer.of(content));
+    }
+
+    private JsonLdPayload(SpillBuffer content) {
+        this.content = content;
+    }
+
+    /**
+     * @return stream over the JSON content
+     */
+    public InputStream openStream() throws IOException {
+        return content.openStream();
+    }
+
+    /**
+     * @return size of the JSON content in bytes
+     */
+    public long size() {
+        return content.size();
+    }
+
+    /**
+     * Releases the content once the model is read
+     */
+    @Override
+    public void close() {
+        content.delete();
+    }
+
+    static class Deserializer extends JsonDeserializer<JsonLdPayload> {
+
+        private static final JsonFactory factory = new JsonFactory();
+
+        @Override
+        public JsonLdPayload deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            SpillBuffer buffer = SpillService.buffer();
+            try (JsonGenerator generator = factory.createGenerator(buffer)) {
+                generator.copyCurrentStructure(parser);
+            } catch (IOException | RuntimeException e) {
+                buffer.delete();
+                throw e;
+            }
+            return new JsonLdPayload(buffer);
+        }
+    }
+}
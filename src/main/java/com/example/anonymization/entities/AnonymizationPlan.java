@@ -0,0 +1,43 @@
+package com.example.anonymization.entities;
+
+import com.example.anonymization.service.anonymizer.AnonymizerFactory;
+import org.apache.jena.query.Query;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.update.UpdateRequest;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compiled anonymization setup of one object type. The plan is built once when a configuration is extracted and
+ * contains everything that does not depend on the request data. The queries cover all configured properties;
+ * properties without data in a request do not change their results.
+ *
+ * @param objectType            the object type the plan applies to
+ * @param configurations        configuration per property
+ * @param anonymizers           resolved anonymizer factory per property
+ * @param anonymizedProperties  property the anonymized values are written to per property
+ * @param anonymizingProperties properties that count towards the number of buckets
+ * @param propertyQuery         query for the configured properties used by the object type
+ * @param groupsQuery           query for the groups of identical generalized values
+ * @param deleteOriginalUpdate  update removing the original values
+ */
+public record AnonymizationPlan(
+        Resource objectType,
+        Map<Property, Configuration> configurations,
+        Map<Property, AnonymizerFactory> anonymizers,
+        Map<Property, Property> anonymizedProperties,
+        Set<Property> anonymizingProperties,
+        Query propertyQuery,
+        Query groupsQuery,
+        UpdateRequest deleteOriginalUpdate) {
+
+    /**
+     * @param attributes the attributes used in the request data
+     * @return number of the given attributes anonymized by generalization or randomization
+     */
+    public int countAnonymizingAttributes(Set<Property> attributes) {
+        return (int) attributes.stream().filter(anonymizingProperties::contains).count();
+    }
+}
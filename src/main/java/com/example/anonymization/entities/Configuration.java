@@ -4,12 +4,6 @@ import com.example.anonymization.service.anonymizer.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.Getter;
-import org.apache.jena.rdf.model.Model;
-import org.apache.jena.rdf.model.Property;
-import org.apache.jena.rdf.model.RDFNode;
-import org.apache.jena.rdf.model.Resource;
-
-import java.util.Map;
 
 @Data
 @Getter
@@ -18,50 +12,44 @@ public class Configuration {
         String dataType;
         String anonymization;
 
-        public Anonymization<? extends Configuration> createAnonymization(
-                        Model model,
-                        Property property,
-                        Map<Resource, RDFNode> data,
-                        int nrAttr,
-                        Resource anonymizationObject,
-                        boolean calculateKpi,
-                        long seed) {
+        /**
+         * @return the factory of the anonymization of this configuration. The implementation is looked up in the
+         *         registry for every anonymization, so plans built before an implementation is registered use it as
+         *         well; unsupported combinations fail when the factory is applied to data.
+         */
+        public AnonymizerFactory anonymizerFactory() {
+                return (model, property, data, nrAttr, anonymizationObject, calculateKpi, seed) ->
+                                new BatchAnonymization(model, property, data, nrAttr, this, anonymizationObject,
+                                                calculateKpi, seed, batchAnonymizer());
+        }
+
+        /**
+         * @return the anonymizer registered for the strategy and datatype of this configuration
+         * @throws IllegalArgumentException if the combination is not supported
+         */
+        public BatchAnonymizer batchAnonymizer() {
+                BatchAnonymizer anonymizer = AnonymizerRegistry.get(anonymization, dataType);
+                if (anonymizer == null) {
+                        throw new IllegalArgumentException(switch (anonymization) {
+                                case "generalization" -> "string".equals(dataType)
+                                                ? "No Generalization possible for type string"
+                                                : "Invalid configuration type for object anonymization";
+                                case "randomization" -> "No Randomization possible for type " + dataType;
+                                default -> "No Anonymization implementation for " + anonymization + ": " + dataType;
+                        });
+                }
+                return anonymizer;
+        }
+
+        /**
+         * @return the suffix of the property the anonymized values are written to
+         */
+        public String getAnonymizedSuffix() {
                 return switch (anonymization) {
-                        case "generalization" -> switch (dataType) {
-                                case "integer", "double" ->
-                                        new GeneralizationNumeric(model, property, data, nrAttr, this,
-                                                        anonymizationObject, calculateKpi);
-                                case "date" ->
-                                        new GeneralizationDate(model, property, data, nrAttr, this, anonymizationObject,
-                                                        calculateKpi);
-                                case "dateTime" -> new GeneralizationDateTime(model, property, data, nrAttr, this,
-                                                anonymizationObject,
-                                                calculateKpi);
-                                case "string" -> throw new IllegalArgumentException(
-                                                "No Generalization possible for type string");
-                                default ->
-                                        throw new IllegalArgumentException(
-                                                        "Invalid configuration type for object anonymization");
-                        };
-                        case "randomization" -> switch (dataType) {
-                                case "integer", "double" ->
-                                        new RandomizationNumeric(model, property, data, nrAttr, this,
-                                                        anonymizationObject, calculateKpi, seed);
-                                case "date" ->
-                                        new RandomizationDate(model, property, data, nrAttr, this, anonymizationObject,
-                                                        calculateKpi, seed);
-                                case "dateTime" -> new RandomizationDateTime(model, property, data, nrAttr, this,
-                                                anonymizationObject,
-                                                calculateKpi, seed);
-                                default ->
-                                        throw new IllegalArgumentException(
-                                                        "No Randomization possible for type " + dataType);
-                        };
-                        case "masking" -> new Masking(model, property, data, this, anonymizationObject);
-                        default ->
-                                throw new IllegalArgumentException(
-                                                "No Anonymization implementation for " + anonymization + ": "
-                                                                + dataType);
+                        case "randomization" -> "_randomized";
+                        case "generalization" -> "_generalized";
+                        case "masking" -> "_masked";
+                        default -> null;
                 };
         }
 }
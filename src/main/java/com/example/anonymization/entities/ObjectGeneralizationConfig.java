@@ -1,14 +1,11 @@
 package com.example.anonymization.entities;
 
+import com.example.anonymization.service.anonymizer.AnonymizerRegistry;
+import com.example.anonymization.service.anonymizer.BatchAnonymizer;
 import com.example.anonymization.service.anonymizer.GeneralizationObject;
 import lombok.Getter;
-import org.apache.jena.rdf.model.Model;
-import org.apache.jena.rdf.model.Property;
-import org.apache.jena.rdf.model.RDFNode;
-import org.apache.jena.rdf.model.Resource;
 
 import java.util.List;
-import java.util.Map;
 
 @Getter
 public class ObjectGeneralizationConfig extends Configuration {
@@ -21,14 +18,11 @@ public class ObjectGeneralizationConfig extends Configuration {
     }
 
     @Override
-    public GeneralizationObject createAnonymization(
-            Model model,
-            Property property,
-            Map<Resource, RDFNode> data,
-            int nrAttr,
-            Resource anonymizationObject,
-            boolean calculateKpi,
-            long seed) {
-        return new GeneralizationObject(model, property, data, nrAttr, this, anonymizationObject, calculateKpi);
+    public BatchAnonymizer batchAnonymizer() {
+        BatchAnonymizer anonymizer = AnonymizerRegistry.get(getAnonymization(), GeneralizationObject.DATA_TYPE);
+        if (anonymizer == null) {
+            throw new IllegalArgumentException("No Anonymization implementation for object generalization");
+        }
+        return anonymizer;
     }
 }
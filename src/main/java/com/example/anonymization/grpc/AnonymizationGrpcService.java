@@ -0,0 +1,307 @@
+package com.example.anonymization.grpc;
+
+import com.example.anonymization.dto.AnonymizationFlatJsonRequestDto;
+import com.example.anonymization.dto.AnonymizationJsonLDRequestDto;
+import com.example.anonymization.dto.JsonLdPayload;
+import com.example.anonymization.exceptions.AnonymizationException;
+import com.example.anonymization.exceptions.OntologyException;
+import com.example.anonymization.exceptions.RequestModelException;
+import com.example.anonymization.service.AnonymizationService;
+import com.example.anonymization.service.JsonLdOutput;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.protobuf.ByteString;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFLanguages;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * gRPC implementation of the anonymization operations. Requests are mapped onto the DTOs of the REST endpoints and
+ * processed by {@link AnonymizationService}; errors are mapped to status codes as by the REST exception handler.
+ */
+class AnonymizationGrpcService extends AnonymizationGrpc.AnonymizationImplBase {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnonymizationGrpcService.class);
+
+    private static final Set<Lang> RDF_LANGS = Set.of(Lang.TURTLE, Lang.NTRIPLES, Lang.RDFTHRIFT);
+
+    private final int batchSize;
+
+    AnonymizationGrpcService(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void anonymizeJsonLd(JsonLdRequest request, StreamObserver<JsonLdResponse> responseObserver) {
+        respond(responseObserver, () -> {
+            Options options = request.getOptions();
+            logger.info("Received gRPC JSON-LD anonymization request [configUrl={}, contentType={}, size={}]",
+                    options.getConfigurationUrl(), request.getContentType(), request.getData().size());
+            try (JsonLdOutput output = request.getContentType().isEmpty()
+                    || RDFLanguages.contentTypeToLang(request.getContentType()) == Lang.JSONLD
+                    ? AnonymizationService.applyAnonymization(createJsonLdRequest(options, request.getData()))
+                    : AnonymizationService.applyAnonymization(
+                            request.getData().newInput(),
+                            rdfLang(request.getContentType()),
+                            request.getData().size(),
+                            requireConfigurationUrl(options),
+                            calculateKpi(options),
+                            options.getIncludeOriginalData(),
+                            seed(options),
+                            useAdjustedAttributes(options))) {
+                ByteString.Output data = ByteString.newOutput();
+                output.writeTo(data);
+                return JsonLdResponse.newBuilder().setData(data.toByteString()).build();
+            } catch (IOException e) {
+                throw new AnonymizationException("The anonymized data could not be written: " + e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void anonymizeFlat(FlatRequest request, StreamObserver<FlatResponse> responseObserver) {
+        respond(responseObserver, () -> {
+            GrpcRecords.PayloadBuilder payload = payload(request.getBatchesList());
+            ObjectNode output = anonymizeFlat(request.getOptions(), payload);
+            return FlatResponse.newBuilder()
+                    .setBatch(GrpcRecords.toBatches((ArrayNode) output.get("data"), Integer.MAX_VALUE,
+                            payload.kinds()).getFirst())
+                    .addAllKpis(GrpcRecords.toKpis(output.get("kpis")))
+                    .build();
+        });
+    }
+
+    @Override
+    public StreamObserver<FlatUpload> uploadFlat(StreamObserver<FlatResponse> responseObserver) {
+        return new StreamObserver<>() {
+
+            private Options options;
+            private final GrpcRecords.PayloadBuilder payload = new GrpcRecords.PayloadBuilder();
+            private Status failure;
+
+            @Override
+            public void onNext(FlatUpload upload) {
+                if (failure != null) {
+                    return;
+                }
+                try {
+                    switch (upload.getPartCase()) {
+                        case OPTIONS -> {
+                            if (options != null) {
+                                throw new RequestModelException("The options must be sent only once");
+                            }
+                            options = upload.getOptions();
+                        }
+                        case BATCH -> {
+                            if (options == null) {
+                                throw new RequestModelException("The options must be sent before the batches");
+                            }
+                            payload.add(upload.getBatch());
+                        }
+                        case PART_NOT_SET -> throw new RequestModelException("Empty upload message");
+                    }
+                } catch (RuntimeException e) {
+                    failure = toStatus(e);
+                    responseObserver.onError(failure.asRuntimeException());
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                logger.warn("gRPC flat upload cancelled: {}", t.getMessage());
+            }
+
+            @Override
+            public void onCompleted() {
+                if (failure != null) {
+                    return;
+                }
+                logger.debug("gRPC flat upload completed [records={}]", payload.size());
+                respond(responseObserver, () -> {
+                    if (options == null) {
+                        throw new RequestModelException("The upload contains no options");
+                    }
+                    ObjectNode output = AnonymizationService.applyAnonymizationFlat(
+                            createFlatRequest(options, payload));
+                    return FlatResponse.newBuilder()
+                            .setBatch(GrpcRecords.toBatches((ArrayNode) output.get("data"), Integer.MAX_VALUE,
+                                    payload.kinds()).getFirst())
+                            .addAllKpis(GrpcRecords.toKpis(output.get("kpis")))
+                            .build();
+                });
+            }
+        };
+    }
+
+    @Override
+    public void streamFlat(FlatRequest request, StreamObserver<FlatResponse> responseObserver) {
+        ServerCallStreamObserver<FlatResponse> observer = (ServerCallStreamObserver<FlatResponse>) responseObserver;
+        GrpcRecords.PayloadBuilder payload;
+        ObjectNode output;
+        try {
+            payload = payload(request.getBatchesList());
+            output = anonymizeFlat(request.getOptions(), payload);
+        } catch (RuntimeException e) {
+            observer.onError(toStatus(e).asRuntimeException());
+            return;
+        }
+        BatchStream stream = new BatchStream(observer, output, payload.kinds());
+        observer.setOnCancelHandler(() -> logger.warn("gRPC flat stream cancelled [sent={}]", stream.next));
+        observer.setOnReadyHandler(stream);
+        stream.run();
+    }
+
+    /**
+     * Sends the records of a flat output in batches while the client is ready to receive them. Each batch is built
+     * when it is sent; the KPIs are attached to the last batch.
+     */
+    private final class BatchStream implements Runnable {
+
+        private final ServerCallStreamObserver<FlatResponse> observer;
+        private final ArrayNode data;
+        private final JsonNode kpis;
+        private final Map<String, FieldValue.KindCase> kinds;
+        private int next = 0;
+        private boolean completed = false;
+
+        BatchStream(ServerCallStreamObserver<FlatResponse> observer, ObjectNode output,
+                Map<String, FieldValue.KindCase> kinds) {
+            this.observer = observer;
+            this.data = (ArrayNode) output.get("data");
+            this.kpis = output.get("kpis");
+            this.kinds = kinds;
+        }
+
+        @Override
+        public synchronized void run() {
+            while (!completed && !observer.isCancelled() && observer.isReady()) {
+                int end = Math.min(data.size(), next + Math.max(batchSize, 1));
+                FlatResponse.Builder response = FlatResponse.newBuilder()
+                        .setBatch(GrpcRecords.toBatch(data, next, end, kinds));
+                next = end;
+                completed = next >= data.size();
+                if (completed) {
+                    response.addAllKpis(GrpcRecords.toKpis(kpis));
+                }
+                observer.onNext(response.build());
+                if (completed) {
+                    observer.onCompleted();
+                    logger.info("gRPC flat stream completed [records={}]", data.size());
+                }
+            }
+        }
+    }
+
+    private static GrpcRecords.PayloadBuilder payload(List<RecordBatch> batches) {
+        GrpcRecords.PayloadBuilder payload = new GrpcRecords.PayloadBuilder();
+        batches.forEach(payload::add);
+        return payload;
+    }
+
+    private static ObjectNode anonymizeFlat(Options options, GrpcRecords.PayloadBuilder payload) {
+        logger.info("Received gRPC flat anonymization request [configUrl={}, records={}, prefix={}]",
+                options.getConfigurationUrl(), payload.size(), options.getPrefix());
+        return AnonymizationService.applyAnonymizationFlat(createFlatRequest(options, payload));
+    }
+
+    private static AnonymizationJsonLDRequestDto createJsonLdRequest(Options options, ByteString data) {
+        AnonymizationJsonLDRequestDto request = new AnonymizationJsonLDRequestDto();
+        request.setConfigurationUrl(requireConfigurationUrl(options));
+        request.setData(new JsonLdPayload(data.toByteArray()));
+        request.setCalculateKpi(calculateKpi(options));
+        request.setIncludeOriginalData(options.getIncludeOriginalData());
+        request.setRandomSeed(seed(options));
+        request.setUseAdjustedAttributes(useAdjustedAttributes(options));
+        if (!request.isValidAttributeConfiguration()) {
+            throw new RequestModelException("useAdjustedAttributes must be true when includeOriginalData is true");
+        }
+        return request;
+    }
+
+    private static AnonymizationFlatJsonRequestDto createFlatRequest(
+            Options options,
+            GrpcRecords.PayloadBuilder payload) {
+        AnonymizationFlatJsonRequestDto request = new AnonymizationFlatJsonRequestDto();
+        request.setConfigurationUrl(options.getConfigurationUrl());
+        request.setPrefix(options.getPrefix());
+        request.setData(payload.build());
+        request.setCalculateKpi(calculateKpi(options));
+        request.setIncludeOriginalData(options.getIncludeOriginalData());
+        request.setRandomSeed(seed(options));
+        request.setUseAdjustedAttributes(useAdjustedAttributes(options));
+        return request;
+    }
+
+    private static String requireConfigurationUrl(Options options) {
+        if (options.getConfigurationUrl().isBlank()) {
+            throw new RequestModelException("configurationUrl is mandatory");
+        }
+        return options.getConfigurationUrl();
+    }
+
+    private static boolean calculateKpi(Options options) {
+        return !options.hasCalculateKpi() || options.getCalculateKpi();
+    }
+
+    private static boolean useAdjustedAttributes(Options options) {
+        return !options.hasUseAdjustedAttributes() || options.getUseAdjustedAttributes();
+    }
+
+    private static long seed(Options options) {
+        return options.hasRandomSeed() ? options.getRandomSeed() : System.currentTimeMillis();
+    }
+
+    private static Lang rdfLang(String contentType) {
+        Lang lang = RDFLanguages.contentTypeToLang(contentType);
+        if (!RDF_LANGS.contains(lang)) {
+            throw new RequestModelException("Unsupported content type: " + contentType);
+        }
+        return lang;
+    }
+
+    private static <T> void respond(StreamObserver<T> responseObserver, Supplier<T> operation) {
+        long startTime = System.currentTimeMillis();
+        T response;
+        try {
+            response = operation.get();
+        } catch (RuntimeException e) {
+            responseObserver.onError(toStatus(e).asRuntimeException());
+            return;
+        }
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+        logger.info("gRPC anonymization completed [durationMs={}]", System.currentTimeMillis() - startTime);
+    }
+
+    private static Status toStatus(RuntimeException e) {
+        return switch (e) {
+            case RequestModelException requestModelException -> {
+                logger.warn("RequestModelException: {}", requestModelException.getMessage());
+                yield Status.INVALID_ARGUMENT.withDescription(requestModelException.getMessage());
+            }
+            case OntologyException ontologyException -> {
+                logger.warn("OntologyException: {}", ontologyException.getMessage());
+                yield Status.NOT_FOUND.withDescription(ontologyException.getMessage());
+            }
+            case AnonymizationException anonymizationException -> {
+                logger.error("AnonymizationException: {}", anonymizationException.getMessage(), anonymizationException);
+                yield Status.INTERNAL.withDescription(anonymizationException.getMessage());
+            }
+            default -> {
+                logger.error("Unexpected error occurred: {}", e.getMessage(), e);
+                yield Status.INTERNAL.withDescription("An unexpected error occurred. Please try again later.");
+            }
+        };
+    }
+}
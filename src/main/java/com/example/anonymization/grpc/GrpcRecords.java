@@ -0,0 +1,249 @@
+package com.example.anonymization.grpc;
+
+import com.example.anonymization.dto.FlatJsonPayload;
+import com.example.anonymization.exceptions.RequestModelException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+
+import java.util.*;
+
+/**
+ * Conversion between protobuf record batches and the flat data of the anonymization. Scalar values are converted to
+ * the string form the anonymization uses, as when reading flat JSON. The kind of the scalar values of every key is
+ * kept, so the values of the key and of its anonymized key are returned as typed values again.
+ */
+final class GrpcRecords {
+
+    private static final List<String> ANONYMIZED_SUFFIXES = List.of("_randomized", "_generalized", "_masked");
+
+    private GrpcRecords() {
+    }
+
+    /**
+     * Collects record batches with their own keys into one payload with shared keys and values
+     */
+    static final class PayloadBuilder {
+
+        private final List<String> keys = new ArrayList<>();
+        private final Map<String, Integer> keyIndices = new HashMap<>();
+        private final Map<String, String> dictionary = new HashMap<>();
+        private final List<int[]> rowKeys = new ArrayList<>();
+        private final List<Object[]> rowValues = new ArrayList<>();
+        private final Map<String, FieldValue.KindCase> kinds = new HashMap<>();
+        // by key index: the number of the last row with the key, counted from 1, and its position in that row
+        private int[] keyRows = new int[16];
+        private int[] keyPositions = new int[16];
+
+        void add(RecordBatch batch) {
+            int[] batchKeys = new int[batch.getKeysCount()];
+            for (int i = 0; i < batchKeys.length; i++) {
+                batchKeys[i] = keyIndices.computeIfAbsent(batch.getKeys(i), key -> {
+                    keys.add(key);
+                    return keys.size() - 1;
+                });
+            }
+            if (keys.size() > keyRows.length) {
+                keyRows = Arrays.copyOf(keyRows, Math.max(2 * keyRows.length, keys.size()));
+                keyPositions = Arrays.copyOf(keyPositions, keyRows.length);
+            }
+            for (FlatRecord record : batch.getRecordsList()) {
+                List<Integer> entryKeys = new ArrayList<>(record.getEntriesCount());
+                List<Object> entryValues = new ArrayList<>(record.getEntriesCount());
+                int row = rowKeys.size() + 1;
+                for (Entry entry : record.getEntriesList()) {
+                    if (entry.getKey() < 0 || entry.getKey() >= batchKeys.length) {
+                        throw new RequestModelException("Record refers to unknown key index " + entry.getKey());
+                    }
+                    Object value = toValue(entry.getValue());
+                    if (value == null) {
+                        continue;
+                    }
+                    // keys with values of different kinds are returned as strings
+                    kinds.merge(batch.getKeys(entry.getKey()), entry.getValue().getKindCase(),
+                            (kind, added) -> kind == added ? kind : FieldValue.KindCase.STRING_VALUE);
+                    int keyIndex = batchKeys[entry.getKey()];
+                    if (keyRows[keyIndex] == row) {
+                        entryValues.set(keyPositions[keyIndex], value);
+                    } else {
+                        keyRows[keyIndex] = row;
+                        keyPositions[keyIndex] = entryKeys.size();
+                        entryKeys.add(keyIndex);
+                        entryValues.add(value);
+                    }
+                }
+                rowKeys.add(entryKeys.stream().mapToInt(Integer::intValue).toArray());
+                rowValues.add(entryValues.toArray());
+            }
+        }
+
+        int size() {
+            return rowKeys.size();
+        }
+
+        /**
+         * @return the kind of the values by key
+         */
+        Map<String, FieldValue.KindCase> kinds() {
+            return kinds;
+        }
+
+        FlatJsonPayload build() {
+            return new FlatJsonPayload(
+                    List.copyOf(keys),
+                    rowKeys.toArray(new int[0][]),
+                    rowValues.toArray(new Object[0][]));
+        }
+
+        private Object toValue(FieldValue value) {
+            return switch (value.getKindCase()) {
+                case STRING_VALUE -> intern(value.getStringValue());
+                case INT_VALUE -> intern(Long.toString(value.getIntValue()));
+                case DOUBLE_VALUE -> intern(Double.toString(value.getDoubleValue()));
+                case BOOL_VALUE -> intern(Boolean.toString(value.getBoolValue()));
+                case RANGE -> {
+                    Map<String, String> range = new LinkedHashMap<>();
+                    range.put("min", intern(value.getRange().getMin()));
+                    range.put("max", intern(value.getRange().getMax()));
+                    yield range;
+                }
+                case LIST -> value.getList().getValuesList().stream().map(this::intern).toList();
+                case OBJECT -> new LinkedHashMap<>(value.getObject().getValuesMap());
+                case KIND_NOT_SET -> null;
+            };
+        }
+
+        private String intern(String value) {
+            return dictionary.computeIfAbsent(value, v -> v);
+        }
+    }
+
+    /**
+     * Splits the data array of a flat JSON output into record batches
+     * @param data the data array of the flat JSON output
+     * @param batchSize maximum number of records per batch
+     * @param kinds the kinds of the values of the request by key
+     * @return the record batches, at least one
+     */
+    static List<RecordBatch> toBatches(ArrayNode data, int batchSize, Map<String, FieldValue.KindCase> kinds) {
+        List<RecordBatch> batches = new ArrayList<>();
+        int start = 0;
+        do {
+            int end = Math.min(data.size(), start + Math.max(batchSize, 1));
+            batches.add(toBatch(data, start, end, kinds));
+            start = end;
+        } while (start < data.size());
+        return batches;
+    }
+
+    /**
+     * @param data the data array of a flat JSON output
+     * @param start index of the first record
+     * @param end index after the last record
+     * @param kinds the kinds of the values of the request by key
+     * @return the records in one batch
+     */
+    static RecordBatch toBatch(ArrayNode data, int start, int end, Map<String, FieldValue.KindCase> kinds) {
+        RecordBatch.Builder batch = RecordBatch.newBuilder();
+        Map<String, Integer> keyIndices = new HashMap<>();
+        for (int row = start; row < end; row++) {
+            FlatRecord.Builder record = FlatRecord.newBuilder();
+            data.get(row).properties().forEach(field -> {
+                int key = keyIndices.computeIfAbsent(field.getKey(), name -> {
+                    batch.addKeys(name);
+                    return batch.getKeysCount() - 1;
+                });
+                record.addEntries(Entry.newBuilder()
+                        .setKey(key)
+                        .setValue(toValue(field.getValue(), kinds.get(baseKey(field.getKey())))));
+            });
+            batch.addRecords(record);
+        }
+        return batch.build();
+    }
+
+    /**
+     * @return the key without the suffix of an anonymized attribute
+     */
+    private static String baseKey(String key) {
+        for (String suffix : ANONYMIZED_SUFFIXES) {
+            if (key.endsWith(suffix)) {
+                return key.substring(0, key.length() - suffix.length());
+            }
+        }
+        return key;
+    }
+
+    /**
+     * @param kind the kind of the values of the key in the request, or null if unknown
+     */
+    private static FieldValue toValue(JsonNode node, FieldValue.KindCase kind) {
+        if (node.isArray()) {
+            StringList.Builder list = StringList.newBuilder();
+            node.forEach(item -> list.addValues(item.asText()));
+            return FieldValue.newBuilder().setList(list).build();
+        }
+        if (node.isObject()) {
+            if (node.size() == 2 && node.has("min") && node.has("max")) {
+                return FieldValue.newBuilder().setRange(Range.newBuilder()
+                        .setMin(node.get("min").asText())
+                        .setMax(node.get("max").asText())).build();
+            }
+            Fields.Builder fields = Fields.newBuilder();
+            node.properties().forEach(field -> fields.putValues(field.getKey(), field.getValue().asText()));
+            return FieldValue.newBuilder().setObject(fields).build();
+        }
+        if (node.isIntegralNumber() && node.canConvertToLong()) {
+            return FieldValue.newBuilder().setIntValue(node.longValue()).build();
+        }
+        if (node.isNumber()) {
+            return FieldValue.newBuilder().setDoubleValue(node.doubleValue()).build();
+        }
+        if (node.isBoolean()) {
+            return FieldValue.newBuilder().setBoolValue(node.booleanValue()).build();
+        }
+        String text = node.asText();
+        try {
+            if (kind == FieldValue.KindCase.INT_VALUE) {
+                return FieldValue.newBuilder().setIntValue(Long.parseLong(text)).build();
+            }
+            if (kind == FieldValue.KindCase.DOUBLE_VALUE) {
+                return FieldValue.newBuilder().setDoubleValue(Double.parseDouble(text)).build();
+            }
+        } catch (NumberFormatException e) {
+            // anonymized values that are no longer numbers, such as masked values, are returned as strings
+        }
+        if (kind == FieldValue.KindCase.BOOL_VALUE && ("true".equals(text) || "false".equals(text))) {
+            return FieldValue.newBuilder().setBoolValue(Boolean.parseBoolean(text)).build();
+        }
+        return FieldValue.newBuilder().setStringValue(text).build();
+    }
+
+    /**
+     * @param kpis the KPI node of a flat JSON output
+     * @return the KPIs by object
+     */
+    static List<ObjectKpi> toKpis(JsonNode kpis) {
+        List<ObjectKpi> objectKpis = new ArrayList<>();
+        if (kpis == null) {
+            return objectKpis;
+        }
+        kpis.properties().forEach(object -> {
+            ObjectKpi.Builder objectKpi = ObjectKpi.newBuilder()
+                    .setObject(object.getKey())
+                    .setKAnonymity(object.getValue().path("k-Anonymity").asLong());
+            object.getValue().properties().forEach(attribute -> {
+                if (attribute.getValue().isObject()) {
+                    AttributeKpi.Builder attributeKpi = AttributeKpi.newBuilder()
+                            .setAttribute(attribute.getKey())
+                            .setAnonymization(attribute.getValue().path("anonymization").asText());
+                    if (attribute.getValue().has("nrBuckets")) {
+                        attributeKpi.setNrBuckets(attribute.getValue().get("nrBuckets").asLong());
+                    }
+                    objectKpi.addAttributes(attributeKpi);
+                }
+            });
+            objectKpis.add(objectKpi.build());
+        });
+        return objectKpis;
+    }
+}
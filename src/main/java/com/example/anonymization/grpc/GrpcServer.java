@@ -0,0 +1,79 @@
+package com.example.anonymization.grpc;
+
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * gRPC server for the anonymization operations, started alongside the web server if it is enabled. The server uses
+ * plaintext connections and is meant for callers within the deployment.
+ */
+@Service
+public class GrpcServer {
+
+    private static final Logger logger = LoggerFactory.getLogger(GrpcServer.class);
+
+    private static boolean enabled = false;
+    private static int port = 9090;
+    private static int batchSize = 1000;
+    private static DataSize maxInboundMessageSize = DataSize.ofMegabytes(64);
+
+    private Server server;
+
+    @Value("${anonymization.grpc.enabled:false}")
+    void setEnabled(boolean enabled) {
+        GrpcServer.enabled = enabled;
+    }
+
+    @Value("${anonymization.grpc.port:9090}")
+    void setPort(int port) {
+        GrpcServer.port = port;
+    }
+
+    @Value("${anonymization.grpc.batch-size:1000}")
+    void setBatchSize(int batchSize) {
+        GrpcServer.batchSize = batchSize;
+    }
+
+    @Value("${anonymization.grpc.max-inbound-message-size:64MB}")
+    void setMaxInboundMessageSize(DataSize maxInboundMessageSize) {
+        GrpcServer.maxInboundMessageSize = maxInboundMessageSize;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled || port < 0) {
+            return;
+        }
+        try {
+            server = NettyServerBuilder.forPort(port)
+                    .maxInboundMessageSize((int) Math.min(maxInboundMessageSize.toBytes(), Integer.MAX_VALUE))
+                    .addService(new AnonymizationGrpcService(batchSize))
+                    .build()
+                    .start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("gRPC server could not be started on port " + port, e);
+        }
+        logger.info("gRPC server started [port={}, batchSize={}]", server.getPort(), batchSize);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (server != null) {
+            server.shutdown();
+            if (!server.awaitTermination(10, TimeUnit.SECONDS)) {
+                server.shutdownNow();
+            }
+        }
+    }
+}
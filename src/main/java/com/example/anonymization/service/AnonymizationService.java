@@ -2,23 +2,34 @@ package com.example.anonymization.service;
 
 import com.example.anonymization.dto.AnonymizationFlatJsonRequestDto;
 import com.example.anonymization.dto.AnonymizationJsonLDRequestDto;
-import com.example.anonymization.entities.Configuration;
+import com.example.anonymization.dto.JsonLdPayload;
+import com.example.anonymization.entities.AnonymizationPlan;
 import com.example.anonymization.exceptions.RequestModelException;
 import com.example.anonymization.service.anonymizer.Anonymization;
+import com.example.anonymization.service.columnar.ColumnarFlatJsonService;
+import com.example.anonymization.service.columnar.FlatTable;
 import com.example.anonymization.data.QueryService;
+import com.example.anonymization.data.RequestModel;
+import com.example.anonymization.data.SpillBuffer;
+import com.example.anonymization.data.SpillService;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.apache.jena.rdf.model.*;
-import org.apache.jena.riot.RDFDataMgr;
-import org.apache.jena.riot.RDFLanguages;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.vocabulary.RDF;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
-import java.io.StringReader;
-import java.io.StringWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 @Service
@@ -26,122 +37,370 @@ public class AnonymizationService {
 
         private static final Logger logger = LoggerFactory.getLogger(AnonymizationService.class);
 
-        public static ResponseEntity<String> applyAnonymization(AnonymizationJsonLDRequestDto request) {
+        private static boolean outputProjectionEnabled = true;
+
+        @Value("${anonymization.output-projection.enabled:true}")
+        void setOutputProjectionEnabled(boolean outputProjectionEnabled) {
+                AnonymizationService.outputProjectionEnabled = outputProjectionEnabled;
+        }
+
+        /**
+         * Applies the anonymization to JSON-LD data
+         * @param request the request
+         * @return the anonymized model, to be written and closed by the caller
+         */
+        public static JsonLdOutput applyAnonymization(AnonymizationJsonLDRequestDto request) {
                 logger.info("Starting JSON-LD anonymization [configUrl={}, kpi={}, includeOriginal={}, useAdjustedAttrs={}]",
                                 request.getConfigurationUrl(), request.isCalculateKpi(),
                                 request.isIncludeOriginalData(), request.isUseAdjustedAttributes());
-                Map<Resource, Map<Property, Configuration>> anonymizationObjects = ConfigurationService
-                                .fetchConfigForObjects(request.getConfigurationUrl());
-                Model model = getModel(request.getData());
-                anonymizationObjects.forEach(
-                                (o, c) -> applyAnonymizationForObject(
-                                                o, c, model, request.isCalculateKpi(), request.isIncludeOriginalData(),
-                                                request.getRandomSeed(), request.isUseAdjustedAttributes()));
+                Map<Resource, AnonymizationPlan> anonymizationObjects;
+                RequestModel requestModel;
+                // the request data is released as soon as it is read into the model
+                try (JsonLdPayload data = request.getData()) {
+                        anonymizationObjects = ConfigurationService.fetchPlansForObjects(request.getConfigurationUrl());
+                        requestModel = SpillService.open(data.size());
+                        try {
+                                readModel(data, requestModel.model());
+                        } catch (RuntimeException e) {
+                                requestModel.close();
+                                throw e;
+                        }
+                }
+                try {
+                        return anonymizeModel(requestModel, anonymizationObjects, request.isCalculateKpi(),
+                                        request.isIncludeOriginalData(), request.getRandomSeed(),
+                                        request.isUseAdjustedAttributes());
+                } catch (RuntimeException e) {
+                        requestModel.close();
+                        throw e;
+                }
+        }
+
+        /**
+         * Applies the anonymization to RDF data in a format without context processing (Turtle, N-Triples, RDF
+         * Thrift). The data is parsed from the stream directly into the model. If the size is unknown and spilling is
+         * enabled, the data is first buffered to measure it.
+         * @param data the request body
+         * @param lang the language of the request body
+         * @param size the size of the request body in bytes, negative if unknown
+         * @param configurationUrl the configuration URL
+         * @return the anonymized model, to be written and closed by the caller
+         */
+        public static JsonLdOutput applyAnonymization(
+                        InputStream data,
+                        Lang lang,
+                        long size,
+                        String configurationUrl,
+                        boolean calculateKpi,
+                        boolean includeOriginalData,
+                        long seed,
+                        boolean useAdjustedAttributes) {
+                logger.info("Starting RDF anonymization [configUrl={}, lang={}, kpi={}, includeOriginal={}, useAdjustedAttrs={}]",
+                                configurationUrl, lang.getName(), calculateKpi, includeOriginalData,
+                                useAdjustedAttributes);
+                if (includeOriginalData && !useAdjustedAttributes) {
+                        throw new RequestModelException(
+                                        "useAdjustedAttributes must be true when includeOriginalData is true");
+                }
+                Map<Resource, AnonymizationPlan> anonymizationObjects = ConfigurationService
+                                .fetchPlansForObjects(configurationUrl);
+                SpillBuffer spooled = null;
+                try {
+                        if (size < 0 && SpillService.isEnabled()) {
+                                spooled = SpillService.spool(data);
+                                size = spooled.size();
+                        }
+                        RequestModel requestModel = SpillService.open(size);
+                        try {
+                                Model model = requestModel.model();
+                                if (spooled == null) {
+                                        parseModel(data, lang, model);
+                                } else {
+                                        try (InputStream spooledData = spooled.openStream()) {
+                                                parseModel(spooledData, lang, model);
+                                        }
+                                }
+                                logger.debug("RDF data parsed [triples={}]", model.size());
+                                return anonymizeModel(requestModel, anonymizationObjects, calculateKpi,
+                                                includeOriginalData, seed, useAdjustedAttributes);
+                        } catch (RuntimeException | IOException e) {
+                                requestModel.close();
+                                throw e;
+                        }
+                } catch (IOException e) {
+                        throw new RequestModelException("The Request Data could not be read: " + e.getMessage());
+                } finally {
+                        if (spooled != null) {
+                                spooled.delete();
+                        }
+                }
+        }
+
+        private static void parseModel(InputStream data, Lang lang, Model model) {
+                try {
+                        RDFParser.create()
+                                        .source(data)
+                                        .lang(lang)
+                                        .parse(model);
+                } catch (Exception e) {
+                        throw new RequestModelException(
+                                        "The Request Data could not be converted ot a model: " + e.getMessage());
+                }
+        }
+
+        private static JsonLdOutput anonymizeModel(
+                        RequestModel requestModel,
+                        Map<Resource, AnonymizationPlan> anonymizationObjects,
+                        boolean calculateKpi,
+                        boolean includeOriginalData,
+                        long seed,
+                        boolean useAdjustedAttributes) {
+                Model model = requestModel.model();
+                OutputProjection projection = createOutputProjection(includeOriginalData, useAdjustedAttributes);
+                anonymizationObjects.values().forEach(
+                                plan -> applyAnonymizationForObject(
+                                                plan, model, calculateKpi, includeOriginalData, seed,
+                                                useAdjustedAttributes, projection));
+                Model output = projection == null ? model : projection.project(model, requestModel.createModel());
                 logger.info("JSON-LD anonymization completed [objectsProcessed={}]", anonymizationObjects.size());
-                StringWriter out = new StringWriter();
-                model.write(out, "JSON-LD");
-                logger.debug("JSON-LD output size: {} characters", out.toString().length());
-                return new ResponseEntity<>(
-                                out.toString(),
-                                HttpStatus.ACCEPTED);
+                return new JsonLdOutput(requestModel, output);
         }
 
         public static ResponseEntity<String> applyAnonymizationFlatJson(
                         AnonymizationFlatJsonRequestDto request) throws JsonProcessingException {
+                String out = FaltJsonService.writeFlatJson(anonymizeFlat(request));
+                logger.debug("Flat-JSON output size: {} characters", out.length());
+                return new ResponseEntity<>(out, HttpStatus.ACCEPTED);
+        }
+
+        /**
+         * Applies the anonymization to tabular data read from CSV
+         * @param request the request with the CSV rows as data
+         * @param csvOutput true if the anonymized rows are returned as CSV, false for the flat JSON output
+         * @return the anonymized data
+         */
+        public static ResponseEntity<String> applyAnonymizationCsv(
+                        AnonymizationFlatJsonRequestDto request,
+                        boolean csvOutput) throws JsonProcessingException {
+                ObjectNode output = applyAnonymizationFlat(request);
+                if (!csvOutput) {
+                        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .body(FaltJsonService.writeFlatJson(output));
+                }
+                String out = CsvService.write((ArrayNode) output.get("data"));
+                logger.debug("CSV output size: {} characters", out.length());
+                return ResponseEntity.status(HttpStatus.ACCEPTED)
+                                .contentType(MediaType.parseMediaType("text/csv"))
+                                .body(out);
+        }
+
+        /**
+         * Applies the anonymization to tabular data read from an Arrow IPC stream. The columns of the stream are
+         * anonymized by the columnar engine, so the typed values are written back without a row representation.
+         * @param request the request without data
+         * @param arrowData the columns and the input column types read from the Arrow IPC stream
+         * @param arrowOutput true if the anonymized rows are returned as Arrow IPC stream, false for the flat JSON
+         *                    output
+         * @return the anonymized data
+         */
+        public static ResponseEntity<byte[]> applyAnonymizationArrow(
+                        AnonymizationFlatJsonRequestDto request,
+                        ArrowService.ArrowData arrowData,
+                        boolean arrowOutput) throws JsonProcessingException {
+                FlatTable table = arrowData.table();
+                if (table.rowCount() == 0) {
+                        throw new RequestModelException("data is mandatory");
+                }
+                validateTabularRequest(request);
+                logger.info("Starting Arrow anonymization [configUrl={}, rows={}, kpi={}, includeOriginal={}]",
+                                request.getConfigurationUrl(), table.rowCount(), request.isCalculateKpi(),
+                                request.isIncludeOriginalData());
+                Map<Resource, AnonymizationPlan> anonymizationObjects = ConfigurationService
+                                .fetchPlansForObjects(request.getConfigurationUrl());
+                if (!arrowOutput) {
+                        ObjectNode output = ColumnarFlatJsonService.anonymize(
+                                        table, anonymizationObjects, request.isCalculateKpi(),
+                                        request.isIncludeOriginalData(), request.getRandomSeed(),
+                                        request.isUseAdjustedAttributes());
+                        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .body(FaltJsonService.writeFlatJson(output).getBytes(StandardCharsets.UTF_8));
+                }
+                // the Arrow output has no KPIs
+                ColumnarFlatJsonService.apply(
+                                table, anonymizationObjects, false,
+                                request.isIncludeOriginalData(), request.getRandomSeed(),
+                                request.isUseAdjustedAttributes());
+                byte[] out = ArrowService.write(
+                                ColumnarFlatJsonService.outputColumns(
+                                                table, ConfigurationService.createFlatConfig(anonymizationObjects)),
+                                table.rowCount(),
+                                arrowData.types());
+                logger.debug("Arrow output size: {} bytes", out.length);
+                return ResponseEntity.status(HttpStatus.ACCEPTED)
+                                .contentType(MediaType.parseMediaType(ArrowService.MEDIA_TYPE))
+                                .body(out);
+        }
+
+        /**
+         * Applies the anonymization to flat data of a request that was not bound from a flat JSON request body
+         * @param request the request with the rows as data
+         * @return the flat JSON output with the data and the KPIs
+         */
+        public static ObjectNode applyAnonymizationFlat(AnonymizationFlatJsonRequestDto request) {
+                validateTabularRequest(request);
+                return anonymizeFlat(request);
+        }
+
+        /**
+         * Validates a request built from tabular data, which is not covered by bean validation
+         */
+        private static void validateTabularRequest(AnonymizationFlatJsonRequestDto request) {
+                if (request.getConfigurationUrl() == null || request.getConfigurationUrl().isBlank()) {
+                        throw new RequestModelException("configurationUrl is mandatory");
+                }
+                if (request.getPrefix() == null || request.getPrefix().isBlank()) {
+                        throw new RequestModelException("Prefix is mandatory");
+                }
+                if (!request.isDataPresent()) {
+                        throw new RequestModelException("data is mandatory");
+                }
+                if (!request.isValidAttributeConfiguration()) {
+                        throw new RequestModelException(
+                                        "useAdjustedAttributes must be true when includeOriginalData is true");
+                }
+        }
+
+        private static ObjectNode anonymizeFlat(AnonymizationFlatJsonRequestDto request) {
                 logger.info("Starting flat-JSON anonymization [configUrl={}, dataEntries={}, kpi={}, includeOriginal={}]",
                                 request.getConfigurationUrl(),
                                 request.getData() != null ? request.getData().size() : 0,
                                 request.isCalculateKpi(), request.isIncludeOriginalData());
-                Model model = ModelFactory.createDefaultModel();
-                FaltJsonService.addDataToFlatModel(model, request.getData(), request.getPrefix());
-                Map<Resource, Map<Property, Configuration>> anonymizationObjects = ConfigurationService
-                                .fetchConfigForObjects(request.getConfigurationUrl());
-                anonymizationObjects.forEach(
-                                (o, c) -> applyAnonymizationForObject(
-                                                o, c, model, request.isCalculateKpi(), request.isIncludeOriginalData(),
-                                                request.getRandomSeed(), request.isUseAdjustedAttributes()));
-                String out = FaltJsonService.createFlatJsonOutput(
-                                model,
-                                ConfigurationService.createFlatConfig(anonymizationObjects),
-                                anonymizationObjects.keySet(),
-                                request.getPrefix(),
-                                request.isCalculateKpi());
-                logger.info("Flat-JSON anonymization completed [objectsProcessed={}]", anonymizationObjects.size());
-                logger.debug("Flat-JSON output size: {} characters", out.length());
-                return new ResponseEntity<>(out, HttpStatus.ACCEPTED);
+                Map<Resource, AnonymizationPlan> anonymizationObjects = ConfigurationService
+                                .fetchPlansForObjects(request.getConfigurationUrl());
+                boolean columnar = ColumnarFlatJsonService.isEnabled();
+                ObjectNode out = anonymizeFlat(request, anonymizationObjects, columnar);
+                logger.info("Flat-JSON anonymization completed [objectsProcessed={}, columnar={}]",
+                                anonymizationObjects.size(), columnar);
+                return out;
+        }
+
+        /**
+         * Applies the anonymization plans to the flat data of a request
+         * @param columnar true to use the columnar engine, false to anonymize a model of the data
+         * @return the flat JSON output with the data and the KPIs
+         */
+        static ObjectNode anonymizeFlat(
+                        AnonymizationFlatJsonRequestDto request,
+                        Map<Resource, AnonymizationPlan> anonymizationObjects,
+                        boolean columnar) {
+                if (columnar) {
+                        FlatTable table = FlatTable.of(request.getData(), request.getPrefix());
+                        return ColumnarFlatJsonService.anonymize(
+                                        table, anonymizationObjects, request.isCalculateKpi(),
+                                        request.isIncludeOriginalData(), request.getRandomSeed(),
+                                        request.isUseAdjustedAttributes());
+                }
+                try (RequestModel requestModel = SpillService.open(request.getData().contentSize())) {
+                        Model model = requestModel.model();
+                        FaltJsonService.addDataToFlatModel(model, request.getData(), request.getPrefix());
+                        OutputProjection projection = createOutputProjection(
+                                        request.isIncludeOriginalData(), request.isUseAdjustedAttributes());
+                        anonymizationObjects.values().forEach(
+                                        plan -> applyAnonymizationForObject(
+                                                        plan, model, request.isCalculateKpi(),
+                                                        request.isIncludeOriginalData(), request.getRandomSeed(),
+                                                        request.isUseAdjustedAttributes(), projection));
+                        return FaltJsonService.createFlatJsonOutput(
+                                        projection == null
+                                                        ? model
+                                                        : projection.project(model, requestModel.createModel()),
+                                        ConfigurationService.createFlatConfig(anonymizationObjects),
+                                        anonymizationObjects.keySet(),
+                                        request.getPrefix(),
+                                        request.isCalculateKpi());
+                }
         }
 
         private static void applyAnonymizationForObject(
-                        Resource anonymizationObject,
-                        Map<Property, Configuration> configurations,
+                        AnonymizationPlan plan,
                         Model model,
                         boolean calculateKpi,
                         boolean includeOriginalData,
                         long seed,
-                        boolean useAdjustedAttributes) {
+                        boolean useAdjustedAttributes,
+                        OutputProjection projection) {
+                Resource anonymizationObject = plan.objectType();
                 logger.debug("Applying anonymization for object [uri={}, properties={}, kpi={}, includeOriginal={}]",
-                                anonymizationObject.getURI(), configurations.size(), calculateKpi, includeOriginalData);
-                Set<Property> attributes = QueryService.getProperties(model, configurations.keySet(),
-                                anonymizationObject);
-                Map<Resource, Map<Property, RDFNode>> data = QueryService.getData(model, attributes,
-                                anonymizationObject);
-                logger.debug("Data fetched for anonymization [object={}, attributes={}, records={}]",
-                                anonymizationObject.getLocalName(), attributes.size(), data.size());
-                Map<Property, Map<Resource, RDFNode>> horizontalData = convertToHorizontalSchema(data, attributes);
-                int nrAnonymizeAttributes = getNumberOfAnonymizingAttributes(configurations, attributes);
-                horizontalData.entrySet().stream().map(e -> configurations.get(e.getKey()).createAnonymization(
+                                anonymizationObject.getURI(), plan.configurations().size(), calculateKpi,
+                                includeOriginalData);
+                Set<Property> attributes = QueryService.getProperties(model, plan.propertyQuery(),
+                                plan.configurations().keySet(), anonymizationObject);
+                Map<Property, Map<Resource, RDFNode>> horizontalData = QueryService.getAttributeData(model,
+                                attributes, anonymizationObject);
+                logger.debug("Data fetched for anonymization [object={}, attributes={}]",
+                                anonymizationObject.getLocalName(), attributes.size());
+                int nrAnonymizeAttributes = plan.countAnonymizingAttributes(attributes);
+                horizontalData.entrySet().stream().map(e -> plan.anonymizers().get(e.getKey()).create(
                                 model,
                                 e.getKey(),
                                 e.getValue(),
                                 nrAnonymizeAttributes,
                                 anonymizationObject,
                                 calculateKpi,
-                                seed)).forEach(Anonymization::anonymization);
+                                seed))
+                                .map(Anonymization::anonymization)
+                                .forEach(result -> result.writeTo(model));
                 logger.debug("Anonymization applied for object [uri={}]", anonymizationObject.getURI());
                 if (calculateKpi) {
-                        KpiService.addKpiObject(model, anonymizationObject, attributes, configurations);
+                        KpiService.addKpiObject(model, plan, attributes);
                         logger.debug("KPI added for object [uri={}]", anonymizationObject.getURI());
                 }
+                if (projection != null) {
+                        projection.add(plan, attributes);
+                        return;
+                }
                 if (!includeOriginalData) {
-                        QueryService.deleteOriginalProperties(model, attributes, anonymizationObject);
+                        QueryService.deleteOriginalProperties(model, plan.deleteOriginalUpdate(),
+                                        plan.configurations().keySet(), anonymizationObject);
                         logger.debug("Original data removed for object [uri={}]", anonymizationObject.getURI());
                 }
                 // Rename properties if useAdjustedAttributes=false (AFTER deleting original
                 // values)
                 if (!useAdjustedAttributes) {
-                        renameAnonymizedProperties(model, attributes, configurations);
+                        renameAnonymizedProperties(model, attributes, plan);
                         logger.debug("Anonymized properties renamed to original names for object [uri={}]",
                                         anonymizationObject.getURI());
                 }
         }
 
-        private static Map<Property, Map<Resource, RDFNode>> convertToHorizontalSchema(
-                        Map<Resource, Map<Property, RDFNode>> data,
-                        Set<Property> properties) {
-                Map<Property, Map<Resource, RDFNode>> propertyMap = new HashMap<>();
-                properties.forEach(property -> propertyMap.put(property, new HashMap<>()));
-                data.forEach((resource, value) -> value.forEach(
-                                (property, node) -> propertyMap.get(property).put(resource, node)));
-                return propertyMap;
-        }
-
-        private static int getNumberOfAnonymizingAttributes(
-                        Map<Property, Configuration> configs,
-                        Set<Property> attributes) {
-                return (int) attributes.stream()
-                                .map(configs::get)
-                                .map(Configuration::getAnonymization)
-                                .filter(anonymization -> List.of("generalization", "randomization")
-                                                .contains(anonymization))
-                                .count();
+        /**
+         * @return the projection building the output, or null if the output is the anonymized model itself
+         */
+        private static OutputProjection createOutputProjection(boolean includeOriginalData,
+                        boolean useAdjustedAttributes) {
+                if (!outputProjectionEnabled) {
+                        return null;
+                }
+                OutputProjection projection = new OutputProjection(includeOriginalData, useAdjustedAttributes);
+                return projection.isRequired() ? projection : null;
         }
 
-        private static Model getModel(JsonNode data) {
-                try {
-                        String jsonLdString = data.toString();
-                        Model model = ModelFactory.createDefaultModel();
-                        RDFDataMgr.read(model, new StringReader(jsonLdString), null, RDFLanguages.JSONLD);
-                        return model;
+        private static void readModel(JsonLdPayload data, Model model) {
+                try (InputStream content = data.openStream()) {
+                        if (JsonLdStreamReader.isStreamingEnabled(data)) {
+                                if (JsonLdStreamReader.read(data, model) != null) {
+                                        return;
+                                }
+                                logger.debug("JSON-LD data cannot be streamed, parsing the whole document");
+                                model.removeAll();
+                        }
+                        RDFParser.create()
+                                        .source(content)
+                                        .lang(Lang.JSONLD)
+                                        .context(JsonLdDocumentLoader.parserContext())
+                                        .parse(model);
                 } catch (Exception e) {
                         throw new RequestModelException(
                                         "The Request Data could not be converted ot a model: " + e.getMessage());
@@ -156,47 +415,40 @@ public class AnonymizationService {
          * copies its values to the original property name, and removes the suffixed
          * property.
          */
+        /**
+         * Writes the anonymized values of the subjects of the object type under the original properties. Subjects of
+         * other types keep their values of the properties.
+         */
         private static void renameAnonymizedProperties(
                         Model model,
                         Set<Property> attributes,
-                        Map<Property, Configuration> configurations) {
+                        AnonymizationPlan plan) {
+                Set<Resource> subjects = model.listSubjectsWithProperty(RDF.type, plan.objectType()).toSet();
                 for (Property originalProperty : attributes) {
-                        Configuration config = configurations.get(originalProperty);
-                        if (config == null) {
+                        Property suffixedProperty = plan.anonymizedProperties().get(originalProperty);
+                        if (suffixedProperty == null) {
                                 continue;
                         }
 
-                        String suffix = switch (config.getAnonymization()) {
-                                case "randomization" -> "_randomized";
-                                case "generalization" -> "_generalized";
-                                case "masking" -> "_masked";
-                                default -> null;
-                        };
-
-                        if (suffix == null)
-                                continue;
-
-                        Property suffixedProperty = model.createProperty(originalProperty.getURI() + suffix);
-
-                        // Copy all statements from suffixed property to original property
+                        // Copy the statements of the subjects from suffixed property to original property
                         List<Statement> statementsToAdd = new ArrayList<>();
+                        List<Statement> statementsToRemove = new ArrayList<>();
                         StmtIterator iter = model.listStatements(null, suffixedProperty, (RDFNode) null);
                         while (iter.hasNext()) {
                                 Statement stmt = iter.next();
-                                statementsToAdd.add(model.createStatement(stmt.getSubject(), originalProperty,
-                                                stmt.getObject()));
+                                if (subjects.contains(stmt.getSubject())) {
+                                        statementsToRemove.add(stmt);
+                                        statementsToAdd.add(model.createStatement(stmt.getSubject(),
+                                                        originalProperty, stmt.getObject()));
+                                }
                         }
 
-                        // Remove original property values first
-                        model.removeAll(null, originalProperty, null);
-
-                        // Add copied values to original property
-                        for (Statement stmt : statementsToAdd) {
-                                model.add(stmt);
-                        }
+                        // Remove original property values of the subjects first
+                        subjects.forEach(subject -> model.removeAll(subject, originalProperty, null));
 
-                        // Remove the suffixed property
-                        model.removeAll(null, suffixedProperty, null);
+                        // Add copied values to original property and remove the suffixed property
+                        model.add(statementsToAdd);
+                        model.remove(statementsToRemove);
                 }
         }
 }
@@ -0,0 +1,433 @@
+package com.example.anonymization.service;
+
+import com.example.anonymization.exceptions.RequestModelException;
+import com.example.anonymization.service.columnar.ColumnarFlatJsonService;
+import com.example.anonymization.service.columnar.FlatTable;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.*;
+import org.apache.arrow.vector.complex.StructVector;
+import org.apache.arrow.vector.dictionary.Dictionary;
+import org.apache.arrow.vector.dictionary.DictionaryEncoder;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.DateUnit;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.datatypes.xsd.XSDDateTime;
+import org.apache.jena.rdf.model.Literal;
+import org.apache.jena.rdf.model.ResourceFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+/**
+ * Reading and writing of tabular data in the Arrow IPC stream format. The vectors are read into the columns of a
+ * {@link FlatTable} and the columns of the anonymized table are written to vectors, without a row representation in
+ * between. Typed input columns are mapped onto the datatypes of the configuration: integer and floating point
+ * columns to integer and double, date columns to date, timestamp columns to dateTime and all other columns to
+ * string. The output uses the type of the input column an attribute was read from as far as the anonymized values
+ * allow it; generalization ranges are written as struct columns with a min and a max field. The buffers of all
+ * requests are taken from one allocator with a configured limit.
+ */
+@Service
+public class ArrowService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArrowService.class);
+
+    public static final String MEDIA_TYPE = "application/vnd.apache.arrow.stream";
+
+    private static final List<String> ANONYMIZED_SUFFIXES = List.of("_randomized", "_generalized", "_masked");
+    private static final String TYPES_SEPARATOR = ";";
+
+    private static final ArrowType INTEGER = new ArrowType.Int(64, true);
+    private static final ArrowType DOUBLE = new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE);
+    private static final ArrowType DATE = new ArrowType.Date(DateUnit.DAY);
+    private static final ArrowType DATE_TIME = new ArrowType.Timestamp(TimeUnit.MILLISECOND, "UTC");
+    private static final ArrowType STRING = ArrowType.Utf8.INSTANCE;
+
+    private static long memoryLimit = DataSize.ofMegabytes(512).toBytes();
+    private static BufferAllocator rootAllocator;
+
+    @Value("${anonymization.arrow.memory-limit:512MB}")
+    void setMemoryLimit(DataSize memoryLimit) {
+        synchronized (ArrowService.class) {
+            ArrowService.memoryLimit = memoryLimit.toBytes();
+            if (rootAllocator != null) {
+                rootAllocator.setLimit(ArrowService.memoryLimit);
+            }
+        }
+    }
+
+    /**
+     * Data of an Arrow request
+     *
+     * @param table the columns of the request
+     * @param types the Arrow type of each input column
+     */
+    public record ArrowData(FlatTable table, Map<String, ArrowType> types) {
+    }
+
+    /**
+     * @return an allocator for the buffers of one request, to be closed by the caller. The root allocator is created
+     *         when it is first used, so the application starts without the JVM options Arrow requires.
+     */
+    private static synchronized BufferAllocator requestAllocator(String name) {
+        if (rootAllocator == null) {
+            rootAllocator = new RootAllocator(memoryLimit);
+        }
+        return rootAllocator.newChildAllocator(name, 0, memoryLimit);
+    }
+
+    /**
+     * Reads an Arrow IPC stream batch by batch into the columns of a table. Dictionary encoded columns are decoded,
+     * null values are missing values and struct columns are read as objects. Integer and floating point values are
+     * kept as typed literals, all other values in the lexical form of the datatype the column is mapped onto. The
+     * type column holds the types of a row, separated by semicolons.
+     * @param content the Arrow IPC stream
+     * @param prefix prefix for the properties
+     * @return the table and the input column types
+     * @throws RequestModelException if the content is not a valid Arrow IPC stream
+     */
+    public static ArrowData read(InputStream content, String prefix) {
+        try (BufferAllocator allocator = requestAllocator("arrow-read");
+                ArrowStreamReader reader = new ArrowStreamReader(content, allocator)) {
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            List<Field> fields = root.getSchema().getFields();
+            Map<String, ArrowType> types = new LinkedHashMap<>();
+            fields.forEach(field -> {
+                FaltJsonService.validateKey(field.getName());
+                types.put(field.getName(), field.getType());
+            });
+            int typeColumn = List.copyOf(types.keySet()).indexOf("type");
+            Map<Object, Object> dictionary = new HashMap<>();
+            List<Set<String>> rowTypes = new ArrayList<>();
+            Object[][] cells = new Object[fields.size()][0];
+            int rowCount = 0;
+            while (reader.loadNextBatch()) {
+                int batchRows = root.getRowCount();
+                if (rowCount + batchRows > cells[0].length) {
+                    int capacity = Math.max(rowCount + batchRows, cells[0].length * 2);
+                    for (int column = 0; column < cells.length; column++) {
+                        cells[column] = Arrays.copyOf(cells[column], capacity);
+                    }
+                }
+                for (int row = 0; row < batchRows; row++) {
+                    rowTypes.add(new LinkedHashSet<>());
+                }
+                for (int column = 0; column < fields.size(); column++) {
+                    FieldVector vector = root.getVector(column);
+                    boolean decoded = fields.get(column).getDictionary() != null;
+                    if (decoded) {
+                        Dictionary encoding = reader.getDictionaryVectors()
+                                .get(fields.get(column).getDictionary().getId());
+                        vector = (FieldVector) DictionaryEncoder.decode(vector, encoding);
+                    }
+                    try {
+                        for (int row = 0; row < batchRows; row++) {
+                            if (vector.isNull(row)) {
+                                continue;
+                            }
+                            if (column == typeColumn) {
+                                for (String type : lexical(vector, row).split(TYPES_SEPARATOR)) {
+                                    rowTypes.get(rowCount + row).add(prefix + type.trim());
+                                }
+                            } else {
+                                cells[column][rowCount + row] = readValue(vector, row, prefix, dictionary);
+                            }
+                        }
+                    } finally {
+                        if (decoded) {
+                            vector.close();
+                        }
+                    }
+                }
+                rowCount += batchRows;
+            }
+            Map<String, Object[]> columns = new LinkedHashMap<>();
+            for (int column = 0; column < fields.size(); column++) {
+                if (column != typeColumn) {
+                    columns.put(prefix + fields.get(column).getName(), Arrays.copyOf(cells[column], rowCount));
+                }
+            }
+            logger.debug("Arrow data read [columns={}, rows={}, distinctValues={}]",
+                    fields.size(), rowCount, dictionary.size());
+            return new ArrowData(FlatTable.of(prefix, rowTypes, columns), types);
+        } catch (IOException | RuntimeException e) {
+            throw new RequestModelException("The Arrow data could not be read: " + e.getMessage());
+        }
+    }
+
+    private static Object readValue(FieldVector vector, int row, String prefix, Map<Object, Object> dictionary) {
+        Object value = switch (vector) {
+            case StructVector struct -> {
+                Map<String, String> object = new LinkedHashMap<>();
+                for (FieldVector child : struct.getChildrenFromFields()) {
+                    if (!child.isNull(row)) {
+                        object.put(prefix + child.getName(), lexical(child, row));
+                    }
+                }
+                yield object;
+            }
+            case BaseIntVector integer -> integer.getValueAsLong(row);
+            case Float4Vector floating -> (double) floating.get(row);
+            case Float8Vector floating -> floating.get(row);
+            default -> lexical(vector, row);
+        };
+        return switch (value) {
+            case Map<?, ?> object -> object;
+            case String text -> dictionary.computeIfAbsent(text, _ -> text);
+            default -> dictionary.computeIfAbsent(value, ResourceFactory::createTypedLiteral);
+        };
+    }
+
+    /**
+     * @return the value in the lexical form of the XSD datatype the column is mapped onto
+     */
+    private static String lexical(FieldVector vector, int row) {
+        return switch (vector) {
+            case DateDayVector date -> LocalDate.ofEpochDay(date.get(row)).toString();
+            case DateMilliVector date -> LocalDate.ofEpochDay(Math.floorDiv(date.get(row), 86_400_000L)).toString();
+            case TimeStampVector timestamp -> {
+                ArrowType.Timestamp type = (ArrowType.Timestamp) timestamp.getField().getType();
+                Instant instant = toInstant(timestamp.get(row), type.getUnit());
+                yield type.getTimezone() == null
+                        ? LocalDateTime.ofInstant(instant, ZoneOffset.UTC).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
+                        : instant.toString();
+            }
+            case Float4Vector floating -> Double.toString(floating.get(row));
+            case Float8Vector floating -> Double.toString(floating.get(row));
+            case DecimalVector decimal -> decimal.getObject(row).toPlainString();
+            default -> vector.getObject(row).toString();
+        };
+    }
+
+    private static Instant toInstant(long value, TimeUnit unit) {
+        return switch (unit) {
+            case SECOND -> Instant.ofEpochSecond(value);
+            case MILLISECOND -> Instant.ofEpochMilli(value);
+            case MICROSECOND -> Instant.ofEpochSecond(Math.floorDiv(value, 1_000_000L),
+                    Math.floorMod(value, 1_000_000L) * 1_000L);
+            case NANOSECOND -> Instant.ofEpochSecond(Math.floorDiv(value, 1_000_000_000L),
+                    Math.floorMod(value, 1_000_000_000L));
+        };
+    }
+
+    /**
+     * Writes the output columns of an anonymized table as Arrow IPC stream with one record batch. Columns without
+     * any value are left out.
+     * @param columns the output columns by name, see {@link ColumnarFlatJsonService#outputColumns}
+     * @param rowCount number of rows of the table
+     * @param inputTypes the Arrow type of each input column
+     * @return the Arrow IPC stream
+     */
+    public static byte[] write(Map<String, Object[]> columns, int rowCount, Map<String, ArrowType> inputTypes) {
+        int rows = columns.isEmpty() ? 0 : rowCount;
+        List<Field> fields = new ArrayList<>();
+        Map<String, Object[][]> values = new HashMap<>();
+        columns.forEach((name, cells) -> {
+            if (Arrays.stream(cells).anyMatch(Objects::nonNull)) {
+                Typed typed = createColumn(name, cells, inputTypes.get(baseName(name)));
+                fields.add(typed.field());
+                values.put(name, typed.values());
+            }
+        });
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (BufferAllocator allocator = requestAllocator("arrow-write");
+                VectorSchemaRoot root = VectorSchemaRoot.create(new Schema(fields), allocator)) {
+            root.allocateNew();
+            for (Field field : fields) {
+                Object[][] fieldValues = values.get(field.getName());
+                FieldVector vector = root.getVector(field.getName());
+                if (vector instanceof StructVector struct) {
+                    Object[] cells = columns.get(field.getName());
+                    List<FieldVector> children = struct.getChildrenFromFields();
+                    for (int row = 0; row < rows; row++) {
+                        if (cells[row] != null) {
+                            struct.setIndexDefined(row);
+                            for (int child = 0; child < children.size(); child++) {
+                                setValue(children.get(child), row, fieldValues[child][row]);
+                            }
+                        }
+                    }
+                    children.forEach(child -> child.setValueCount(rows));
+                } else {
+                    for (int row = 0; row < rows; row++) {
+                        setValue(vector, row, fieldValues[0][row]);
+                    }
+                }
+                vector.setValueCount(rows);
+            }
+            root.setRowCount(rows);
+            try (ArrowStreamWriter writer = new ArrowStreamWriter(
+                    root, new DictionaryProvider.MapDictionaryProvider(), out)) {
+                writer.start();
+                writer.writeBatch();
+                writer.end();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write Arrow output: " + e.getMessage(), e);
+        }
+        logger.debug("Arrow output written [columns={}, rows={}, bytes={}]", fields.size(), rows, out.size());
+        return out.toByteArray();
+    }
+
+    /**
+     * Field of an output column with the values of its vectors: one array for a scalar column, the minimums and the
+     * maximums for a generalization range column
+     */
+    private record Typed(Field field, Object[][] values) {
+    }
+
+    private static Typed createColumn(String name, Object[] cells, ArrowType inputType) {
+        if (Arrays.stream(cells).anyMatch(cell -> cell instanceof ColumnarFlatJsonService.Range)) {
+            Object[] minimums = new Object[cells.length];
+            Object[] maximums = new Object[cells.length];
+            for (int row = 0; row < cells.length; row++) {
+                if (cells[row] instanceof ColumnarFlatJsonService.Range range) {
+                    minimums[row] = range.min();
+                    maximums[row] = range.max();
+                }
+            }
+            // both bounds share the type chosen for all of them
+            Typed bounds = chooseType(Field.nullable("min", STRING), inputType, false, minimums, maximums);
+            ArrowType boundType = bounds.field().getType();
+            return new Typed(new Field(name, FieldType.nullable(ArrowType.Struct.INSTANCE), List.of(
+                    Field.nullable("min", boundType),
+                    Field.nullable("max", boundType))), bounds.values());
+        }
+        return chooseType(Field.nullable(name, STRING), inputType, true, cells);
+    }
+
+    /**
+     * Chooses the output type for the cells of a column: the type the input column is mapped onto if all values
+     * can be represented with it, or string otherwise.
+     * @return the field with the chosen type and the values of the cells in that type
+     */
+    private static Typed chooseType(Field field, ArrowType inputType, boolean integerAllowed, Object[]... cells) {
+        List<ArrowType> candidates = inputType == null ? List.of() : switch (inputType.getTypeID()) {
+            case Int -> integerAllowed ? List.of(INTEGER, DOUBLE) : List.of(DOUBLE);
+            case FloatingPoint, Decimal -> List.of(DOUBLE);
+            case Date -> List.of(DATE);
+            case Timestamp -> List.of(DATE_TIME);
+            default -> List.of();
+        };
+        for (ArrowType candidate : candidates) {
+            Object[][] values = convert(candidate, cells);
+            if (values != null) {
+                return new Typed(Field.nullable(field.getName(), candidate), values);
+            }
+        }
+        return new Typed(field, convert(STRING, cells));
+    }
+
+    /**
+     * @return the values of the cells as set on a vector of the type, or null if a value cannot be represented
+     */
+    private static Object[][] convert(ArrowType type, Object[]... cells) {
+        Object[][] values = new Object[cells.length][];
+        try {
+            for (int i = 0; i < cells.length; i++) {
+                values[i] = new Object[cells[i].length];
+                for (int row = 0; row < cells[i].length; row++) {
+                    if (cells[i][row] != null) {
+                        values[i][row] = convert(type, cells[i][row]);
+                    }
+                }
+            }
+            return values;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Converts a cell to the value of a vector. The values of typed literals are taken as they are, strings are
+     * parsed.
+     */
+    private static Object convert(ArrowType type, Object cell) {
+        Object value = cell instanceof Literal literal ? literal.getValue() : cell;
+        if (INTEGER.equals(type)) {
+            return switch (value) {
+                case Long number -> number;
+                case Integer number -> number.longValue();
+                case Short number -> number.longValue();
+                case Byte number -> number.longValue();
+                case BigInteger number -> number.longValueExact();
+                default -> Long.parseLong(text(cell));
+            };
+        }
+        if (DOUBLE.equals(type)) {
+            return value instanceof Number number ? number.doubleValue() : new BigDecimal(text(cell)).doubleValue();
+        }
+        if (DATE.equals(type)) {
+            String text = text(cell);
+            return (int) LocalDate.parse(text.length() > 10 ? text.substring(0, 10) : text).toEpochDay();
+        }
+        if (DATE_TIME.equals(type)) {
+            if (value instanceof XSDDateTime dateTime
+                    && XSDDatatype.XSDdateTime.equals(dateTime.getNarrowedDatatype())) {
+                return dateTime.asCalendar().getTimeInMillis();
+            }
+            try {
+                return OffsetDateTime.parse(text(cell)).toInstant().toEpochMilli();
+            } catch (DateTimeException e) {
+                return LocalDateTime.parse(text(cell)).toInstant(ZoneOffset.UTC).toEpochMilli();
+            }
+        }
+        return text(cell);
+    }
+
+    private static void setValue(FieldVector vector, int row, Object value) {
+        if (value == null) {
+            return;
+        }
+        switch (vector) {
+            case BigIntVector integer -> integer.setSafe(row, (Long) value);
+            case Float8Vector floating -> floating.setSafe(row, (Double) value);
+            case DateDayVector date -> date.setSafe(row, (Integer) value);
+            case TimeStampMilliTZVector timestamp -> timestamp.setSafe(row, (Long) value);
+            case VarCharVector string -> string.setSafe(row, ((String) value).getBytes(StandardCharsets.UTF_8));
+            default -> throw new IllegalStateException("Unexpected output vector: " + vector.getField());
+        }
+    }
+
+    /**
+     * @return the text of a cell as in the flat JSON output, with the types of a row separated by semicolons
+     */
+    private static String text(Object cell) {
+        return switch (cell) {
+            case Literal literal -> literal.getValue().toString();
+            case List<?> items -> String.join(TYPES_SEPARATOR, items.stream().map(Object::toString).toList());
+            default -> cell.toString();
+        };
+    }
+
+    private static String baseName(String name) {
+        for (String suffix : ANONYMIZED_SUFFIXES) {
+            if (name.endsWith(suffix)) {
+                return name.substring(0, name.length() - suffix.length());
+            }
+        }
+        return name;
+    }
+}
@@ -0,0 +1,292 @@
+package com.example.anonymization.service;
+
+import com.example.anonymization.entities.AnonymizationPlan;
+import com.example.anonymization.entities.Configuration;
+import com.example.anonymization.entities.ObjectGeneralizationConfig;
+import com.example.anonymization.exceptions.OntologyException;
+import jakarta.validation.constraints.NotNull;
+import org.apache.jena.rdf.model.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Cache of anonymization plans extracted from ontology configurations, keyed by configuration URL.
+ * Entries are served fresh within the TTL, served stale while a background revalidation runs within the stale
+ * window and revalidated synchronously afterwards. Revalidation uses conditional requests (ETag/Last-Modified).
+ * Failures of any kind are cached for a short time to protect slow or broken ontology hosts; if a configuration was
+ * loaded before, its plans keep being served until a revalidation succeeds or the stale-if-error window after their
+ * expiry has passed, after which the failure is returned.
+ */
+@Service
+public class ConfigurationCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConfigurationCache.class);
+
+    private static Duration ttl = Duration.ofMinutes(10);
+    private static Duration staleWindow = Duration.ofHours(1);
+    private static Duration negativeTtl = Duration.ofSeconds(30);
+    private static Duration staleIfError = Duration.ofDays(1);
+    private static long maxWeight = 50_000;
+
+    // access ordered, guarded by itself
+    private static final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private static long currentWeight = 0;
+    private static long version = 0;
+
+    private static final Map<String, CompletableFuture<CacheEntry>> inFlight = new ConcurrentHashMap<>();
+    private static final ExecutorService refreshExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${anonymization.config-cache.ttl:10m}")
+    void setTtl(Duration ttl) {
+        ConfigurationCache.ttl = ttl;
+    }
+
+    @Value("${anonymization.config-cache.stale-window:1h}")
+    void setStaleWindow(Duration staleWindow) {
+        ConfigurationCache.staleWindow = staleWindow;
+    }
+
+    @Value("${anonymization.config-cache.negative-ttl:30s}")
+    void setNegativeTtl(Duration negativeTtl) {
+        ConfigurationCache.negativeTtl = negativeTtl;
+    }
+
+    @Value("${anonymization.config-cache.stale-if-error:1d}")
+    void setStaleIfError(Duration staleIfError) {
+        ConfigurationCache.staleIfError = staleIfError;
+    }
+
+    @Value("${anonymization.config-cache.max-weight:50000}")
+    void setMaxWeight(long maxWeight) {
+        ConfigurationCache.maxWeight = maxWeight;
+    }
+
+    /**
+     * Returns the anonymization plans for the given URL, fetching or revalidating the configuration if required.
+     * @param url The URL of the ontology
+     * @return A map where the key is the Resource (object) and the value is its anonymization plan.
+     */
+    @NotNull
+    public static Map<Resource, AnonymizationPlan> getPlans(String url) {
+        CacheEntry entry = lookup(url);
+        if (entry == null) {
+            entry = ConfigurationSnapshot.restore(url);
+            if (entry != null) {
+                store(url, entry);
+            }
+        }
+        if (entry != null && entry.failure() != null
+                && Duration.between(entry.failedAt(), Instant.now()).compareTo(negativeTtl) < 0) {
+            if (entry.plans() == null || !servableOnError(entry)) {
+                logger.debug("Config cache negative hit [url={}]", url);
+                throw new OntologyException(entry.failure());
+            }
+            logger.debug("Config cache negative hit, serving previous config [url={}]", url);
+            return entry.plans();
+        }
+        if (entry != null && entry.plans() != null) {
+            Duration age = Duration.between(entry.fetchedAt(), Instant.now());
+            if (age.compareTo(ttl) < 0) {
+                logger.debug("Config cache hit [url={}]", url);
+                return entry.plans();
+            } else if (age.compareTo(ttl.plus(staleWindow)) < 0
+                    && (entry.failure() == null || servableOnError(entry))) {
+                logger.debug("Config cache stale hit, revalidating in background [url={}]", url);
+                scheduleRefresh(url, entry);
+                return entry.plans();
+            }
+        }
+        logger.debug("Config cache miss [url={}]", url);
+        return refresh(url, entry);
+    }
+
+    /**
+     * @return copy of all entries with loaded plans by URL
+     */
+    static Map<String, CacheEntry> loadedEntries() {
+        synchronized (entries) {
+            Map<String, CacheEntry> loaded = new HashMap<>();
+            entries.forEach((url, entry) -> {
+                if (entry.plans() != null) {
+                    loaded.put(url, entry);
+                }
+            });
+            return loaded;
+        }
+    }
+
+    /**
+     * @return counter that changes whenever an entry is stored
+     */
+    static long version() {
+        synchronized (entries) {
+            return version;
+        }
+    }
+
+    /**
+     * Removes all cached configurations
+     */
+    public static void clear() {
+        synchronized (entries) {
+            entries.clear();
+            currentWeight = 0;
+        }
+    }
+
+    private static Map<Resource, AnonymizationPlan> refresh(String url, CacheEntry previous) {
+        try {
+            return load(url, validatorsOf(previous)).join().plans();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static void scheduleRefresh(String url, CacheEntry previous) {
+        if (inFlight.containsKey(url)) {
+            return;
+        }
+        refreshExecutor.execute(() -> load(url, previous));
+    }
+
+    /**
+     * Loads the configuration unless a load for the same URL is already in flight, in which case the caller
+     * joins the running load. A failure is cached; with a previous entry still within the stale-if-error window
+     * the load completes with its plans.
+     */
+    private static CompletableFuture<CacheEntry> load(String url, CacheEntry previous) {
+        CompletableFuture<CacheEntry> created = new CompletableFuture<>();
+        CompletableFuture<CacheEntry> running = inFlight.putIfAbsent(url, created);
+        if (running != null) {
+            logger.debug("Joining in-flight config fetch [url={}]", url);
+            return running;
+        }
+        try {
+            CacheEntry entry = ConfigurationService.loadConfiguration(url, previous);
+            store(url, entry);
+            created.complete(entry);
+        } catch (RuntimeException e) {
+            if (previous != null && servableOnError(previous)) {
+                logger.warn("Config revalidation failed, keeping previous config [url={}]: {}", url, e.getMessage());
+                CacheEntry kept = previous.withFailure(e.getMessage());
+                store(url, kept);
+                created.complete(kept);
+            } else if (previous != null) {
+                logger.warn("Config revalidation failed past the stale-if-error window [url={}]: {}",
+                        url, e.getMessage());
+                store(url, previous.withFailure(e.getMessage()));
+                created.completeExceptionally(e);
+            } else {
+                store(url, CacheEntry.failed(e.getMessage()));
+                created.completeExceptionally(e);
+            }
+        } finally {
+            inFlight.remove(url, created);
+        }
+        return created;
+    }
+
+    /**
+     * @return whether the plans of the entry may still be served after a failed revalidation
+     */
+    private static boolean servableOnError(CacheEntry entry) {
+        return Duration.between(entry.fetchedAt(), Instant.now()).compareTo(ttl.plus(staleIfError)) < 0;
+    }
+
+    private static CacheEntry validatorsOf(CacheEntry entry) {
+        return entry != null && entry.plans() != null ? entry : null;
+    }
+
+    private static CacheEntry lookup(String url) {
+        synchronized (entries) {
+            return entries.get(url);
+        }
+    }
+
+    private static void store(String url, CacheEntry entry) {
+        synchronized (entries) {
+            version++;
+            CacheEntry replaced = entries.put(url, entry);
+            if (replaced != null) {
+                currentWeight -= replaced.weight();
+            }
+            currentWeight += entry.weight();
+            Iterator<Map.Entry<String, CacheEntry>> eldest = entries.entrySet().iterator();
+            while (currentWeight > maxWeight && entries.size() > 1 && eldest.hasNext()) {
+                Map.Entry<String, CacheEntry> evicted = eldest.next();
+                if (evicted.getKey().equals(url)) {
+                    continue;
+                }
+                currentWeight -= evicted.getValue().weight();
+                eldest.remove();
+                logger.debug("Config cache evicted [url={}]", evicted.getKey());
+            }
+        }
+    }
+
+    /**
+     * Cached plans of one URL together with the validators of the response they were extracted from.
+     * After a failed load the entry holds the failure message and its time, and the previous plans if there were
+     * any.
+     */
+    public record CacheEntry(
+            Map<Resource, AnonymizationPlan> plans,
+            String etag,
+            String lastModified,
+            Instant fetchedAt,
+            String failure,
+            Instant failedAt,
+            long weight) {
+
+        static CacheEntry of(Map<Resource, AnonymizationPlan> plans, String etag, String lastModified) {
+            return of(plans, etag, lastModified, Instant.now());
+        }
+
+        static CacheEntry of(
+                Map<Resource, AnonymizationPlan> plans,
+                String etag,
+                String lastModified,
+                Instant fetchedAt) {
+            return new CacheEntry(plans, etag, lastModified, fetchedAt, null, null, weigh(plans));
+        }
+
+        static CacheEntry failed(String failure) {
+            Instant now = Instant.now();
+            return new CacheEntry(null, null, null, now, failure, now, 1);
+        }
+
+        CacheEntry revalidated() {
+            return new CacheEntry(plans, etag, lastModified, Instant.now(), null, null, weight);
+        }
+
+        CacheEntry withFailure(String failure) {
+            return new CacheEntry(plans, etag, lastModified, fetchedAt, failure, Instant.now(), weight);
+        }
+
+        private static long weigh(Map<Resource, AnonymizationPlan> plans) {
+            long weight = 1;
+            for (AnonymizationPlan plan : plans.values()) {
+                for (Configuration config : plan.configurations().values()) {
+                    weight += config instanceof ObjectGeneralizationConfig objectConfig
+                            ? 1 + objectConfig.getAttributeOrder().size()
+                            : 1;
+                }
+            }
+            return weight;
+        }
+    }
+}
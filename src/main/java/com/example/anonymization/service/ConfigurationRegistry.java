@@ -0,0 +1,240 @@
+package com.example.anonymization.service;
+
+import com.example.anonymization.entities.AnonymizationPlan;
+import jakarta.annotation.PostConstruct;
+import org.apache.jena.rdf.model.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.*;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registry of configurations that are loaded from local files or the classpath at startup.
+ * Configurations are registered under their location (e.g. classpath:configs/demo.jsonld) and optionally under a
+ * remote URL they replace. Configurations stored in the file system are reloaded when the file changes: the events of
+ * a burst of changes are collected and each changed file is reloaded once for the locations and mappings it belongs
+ * to. A deleted file is unregistered and registered again when it is created anew.
+ */
+@Service
+@DependsOn("anonymizerRegistry")
+public class ConfigurationRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConfigurationRegistry.class);
+
+    private static final ResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+
+    private static List<String> locations = List.of();
+    private static List<String> mappings = List.of();
+    private static boolean watch = true;
+    private static Duration debounce = Duration.ofMillis(500);
+
+    private static final Map<String, Map<Resource, AnonymizationPlan>> configs = new ConcurrentHashMap<>();
+    private static final Map<String, org.springframework.core.io.Resource> sources = new ConcurrentHashMap<>();
+    private static final Map<String, String> mappedLocations = new ConcurrentHashMap<>();
+
+    @Value("${anonymization.config-registry.locations:}")
+    void setLocations(List<String> locations) {
+        ConfigurationRegistry.locations = locations;
+    }
+
+    @Value("${anonymization.config-registry.mappings:}")
+    void setMappings(List<String> mappings) {
+        ConfigurationRegistry.mappings = mappings;
+    }
+
+    @Value("${anonymization.config-registry.watch:true}")
+    void setWatch(boolean watch) {
+        ConfigurationRegistry.watch = watch;
+    }
+
+    @Value("${anonymization.config-registry.debounce:500ms}")
+    void setDebounce(Duration debounce) {
+        ConfigurationRegistry.debounce = debounce;
+    }
+
+    /**
+     * Returns the anonymization plans of the registered configuration for the given URL
+     * @param url The configuration URL of the request
+     * @return the plans, or null if no configuration is registered for the URL
+     */
+    public static Map<Resource, AnonymizationPlan> lookup(String url) {
+        return configs.get(url);
+    }
+
+    @PostConstruct
+    void preload() {
+        locations.forEach(ConfigurationRegistry::loadLocation);
+        for (String mapping : mappings) {
+            int separator = mapping.lastIndexOf('=');
+            if (separator <= 0) {
+                logger.warn("Ignoring invalid configuration mapping, expected <url>=<location> [mapping={}]", mapping);
+                continue;
+            }
+            String url = mapping.substring(0, separator).trim();
+            String location = mapping.substring(separator + 1).trim();
+            mappedLocations.put(url, location);
+            register(url, resolver.getResource(location));
+        }
+        logger.info("Configuration registry loaded [configs={}]", configs.size());
+        if (watch) {
+            startWatching();
+        }
+    }
+
+    private static void loadLocation(String location) {
+        String pattern = location.endsWith("/") ? location + "*" : location;
+        String base = pattern.substring(0, pattern.lastIndexOf('/') + 1);
+        try {
+            for (org.springframework.core.io.Resource source : resolver.getResources(pattern)) {
+                if (source.isReadable() && source.getFilename() != null) {
+                    register(base + source.getFilename(), source);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to resolve configuration location [location={}]: {}", location, e.getMessage());
+        }
+    }
+
+    private static void register(String key, org.springframework.core.io.Resource source) {
+        try (InputStream content = source.getInputStream()) {
+            configs.put(key, ConfigurationService.readConfiguration(key, content));
+            sources.put(key, source);
+            logger.info("Registered local configuration [url={}, source={}]", key, source.getDescription());
+        } catch (Exception e) {
+            logger.error("Failed to load local configuration, keeping previous version [url={}]: {}",
+                    key, e.getMessage());
+        }
+    }
+
+    private static void startWatching() {
+        Set<Path> directories = new HashSet<>();
+        locations.forEach(location -> addDirectory(directories, directoryOf(location)));
+        mappedLocations.values().forEach(location -> {
+            Path file = filePathOf(location);
+            addDirectory(directories, file != null ? file.getParent() : null);
+        });
+        if (directories.isEmpty()) {
+            return;
+        }
+        try {
+            WatchService watchService = FileSystems.getDefault().newWatchService();
+            for (Path directory : directories) {
+                directory.register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_DELETE);
+            }
+            Thread.ofPlatform().daemon().name("config-registry-watch").start(() -> watch(watchService));
+            logger.info("Watching local configurations for changes [directories={}]", directories.size());
+        } catch (IOException e) {
+            logger.warn("Hot reload of local configurations disabled: {}", e.getMessage());
+        }
+    }
+
+    private static void addDirectory(Set<Path> directories, Path directory) {
+        if (directory != null && Files.isDirectory(directory)) {
+            directories.add(directory);
+        }
+    }
+
+    private static void watch(WatchService watchService) {
+        Map<Path, WatchEvent.Kind<?>> pending = new LinkedHashMap<>();
+        while (true) {
+            try {
+                WatchKey key = watchService.take();
+                // collect the events until the files are quiet for the debounce interval
+                while (key != null) {
+                    Path directory = (Path) key.watchable();
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.context() instanceof Path file) {
+                            Path changed = directory.resolve(file);
+                            pending.remove(changed);
+                            pending.put(changed, event.kind());
+                        }
+                    }
+                    key.reset();
+                    key = watchService.poll(debounce.toMillis(), TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            pending.forEach(ConfigurationRegistry::reload);
+            pending.clear();
+        }
+    }
+
+    /**
+     * Applies the last change of a file to the configurations registered from it
+     * @param changed the absolute path of the file
+     * @param kind the kind of the last event of the file
+     */
+    static void reload(Path changed, WatchEvent.Kind<?> kind) {
+        if (kind == StandardWatchEventKinds.ENTRY_DELETE) {
+            sources.forEach((url, source) -> {
+                if (changed.equals(pathOf(source))) {
+                    configs.remove(url);
+                    sources.remove(url);
+                    logger.info("Local configuration removed [url={}]", url);
+                }
+            });
+            return;
+        }
+        if (!Files.isRegularFile(changed)) {
+            return;
+        }
+        FileSystemResource source = new FileSystemResource(changed);
+        mappedLocations.forEach((url, location) -> {
+            if (changed.equals(filePathOf(location))) {
+                register(url, source);
+            }
+        });
+        for (String location : locations) {
+            String pattern = location.endsWith("/") ? location + "*" : location;
+            Path directory = directoryOf(location);
+            if (directory != null && directory.equals(changed.getParent())
+                    && FileSystems.getDefault()
+                    .getPathMatcher("glob:" + pattern.substring(pattern.lastIndexOf('/') + 1))
+                    .matches(changed.getFileName())) {
+                register(pattern.substring(0, pattern.lastIndexOf('/') + 1) + changed.getFileName(), source);
+            }
+        }
+    }
+
+    /**
+     * @return the absolute directory of a file location, or null for other locations
+     */
+    private static Path directoryOf(String location) {
+        if (!location.startsWith("file:") || location.lastIndexOf('/') < 0) {
+            return null;
+        }
+        Path file = filePathOf(location.substring(0, location.lastIndexOf('/') + 1) + "_");
+        return file != null ? file.getParent() : null;
+    }
+
+    /**
+     * @return the absolute path of a file location, or null for other locations
+     */
+    private static Path filePathOf(String location) {
+        return location.startsWith("file:") ? pathOf(resolver.getResource(location)) : null;
+    }
+
+    private static Path pathOf(org.springframework.core.io.Resource source) {
+        try {
+            return source.isFile() ? source.getFile().toPath().toAbsolutePath() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
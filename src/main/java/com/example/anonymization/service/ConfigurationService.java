@@ -1,9 +1,12 @@
 package com.example.anonymization.service;
 
+import com.example.anonymization.data.NodeCache;
+import com.example.anonymization.entities.AnonymizationPlan;
 import com.example.anonymization.entities.Configuration;
 import com.example.anonymization.data.QueryService;
 import com.example.anonymization.entities.ObjectGeneralizationConfig;
 import com.example.anonymization.exceptions.OntologyException;
+import com.example.anonymization.service.anonymizer.AnonymizerFactory;
 import jakarta.validation.constraints.NotNull;
 import org.apache.jena.rdf.model.*;
 import org.apache.jena.riot.Lang;
@@ -13,12 +16,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import java.io.StringReader;
-import java.net.URI;
-import java.net.URISyntaxException;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
 import java.util.*;
 
 @Service
@@ -27,40 +26,98 @@ public class ConfigurationService {
     private static final Logger logger = LoggerFactory.getLogger(ConfigurationService.class);
 
     /**
-     * Fetches the configuration from the given URL and extracts it into a map.
+     * Fetches the configuration from the given URL and extracts it into an anonymization plan per object.
+     * Configurations registered locally are returned without fetching.
      * @param url The URL to fetch the configuration from.
-     * @return A map where the key is the Resource (object) and the value is another map
-     * mapping Properties to their Configurations.
+     * @return A map where the key is the Resource (object) and the value is the plan holding the
+     * Configurations of its Properties.
      */
     @NotNull
-    public static Map<Resource, Map<Property, Configuration>> fetchConfigForObjects(String url) {
-        return extractConfig(getModel(url));
+    public static Map<Resource, AnonymizationPlan> fetchPlansForObjects(String url) {
+        Map<Resource, AnonymizationPlan> registered = ConfigurationRegistry.lookup(url);
+        if (registered != null) {
+            logger.debug("Using locally registered config [url={}]", url);
+            return registered;
+        }
+        return ConfigurationCache.getPlans(url);
+    }
+
+    /**
+     * Fetches and extracts the configuration from the given URL. If a previous entry is given, the request is
+     * conditional and the previous entry is revalidated when the ontology did not change.
+     * @param url The URL to fetch the configuration from.
+     * @param previous The previously cached entry for the URL, or null.
+     * @return The cache entry holding the extracted configuration.
+     */
+    @NotNull
+    static ConfigurationCache.CacheEntry loadConfiguration(String url, ConfigurationCache.CacheEntry previous) {
+        logger.info("Fetching ontology config [url={}, conditional={}]", url, previous != null);
+        Map<String, String> headers = new HashMap<>();
+        if (previous != null && previous.etag() != null) {
+            headers.put("If-None-Match", previous.etag());
+        }
+        if (previous != null && previous.lastModified() != null) {
+            headers.put("If-Modified-Since", previous.lastModified());
+        }
+        return OntologyHttpClient.get(url, headers, (status, responseHeaders, body) -> {
+            if (status == 304 && previous != null) {
+                logger.debug("Ontology not modified, revalidated cached config [url={}]", url);
+                return previous.revalidated();
+            } else if (status >= 200 && status < 300) {
+                return ConfigurationCache.CacheEntry.of(
+                        readConfiguration(url, body),
+                        responseHeaders.firstValue("ETag").orElse(null),
+                        responseHeaders.firstValue("Last-Modified").orElse(null));
+            } else {
+                throw new OntologyException(
+                        String.format("Failed to fetch ontology from URL: %s. HTTP status: %d", url, status)
+                );
+            }
+        });
     }
 
     /**
      * Creates a flat configuration from anonymization objects
-     * @param configs The map of anonymization objects to their configurations
+     * @param plans The map of anonymization objects to their plans
      * @return A flat map where the key is the Property and the value is its Configuration.
      */
     @NotNull
-    public static Map<Property, Configuration> createFlatConfig(Map<Resource, Map<Property, Configuration>> configs) {
+    public static Map<Property, Configuration> createFlatConfig(Map<Resource, AnonymizationPlan> plans) {
          Map<Property, Configuration> flatConfig = new HashMap<>();
-         for (Map<Property, Configuration> configMap : configs.values()) {
-             flatConfig.putAll(configMap);
+         for (AnonymizationPlan plan : plans.values()) {
+             flatConfig.putAll(plan.configurations());
          }
          return flatConfig;
     }
 
+    /**
+     * Parses a JSON-LD ontology and extracts its configuration.
+     * @param source The URL or location the content was read from.
+     * @param content The JSON-LD content of the ontology.
+     * @return A map where the key is the Resource (object) and the value is its anonymization plan.
+     */
+    @NotNull
+    static Map<Resource, AnonymizationPlan> readConfiguration(String source, InputStream content)
+            throws IOException {
+        return extractConfig(getModel(source, content));
+    }
+
     @NotNull
-    private static Model getModel(String url) {
-        logger.info("Fetching ontology config [url={}]", url);
-        String configString = fetchStringContent(url);
-        logger.debug("Config fetched successfully [url={}, length={}]", url, configString.length());
+    private static Model getModel(String url, InputStream content) throws IOException {
+        PushbackInputStream configStream = new PushbackInputStream(content);
+        int firstByte = configStream.read();
+        if (firstByte == -1) {
+            throw new OntologyException(
+                    "Successful request but empty response body for fetching ontology from: " + url
+            );
+        }
+        configStream.unread(firstByte);
         try {
             Model configModel = ModelFactory.createDefaultModel();
             RDFParser.create()
-                    .source(new StringReader(configString))
+                    .source(configStream)
                     .lang(Lang.JSONLD)
+                    .context(JsonLdDocumentLoader.parserContext())
                     .parse(configModel);
             return configModel;
         } catch (Exception e) {
@@ -69,42 +126,17 @@ public class ConfigurationService {
         }
     }
 
+    /**
+     * Extracts the configuration of a parsed ontology into an anonymization plan per object.
+     * @param model The ontology model.
+     * @return A map where the key is the Resource (object) and the value is its anonymization plan.
+     */
     @NotNull
-    private static String fetchStringContent(String url) {
-        try {
-            HttpClient client = HttpClient.newHttpClient();
-            HttpRequest request = HttpRequest.newBuilder().uri(new URI(url)).GET().build();
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-
-            int status = response.statusCode();
-            if (status >= 200 && status < 300) {
-                String body = response.body();
-                if (body == null || body.isEmpty()) {
-                    throw new OntologyException(
-                            "Successful request but empty response body for fetching ontology from: " + url
-                    );
-                }
-                return body;
-            } else {
-                throw new OntologyException(
-                        String.format("Failed to fetch ontology from URL: %s. HTTP status: %d", url, status)
-                );
-            }
-        } catch (URISyntaxException | IOException e) {
-            logger.error("Failed to fetch ontology [url={}]: {}", url, e.getMessage());
-            throw new OntologyException("Failed to fetch ontology from URL: " + url);
-        } catch (InterruptedException e) {
-            logger.error("Thread interrupted while fetching ontology [url={}]", url);
-            Thread.currentThread().interrupt();
-            throw new OntologyException("Thread was interrupted while fetching ontology from URL: " + url);
-        }
-    }
-
-    @NotNull
-    private static Map<Resource, Map<Property, Configuration>> extractConfig(Model model) {
+    static Map<Resource, AnonymizationPlan> extractConfig(Model model) {
         Map<Resource, Map<Property, Configuration>> configs = new HashMap<>();
         Set<Property> properties = new HashSet<>();
         logger.debug("Extracting configuration from server response");
+        Map<String, List<String>> attributeOrders = QueryService.getAttributeOrders(model);
         QueryService.getConfigurations(model).forEach(entry -> {
             if (properties.contains(entry.property())) {
                 throw new OntologyException(
@@ -117,7 +149,10 @@ public class ConfigurationService {
             }
             configs.get(entry.object()).put(
                     entry.property(),
-                    createConfiguration(entry.datatype(), entry.anonymization(), entry.property(), model)
+                    createConfiguration(
+                            entry.datatype(),
+                            entry.anonymization(),
+                            attributeOrders.getOrDefault(entry.property().getURI(), List.of()))
             );
             logger.debug(
                     "Config entry parsed [property={}, datatype={}, anonymization={}]",
@@ -127,21 +162,49 @@ public class ConfigurationService {
             );
         });
         logger.info("Configuration extracted [objectCount={}, propertyCount={}]", configs.size(), properties.size());
-        return configs;
+        // plans are shared between requests and must not be modified
+        Map<Resource, AnonymizationPlan> plans = new HashMap<>();
+        configs.forEach((object, objectConfigs) -> plans.put(object, createPlan(object, Map.copyOf(objectConfigs))));
+        return Collections.unmodifiableMap(plans);
+    }
+
+    private static AnonymizationPlan createPlan(Resource objectType, Map<Property, Configuration> configurations) {
+        Map<Property, AnonymizerFactory> anonymizers = new HashMap<>();
+        Map<Property, Property> anonymizedProperties = new HashMap<>();
+        Set<Property> anonymizingProperties = new HashSet<>();
+        configurations.forEach((property, config) -> {
+            anonymizers.put(property, config.anonymizerFactory());
+            anonymizedProperties.put(
+                    property,
+                    NodeCache.property(property.getURI() + config.getAnonymizedSuffix()));
+            if (List.of("generalization", "randomization").contains(config.getAnonymization())) {
+                anonymizingProperties.add(property);
+            }
+        });
+        Set<Property> properties = configurations.keySet();
+        return new AnonymizationPlan(
+                objectType,
+                configurations,
+                Map.copyOf(anonymizers),
+                Map.copyOf(anonymizedProperties),
+                Set.copyOf(anonymizingProperties),
+                QueryService.preparePropertyQuery(properties, objectType),
+                QueryService.prepareGroupsQuery(properties, objectType),
+                QueryService.prepareDeleteOriginalProperties(properties, objectType));
     }
 
     private static Configuration createConfiguration(
             Resource datatype,
             Literal anonymization,
-            Property property,
-            Model model
+            List<String> attributeOrder
     ) {
         String datatypeString = extractValueFromURL(datatype.toString());
         String anonymizationString = extractValueFromURL(anonymization.toString());
-        if (anonymizationString.equals("generalization") && !Set.of("integer", "double", "date").contains(datatypeString)) {
+        if (anonymizationString.equals("generalization")
+                && !Set.of("integer", "double", "date", "dateTime").contains(datatypeString)) {
             return new ObjectGeneralizationConfig(
                     datatypeString,
-                    QueryService.getAttributeOrder(model, property)
+                    attributeOrder
             );
         } else {
             return new Configuration(datatypeString, anonymizationString);
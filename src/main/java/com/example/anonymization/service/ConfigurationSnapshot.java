@@ -0,0 +1,257 @@
+package com.example.anonymization.service;
+
+import com.example.anonymization.data.QueryService;
+import com.example.anonymization.entities.AnonymizationPlan;
+import com.example.anonymization.entities.ObjectGeneralizationConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.jena.rdf.model.*;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RDFFormat;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+import org.apache.jena.vocabulary.XSD;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binary snapshot of the cached configurations, so a restarted instance can serve requests without fetching the
+ * ontologies again. Each configuration is stored as a compact RDF Thrift graph in the shape of the ontology it was
+ * extracted from, together with an index of URL, validators and fetch time. On startup the snapshot is memory mapped
+ * and a configuration is only parsed and extracted when it is requested the first time; it keeps the age it had when
+ * the snapshot was written, so restored configurations are revalidated like cached ones.
+ */
+@Service
+public class ConfigurationSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConfigurationSnapshot.class);
+
+    private static final int MAGIC = 0x414E5332; // "ANS2"
+    // snapshots without fetch times are restored as stale
+    private static final int MAGIC_WITHOUT_FETCH_TIME = 0x414E5331; // "ANS1"
+
+    private static String path = "";
+    private static Duration saveInterval = Duration.ofMinutes(5);
+
+    private static final Map<String, SnapshotEntry> pending = new ConcurrentHashMap<>();
+    private static long savedVersion = -1;
+    private static ScheduledExecutorService saveExecutor;
+
+    @Value("${anonymization.config-snapshot.path:}")
+    void setPath(String path) {
+        ConfigurationSnapshot.path = path;
+    }
+
+    @Value("${anonymization.config-snapshot.save-interval:5m}")
+    void setSaveInterval(Duration saveInterval) {
+        ConfigurationSnapshot.saveInterval = saveInterval;
+    }
+
+    /**
+     * Rehydrates the configuration of the given URL from the snapshot
+     * @param url The configuration URL
+     * @return The cache entry, or null if the URL is not contained in the snapshot
+     */
+    static ConfigurationCache.CacheEntry restore(String url) {
+        SnapshotEntry snapshotEntry = pending.remove(url);
+        if (snapshotEntry == null) {
+            return null;
+        }
+        try {
+            Model model = ModelFactory.createDefaultModel();
+            RDFParser.create()
+                    .source(new ByteArrayInputStream(snapshotEntry.bytes()))
+                    .lang(Lang.RDFTHRIFT)
+                    .parse(model);
+            logger.info("Configuration restored from snapshot [url={}]", url);
+            return ConfigurationCache.CacheEntry.of(
+                    ConfigurationService.extractConfig(model),
+                    snapshotEntry.etag(),
+                    snapshotEntry.lastModified(),
+                    snapshotEntry.fetchedAt());
+        } catch (Exception e) {
+            logger.warn("Failed to restore configuration from snapshot [url={}]: {}", url, e.getMessage());
+            return null;
+        }
+    }
+
+    @PostConstruct
+    void open() {
+        if (path.isBlank()) {
+            return;
+        }
+        Path file = Path.of(path);
+        if (Files.isReadable(file)) {
+            try {
+                readIndex(file);
+                logger.info("Configuration snapshot opened [path={}, configs={}]", file, pending.size());
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Ignoring unreadable configuration snapshot [path={}]: {}", file, e.getMessage());
+                pending.clear();
+            }
+        }
+        saveExecutor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("config-snapshot").factory());
+        saveExecutor.scheduleWithFixedDelay(
+                ConfigurationSnapshot::saveIfChanged,
+                saveInterval.toMillis(),
+                saveInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void close() {
+        if (saveExecutor != null) {
+            saveExecutor.shutdownNow();
+            saveIfChanged();
+        }
+    }
+
+    private static synchronized void saveIfChanged() {
+        long version = ConfigurationCache.version();
+        if (version == savedVersion) {
+            return;
+        }
+        Map<String, SnapshotEntry> snapshotEntries = new TreeMap<>(pending);
+        ConfigurationCache.loadedEntries().forEach((url, entry) -> snapshotEntries.put(url, new SnapshotEntry(
+                entry.etag(), entry.lastModified(), entry.fetchedAt(), ByteBuffer.wrap(toThrift(entry.plans())))));
+        Path file = Path.of(path);
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            if (file.toAbsolutePath().getParent() != null) {
+                Files.createDirectories(file.toAbsolutePath().getParent());
+            }
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(snapshotEntries.size());
+                for (Map.Entry<String, SnapshotEntry> entry : snapshotEntries.entrySet()) {
+                    writeString(out, entry.getKey());
+                    writeString(out, entry.getValue().etag());
+                    writeString(out, entry.getValue().lastModified());
+                    out.writeLong(entry.getValue().fetchedAt().toEpochMilli());
+                    out.writeInt(entry.getValue().content().remaining());
+                }
+                for (SnapshotEntry entry : snapshotEntries.values()) {
+                    out.write(entry.bytes());
+                }
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            savedVersion = version;
+            logger.info("Configuration snapshot written [path={}, configs={}]", file, snapshotEntries.size());
+        } catch (IOException e) {
+            logger.warn("Failed to write configuration snapshot [path={}]: {}", file, e.getMessage());
+        }
+    }
+
+    private static void readIndex(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        int magic = buffer.getInt();
+        if (magic != MAGIC && magic != MAGIC_WITHOUT_FETCH_TIME) {
+            throw new IOException("Unknown snapshot format");
+        }
+        int size = buffer.getInt();
+        List<String[]> index = new ArrayList<>(size);
+        List<Instant> fetchTimes = new ArrayList<>(size);
+        List<Integer> lengths = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            index.add(new String[] { readString(buffer), readString(buffer), readString(buffer) });
+            fetchTimes.add(magic == MAGIC ? Instant.ofEpochMilli(buffer.getLong()) : Instant.EPOCH);
+            lengths.add(buffer.getInt());
+        }
+        int offset = buffer.position();
+        for (int i = 0; i < size; i++) {
+            String[] header = index.get(i);
+            pending.put(header[0], new SnapshotEntry(header[1], header[2], fetchTimes.get(i),
+                    buffer.slice(offset, lengths.get(i))));
+            offset += lengths.get(i);
+        }
+    }
+
+    /**
+     * Writes the configurations in the ontology shape read by {@link ConfigurationService#extractConfig(Model)}.
+     */
+    private static byte[] toThrift(Map<Resource, AnonymizationPlan> plans) {
+        Model model = ModelFactory.createDefaultModel();
+        Resource overlayClassification = model.createResource(QueryService.SOYA_NS + "OverlayClassification");
+        Property onBase = model.createProperty(QueryService.SOYA_NS, "onBase");
+        Property classification = model.createProperty(QueryService.SOYA_NS, "classification");
+        Property attributeOrder = model.createProperty(QueryService.SOYA_NS, "attributeOrder");
+        plans.forEach((object, plan) -> {
+            model.createResource()
+                    .addProperty(RDF.type, overlayClassification)
+                    .addProperty(onBase, object);
+            plan.configurations().forEach((property, config) -> {
+                Resource attribute = model.createResource(property.getURI())
+                        .addProperty(RDFS.domain, object)
+                        .addProperty(RDFS.range, model.createResource(XSD.NS + config.getDataType()))
+                        .addProperty(classification, config.getAnonymization());
+                if (config instanceof ObjectGeneralizationConfig objectConfig) {
+                    attribute.addProperty(classification, model.createResource().addProperty(
+                            attributeOrder,
+                            model.createList(objectConfig.getAttributeOrder().stream()
+                                    .map(value -> (RDFNode) model.createLiteral(value))
+                                    .iterator())));
+                }
+            });
+        });
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RDFDataMgr.write(out, model, RDFFormat.RDF_THRIFT);
+        return out.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Index entry of one configuration. The content is a slice of the mapped snapshot file until it is restored.
+     */
+    private record SnapshotEntry(String etag, String lastModified, Instant fetchedAt, ByteBuffer content) {
+
+        byte[] bytes() {
+            byte[] bytes = new byte[content.remaining()];
+            content.duplicate().get(bytes);
+            return bytes;
+        }
+    }
+}
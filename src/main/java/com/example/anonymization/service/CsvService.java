@@ -0,0 +1,215 @@
+package com.example.anonymization.service;
+
+import com.example.anonymization.dto.FlatJsonPayload;
+import com.example.anonymization.exceptions.RequestModelException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Reading and writing of tabular data as CSV (RFC 4180). The header row contains the attribute names, which are
+ * used like the keys of flat JSON entries. Empty fields are treated as missing values. The types of a row are
+ * separated by a semicolon, in the type column of the input as in the types column of the output.
+ */
+@Service
+public class CsvService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CsvService.class);
+
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+    private static final String TYPES_SEPARATOR = ";";
+
+    /**
+     * Reads CSV data row by row into a flat JSON payload. Repeated values share one string instance.
+     * @param content the CSV content in UTF-8
+     * @return the data of the rows
+     * @throws RequestModelException if the content is not valid CSV
+     */
+    public static FlatJsonPayload read(InputStream content) {
+        try (Reader reader = new BufferedReader(new InputStreamReader(content, StandardCharsets.UTF_8))) {
+            CsvReader csv = new CsvReader(reader);
+            List<String> header = csv.nextRecord();
+            if (header == null) {
+                throw new RequestModelException("CSV data must contain a header row");
+            }
+            if (!header.isEmpty() && header.getFirst().startsWith("\uFEFF")) {
+                header.set(0, header.getFirst().substring(1));
+            }
+            if (new HashSet<>(header).size() != header.size()) {
+                throw new RequestModelException("CSV header contains duplicate column names: " + header);
+            }
+            int typeColumn = header.indexOf("type");
+            Map<String, String> dictionary = new HashMap<>();
+            List<int[]> rowKeys = new ArrayList<>();
+            List<Object[]> rowValues = new ArrayList<>();
+            int[] keyIndices = new int[header.size()];
+            Object[] values = new Object[header.size()];
+            List<String> record;
+            while ((record = csv.nextRecord()) != null) {
+                if (record.size() == 1 && record.getFirst().isEmpty()) {
+                    continue;
+                }
+                if (record.size() > header.size()) {
+                    throw new RequestModelException("CSV row " + (rowKeys.size() + 1) + " has " + record.size()
+                            + " fields, but the header has " + header.size());
+                }
+                int entries = 0;
+                for (int i = 0; i < record.size(); i++) {
+                    String value = record.get(i);
+                    if (!value.isEmpty()) {
+                        keyIndices[entries] = i;
+                        values[entries] = i == typeColumn
+                                ? readTypes(value, dictionary)
+                                : dictionary.computeIfAbsent(value, v -> v);
+                        entries++;
+                    }
+                }
+                rowKeys.add(Arrays.copyOf(keyIndices, entries));
+                rowValues.add(Arrays.copyOf(values, entries));
+            }
+            logger.debug("CSV data read [columns={}, rows={}, distinctValues={}]",
+                    header.size(), rowKeys.size(), dictionary.size());
+            return new FlatJsonPayload(
+                    List.copyOf(header),
+                    rowKeys.toArray(new int[0][]),
+                    rowValues.toArray(new Object[0][]));
+        } catch (IOException e) {
+            throw new RequestModelException("The CSV data could not be read: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return the type, or the list of types if the field holds several
+     */
+    private static Object readTypes(String value, Map<String, String> dictionary) {
+        if (!value.contains(TYPES_SEPARATOR)) {
+            return dictionary.computeIfAbsent(value, v -> v);
+        }
+        List<String> types = new ArrayList<>();
+        for (String type : value.split(TYPES_SEPARATOR)) {
+            if (!type.isBlank()) {
+                types.add(dictionary.computeIfAbsent(type.trim(), v -> v));
+            }
+        }
+        return types;
+    }
+
+    /**
+     * Writes the data array of a flat JSON output as CSV. Generalization ranges are written to the columns
+     * {@code <attribute>.min} and {@code <attribute>.max}, types are joined with a semicolon.
+     * @param data the data array of the flat JSON output
+     * @return the CSV content with a header row
+     */
+    public static String write(ArrayNode data) {
+        LinkedHashSet<String> columns = new LinkedHashSet<>();
+        List<Map<String, String>> rows = new ArrayList<>(data.size());
+        for (JsonNode entry : data) {
+            Map<String, String> row = new HashMap<>();
+            entry.properties().forEach(field -> {
+                JsonNode value = field.getValue();
+                if (value.isArray()) {
+                    List<String> items = new ArrayList<>();
+                    value.forEach(item -> items.add(item.asText()));
+                    put(row, columns, field.getKey(), String.join(TYPES_SEPARATOR, items));
+                } else if (value.isObject()) {
+                    value.properties().forEach(bound -> put(
+                            row, columns, field.getKey() + "." + bound.getKey(), bound.getValue().asText()));
+                } else {
+                    put(row, columns, field.getKey(), value.asText());
+                }
+            });
+            rows.add(row);
+        }
+        StringBuilder out = new StringBuilder();
+        appendRecord(out, columns);
+        for (Map<String, String> row : rows) {
+            appendRecord(out, columns.stream().map(column -> row.getOrDefault(column, "")).toList());
+        }
+        return out.toString();
+    }
+
+    private static void put(Map<String, String> row, Set<String> columns, String column, String value) {
+        columns.add(column);
+        row.put(column, value);
+    }
+
+    private static void appendRecord(StringBuilder out, Collection<String> fields) {
+        boolean first = true;
+        for (String field : fields) {
+            if (!first) {
+                out.append(SEPARATOR);
+            }
+            first = false;
+            if (field.indexOf(SEPARATOR) >= 0 || field.indexOf(QUOTE) >= 0
+                    || field.indexOf('\n') >= 0 || field.indexOf('\r') >= 0) {
+                out.append(QUOTE).append(field.replace("\"", "\"\"")).append(QUOTE);
+            } else {
+                out.append(field);
+            }
+        }
+        out.append("\r\n");
+    }
+
+    /**
+     * Streaming reader of CSV records. Quoted fields may contain separators, quotes and line breaks.
+     */
+    private static class CsvReader {
+
+        private final Reader reader;
+        private int next;
+
+        CsvReader(Reader reader) throws IOException {
+            this.reader = reader;
+            this.next = reader.read();
+        }
+
+        /**
+         * @return the fields of the next record, or null at the end of the data
+         */
+        List<String> nextRecord() throws IOException {
+            if (next < 0) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                int c = next;
+                next = reader.read();
+                if (quoted) {
+                    if (c < 0) {
+                        throw new RequestModelException("Unterminated quoted field in CSV row: " + fields);
+                    }
+                    if (c == QUOTE && next == QUOTE) {
+                        field.append(QUOTE);
+                        next = reader.read();
+                    } else if (c == QUOTE) {
+                        quoted = false;
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == QUOTE && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == SEPARATOR) {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\r' || c == '\n' || c < 0) {
+                    if (c == '\r' && next == '\n') {
+                        next = reader.read();
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                } else {
+                    field.append((char) c);
+                }
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.anonymization.service;
 
 import com.example.anonymization.data.QueryService;
+import com.example.anonymization.dto.FlatJsonPayload;
 import com.example.anonymization.entities.Configuration;
 import com.example.anonymization.exceptions.RequestModelException;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -17,9 +18,11 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import static java.util.stream.Collectors.toMap;
@@ -31,80 +34,91 @@ public class FaltJsonService {
 
     public static final String FLAT_OBJECT_NAME = "anonymizationObject";
 
+    private static final Pattern KEY_PATTERN = Pattern.compile("^[a-zA-Z_][a-zA-Z0-9_]*$");
+
     /**
-     * Adds data to a flat model with the given object type and prefix.
+     * Adds data to a flat model with the given object type and prefix. Each distinct key is validated and resolved
+     * to a property once, and equal values share one literal.
      * @param model model to which the data is added
      * @param data data to be added
      * @param prefix prefix for the properties
      */
-    public static void addDataToFlatModel(Model model, List<Map<String, Object>> data, String prefix) {
-        logger.debug("Adding flat data to model [entries={}, prefix={}]", data.size(), prefix);
-        int counter = 0;
+    public static void addDataToFlatModel(Model model, FlatJsonPayload data, String prefix) {
+        logger.debug("Adding flat data to model [entries={}, keys={}, prefix={}]",
+                data.size(), data.keys().size(), prefix);
         Resource flatObject = model.createResource(prefix + FLAT_OBJECT_NAME);
-        for (Map<String, Object> entry : data) {
+        Property counterProperty = model.createProperty(prefix, "counter");
+        Property[] properties = new Property[data.keys().size()];
+        Map<String, Property> objectProperties = new HashMap<>();
+        Map<String, Literal> literals = new HashMap<>();
+        Map<String, Resource> types = new HashMap<>();
+        for (int counter = 0; counter < data.size(); counter++) {
             Resource object = model.createResource(prefix + "object" + counter);
             object.addProperty(RDF.type, flatObject);
-
-            // Add counter property
-            Property counterProperty = model.createProperty(prefix, "counter");
             object.addLiteral(counterProperty, counter);
 
-            for (Map.Entry<String, Object> kv : entry.entrySet()) {
-                String key = kv.getKey();
-                validateKey(key);
-                Object value = kv.getValue();
+            int[] keyIndices = data.keyIndices(counter);
+            Object[] values = data.values(counter);
+            for (int i = 0; i < keyIndices.length; i++) {
+                String key = data.keys().get(keyIndices[i]);
+                if (properties[keyIndices[i]] == null) {
+                    validateKey(key);
+                    properties[keyIndices[i]] = model.createProperty(prefix, key);
+                }
+                Object value = values[i];
                 if (key.equals("type")) {
-                    addTypeProperty(value, object, model, prefix);
-                } else {
-                    setDataAttribute(object, model, prefix,key, value);
+                    addTypeProperty(value, object, model, prefix, types);
+                } else if (value instanceof Map<?, ?>) {
+                    Resource dataObject = model.createResource();
+                    object.addProperty(properties[keyIndices[i]], dataObject);
+                    for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                        dataObject.addProperty(
+                                objectProperties.computeIfAbsent(
+                                        entry.getKey().toString(), subKey -> model.createProperty(prefix, subKey)),
+                                literal(model, literals, entry.getValue().toString()));
+                    }
+                } else if (value != null) {
+                    object.addProperty(properties[keyIndices[i]], literal(model, literals, value.toString()));
                 }
             }
-            counter++;
         }
-        logger.debug("Flat data added to model [totalEntries={}]", counter);
+        logger.debug("Flat data added to model [totalEntries={}, distinctValues={}]", data.size(), literals.size());
     }
 
-    private static void addTypeProperty(Object value, Resource object, Model model, String prefix) {
+    private static void addTypeProperty(
+            Object value,
+            Resource object,
+            Model model,
+            String prefix,
+            Map<String, Resource> types) {
         if (value instanceof List<?>) {
             for (Object v : (List<?>) value) {
-                object.addProperty(RDF.type, model.createResource(prefix + v.toString()));
+                object.addProperty(RDF.type,
+                        types.computeIfAbsent(v.toString(), type -> model.createResource(prefix + type)));
             }
         } else if (value != null) {
-            object.addProperty(RDF.type, model.createResource(prefix + value));
+            object.addProperty(RDF.type,
+                    types.computeIfAbsent(value.toString(), type -> model.createResource(prefix + type)));
         }
     }
 
-    private static void setDataAttribute(
-            Resource object,
-            Model model,
-            String prefix,
-            String key,
-            Object value
-    ) {
-        if (value instanceof Map<?, ?>) {
-            Resource dataObject = model.createResource();
-            object.addProperty(model.createProperty(prefix, key), dataObject);
-            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
-                dataObject.addProperty(model.createProperty(prefix, entry.getKey().toString()), entry.getValue().toString());
-            }
-        } else if (value != null) {
-            object.addProperty(model.createProperty(prefix, key), value.toString());
-        }
+    private static Literal literal(Model model, Map<String, Literal> literals, String value) {
+        return literals.computeIfAbsent(value, model::createLiteral);
     }
 
     /**
      * Creates a flat JSON output from the given model, object type, and configurations.
      * @param model model containing the data
      * @param configs configurations for the properties
-     * @return String representing the flat JSON output in Json format
+     * @return the flat JSON output with the data and the KPIs
      */
-    public static String createFlatJsonOutput(
+    public static ObjectNode createFlatJsonOutput(
             Model model,
             Map<Property, Configuration> configs,
             Collection<Resource> objectTypes,
             String prefix,
             boolean calculateKpi
-    ) throws JsonProcessingException {
+    ) {
         logger.debug("Creating flat JSON output [objectTypes={}, kpi={}]", objectTypes.size(), calculateKpi);
         Resource flatObject = model.createResource(prefix + FLAT_OBJECT_NAME);
         Map<Resource, Map<Property, Literal>> data = getLiteralData(model, flatObject);
@@ -112,7 +126,7 @@ public class FaltJsonService {
 
         Set<Property> classificationProperties = configs.entrySet().stream()
                 .filter(e -> "generalization".equals(e.getValue().getAnonymization()) &&
-                        List.of("integer", "float", "date").contains(e.getValue().getDataType()))
+                        List.of("integer", "float", "date", "dateTime").contains(e.getValue().getDataType()))
                 .map(Map.Entry::getKey)
                 .map(p -> model.getProperty(p.getURI() + "_generalized"))
                 .collect(Collectors.toSet());
@@ -122,7 +136,7 @@ public class FaltJsonService {
         Map<Resource, Long> kAnonymity = QueryService.getKAnonymity(model, objectTypes);
         Map<Resource, List<QueryService.AttributeInformation>> attributeInformation =
                 QueryService.getAttributeInformation(model, objectTypes);
-        return createFlatJsonString(data, types, generalizationData , kAnonymity, attributeInformation);
+        return createFlatJsonNode(data, types, generalizationData , kAnonymity, attributeInformation);
     }
 
     private static Map<Resource, Map<Property, Literal>> getLiteralData(
@@ -143,13 +157,21 @@ public class FaltJsonService {
                         .collect(toMap(Map.Entry::getKey, Map.Entry::getValue));
     }
 
-    private static String createFlatJsonString(
+    /**
+     * @param output flat JSON output
+     * @return the output as pretty printed JSON
+     */
+    public static String writeFlatJson(ObjectNode output) throws JsonProcessingException {
+        return new ObjectMapper().writerWithDefaultPrettyPrinter().writeValueAsString(output);
+    }
+
+    private static ObjectNode createFlatJsonNode(
             Map<Resource, Map<Property, Literal>> data,
             Map<Resource, List<Resource>> types,
             Map<Resource, Map<Property, Literal[]>> generalizationData,
             Map<Resource, Long> kAnonymity,
             Map<Resource, List<QueryService.AttributeInformation>> attributeInformation
-    ) throws JsonProcessingException {
+    ) {
         ObjectMapper mapper = new ObjectMapper();
         ArrayNode dataArray = addDataToArrayNode(mapper, data, types, generalizationData);
         ObjectNode kpiNode = addKpisToObjectNode(mapper, kAnonymity, attributeInformation);
@@ -157,7 +179,7 @@ public class FaltJsonService {
         ObjectNode root = mapper.createObjectNode();
         root.set("data", dataArray);
         root.set("kpis", kpiNode);
-        return mapper.writerWithDefaultPrettyPrinter().writeValueAsString(root);
+        return root;
     }
 
     private static ArrayNode addDataToArrayNode(
@@ -264,12 +286,17 @@ public class FaltJsonService {
         return Integer.MAX_VALUE;
     }
 
-    private static void validateKey(String key) {
+    /**
+     * Validates a property key of the flat JSON input
+     * @param key the key of a flat JSON entry
+     * @throws RequestModelException if the key cannot be used as local name of a property
+     */
+    public static void validateKey(String key) {
         if (key == null || key.isEmpty()) {
             logger.warn("Rejected null or empty property key in flat JSON input");
             throw new RequestModelException("Property key cannot be null or empty");
         }
-        if (!key.matches("^[a-zA-Z_][a-zA-Z0-9_]*$")) {
+        if (!KEY_PATTERN.matcher(key).matches()) {
             logger.warn("Rejected invalid property key in flat JSON input [key={}]", key);
             throw new RequestModelException("Invalid property key: " + key +
                     ". It must start with a letter or underscore and contain only letters, digits, or underscores.");
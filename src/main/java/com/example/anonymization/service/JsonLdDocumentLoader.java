@@ -0,0 +1,279 @@
+package com.example.anonymization.service;
+
+import com.apicatalog.jsonld.JsonLdError;
+import com.apicatalog.jsonld.JsonLdErrorCode;
+import com.apicatalog.jsonld.JsonLdOptions;
+import com.apicatalog.jsonld.document.Document;
+import com.apicatalog.jsonld.document.JsonDocument;
+import com.apicatalog.jsonld.http.media.MediaType;
+import com.apicatalog.jsonld.loader.DocumentLoaderOptions;
+import com.apicatalog.jsonld.loader.SchemeRouter;
+import jakarta.annotation.PostConstruct;
+import org.apache.jena.riot.lang.LangJSONLD11;
+import org.apache.jena.sparql.util.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Document loader for remote JSON-LD contexts used when parsing request data and ontologies. Context documents are
+ * cached in memory and optionally on disk, can be preloaded from local files at startup and are fetched through the
+ * shared {@link OntologyHttpClient} otherwise. In offline mode only cached and preloaded contexts are resolved.
+ * The URLs come from the requests, so fetched documents expire after a TTL and the least recently used are evicted
+ * from memory once the cache is full; preloaded documents are kept.
+ */
+@Service
+public class JsonLdDocumentLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(JsonLdDocumentLoader.class);
+
+    private static final ResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+    private static final int MAX_REDIRECTS = 5;
+
+    private static String cacheDirectory = "";
+    private static List<String> preload = List.of();
+    private static boolean offline = false;
+    private static int maxSize = 500;
+    private static Duration ttl = Duration.ofHours(24);
+
+    private static final Map<String, Document> preloaded = new ConcurrentHashMap<>();
+    private static final Map<String, CachedDocument> documents = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedDocument> eldest) {
+            return size() > maxSize;
+        }
+    };
+    private static volatile Context parserContext;
+
+    @Value("${anonymization.jsonld-context.cache-dir:}")
+    void setCacheDirectory(String cacheDirectory) {
+        JsonLdDocumentLoader.cacheDirectory = cacheDirectory;
+    }
+
+    @Value("${anonymization.jsonld-context.preload:}")
+    void setPreload(List<String> preload) {
+        JsonLdDocumentLoader.preload = preload;
+    }
+
+    @Value("${anonymization.jsonld-context.offline:false}")
+    void setOffline(boolean offline) {
+        JsonLdDocumentLoader.offline = offline;
+    }
+
+    @Value("${anonymization.jsonld-context.max-size:500}")
+    void setMaxSize(int maxSize) {
+        JsonLdDocumentLoader.maxSize = maxSize;
+    }
+
+    @Value("${anonymization.jsonld-context.ttl:24h}")
+    void setTtl(Duration ttl) {
+        JsonLdDocumentLoader.ttl = ttl;
+    }
+
+    /**
+     * @return Jena parser context that resolves remote JSON-LD contexts through this loader
+     */
+    public static Context parserContext() {
+        if (parserContext == null) {
+            synchronized (JsonLdDocumentLoader.class) {
+                if (parserContext == null) {
+                    JsonLdOptions options = new JsonLdOptions();
+                    options.setDocumentLoader(JsonLdDocumentLoader::loadDocument);
+                    Context context = new Context();
+                    context.set(LangJSONLD11.JSONLD_OPTIONS, options);
+                    parserContext = context;
+                }
+            }
+        }
+        return parserContext;
+    }
+
+    @PostConstruct
+    void preloadContexts() {
+        for (String entry : preload) {
+            int separator = entry.lastIndexOf('=');
+            String url = separator > 0 ? entry.substring(0, separator).trim() : entry.trim();
+            try {
+                if (separator > 0) {
+                    String location = entry.substring(separator + 1).trim();
+                    try (InputStream content = resolver.getResource(location).getInputStream()) {
+                        preloaded.put(url, parse(url, content.readAllBytes()));
+                    }
+                } else {
+                    preloaded.put(url, loadDocument(URI.create(url), new DocumentLoaderOptions()));
+                }
+                logger.info("Preloaded JSON-LD context [url={}]", url);
+            } catch (IOException | JsonLdError | IllegalArgumentException e) {
+                logger.warn("Failed to preload JSON-LD context [url={}]: {}", url, e.getMessage());
+            }
+        }
+    }
+
+    static Document loadDocument(URI url, DocumentLoaderOptions options) throws JsonLdError {
+        String key = url.toString();
+        Document document = preloaded.get(key);
+        if (document == null) {
+            document = cached(key);
+        }
+        if (document != null) {
+            return document;
+        }
+        if (!"http".equals(url.getScheme()) && !"https".equals(url.getScheme())) {
+            if (offline) {
+                throw new JsonLdError(JsonLdErrorCode.LOADING_DOCUMENT_FAILED,
+                        "JSON-LD context not available in offline mode: " + key);
+            }
+            return SchemeRouter.defaultInstance().loadDocument(url, options);
+        }
+        byte[] content = readFromDisk(key);
+        if (content == null) {
+            if (offline) {
+                throw new JsonLdError(JsonLdErrorCode.LOADING_DOCUMENT_FAILED,
+                        "JSON-LD context not available in offline mode: " + key);
+            }
+            content = fetch(key);
+            writeToDisk(key, content);
+        }
+        document = parse(key, content);
+        synchronized (documents) {
+            documents.put(key, new CachedDocument(document, Instant.now()));
+        }
+        return document;
+    }
+
+    /**
+     * @return the cached document, or null if it is not cached or expired
+     */
+    private static Document cached(String url) {
+        synchronized (documents) {
+            CachedDocument cached = documents.get(url);
+            if (cached == null) {
+                return null;
+            }
+            if (Duration.between(cached.loadedAt(), Instant.now()).compareTo(ttl) >= 0) {
+                documents.remove(url);
+                return null;
+            }
+            return cached.document();
+        }
+    }
+
+    /**
+     * @return number of fetched documents in memory
+     */
+    static int size() {
+        synchronized (documents) {
+            return documents.size();
+        }
+    }
+
+    private static byte[] fetch(String url) throws JsonLdError {
+        String location = url;
+        try {
+            for (int redirects = 0; redirects <= MAX_REDIRECTS; redirects++) {
+                String requested = location;
+                FetchResult result = OntologyHttpClient.get(
+                        requested,
+                        Map.of("Accept", "application/ld+json, application/json"),
+                        (status, headers, body) -> {
+                            if (status >= 300 && status < 400 && headers.firstValue("Location").isPresent()) {
+                                return new FetchResult(
+                                        URI.create(requested).resolve(headers.firstValue("Location").get()).toString(),
+                                        null);
+                            }
+                            if (status < 200 || status >= 300) {
+                                throw new IOException("HTTP status " + status);
+                            }
+                            return new FetchResult(null, body.readAllBytes());
+                        });
+                if (result.content() != null) {
+                    logger.info("Fetched JSON-LD context [url={}]", url);
+                    return result.content();
+                }
+                location = result.redirect();
+            }
+        } catch (RuntimeException e) {
+            throw new JsonLdError(JsonLdErrorCode.LOADING_DOCUMENT_FAILED,
+                    "Failed to load JSON-LD context " + url + ": " + e.getMessage());
+        }
+        throw new JsonLdError(JsonLdErrorCode.LOADING_DOCUMENT_FAILED, "Too many redirects for JSON-LD context " + url);
+    }
+
+    private static Document parse(String url, byte[] content) throws JsonLdError {
+        Document document = JsonDocument.of(MediaType.JSON_LD, new ByteArrayInputStream(content));
+        document.setDocumentUrl(URI.create(url));
+        return document;
+    }
+
+    private static byte[] readFromDisk(String url) {
+        if (cacheDirectory.isBlank()) {
+            return null;
+        }
+        Path file = cacheFile(url);
+        try {
+            if (!Files.isReadable(file)) {
+                return null;
+            }
+            // without network access an expired context is better than none
+            if (!offline && Duration.between(Files.getLastModifiedTime(file).toInstant(), Instant.now())
+                    .compareTo(ttl) >= 0) {
+                return null;
+            }
+            return Files.readAllBytes(file);
+        } catch (IOException e) {
+            logger.warn("Failed to read cached JSON-LD context [url={}]: {}", url, e.getMessage());
+            return null;
+        }
+    }
+
+    private static void writeToDisk(String url, byte[] content) {
+        if (cacheDirectory.isBlank()) {
+            return;
+        }
+        Path file = cacheFile(url);
+        try {
+            Files.createDirectories(file.getParent());
+            Path temporary = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            Files.write(temporary, content);
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Failed to cache JSON-LD context on disk [url={}]: {}", url, e.getMessage());
+        }
+    }
+
+    static Path cacheFile(String url) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8));
+            return Path.of(cacheDirectory).resolve(HexFormat.of().formatHex(hash) + ".jsonld");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record FetchResult(String redirect, byte[] content) {
+    }
+
+    private record CachedDocument(Document document, Instant loadedAt) {
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.anonymization.service;
+
+import com.example.anonymization.data.RequestModel;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Anonymized graph of a request, written as JSON-LD directly to the response. The request model is kept until the
+ * output is closed. Graphs in memory are written by the JSON-LD writer of Jena with the prefixes as context; graphs
+ * stored on disk are streamed as flattened JSON-LD, so the response is not built in memory.
+ */
+public final class JsonLdOutput implements AutoCloseable {
+
+    private final RequestModel requestModel;
+    private final Model output;
+
+    JsonLdOutput(RequestModel requestModel, Model output) {
+        this.requestModel = requestModel;
+        this.output = output;
+    }
+
+    /**
+     * @param out the response, which is not closed
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        if (requestModel.isOnDisk()) {
+            JsonLdStreamWriter.write(output.getGraph(), out);
+        } else {
+            RDFDataMgr.write(out, output, Lang.JSONLD);
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() {
+        requestModel.close();
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.anonymization.service;
+
+import com.example.anonymization.dto.JsonLdPayload;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.sparql.graph.GraphFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Streaming ingestion of JSON-LD documents of the form {"@context": ..., "@graph": [...]}. The entries of the graph
+ * are read one at a time with the Jackson streaming parser and expanded in small batches against the context of the
+ * document, so the JSON-LD processor never holds the whole document. Blank node identifiers may be referenced across
+ * batches, while the JSON-LD processor only keeps them apart within one document: they are written as IRIs of a
+ * namespace of the document and mapped back to one blank node per identifier when the triples of a batch are added.
+ * Documents of another shape are not streamed.
+ */
+@Service
+public class JsonLdStreamReader {
+
+    private static final Logger logger = LoggerFactory.getLogger(JsonLdStreamReader.class);
+
+    private static final JsonFactory factory = new JsonFactory();
+
+    private static DataSize minSize = DataSize.ofMegabytes(10);
+    private static int batchSize = 1000;
+
+    @Value("${anonymization.jsonld-streaming.min-size:10MB}")
+    void setMinSize(DataSize minSize) {
+        JsonLdStreamReader.minSize = minSize;
+    }
+
+    @Value("${anonymization.jsonld-streaming.batch-size:1000}")
+    void setBatchSize(int batchSize) {
+        JsonLdStreamReader.batchSize = batchSize;
+    }
+
+    /**
+     * @param data The JSON-LD data of a request
+     * @return true if the data is large enough to be read in streaming mode
+     */
+    public static boolean isStreamingEnabled(JsonLdPayload data) {
+        return data.size() >= minSize.toBytes();
+    }
+
+    /**
+     * Reads the graph entries of the given JSON-LD data batch by batch into the model
+     * @param data The JSON-LD data of a request
+     * @param model The model the triples are added to. It may contain a part of the data if null is returned.
+     * @return the model, or null if the data cannot be streamed and has to be parsed as a whole
+     * @throws IOException if the data is not valid JSON
+     */
+    public static Model read(JsonLdPayload data, Model model) throws IOException {
+        try (InputStream content = data.openStream(); JsonParser parser = factory.createParser(content)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            String context = null;
+            boolean graphRead = false;
+            int nodes = 0;
+            BlankNodes blankNodes = new BlankNodes();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("@context".equals(field) && !graphRead) {
+                    context = copyStructure(parser);
+                } else if ("@graph".equals(field) && !graphRead && parser.currentToken() == JsonToken.START_ARRAY) {
+                    graphRead = true;
+                    nodes += readGraph(parser, context, model, blankNodes);
+                } else {
+                    return null;
+                }
+            }
+            if (!graphRead) {
+                return null;
+            }
+            logger.debug("JSON-LD data streamed [nodes={}, blankNodes={}, triples={}]",
+                    nodes, blankNodes.size(), model.size());
+            return model;
+        }
+    }
+
+    /**
+     * @return number of nodes read
+     */
+    private static int readGraph(JsonParser parser, String context, Model model, BlankNodes blankNodes)
+            throws IOException {
+        int nodes = 0;
+        ByteArrayOutputStream batch = new ByteArrayOutputStream();
+        JsonGenerator generator = startBatch(batch, context);
+        int batchNodes = 0;
+        boolean batchBlankNodes = false;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            batchBlankNodes |= copyNode(parser, generator, blankNodes);
+            batchNodes++;
+            if (batchNodes == batchSize) {
+                parseBatch(generator, batch, model, batchBlankNodes ? blankNodes : null);
+                nodes += batchNodes;
+                batch.reset();
+                generator = startBatch(batch, context);
+                batchNodes = 0;
+                batchBlankNodes = false;
+            }
+        }
+        if (batchNodes > 0) {
+            parseBatch(generator, batch, model, batchBlankNodes ? blankNodes : null);
+            nodes += batchNodes;
+        }
+        return nodes;
+    }
+
+    private static JsonGenerator startBatch(ByteArrayOutputStream batch, String context) throws IOException {
+        JsonGenerator generator = factory.createGenerator(batch);
+        generator.writeStartObject();
+        if (context != null) {
+            generator.writeFieldName("@context");
+            generator.writeRawValue(context);
+        }
+        generator.writeFieldName("@graph");
+        generator.writeStartArray();
+        return generator;
+    }
+
+    /**
+     * Parses a batch into the model
+     * @param blankNodes the blank node identifiers of the document, or null if the batch has none
+     */
+    private static void parseBatch(JsonGenerator generator, ByteArrayOutputStream batch, Model model,
+            BlankNodes blankNodes) throws IOException {
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.close();
+        Graph target = blankNodes == null ? model.getGraph() : GraphFactory.createGraphMem();
+        RDFParser.create()
+                .source(new ByteArrayInputStream(batch.toByteArray()))
+                .lang(Lang.JSONLD)
+                .context(JsonLdDocumentLoader.parserContext())
+                .parse(target);
+        if (blankNodes != null) {
+            Graph graph = model.getGraph();
+            target.find().forEachRemaining(triple -> graph.add(Triple.create(
+                    blankNodes.restore(triple.getSubject()),
+                    triple.getPredicate(),
+                    blankNodes.restore(triple.getObject()))));
+        }
+    }
+
+    /**
+     * Copies the node at the current position of the parser. Strings that look like blank node identifiers are
+     * written as IRIs of the namespace of the document.
+     * @return true if the node contains a blank node identifier
+     */
+    private static boolean copyNode(JsonParser parser, JsonGenerator generator, BlankNodes blankNodes)
+            throws IOException {
+        boolean found = false;
+        int depth = 0;
+        do {
+            JsonToken token = parser.currentToken();
+            if (token == JsonToken.VALUE_STRING && parser.getText().startsWith("_:")) {
+                generator.writeString(blankNodes.namespace + parser.getText().substring(2));
+                found = true;
+                continue;
+            }
+            generator.copyCurrentEvent(parser);
+            if (token.isStructStart()) {
+                depth++;
+            } else if (token.isStructEnd()) {
+                depth--;
+            }
+        } while (depth > 0 && parser.nextToken() != null);
+        return found;
+    }
+
+    private static String copyStructure(JsonParser parser) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator generator = factory.createGenerator(out)) {
+            generator.copyCurrentStructure(parser);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Blank nodes of one document by identifier
+     */
+    private static final class BlankNodes {
+
+        private final String namespace = "urn:anonymization:blank:" + UUID.randomUUID() + ":";
+        private final Map<String, Node> nodes = new HashMap<>();
+
+        /**
+         * @return the blank node of an IRI of the namespace, the node with the identifier restored for literals of
+         * the namespace, or the node itself
+         */
+        Node restore(Node node) {
+            if (node.isURI() && node.getURI().startsWith(namespace)) {
+                return nodes.computeIfAbsent(node.getURI().substring(namespace.length()),
+                        label -> NodeFactory.createBlankNode());
+            }
+            if (node.isLiteral() && node.getLiteralLexicalForm().startsWith(namespace)) {
+                String lexicalForm = "_:" + node.getLiteralLexicalForm().substring(namespace.length());
+                return node.getLiteralLanguage().isEmpty()
+                        ? NodeFactory.createLiteralDT(lexicalForm, node.getLiteralDatatype())
+                        : NodeFactory.createLiteralLang(lexicalForm, node.getLiteralLanguage());
+            }
+            return node;
+        }
+
+        int size() {
+            return nodes.size();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.anonymization.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.util.iterator.ExtendedIterator;
+import org.apache.jena.vocabulary.RDF;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a graph as flattened JSON-LD while iterating its triples, without building the document in memory. The
+ * triples of a subject are expected to be adjacent, as in the indexes of a dataset on disk; each run of triples
+ * becomes one node object of the {@code @graph}. Values are written in expanded form, so no context is needed.
+ */
+final class JsonLdStreamWriter {
+
+    private static final JsonFactory factory = new JsonFactory()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    private JsonLdStreamWriter() {
+    }
+
+    /**
+     * @param graph the graph to write
+     * @param out the target, which is flushed but not closed
+     */
+    static void write(Graph graph, OutputStream out) throws IOException {
+        try (JsonGenerator generator = factory.createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("@graph");
+            Node subject = null;
+            Map<Node, List<Node>> properties = new LinkedHashMap<>();
+            ExtendedIterator<Triple> triples = graph.find();
+            try {
+                while (triples.hasNext()) {
+                    Triple triple = triples.next();
+                    if (!triple.getSubject().equals(subject)) {
+                        writeNode(generator, subject, properties);
+                        subject = triple.getSubject();
+                        properties.clear();
+                    }
+                    properties.computeIfAbsent(triple.getPredicate(), predicate -> new ArrayList<>())
+                            .add(triple.getObject());
+                }
+            } finally {
+                triples.close();
+            }
+            writeNode(generator, subject, properties);
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
+    private static void writeNode(JsonGenerator generator, Node subject, Map<Node, List<Node>> properties)
+            throws IOException {
+        if (subject == null) {
+            return;
+        }
+        generator.writeStartObject();
+        generator.writeStringField("@id", id(subject));
+        for (Map.Entry<Node, List<Node>> entry : properties.entrySet()) {
+            if (entry.getKey().equals(RDF.type.asNode())
+                    && entry.getValue().stream().allMatch(value -> !value.isLiteral())) {
+                generator.writeArrayFieldStart("@type");
+                for (Node type : entry.getValue()) {
+                    generator.writeString(id(type));
+                }
+            } else {
+                generator.writeArrayFieldStart(entry.getKey().getURI());
+                for (Node value : entry.getValue()) {
+                    writeValue(generator, value);
+                }
+            }
+            generator.writeEndArray();
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeValue(JsonGenerator generator, Node value) throws IOException {
+        generator.writeStartObject();
+        if (!value.isLiteral()) {
+            generator.writeStringField("@id", id(value));
+        } else {
+            generator.writeStringField("@value", value.getLiteralLexicalForm());
+            if (!value.getLiteralLanguage().isEmpty()) {
+                generator.writeStringField("@language", value.getLiteralLanguage());
+            } else if (!XSDDatatype.XSDstring.getURI().equals(value.getLiteralDatatypeURI())) {
+                generator.writeStringField("@type", value.getLiteralDatatypeURI());
+            }
+        }
+        generator.writeEndObject();
+    }
+
+    private static String id(Node node) {
+        return node.isBlank() ? "_:" + node.getBlankNodeLabel() : node.getURI();
+    }
+}
@@ -1,12 +1,17 @@
 package com.example.anonymization.service;
 
+import com.example.anonymization.data.NodeCache;
+import com.example.anonymization.entities.AnonymizationPlan;
 import com.example.anonymization.entities.Configuration;
 import com.example.anonymization.service.anonymizer.RandomizationDate;
 import com.example.anonymization.data.QueryService;
 import com.example.anonymization.service.anonymizer.RandomizationDateTime;
+import com.example.anonymization.service.anonymizer.AnonymizationResult;
+import org.apache.jena.graph.Node;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.Property;
 import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.ResourceFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -28,59 +33,63 @@ public class KpiService {
          * Adds a KPI object to the model containing the k-anonymity value for the given
          * anonymization object.
          * 
-         * @param model               Model to which the KPI object is added
-         * @param anonymizationObject Anonymization object for which the KPI object is
-         *                            created
-         * @param attributes          Attributes involved in the anonymization
-         * @param configurations      Configurations for the attributes
+         * @param model      Model to which the KPI object is added
+         * @param plan       Plan of the anonymization object for which the KPI object is
+         *                   created
+         * @param attributes Attributes involved in the anonymization
          */
         public static void addKpiObject(
                         Model model,
-                        Resource anonymizationObject,
-                        Set<Property> attributes,
-                        Map<Property, Configuration> configurations) {
-                Resource kpiObject = model.createResource(KPI_OBJECT_URI + anonymizationObject.getLocalName());
-                Property property = model.createProperty(QueryService.SOYA_URL + "kpis");
-                anonymizationObject.addProperty(property, kpiObject);
-
-                Property kAnonymity = model.createProperty(K_ANONYMITY);
-                kpiObject.addLiteral(kAnonymity,
-                                calculateKAnonymity(model, anonymizationObject, attributes, configurations));
+                        AnonymizationPlan plan,
+                        Set<Property> attributes) {
+                Resource anonymizationObject = plan.objectType();
+                Resource kpiObject = NodeCache.resource(model, KPI_OBJECT_URI + anonymizationObject.getLocalName());
+
+                Property kAnonymity = NodeCache.property(K_ANONYMITY);
+                kpiObject.addLiteral(kAnonymity, calculateKAnonymity(model, plan, attributes));
         }
 
         /**
          * Adds the number of buckets used in the anonymization for an attribute to the
          * KPI object in the model.
          * 
-         * @param model               Model to which the KPI object is added
+         * @param result              Anonymization result to which the KPI statements are added
          * @param property            Property for which the number of buckets is added
          * @param nrBucketsUsed       Number of buckets used in the anonymization
          * @param anonymizationType   Anonymization Implementation applied
          * @param anonymizationObject Object for which the value should be added
          */
         public static void addAttributeInformation(
-                        Model model,
+                        AnonymizationResult result,
                         Property property,
                         long nrBucketsUsed,
                         String anonymizationType,
                         Resource anonymizationObject) {
-                Resource kpiObject = model.createResource(KPI_OBJECT_URI + anonymizationObject.getLocalName());
-                model.add(kpiObject, model.createProperty(HAS_ATTRIBUTE_URI), property);
-                model.add(property, model.createProperty(ANONYMIZATION_TYP_URI), anonymizationType);
+                Node kpiObject = NodeCache.uri(KPI_OBJECT_URI + anonymizationObject.getLocalName());
+                result.add(kpiObject, NodeCache.uri(HAS_ATTRIBUTE_URI), property.asNode());
+                result.add(property.asNode(), NodeCache.uri(ANONYMIZATION_TYP_URI),
+                                NodeCache.literal(anonymizationType).asNode());
                 if (!anonymizationType.equals("masking")) {
-                        model.addLiteral(property, model.createProperty(NR_BUCKETS_URI), nrBucketsUsed);
+                        result.add(property.asNode(), NodeCache.uri(NR_BUCKETS_URI),
+                                        ResourceFactory.createTypedLiteral(nrBucketsUsed).asNode());
                 }
         }
 
         private static int calculateKAnonymity(
                         Model model,
-                        Resource anonymizationObject,
-                        Set<Property> attributes, Map<Property, Configuration> configurations) {
+                        AnonymizationPlan plan,
+                        Set<Property> attributes) {
+                Resource anonymizationObject = plan.objectType();
+                Map<Property, Configuration> configurations = plan.configurations();
                 logger.debug("Calculating k-anonymity [object={}, attributes={}]",
                         anonymizationObject.getURI(), attributes.size());
                 Map<Resource, Set<Resource>> similarValues = new HashMap<>();
-                List<Set<Resource>> groups = QueryService.getGeneralizationGroups(model, anonymizationObject,
-                                attributes);
+                List<Set<Resource>> groups = QueryService.getGeneralizationGroups(model, plan.groupsQuery(),
+                                configurations.keySet(), anonymizationObject);
+                if (groups.isEmpty()) {
+                        // no objects of the type, which is reported as k-anonymity 1
+                        return 1;
+                }
                 groups.forEach(group -> group.forEach(
                                 resource -> similarValues.put(resource, new HashSet<>(group))));
 
@@ -90,7 +99,8 @@ public class KpiService {
                                                         model,
                                                         anonymizationObject,
                                                         randomization,
-                                                        configurations.get(randomization).getDataType().equals("date"));
+                                                        List.of("date", "dateTime").contains(
+                                                                        configurations.get(randomization).getDataType()));
                                         similarValues.keySet().forEach(
                                                         resource -> similarValues.get(resource)
                                                                         .retainAll(similarity.get(resource)));
@@ -153,17 +163,17 @@ public class KpiService {
                 return similarity;
         }
 
-        public static Set<Resource> findInRange(
+        public static <T> Set<T> findInRange(
                         double randomizedValue,
                         double benchmark,
-                        NavigableMap<Double, Set<Resource>> originalValuesMap) {
+                        NavigableMap<Double, Set<T>> originalValuesMap) {
                 double minInclusive = randomizedValue - benchmark;
                 double maxInclusive = randomizedValue + benchmark;
-                NavigableMap<Double, Set<Resource>> sub = originalValuesMap.subMap(minInclusive, true, maxInclusive,
+                NavigableMap<Double, Set<T>> sub = originalValuesMap.subMap(minInclusive, true, maxInclusive,
                                 true);
 
-                Set<Resource> result = new HashSet<>();
-                for (Set<Resource> set : sub.values()) {
+                Set<T> result = new HashSet<>();
+                for (Set<T> set : sub.values()) {
                         result.addAll(set);
                 }
                 return result;
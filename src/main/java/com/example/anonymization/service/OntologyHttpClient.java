@@ -0,0 +1,156 @@
+package com.example.anonymization.service;
+
+import com.example.anonymization.exceptions.OntologyException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Shared HTTP client for fetching ontologies. Connections are reused across requests, the number of concurrent
+ * requests per host is limited and every request is bounded by a connect timeout and a deadline for the whole
+ * response, including its body.
+ */
+@Service
+public class OntologyHttpClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(OntologyHttpClient.class);
+
+    private static Duration connectTimeout = Duration.ofSeconds(5);
+    private static Duration requestTimeout = Duration.ofSeconds(15);
+    private static int maxRequestsPerHost = 8;
+
+    private static volatile HttpClient client;
+    private static final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+
+    @Value("${anonymization.ontology-client.connect-timeout:5s}")
+    void setConnectTimeout(Duration connectTimeout) {
+        OntologyHttpClient.connectTimeout = connectTimeout;
+    }
+
+    @Value("${anonymization.ontology-client.request-timeout:15s}")
+    void setRequestTimeout(Duration requestTimeout) {
+        OntologyHttpClient.requestTimeout = requestTimeout;
+    }
+
+    @Value("${anonymization.ontology-client.max-requests-per-host:8}")
+    void setMaxRequestsPerHost(int maxRequestsPerHost) {
+        OntologyHttpClient.maxRequestsPerHost = maxRequestsPerHost;
+    }
+
+    /**
+     * Sends a GET request and streams the response to the handler. Waiting for the host permit and receiving the
+     * whole response are bounded by the request timeout together: at the deadline the body is closed while the
+     * handler reads it. The host permit is released as soon as the handler returns or the request has failed.
+     * @param url The URL to fetch
+     * @param headers Additional request headers
+     * @param handler Handler consuming status, headers and body of the response
+     * @return The result of the handler
+     */
+    public static <T> T get(String url, Map<String, String> headers, ResponseHandler<T> handler) {
+        long deadline = System.nanoTime() + requestTimeout.toNanos();
+        URI uri;
+        HttpRequest.Builder requestBuilder;
+        try {
+            uri = new URI(url);
+            requestBuilder = HttpRequest.newBuilder(uri).timeout(requestTimeout).GET();
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            logger.error("Failed to fetch ontology [url={}]: {}", url, e.getMessage());
+            throw new OntologyException("Failed to fetch ontology from URL: " + url);
+        }
+        headers.forEach(requestBuilder::header);
+        Semaphore permit = hostPermits.computeIfAbsent(
+                String.valueOf(uri.getAuthority()),
+                _ -> new Semaphore(maxRequestsPerHost));
+        try {
+            if (!permit.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                logger.warn("Too many concurrent ontology requests [host={}]", uri.getAuthority());
+                throw new OntologyException("Timeout while waiting for a connection to fetch ontology from URL: "
+                        + url);
+            }
+            AtomicBoolean timedOut = new AtomicBoolean();
+            CompletableFuture<HttpResponse<InputStream>> exchange = getClient()
+                    .sendAsync(requestBuilder.build(), HttpResponse.BodyHandlers.ofInputStream());
+            // the body is streamed to the handler, so the deadline closes the stream while it is being read
+            CompletableFuture<Void> timeout = CompletableFuture.runAsync(() -> {
+                timedOut.set(true);
+                exchange.cancel(true);
+                HttpResponse<InputStream> received = exchange.getNow(null);
+                if (received != null) {
+                    closeQuietly(received.body());
+                }
+            }, CompletableFuture.delayedExecutor(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS));
+            try {
+                HttpResponse<InputStream> response = exchange.get();
+                try (InputStream body = response.body()) {
+                    return handler.handle(response.statusCode(), response.headers(), body);
+                }
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof IOException cause ? cause : new IOException(e.getCause());
+            } catch (IOException | RuntimeException e) {
+                if (timedOut.get()) {
+                    logger.error("Timeout while fetching ontology [url={}, timeout={}]", url, requestTimeout);
+                    throw new OntologyException("Timeout while fetching ontology from URL: " + url);
+                }
+                throw e;
+            } finally {
+                timeout.cancel(false);
+                exchange.cancel(true);
+                permit.release();
+            }
+        } catch (IOException e) {
+            logger.error("Failed to fetch ontology [url={}]: {}", url, e.getMessage());
+            throw new OntologyException("Failed to fetch ontology from URL: " + url);
+        } catch (InterruptedException e) {
+            logger.error("Thread interrupted while fetching ontology [url={}]", url);
+            Thread.currentThread().interrupt();
+            throw new OntologyException("Thread was interrupted while fetching ontology from URL: " + url);
+        }
+    }
+
+    private static void closeQuietly(InputStream body) {
+        try {
+            body.close();
+        } catch (IOException e) {
+            logger.debug("Failed to close ontology response: {}", e.getMessage());
+        }
+    }
+
+    private static HttpClient getClient() {
+        if (client == null) {
+            synchronized (OntologyHttpClient.class) {
+                if (client == null) {
+                    client = HttpClient.newBuilder()
+                            .version(HttpClient.Version.HTTP_2)
+                            .connectTimeout(connectTimeout)
+                            .executor(Executors.newVirtualThreadPerTaskExecutor())
+                            .build();
+                }
+            }
+        }
+        return client;
+    }
+
+    @FunctionalInterface
+    public interface ResponseHandler<T> {
+        T handle(int status, HttpHeaders headers, InputStream body) throws IOException;
+    }
+}
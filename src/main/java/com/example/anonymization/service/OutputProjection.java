@@ -0,0 +1,139 @@
+package com.example.anonymization.service;
+
+import com.example.anonymization.entities.AnonymizationPlan;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.util.iterator.ExtendedIterator;
+import org.apache.jena.vocabulary.RDF;
+
+import java.util.*;
+
+/**
+ * Builds the output of an anonymization as a projection of the anonymized model. Instead of deleting the original
+ * values and renaming the anonymized properties in the model, every retained statement is copied to a new model in
+ * one pass: original values of the object types are dropped together with the statements about them, and anonymized
+ * properties are written under their original property. Both only apply to subjects of an anonymized object type,
+ * which is looked up in the model, so the projection only holds the properties of the object types.
+ */
+final class OutputProjection {
+
+    private static final Node TYPE = RDF.type.asNode();
+
+    private final boolean includeOriginalData;
+    private final boolean useAdjustedAttributes;
+
+    private final Map<Node, Set<Node>> droppedByType = new HashMap<>();
+    private final Map<Node, Node> renamed = new HashMap<>();
+    private final Map<Node, Set<Node>> replacedByType = new HashMap<>();
+    private final Set<Node> predicates = new HashSet<>();
+
+    OutputProjection(boolean includeOriginalData, boolean useAdjustedAttributes) {
+        this.includeOriginalData = includeOriginalData;
+        this.useAdjustedAttributes = useAdjustedAttributes;
+    }
+
+    /**
+     * @return true if the output differs from the anonymized model
+     */
+    boolean isRequired() {
+        return !includeOriginalData || !useAdjustedAttributes;
+    }
+
+    /**
+     * Registers the properties of an anonymized object type
+     * @param plan the plan of the object type
+     * @param attributes the attributes used in the request data
+     */
+    void add(AnonymizationPlan plan, Set<Property> attributes) {
+        Node objectType = plan.objectType().asNode();
+        if (!includeOriginalData) {
+            plan.configurations().keySet().forEach(property -> addForType(droppedByType, objectType, property));
+        }
+        if (!useAdjustedAttributes) {
+            attributes.forEach(property -> {
+                Property anonymized = plan.anonymizedProperties().get(property);
+                if (anonymized != null) {
+                    renamed.put(anonymized.asNode(), property.asNode());
+                    addForType(replacedByType, objectType, property);
+                }
+            });
+        }
+    }
+
+    private void addForType(Map<Node, Set<Node>> byType, Node objectType, Property property) {
+        byType.computeIfAbsent(objectType, type -> new HashSet<>()).add(property.asNode());
+        predicates.add(property.asNode());
+    }
+
+    /**
+     * @return true if the subject has one of the object types the predicate is registered for
+     */
+    private static boolean matches(Graph source, Map<Node, Set<Node>> byType, Node subject, Node predicate) {
+        for (Map.Entry<Node, Set<Node>> entry : byType.entrySet()) {
+            if (entry.getValue().contains(predicate) && source.contains(subject, TYPE, entry.getKey())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param model the anonymized model
+     * @param output the empty output model
+     * @return the output model
+     */
+    Model project(Model model, Model output) {
+        output.setNsPrefixes(model.getNsPrefixMap());
+        Graph source = model.getGraph();
+        Graph target = output.getGraph();
+        ExtendedIterator<Triple> triples = source.find();
+        try {
+            while (triples.hasNext()) {
+                Triple triple = triples.next();
+                Node predicate = triple.getPredicate();
+                if (predicates.contains(predicate)
+                        && (matches(source, droppedByType, triple.getSubject(), predicate)
+                        || matches(source, replacedByType, triple.getSubject(), predicate))) {
+                    continue;
+                }
+                Node original = renamed.get(predicate);
+                target.add(original == null
+                        ? triple
+                        : Triple.create(triple.getSubject(), original, triple.getObject()));
+            }
+        } finally {
+            triples.close();
+        }
+        droppedByType.forEach((objectType, properties) -> removeDroppedValues(source, target, objectType, properties));
+        return output;
+    }
+
+    /**
+     * Removes the statements about the dropped values of the subjects of an object type from the output
+     */
+    private static void removeDroppedValues(Graph source, Graph target, Node objectType, Set<Node> properties) {
+        ExtendedIterator<Triple> subjects = source.find(Node.ANY, TYPE, objectType);
+        try {
+            while (subjects.hasNext()) {
+                Node subject = subjects.next().getSubject();
+                for (Node property : properties) {
+                    ExtendedIterator<Triple> values = source.find(subject, property, Node.ANY);
+                    try {
+                        values.forEachRemaining(value -> {
+                            if (!value.getObject().isLiteral()) {
+                                target.remove(value.getObject(), Node.ANY, Node.ANY);
+                            }
+                        });
+                    } finally {
+                        values.close();
+                    }
+                }
+            }
+        } finally {
+            subjects.close();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.anonymization.service.anonymizer;
 
+import com.example.anonymization.data.NodeCache;
 import com.example.anonymization.entities.Configuration;
 import com.example.anonymization.service.KpiService;
 import jakarta.validation.constraints.NotNull;
@@ -55,26 +56,42 @@ public abstract class Anonymization<T extends Configuration> {
         this.anonymizationObject = anonymizationObject;
     }
 
-    abstract void applyAnonymization();
+    /**
+     * Computes the anonymized values without modifying the model
+     * @param result the buffer the anonymized values and further statements are added to
+     */
+    abstract void applyAnonymization(AnonymizationResult result);
 
-    public void anonymization() {
+    /**
+     * @return the statements of the anonymization, to be written to the model with
+     *         {@link AnonymizationResult#writeTo(Model)}
+     */
+    public AnonymizationResult anonymization() {
         logger.debug("Starting anonymization [attribute={}, type={}, dataSize={}]",
                 property.getLocalName(), config.getAnonymization(), data.size());
         data.entrySet().removeIf(entry -> entry.getValue() == null);
+        AnonymizationResult result = new AnonymizationResult(
+                NodeCache.property(property.getURI() + config.getAnonymizedSuffix()), data.size());
         if (calculateKpi) {
             KpiService.addAttributeInformation(
-                    model,
+                    result,
                     property,
                     numberBuckets,
                     config.getAnonymization(),
                     anonymizationObject);
         }
-        applyAnonymization();
+        applyAnonymization(result);
         logger.debug("Completed anonymization [attribute={}, type={}]",
                 property.getLocalName(), config.getAnonymization());
+        return result;
     }
 
-    static int calculateNumberOfBuckets(long dataSize, long numberAttributes) {
+    /**
+     * @param dataSize         number of values of the attribute
+     * @param numberAttributes number of attributes anonymized by generalization or randomization
+     * @return number of buckets used for the attribute
+     */
+    public static int calculateNumberOfBuckets(long dataSize, long numberAttributes) {
         return (int) floor(
                 1.0 / pow(
                         1.0 - pow(1.0 - pow(0.99, 1.0 / dataSize), 1.0 / dataSize),
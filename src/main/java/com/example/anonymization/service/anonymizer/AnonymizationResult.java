@@ -0,0 +1,77 @@
+package com.example.anonymization.service.anonymizer;
+
+import org.apache.jena.graph.GraphUtil;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Statements produced by the anonymization of one attribute. The anonymized value of each resource is buffered as a
+ * pair of nodes, further statements such as bucket descriptions and KPI information as triples. Anonymizers only
+ * read the model; the result is added to the graph in one bulk operation.
+ */
+public final class AnonymizationResult {
+
+    private final Node property;
+    private Node[] subjects;
+    private Node[] values;
+    private int size = 0;
+    private final List<Triple> statements = new ArrayList<>();
+
+    AnonymizationResult(Property property, int expectedSize) {
+        this.property = property.asNode();
+        this.subjects = new Node[Math.max(expectedSize, 1)];
+        this.values = new Node[subjects.length];
+    }
+
+    /**
+     * Adds the anonymized value of a resource
+     */
+    void put(Resource subject, RDFNode value) {
+        if (size == subjects.length) {
+            subjects = Arrays.copyOf(subjects, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        subjects[size] = subject.asNode();
+        values[size] = value.asNode();
+        size++;
+    }
+
+    /**
+     * Adds a further statement
+     */
+    public void add(Node subject, Node predicate, Node object) {
+        statements.add(Triple.create(subject, predicate, object));
+    }
+
+    void add(Resource subject, Property predicate, RDFNode object) {
+        add(subject.asNode(), predicate.asNode(), object.asNode());
+    }
+
+    /**
+     * @return number of anonymized values
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds the statements to the graph of the model in one bulk operation
+     * @param model the model of the request
+     */
+    public void writeTo(Model model) {
+        List<Triple> triples = new ArrayList<>(statements.size() + size);
+        triples.addAll(statements);
+        for (int i = 0; i < size; i++) {
+            triples.add(Triple.create(subjects[i], property, values[i]));
+        }
+        GraphUtil.add(model.getGraph(), triples);
+    }
+}
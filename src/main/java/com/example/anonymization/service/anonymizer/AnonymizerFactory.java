@@ -0,0 +1,26 @@
+package com.example.anonymization.service.anonymizer;
+
+import com.example.anonymization.entities.Configuration;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+
+import java.util.Map;
+
+/**
+ * Creates the anonymizer of one attribute for the data of a request. The implementation of the strategy is looked
+ * up in the {@link AnonymizerRegistry} when the anonymizer is created.
+ */
+@FunctionalInterface
+public interface AnonymizerFactory {
+
+    Anonymization<? extends Configuration> create(
+            Model model,
+            Property property,
+            Map<Resource, RDFNode> data,
+            int nrAttr,
+            Resource anonymizationObject,
+            boolean calculateKpi,
+            long seed);
+}
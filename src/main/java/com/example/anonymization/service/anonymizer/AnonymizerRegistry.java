@@ -0,0 +1,61 @@
+package com.example.anonymization.service.anonymizer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the {@link BatchAnonymizer} implementations by strategy and datatype. The implementations listed in
+ * {@code META-INF/services/com.example.anonymization.service.anonymizer.BatchAnonymizer} are registered when the
+ * class is loaded; Spring beans implementing the interface are registered when the application starts and replace
+ * implementations for the same strategy and datatype.
+ */
+@Service
+public class AnonymizerRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnonymizerRegistry.class);
+
+    private static final Map<Key, BatchAnonymizer> anonymizers = new ConcurrentHashMap<>();
+
+    static {
+        ServiceLoader.load(BatchAnonymizer.class, AnonymizerRegistry.class.getClassLoader())
+                .forEach(AnonymizerRegistry::register);
+    }
+
+    AnonymizerRegistry(ObjectProvider<BatchAnonymizer> beans) {
+        beans.orderedStream().forEach(AnonymizerRegistry::register);
+        logger.info("Anonymizer registry loaded [anonymizers={}]", anonymizers.size());
+    }
+
+    /**
+     * Registers an anonymizer for its strategy and each of its datatypes
+     */
+    public static void register(BatchAnonymizer anonymizer) {
+        for (String dataType : anonymizer.dataTypes()) {
+            BatchAnonymizer replaced = anonymizers.put(new Key(anonymizer.anonymization(), dataType), anonymizer);
+            logger.debug("Anonymizer registered [anonymization={}, dataType={}, class={}, replaced={}]",
+                    anonymizer.anonymization(), dataType, anonymizer.getClass().getName(),
+                    replaced != null ? replaced.getClass().getName() : null);
+        }
+    }
+
+    /**
+     * @param anonymization the strategy
+     * @param dataType the datatype
+     * @return the anonymizer for the datatype, or for any datatype of the strategy, or null if there is none
+     */
+    public static BatchAnonymizer get(String anonymization, String dataType) {
+        BatchAnonymizer anonymizer = anonymizers.get(new Key(anonymization, dataType));
+        return anonymizer != null
+                ? anonymizer
+                : anonymizers.get(new Key(anonymization, BatchAnonymizer.ANY_DATA_TYPE));
+    }
+
+    private record Key(String anonymization, String dataType) {
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.anonymization.service.anonymizer;
+
+import com.example.anonymization.data.NodeCache;
+import com.example.anonymization.data.QueryService;
+import com.example.anonymization.entities.Configuration;
+import com.example.anonymization.entities.ObjectGeneralizationConfig;
+import org.apache.jena.rdf.model.*;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies a {@link BatchAnonymizer} to the values of one attribute of the request model. The values are passed as
+ * literals, nested objects as maps of the attributes of the configured attribute order; the anonymized values and
+ * the descriptions of the buckets are added to the result.
+ */
+public class BatchAnonymization extends Anonymization<Configuration> {
+
+    private final BatchAnonymizer anonymizer;
+    private final long seed;
+
+    public BatchAnonymization(
+            Model model,
+            Property property,
+            Map<Resource, RDFNode> data,
+            long numberAttributes,
+            Configuration config,
+            Resource anonymizationObject,
+            boolean calculateKpi,
+            long seed,
+            BatchAnonymizer anonymizer) {
+        super(model, property, data, config, anonymizationObject);
+        if (anonymizer.bucketed()) {
+            this.numberBuckets = calculateNumberOfBuckets(data.size(), numberAttributes);
+            this.calculateKpi = calculateKpi;
+        }
+        this.anonymizer = anonymizer;
+        this.seed = seed;
+    }
+
+    @Override
+    void applyAnonymization(AnonymizationResult result) {
+        Resource[] subjects = new Resource[data.size()];
+        Object[] cells = new Object[data.size()];
+        int index = 0;
+        for (Map.Entry<Resource, RDFNode> entry : data.entrySet()) {
+            subjects[index] = entry.getKey();
+            cells[index] = cell(entry.getValue());
+            index++;
+        }
+        ResultColumn column = anonymizer.anonymize(
+                anonymizer.decode(cells),
+                new BatchContext(config, numberBuckets, seed));
+        List<ResultColumn.Bucket> buckets = column.buckets();
+        Resource[] bucketResources = new Resource[buckets.size()];
+        for (int i = 0; i < buckets.size(); i++) {
+            bucketResources[i] = createBucket(result, buckets.get(i));
+        }
+        Object[] values = column.values();
+        for (int i = 0; i < values.length; i++) {
+            result.put(subjects[i], switch (values[i]) {
+                case ResultColumn.Bucket bucket -> bucketResources[bucket.position()];
+                case RDFNode node -> node;
+                case String value when value.equals(Masking.MASKED_VALUE) -> NodeCache.literal(value);
+                default -> ResourceFactory.createStringLiteral(values[i].toString());
+            });
+        }
+    }
+
+    /**
+     * @return the value of the model as passed to the anonymizer
+     */
+    private Object cell(RDFNode value) {
+        if (!(config instanceof ObjectGeneralizationConfig objectConfig) || !value.isResource()) {
+            return value;
+        }
+        Map<String, Object> object = new HashMap<>();
+        for (String attribute : objectConfig.getAttributeOrder()) {
+            String uri = GeneralizationObject.ATTRIBUTE_NAMESPACE + attribute;
+            Statement statement = model.getProperty(value.asResource(), NodeCache.property(uri));
+            if (statement != null && statement.getObject().isLiteral()) {
+                object.put(uri, statement.getLiteral());
+            }
+        }
+        return object;
+    }
+
+    /**
+     * Adds the description of a bucket to the result
+     * @return the resource of the bucket
+     */
+    private Resource createBucket(AnonymizationResult result, ResultColumn.Bucket bucket) {
+        Resource generalizationResource = NodeCache.resource(model, property.getURI() + "_" + bucket.position());
+        result.add(generalizationResource, RDF.type, NodeCache.literal(QueryService.SOYA_URL + "generalization"));
+        if (bucket.min() != null) {
+            result.add(generalizationResource, NodeCache.property(Generalization.RDF_MIN),
+                    model.createTypedLiteral(bucket.min()));
+        } else {
+            result.add(generalizationResource, RDFS.comment,
+                    NodeCache.literal("For the lower bound the minimum value is obfuscated"));
+        }
+        if (bucket.max() != null) {
+            result.add(generalizationResource, NodeCache.property(Generalization.RDF_MAX),
+                    model.createTypedLiteral(bucket.max()));
+        } else {
+            result.add(generalizationResource, RDFS.comment,
+                    NodeCache.literal("For the higher bound the maximum value is obfuscated"));
+        }
+        return generalizationResource;
+    }
+}
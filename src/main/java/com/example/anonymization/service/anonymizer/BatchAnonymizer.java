@@ -0,0 +1,47 @@
+package com.example.anonymization.service.anonymizer;
+
+import java.util.Set;
+
+/**
+ * Anonymization strategy applied to the values of one attribute as a column. Implementations are stateless and
+ * shared by all requests; they do not depend on the format of the request data. They are found through
+ * {@link AnonymizerRegistry} by strategy and datatype.
+ */
+public interface BatchAnonymizer {
+
+    /**
+     * Datatype of anonymizers that apply to every datatype of their strategy
+     */
+    String ANY_DATA_TYPE = "*";
+
+    /**
+     * @return the strategy, as named in the configuration
+     */
+    String anonymization();
+
+    /**
+     * @return the datatypes of the configuration the anonymizer applies to
+     */
+    Set<String> dataTypes();
+
+    /**
+     * @return true if the anonymization uses buckets and contributes to the KPIs
+     */
+    default boolean bucketed() {
+        return true;
+    }
+
+    /**
+     * Decodes the values of an attribute
+     * @param cells the values: literals, lexical forms or, for nested objects, maps of attribute URI to value
+     * @return the typed column
+     */
+    ValueColumn decode(Object[] cells);
+
+    /**
+     * @param column the decoded values
+     * @param context parameters of the request
+     * @return the anonymized values by position of the column
+     */
+    ResultColumn anonymize(ValueColumn column, BatchContext context);
+}
@@ -0,0 +1,13 @@
+package com.example.anonymization.service.anonymizer;
+
+import com.example.anonymization.entities.Configuration;
+
+/**
+ * Request dependent parameters of the anonymization of one attribute
+ *
+ * @param config        configuration of the attribute
+ * @param numberBuckets number of buckets used for the attribute
+ * @param seed          seed for the randomization
+ */
+public record BatchContext(Configuration config, int numberBuckets, long seed) {
+}
@@ -1,105 +1,61 @@
 package com.example.anonymization.service.anonymizer;
 
-import com.example.anonymization.entities.Configuration;
-import com.example.anonymization.data.QueryService;
-import org.apache.jena.atlas.lib.Pair;
-import org.apache.jena.rdf.model.*;
-import org.apache.jena.vocabulary.RDF;
-import org.apache.jena.vocabulary.RDFS;
+import java.util.ArrayList;
+import java.util.List;
 
-import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
-
-public abstract class Generalization<T> extends Anonymization<Configuration> {
+/**
+ * Generalization of ordered values: the positions are sorted stably by value and split into buckets of equal size.
+ * The bounds of a bucket are the medians of the values next to the split, the outer bounds are obfuscated.
+ */
+public abstract class Generalization implements BatchAnonymizer {
 
     public static final String RDF_MAX = "http://www.w3.org/2000/01/rdf-schema#max";
     public static final String RDF_MIN = "http://www.w3.org/2000/01/rdf-schema#min";
 
-    public Generalization(
-            Model model,
-            Property property,
-            Map<Resource, RDFNode> data,
-            Configuration config,
-            Resource anonymizationObject,
-            long numberAttributes,
-            boolean calculateKpi) {
-        super(model, property, data, config, anonymizationObject, numberAttributes, calculateKpi);
-    }
-
     @Override
-    public void applyAnonymization() {
-        List<Pair<Resource, T>> sortedValues = getSortedValues(data);
-        List<Resource> buckets = createBuckets(model, numberBuckets, sortedValues, property);
-        Map<Resource, Resource> ranges = getRanges(sortedValues, numberBuckets, buckets);
-        writeToModel(model, ranges, property);
+    public String anonymization() {
+        return "generalization";
     }
 
-    protected abstract List<Pair<Resource, T>> getSortedValues(Map<Resource, RDFNode> data);
+    /**
+     * Compares the values at two positions
+     */
+    protected abstract int compare(ValueColumn column, int position1, int position2);
 
-    protected abstract T getMedianValue(T value1, T value2);
+    /**
+     * @return the median of the values at two positions, where a negative position stands for no value
+     */
+    protected abstract Object getMedianValue(ValueColumn column, int position1, int position2);
 
-    protected Map<Resource, Resource> getRanges(
-            List<Pair<Resource, T>> sortedValues,
-            int numberBuckets,
-            List<Resource> buckets) {
-        List<Pair<Resource, Integer>> positionValues = new LinkedList<>();
-        for (int i = 0; i < sortedValues.size(); i++) {
-            positionValues.add(new Pair<>(
-                    sortedValues.get(i).getLeft(),
-                    numberBuckets * i / sortedValues.size()));
+    @Override
+    public ResultColumn anonymize(ValueColumn column, BatchContext context) {
+        int size = column.size();
+        int numberBuckets = context.numberBuckets();
+        Object[] values = new Object[size];
+        if (size == 0) {
+            return new ResultColumn(values);
         }
-        return positionValues.stream()
-                .map(e -> new Pair<>(e.getLeft(), buckets.get(e.getRight())))
-                .collect(Collectors.toMap(
-                        Pair::getLeft,
-                        Pair::getRight));
-    }
-
-    protected void writeToModel(Model model, Map<Resource, Resource> data, Property property) {
-        Property generalized = model.createProperty(property.getURI(), "_generalized");
-        data.forEach((key, value) -> key.addProperty(generalized, value));
-    }
-
-    protected List<Resource> createBuckets(
-            Model model,
-            int nrOfBuckets,
-            List<Pair<Resource, T>> sortedValues,
-            Property property) {
-        Property min = model.createProperty(RDF_MIN);
-        Property max = model.createProperty(RDF_MAX);
-        return IntStream.range(0, nrOfBuckets)
-                .mapToObj(position -> {
-                    List<T> range = getBucketRange(sortedValues, position, nrOfBuckets);
-                    Resource generalizationResource = model.createResource(property.getURI() + "_" + position);
-                    generalizationResource.addProperty(RDF.type, QueryService.SOYA_URL + "generalization");
-                    if (position != 0) {
-                        generalizationResource.addLiteral(min, range.get(0));
-                    } else {
-                        generalizationResource.addProperty(
-                                RDFS.comment,
-                                "For the lower bound the minimum value is obfuscated");
-                    }
-                    if (position != nrOfBuckets - 1) {
-                        generalizationResource.addLiteral(max, range.get(1));
-                    } else {
-                        generalizationResource.addProperty(
-                                RDFS.comment,
-                                "For the higher bound the maximum value is obfuscated");
-                    }
-                    return generalizationResource;
-                }).toList();
-    }
-
-    protected List<T> getBucketRange(List<Pair<Resource, T>> sortedValues, int bucketNumber, int nrOfBuckets) {
-        int lowerBoundIndex = bucketNumber * sortedValues.size() / nrOfBuckets;
-        T lowerBound = getMedianValue(
-                lowerBoundIndex > 0 ? sortedValues.get(lowerBoundIndex - 1).getRight() : null,
-                sortedValues.get(lowerBoundIndex).getRight());
-        int upperBoundIndex = ((bucketNumber + 1) * sortedValues.size() / nrOfBuckets) - 1;
-        T upperBound = getMedianValue(
-                sortedValues.get(upperBoundIndex).getRight(),
-                upperBoundIndex + 1 < sortedValues.size() ? sortedValues.get(upperBoundIndex + 1).getRight() : null);
-        return List.of(lowerBound, upperBound);
+        int[] order = PrimitiveSort.sortedPositions(size, (a, b) -> compare(column, a, b));
+        List<ResultColumn.Bucket> buckets = new ArrayList<>(numberBuckets);
+        for (int position = 0; position < numberBuckets; position++) {
+            int lowerBoundIndex = (int) ((long) position * size / numberBuckets);
+            int upperBoundIndex = (int) ((long) (position + 1) * size / numberBuckets) - 1;
+            Object lowerBound = getMedianValue(
+                    column,
+                    lowerBoundIndex > 0 ? order[lowerBoundIndex - 1] : -1,
+                    order[lowerBoundIndex]);
+            Object upperBound = getMedianValue(
+                    column,
+                    order[upperBoundIndex],
+                    upperBoundIndex + 1 < size ? order[upperBoundIndex + 1] : -1);
+            buckets.add(new ResultColumn.Bucket(
+                    position,
+                    position != 0 ? lowerBound : null,
+                    position != numberBuckets - 1 ? upperBound : null));
+        }
+        for (int i = 0; i < size; i++) {
+            values[order[i]] = buckets.get((int) ((long) numberBuckets * i / size));
+        }
+        return new ResultColumn(values, List.copyOf(buckets));
     }
 }
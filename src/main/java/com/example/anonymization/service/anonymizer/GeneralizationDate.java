@@ -1,57 +1,48 @@
 package com.example.anonymization.service.anonymizer;
 
-import com.example.anonymization.entities.Configuration;
-import org.apache.jena.atlas.lib.Pair;
-import org.apache.jena.rdf.model.Model;
-import org.apache.jena.rdf.model.Property;
-import org.apache.jena.rdf.model.RDFNode;
-import org.apache.jena.rdf.model.Resource;
-
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.Comparator;
-import java.util.List;
-import java.util.Map;
+import java.util.Set;
 
-public class GeneralizationDate extends Generalization<LocalDate> {
+public class GeneralizationDate extends Generalization {
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE;
 
-    public GeneralizationDate(
-            Model model,
-            Property property,
-            Map<Resource, RDFNode> data,
-            long numberAttributes,
-            Configuration config,
-            Resource anonymizationObject,
-            boolean calculateKpi) {
-        super(model, property, data, config, anonymizationObject, numberAttributes, calculateKpi);
+    @Override
+    public Set<String> dataTypes() {
+        return Set.of("date");
+    }
+
+    /**
+     * Decodes the values into epoch days, each literal is parsed once
+     */
+    @Override
+    public ValueColumn decode(Object[] cells) {
+        return ValueColumn.epochDays(TemporalDecoder.epochDays(cells, cell -> toDate(cell).toEpochDay()));
     }
 
     @Override
-    protected List<Pair<Resource, LocalDate>> getSortedValues(Map<Resource, RDFNode> data) {
-        return data.entrySet().stream()
-                .map(e -> new Pair<>(e.getKey(), toDate(e.getValue())))
-                .sorted(Comparator.comparing(Pair::getRight))
-                .toList();
+    protected int compare(ValueColumn column, int position1, int position2) {
+        return Long.compare(column.epochs()[position1], column.epochs()[position2]);
     }
 
     @Override
-    protected LocalDate getMedianValue(LocalDate value1, LocalDate value2) {
-        if (value1 == null) {
-            return value2;
+    protected LocalDate getMedianValue(ValueColumn column, int position1, int position2) {
+        long[] days = column.epochs();
+        if (position1 < 0) {
+            return LocalDate.ofEpochDay(days[position2]);
         }
-        if (value2 == null) {
-            return value1;
+        if (position2 < 0) {
+            return LocalDate.ofEpochDay(days[position1]);
         }
-        return LocalDate.ofEpochDay((value1.toEpochDay() + value2.toEpochDay()) / 2);
+        return LocalDate.ofEpochDay((days[position1] + days[position2]) / 2);
     }
 
-    private static LocalDate toDate(RDFNode node) {
+    private static LocalDate toDate(Object cell) {
         try {
-            return LocalDate.parse(node.asLiteral().getLexicalForm(), DATE_FORMATTER);
+            return LocalDate.parse(ValueColumn.lexical(cell), DATE_FORMATTER);
         } catch (Exception e) {
-            throw new IllegalArgumentException("Literal lexical form is not a valid xsd:date: " + node, e);
+            throw new IllegalArgumentException("Literal lexical form is not a valid xsd:date: " + cell, e);
         }
     }
 }
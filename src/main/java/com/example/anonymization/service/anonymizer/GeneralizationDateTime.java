@@ -1,56 +1,51 @@
 package com.example.anonymization.service.anonymizer;
 
-import com.example.anonymization.entities.Configuration;
-import org.apache.jena.atlas.lib.Pair;
 import org.apache.jena.datatypes.xsd.XSDDatatype;
 import org.apache.jena.datatypes.xsd.XSDDateTime;
-import org.apache.jena.rdf.model.*;
 
-import java.util.*;
+import java.util.Calendar;
+import java.util.Set;
 
-public class GeneralizationDateTime extends Generalization<Calendar> {
+public class GeneralizationDateTime extends Generalization {
 
-    public GeneralizationDateTime(
-            Model model,
-            Property property,
-            Map<Resource, RDFNode> data,
-            long numberAttributes,
-            Configuration config,
-            Resource anonymizationObject,
-            boolean calculateKpi) {
-        super(model, property, data, config, anonymizationObject, numberAttributes, calculateKpi);
+    @Override
+    public Set<String> dataTypes() {
+        return Set.of("dateTime");
+    }
+
+    /**
+     * Decodes the xsd:date and xsd:dateTime values into epoch milliseconds, each literal is parsed once
+     */
+    @Override
+    public ValueColumn decode(Object[] cells) {
+        return ValueColumn.epochMillis(
+                TemporalDecoder.epochMillis(cells, true, cell -> toDate(cell).getTimeInMillis()));
     }
 
     @Override
-    protected List<Pair<Resource, Calendar>> getSortedValues(Map<Resource, RDFNode> data) {
-        return data.entrySet().stream()
-                .map(e -> new Pair<>(e.getKey(), toDate(e.getValue())))
-                .sorted(Comparator.comparing(Pair::getRight))
-                .toList();
+    protected int compare(ValueColumn column, int position1, int position2) {
+        return Long.compare(column.epochs()[position1], column.epochs()[position2]);
     }
 
     @Override
-    protected Calendar getMedianValue(Calendar value1, Calendar value2) {
-        if (value1 == null) {
-            return value2;
+    protected Calendar getMedianValue(ValueColumn column, int position1, int position2) {
+        long[] millis = column.epochs();
+        if (position1 < 0) {
+            return TemporalDecoder.calendar(millis[position2]);
         }
-        if (value2 == null) {
-            return value1;
+        if (position2 < 0) {
+            return TemporalDecoder.calendar(millis[position1]);
         }
-        long time1 = value1.getTimeInMillis();
-        long time2 = value2.getTimeInMillis();
-        long medianTime = (time1 + time2) / 2;
-        Calendar medianCalendar = Calendar.getInstance();
-        medianCalendar.setTimeInMillis(medianTime);
-        return medianCalendar;
+        return TemporalDecoder.calendar((millis[position1] + millis[position2]) / 2);
     }
 
-    private static Calendar toDate(RDFNode node) {
+    private static Calendar toDate(Object cell) {
         try {
-            XSDDateTime xsdDateTime = (XSDDateTime) XSDDatatype.XSDdate.parse(node.asLiteral().getString());
-            return xsdDateTime.asCalendar();
+            String lexical = ValueColumn.lexical(cell);
+            XSDDatatype datatype = lexical.indexOf('T') >= 0 ? XSDDatatype.XSDdateTime : XSDDatatype.XSDdate;
+            return ((XSDDateTime) datatype.parse(lexical)).asCalendar();
         } catch (Exception e) {
-            throw new IllegalArgumentException("Node is not Literal or not a valid xsd:date or xsd:dateTime: " + node,
+            throw new IllegalArgumentException("Node is not Literal or not a valid xsd:date or xsd:dateTime: " + cell,
                     e);
         }
     }
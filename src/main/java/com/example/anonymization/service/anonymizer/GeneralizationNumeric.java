@@ -1,46 +1,41 @@
 package com.example.anonymization.service.anonymizer;
 
-import com.example.anonymization.entities.Configuration;
-import org.apache.jena.atlas.lib.Pair;
-import org.apache.jena.rdf.model.*;
+import java.util.Set;
 
-import java.util.Comparator;
-import java.util.List;
-import java.util.Map;
+public class GeneralizationNumeric extends Generalization {
 
-public class GeneralizationNumeric extends Generalization<Double> {
-
-    public GeneralizationNumeric(
-            Model model,
-            Property property,
-            Map<Resource, RDFNode> data,
-            long numberAttributes,
-            Configuration config,
-            Resource anonymizationObject,
-            boolean calculateKpi) {
-        super(model, property, data, config, anonymizationObject, numberAttributes, calculateKpi);
+    @Override
+    public Set<String> dataTypes() {
+        return Set.of("integer", "double");
     }
 
     @Override
-    protected List<Pair<Resource, Double>> getSortedValues(Map<Resource, RDFNode> data) {
+    public ValueColumn decode(Object[] cells) {
+        double[] values = new double[cells.length];
         try {
-            return data.entrySet().stream()
-                    .map(e -> new Pair<>(e.getKey(), e.getValue().asLiteral().getDouble()))
-                    .sorted(Comparator.comparingDouble(Pair::getRight))
-                    .toList();
+            for (int i = 0; i < cells.length; i++) {
+                values[i] = ValueColumn.number(cells[i]);
+            }
         } catch (Exception e) {
             throw new IllegalArgumentException("Error while parsing numeric values for generalization.", e);
         }
+        return ValueColumn.numbers(values);
+    }
+
+    @Override
+    protected int compare(ValueColumn column, int position1, int position2) {
+        return Double.compare(column.numbers()[position1], column.numbers()[position2]);
     }
 
     @Override
-    protected Double getMedianValue(Double value1, Double value2) {
-        if (value1 == null) {
-            return value2;
+    protected Double getMedianValue(ValueColumn column, int position1, int position2) {
+        double[] values = column.numbers();
+        if (position1 < 0) {
+            return values[position2];
         }
-        if (value2 == null) {
-            return value1;
+        if (position2 < 0) {
+            return values[position1];
         }
-        return (value1 + value2) / 2.0;
+        return (values[position1] + values[position2]) / 2.0;
     }
 }
@@ -1,59 +1,71 @@
 package com.example.anonymization.service.anonymizer;
 
-import com.example.anonymization.entities.Configuration;
 import com.example.anonymization.entities.ObjectGeneralizationConfig;
-import org.apache.jena.rdf.model.*;
-
-import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
-
-public class GeneralizationObject extends Anonymization<ObjectGeneralizationConfig> {
-
-    public GeneralizationObject(
-            Model model,
-            Property property,
-            Map<Resource, RDFNode> data,
-            long numberAttributes,
-            Configuration config,
-            Resource anonymizationObject,
-            boolean calculateKpi) {
-        super(model, property, data, (ObjectGeneralizationConfig) config, anonymizationObject, numberAttributes,
-                calculateKpi);
+import org.apache.jena.rdf.model.Literal;
+
+import java.util.*;
+
+/**
+ * Generalization of nested objects by the first attribute of the configured attribute order whose values are
+ * sufficiently anonymous; objects are masked if there is no such attribute. The values of the column are maps of
+ * attribute URI to literal or lexical form, a missing attribute counts as empty string.
+ */
+public class GeneralizationObject implements BatchAnonymizer {
+
+    /**
+     * Namespace of the attributes listed in the attribute order
+     */
+    public static final String ATTRIBUTE_NAMESPACE = "https://soya.ownyourdata.eu/AnonymisationDemo/";
+
+    /**
+     * Datatype the anonymizer is registered for, configurations of nested objects resolve it for any datatype
+     */
+    public static final String DATA_TYPE = "object";
+
+    @Override
+    public String anonymization() {
+        return "generalization";
     }
 
     @Override
-    public void applyAnonymization() {
-        Property generalized = model.createProperty(property.getURI(), "_generalized");
-        List<Property> attributes = config.getAttributeOrder().stream()
-                .map(p -> model.getProperty("https://soya.ownyourdata.eu/AnonymisationDemo/" + p))
-                .toList();
-        for (Property objectProperty : attributes) {
-            Map<Resource, Literal> propertyData = data.entrySet()
-                    .stream()
-                    .collect(Collectors.toMap(
-                            Map.Entry::getKey,
-                            e -> {
-                                Statement stmt = model.getProperty(e.getValue().asResource(), objectProperty);
-                                return stmt != null && stmt.getObject().isLiteral() ? stmt.getLiteral()
-                                        : model.createLiteral("");
-                            }));
-            if (checkIfAnonymizationIsEnough(propertyData)) {
-                propertyData.forEach((key, value) -> key.addProperty(generalized, value));
-                return;
+    public Set<String> dataTypes() {
+        return Set.of(DATA_TYPE);
+    }
+
+    @Override
+    public ValueColumn decode(Object[] cells) {
+        for (Object cell : cells) {
+            if (!(cell instanceof Map<?, ?>)) {
+                throw new IllegalArgumentException("Object generalization can only be applied to objects.");
+            }
+        }
+        return ValueColumn.objects(cells);
+    }
+
+    @Override
+    public ResultColumn anonymize(ValueColumn column, BatchContext context) {
+        Object[] objects = column.objects();
+        int numberBuckets = context.numberBuckets();
+        for (String attribute : ((ObjectGeneralizationConfig) context.config()).getAttributeOrder()) {
+            String uri = ATTRIBUTE_NAMESPACE + attribute;
+            Object[] values = new Object[objects.length];
+            Map<Object, Long> groupCounts = new HashMap<>();
+            for (int i = 0; i < objects.length; i++) {
+                Object value = ((Map<?, ?>) objects[i]).get(uri);
+                values[i] = value != null ? value : "";
+                groupCounts.merge(values[i] instanceof Literal literal ? literal.getValue() : values[i], 1L,
+                        Long::sum);
+            }
+            if (checkIfAnonymizationIsEnough(groupCounts.values(), objects.length, numberBuckets)) {
+                return new ResultColumn(values);
             }
         }
-        data.keySet().forEach(key -> key.addProperty(generalized, model.createLiteral("*****")));
+        Object[] masked = new Object[objects.length];
+        Arrays.fill(masked, Masking.MASKED_VALUE);
+        return new ResultColumn(masked);
     }
 
-    private boolean checkIfAnonymizationIsEnough(Map<Resource, Literal> propertyData) {
-        Collection<Long> groupCounts = propertyData.entrySet().stream()
-                .collect(Collectors.groupingBy(
-                        e -> e.getValue().getValue(),
-                        Collectors.counting()))
-                .values();
-        return groupCounts.size() <= numberBuckets && Collections.min(groupCounts) > data.size() * 0.5 / numberBuckets;
+    private static boolean checkIfAnonymizationIsEnough(Collection<Long> groupCounts, int size, int numberBuckets) {
+        return groupCounts.size() <= numberBuckets && Collections.min(groupCounts) > size * 0.5 / numberBuckets;
     }
 }
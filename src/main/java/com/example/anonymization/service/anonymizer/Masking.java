@@ -1,26 +1,36 @@
 package com.example.anonymization.service.anonymizer;
 
-import com.example.anonymization.entities.Configuration;
-import org.apache.jena.rdf.model.*;
+import java.util.Arrays;
+import java.util.Set;
 
-import java.util.Map;
+public class Masking implements BatchAnonymizer {
 
-public class Masking extends Anonymization<Configuration> {
+    public static final String MASKED_VALUE = "*****";
 
-    public Masking(
-            Model model,
-            Property property,
-            Map<Resource, RDFNode> data,
-            Configuration config,
-            Resource anonymizationObject) {
-        super(model, property, data, config, anonymizationObject);
+    @Override
+    public String anonymization() {
+        return "masking";
+    }
+
+    @Override
+    public Set<String> dataTypes() {
+        return Set.of(ANY_DATA_TYPE);
+    }
+
+    @Override
+    public boolean bucketed() {
+        return false;
+    }
+
+    @Override
+    public ValueColumn decode(Object[] cells) {
+        return ValueColumn.objects(cells);
     }
 
     @Override
-    public void applyAnonymization() {
-        Property anonymizedValue = model.createProperty(property.getURI() + "_masked");
-        data.forEach((key, value) -> {
-            key.addLiteral(anonymizedValue, "*****");
-        });
+    public ResultColumn anonymize(ValueColumn column, BatchContext context) {
+        Object[] masked = new Object[column.size()];
+        Arrays.fill(masked, MASKED_VALUE);
+        return new ResultColumn(masked);
     }
 }
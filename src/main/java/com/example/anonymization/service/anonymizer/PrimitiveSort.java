@@ -0,0 +1,48 @@
+package com.example.anonymization.service.anonymizer;
+
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Sorting of value positions for anonymizers working on primitive arrays
+ */
+final class PrimitiveSort {
+
+    private PrimitiveSort() {
+    }
+
+    /**
+     * Stable bottom-up merge sort of positions
+     * @param size number of positions
+     * @param comparator comparator of two positions
+     * @return the positions in ascending order
+     */
+    static int[] sortedPositions(int size, IntBinaryOperator comparator) {
+        int[] positions = new int[size];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = i;
+        }
+        int[] buffer = new int[size];
+        for (int width = 1; width < positions.length; width *= 2) {
+            for (int start = 0; start < positions.length - width; start += 2 * width) {
+                int middle = start + width;
+                int end = Math.min(start + 2 * width, positions.length);
+                int left = start;
+                int right = middle;
+                int target = start;
+                while (left < middle && right < end) {
+                    buffer[target++] = comparator.applyAsInt(positions[right], positions[left]) < 0
+                            ? positions[right++]
+                            : positions[left++];
+                }
+                while (left < middle) {
+                    buffer[target++] = positions[left++];
+                }
+                while (right < end) {
+                    buffer[target++] = positions[right++];
+                }
+                System.arraycopy(buffer, start, positions, start, end - start);
+            }
+        }
+        return positions;
+    }
+}
@@ -1,76 +1,92 @@
 package com.example.anonymization.service.anonymizer;
 
-import com.example.anonymization.entities.Configuration;
-import org.apache.jena.rdf.model.*;
+import org.apache.jena.rdf.model.Literal;
 
-import java.util.*;
+import java.util.Random;
 
-public abstract class Randomization extends Anonymization<Configuration> {
+/**
+ * Randomization of ordered values: each value gets noise scaled by the distance to the nearest values of its bucket.
+ * The positions are sorted stably, the random numbers are drawn in ascending order of the values.
+ */
+public abstract class Randomization implements BatchAnonymizer {
 
-    public Randomization(
-            Model model,
-            Property property,
-            Map<Resource, RDFNode> data,
-            Configuration config,
-            Resource anonymizationObject,
-            long numberAttributes,
-            boolean calculateKpi) {
-        super(model, property, data, config, anonymizationObject, numberAttributes, calculateKpi);
+    @Override
+    public String anonymization() {
+        return "randomization";
     }
 
-    abstract double distance(Literal a, Literal b);
+    /**
+     * Decodes the values, any error is reported as values that are not literals
+     */
+    @Override
+    public ValueColumn decode(Object[] cells) {
+        try {
+            return decodeValues(cells);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Randomization can only be applied to literal values.");
+        }
+    }
 
-    abstract Literal createRandomizedLiteral(Literal value, double distance, Literal min, Literal max);
+    abstract ValueColumn decodeValues(Object[] cells);
 
-    abstract Comparator<Literal> getComparator();
+    /**
+     * @return the value at a position on the scale distances are measured on
+     */
+    abstract double coordinate(ValueColumn column, int position);
 
-    @Override
-    public void applyAnonymization() {
-        int randomizationValue = data.size() / numberBuckets;
-        Map<Resource, Literal> randomizedValues = getRandomizedValues(data, randomizationValue);
-        writeToModel(model, randomizedValues, property);
-    }
+    /**
+     * Compares the values at two positions
+     */
+    abstract int compare(ValueColumn column, int position1, int position2);
 
-    private Map<Resource, Literal> getRandomizedValues(Map<Resource, RDFNode> data, int randomizationValue) {
-        List<Map.Entry<Resource, Literal>> sorted = getSortedLiteralEntries(data);
-        Map<Resource, Literal> randomized = HashMap.newHashMap(data.size());
-        randomizationValue = randomizationValue == data.size() ? randomizationValue - 1 : randomizationValue;
+    /**
+     * @param position position of the value
+     * @param distance the scale of the noise
+     * @param first position of the smallest value
+     * @param last position of the largest value
+     * @return the randomized value, between the smallest and the largest value
+     */
+    abstract Literal createRandomizedLiteral(
+            ValueColumn column,
+            int position,
+            double distance,
+            int first,
+            int last,
+            Random random);
+
+    @Override
+    public ResultColumn anonymize(ValueColumn column, BatchContext context) {
+        int size = column.size();
+        Object[] randomized = new Object[size];
+        if (size == 0) {
+            return new ResultColumn(randomized);
+        }
+        int[] order = PrimitiveSort.sortedPositions(size, (a, b) -> compare(column, a, b));
+        double[] coordinates = new double[size];
+        for (int i = 0; i < size; i++) {
+            coordinates[i] = coordinate(column, i);
+        }
+        Random random = new Random(context.seed());
+        int randomizationValue = size / context.numberBuckets();
+        randomizationValue = randomizationValue == size ? randomizationValue - 1 : randomizationValue;
+        int first = order[0];
+        int last = order[size - 1];
         int lowerBound = 0;
-        for (int idx = 0; idx < sorted.size(); idx++) {
-            Map.Entry<Resource, Literal> entry = sorted.get(idx);
+        for (int idx = 0; idx < size; idx++) {
+            double value = coordinates[order[idx]];
 
-            while (lowerBound < sorted.size() - (randomizationValue + 1) &&
+            while (lowerBound < size - (randomizationValue + 1) &&
                     (lowerBound < idx - randomizationValue ||
-                            Math.abs(distance(sorted.get(lowerBound).getValue(), entry.getValue())) > Math.abs(distance(
-                                    sorted.get(lowerBound + randomizationValue + 1).getValue(),
-                                    entry.getValue())))) {
+                            Math.abs(coordinates[order[lowerBound]] - value) > Math.abs(
+                                    coordinates[order[lowerBound + randomizationValue + 1]] - value))) {
                 lowerBound++;
             }
 
             double dist = Math.max(
-                    Math.abs(distance(sorted.get(lowerBound).getValue(), entry.getValue())),
-                    Math.abs(distance(sorted.get(lowerBound + randomizationValue).getValue(), entry.getValue())));
-            randomized.put(
-                    entry.getKey(),
-                    createRandomizedLiteral(
-                            entry.getValue(), dist, sorted.getFirst().getValue(), sorted.getLast().getValue()));
-        }
-        return randomized;
-    }
-
-    private List<Map.Entry<Resource, Literal>> getSortedLiteralEntries(Map<Resource, RDFNode> data) {
-        try {
-            return data.entrySet().stream()
-                    .map(entry -> Map.entry(entry.getKey(), entry.getValue().asLiteral()))
-                    .sorted((e1, e2) -> getComparator().compare(e1.getValue(), e2.getValue()))
-                    .toList();
-        } catch (Exception e) {
-            throw new IllegalArgumentException("Randomization can only be applied to literal values.");
+                    Math.abs(coordinates[order[lowerBound]] - value),
+                    Math.abs(coordinates[order[lowerBound + randomizationValue]] - value));
+            randomized[order[idx]] = createRandomizedLiteral(column, order[idx], dist, first, last, random);
         }
-    }
-
-    private void writeToModel(Model model, Map<Resource, Literal> randomizedValues, Property originalProperty) {
-        Property randomized = model.createProperty(originalProperty.getURI(), "_randomized");
-        randomizedValues.forEach((key, value) -> key.addLiteral(randomized, value));
+        return new ResultColumn(randomized);
     }
 }
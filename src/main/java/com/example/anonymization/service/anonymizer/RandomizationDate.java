@@ -1,48 +1,55 @@
 package com.example.anonymization.service.anonymizer;
 
-import com.example.anonymization.entities.Configuration;
 import org.apache.jena.datatypes.xsd.XSDDatatype;
-import org.apache.jena.rdf.model.*;
+import org.apache.jena.rdf.model.Literal;
+import org.apache.jena.rdf.model.ResourceFactory;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
-import java.util.Comparator;
-import java.util.Map;
 import java.util.Random;
+import java.util.Set;
 
 public class RandomizationDate extends Randomization {
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE;
-    private final Random random;
 
-    public RandomizationDate(
-            Model model,
-            Property property,
-            Map<Resource, RDFNode> data,
-            long numberAttributes,
-            Configuration config,
-            Resource anonymizationObject,
-            boolean calculateKpi,
-            long seed) {
-        super(model, property, data, config, anonymizationObject, numberAttributes, calculateKpi);
-        this.random = new Random(seed);
+    @Override
+    public Set<String> dataTypes() {
+        return Set.of("date");
     }
 
+    /**
+     * Decodes the values into epoch days, each literal is parsed once
+     */
     @Override
-    double distance(Literal a, Literal b) {
-        LocalDate dateA = literalToLocalDate(a);
-        LocalDate dateB = literalToLocalDate(b);
-        return ChronoUnit.DAYS.between(dateA, dateB);
+    ValueColumn decodeValues(Object[] cells) {
+        return ValueColumn.epochDays(TemporalDecoder.epochDays(
+                cells, cell -> LocalDate.parse(ValueColumn.lexical(cell), DATE_FORMATTER).toEpochDay()));
     }
 
     @Override
-    Literal createRandomizedLiteral(Literal value, double distance, Literal min, Literal max) {
-        int noiseDays = Integer.MAX_VALUE;
+    double coordinate(ValueColumn column, int position) {
+        return column.epochs()[position];
+    }
 
-        long valueDay = literalToLocalDate(value).toEpochDay();
-        long minDay = literalToLocalDate(min).toEpochDay();
-        long maxDay = literalToLocalDate(max).toEpochDay();
+    @Override
+    int compare(ValueColumn column, int position1, int position2) {
+        return Long.compare(column.epochs()[position1], column.epochs()[position2]);
+    }
+
+    @Override
+    Literal createRandomizedLiteral(
+            ValueColumn column,
+            int position,
+            double distance,
+            int first,
+            int last,
+            Random random) {
+        long[] days = column.epochs();
+        long valueDay = days[position];
+        long minDay = days[first];
+        long maxDay = days[last];
+        int noiseDays = Integer.MAX_VALUE;
 
         while (valueDay + noiseDays > maxDay || valueDay + noiseDays < minDay) {
             noiseDays = (int) Math.round(random.nextGaussian() * distance);
@@ -51,22 +58,9 @@ public class RandomizationDate extends Randomization {
             }
         }
 
-        LocalDate noisyDate = literalToLocalDate(value).plusDays(noiseDays);
+        LocalDate noisyDate = LocalDate.ofEpochDay(valueDay + noiseDays);
         String lexical = noisyDate.format(DATE_FORMATTER);
 
         return ResourceFactory.createTypedLiteral(lexical, XSDDatatype.XSDdate);
     }
-
-    @Override
-    Comparator<Literal> getComparator() {
-        return Comparator.comparingLong(literal -> literalToLocalDate(literal).toEpochDay());
-    }
-
-    private static LocalDate literalToLocalDate(Literal literal) {
-        try {
-            return LocalDate.parse(literal.getLexicalForm(), DATE_FORMATTER);
-        } catch (Exception e) {
-            throw new IllegalArgumentException("Literal lexical form is not a valid xsd:date: " + literal, e);
-        }
-    }
 }
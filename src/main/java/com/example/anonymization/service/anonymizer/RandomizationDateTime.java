@@ -1,43 +1,54 @@
 package com.example.anonymization.service.anonymizer;
 
-import com.example.anonymization.entities.Configuration;
 import org.apache.jena.datatypes.xsd.XSDDatatype;
 import org.apache.jena.datatypes.xsd.XSDDateTime;
-import org.apache.jena.rdf.model.*;
+import org.apache.jena.rdf.model.Literal;
+import org.apache.jena.rdf.model.ResourceFactory;
 
 import java.util.Calendar;
-import java.util.Comparator;
-import java.util.Map;
 import java.util.Random;
+import java.util.Set;
 
 public class RandomizationDateTime extends Randomization {
 
-    private final Random random;
+    @Override
+    public Set<String> dataTypes() {
+        return Set.of("dateTime");
+    }
 
-    public RandomizationDateTime(
-            Model model,
-            Property property,
-            Map<Resource, RDFNode> data,
-            long numberAttributes,
-            Configuration config,
-            Resource anonymizationObject,
-            boolean calculateKpi,
-            long seed) {
-        super(model, property, data, config, anonymizationObject, numberAttributes, calculateKpi);
-        this.random = new Random(seed);
+    /**
+     * Decodes the values into epoch milliseconds, each literal is parsed once. Values are sorted by whole seconds
+     * and distances are measured in fractional seconds.
+     */
+    @Override
+    ValueColumn decodeValues(Object[] cells) {
+        return ValueColumn.epochMillis(TemporalDecoder.epochMillis(
+                cells, true, cell -> parseDate(ValueColumn.lexical(cell)).getTimeInMillis()));
     }
 
     @Override
-    double distance(Literal a, Literal b) {
-        return literalToDate(a).getTimeInMillis() / 1_000d - literalToDate(b).getTimeInMillis() / 1_000d;
+    double coordinate(ValueColumn column, int position) {
+        return column.epochs()[position] / 1_000d;
     }
 
     @Override
-    Literal createRandomizedLiteral(Literal value, double distance, Literal min, Literal max) {
+    int compare(ValueColumn column, int position1, int position2) {
+        return Long.compare(column.epochs()[position1] / 1_000, column.epochs()[position2] / 1_000);
+    }
+
+    @Override
+    Literal createRandomizedLiteral(
+            ValueColumn column,
+            int position,
+            double distance,
+            int first,
+            int last,
+            Random random) {
+        long[] millis = column.epochs();
         int noise = Integer.MAX_VALUE;
-        long dateSeconds = literalToDate(value).getTimeInMillis() / 1_000;
-        long maxSeconds = literalToDate(max).getTimeInMillis() / 1_000;
-        long minSeconds = literalToDate(min).getTimeInMillis() / 1_000;
+        long dateSeconds = millis[position] / 1_000;
+        long maxSeconds = millis[last] / 1_000;
+        long minSeconds = millis[first] / 1_000;
         while (dateSeconds + noise > maxSeconds || dateSeconds + noise < minSeconds) {
             noise = (int) (random.nextGaussian() * distance);
             if (dateSeconds + noise > maxSeconds || dateSeconds + noise < minSeconds) {
@@ -45,26 +56,27 @@ public class RandomizationDateTime extends Randomization {
             }
         }
 
-        Calendar noisyDate = literalToDate(value);
-        noisyDate.add(Calendar.SECOND, noise);
-        return ResourceFactory.createTypedLiteral(noisyDate);
+        return ResourceFactory.createTypedLiteral(TemporalDecoder.calendar(millis[position] + noise * 1_000L));
     }
 
-    @Override
-    Comparator<Literal> getComparator() {
-        return Comparator.comparingLong(literal -> literalToDate(literal).getTimeInMillis() / 1_000);
+    public static Calendar literalToDate(Literal literal) {
+        return parseDate(literal.getString());
     }
 
-    public static Calendar literalToDate(Literal literal) {
+    /**
+     * @param value lexical form of a xsd:date or xsd:dateTime
+     * @return the parsed date
+     */
+    public static Calendar parseDate(String value) {
         try {
-            XSDDateTime xsdDateTime = (XSDDateTime) XSDDatatype.XSDdate.parse(literal.getString());
+            XSDDateTime xsdDateTime = (XSDDateTime) XSDDatatype.XSDdate.parse(value);
             return xsdDateTime.asCalendar();
         } catch (Exception noDateTime) {
             try {
-                XSDDateTime xsdDateTime = (XSDDateTime) XSDDatatype.XSDdateTime.parse(literal.getString());
+                XSDDateTime xsdDateTime = (XSDDateTime) XSDDatatype.XSDdateTime.parse(value);
                 return xsdDateTime.asCalendar();
             } catch (Exception e) {
-                throw new IllegalArgumentException("Literal is not a valid xsd:date or xsd:dateTime: " + literal);
+                throw new IllegalArgumentException("Literal is not a valid xsd:date or xsd:dateTime: " + value);
             }
         }
     }
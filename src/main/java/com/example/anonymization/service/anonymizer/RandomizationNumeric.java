@@ -1,46 +1,55 @@
 package com.example.anonymization.service.anonymizer;
 
-import com.example.anonymization.entities.Configuration;
-import org.apache.jena.rdf.model.*;
+import org.apache.jena.rdf.model.Literal;
+import org.apache.jena.rdf.model.ResourceFactory;
 
-import java.util.*;
+import java.util.Random;
+import java.util.Set;
 
 public class RandomizationNumeric extends Randomization {
 
-    private final Random random;
-
-    public RandomizationNumeric(
-            Model model,
-            Property property,
-            Map<Resource, RDFNode> data,
-            long numberAttributes,
-            Configuration config,
-            Resource anonymizationObject,
-            boolean calculateKpi,
-            long seed) {
-        super(model, property, data, config, anonymizationObject, numberAttributes, calculateKpi);
-        this.random = new Random(seed);
+    @Override
+    public Set<String> dataTypes() {
+        return Set.of("integer", "double");
+    }
+
+    @Override
+    ValueColumn decodeValues(Object[] cells) {
+        double[] values = new double[cells.length];
+        for (int i = 0; i < cells.length; i++) {
+            values[i] = ValueColumn.number(cells[i]);
+        }
+        return ValueColumn.numbers(values);
     }
 
     @Override
-    protected double distance(Literal a, Literal b) {
-        return a.getDouble() - b.getDouble();
+    double coordinate(ValueColumn column, int position) {
+        return column.numbers()[position];
     }
 
     @Override
-    protected Literal createRandomizedLiteral(Literal value, double distance, Literal min, Literal max) {
+    int compare(ValueColumn column, int position1, int position2) {
+        return Double.compare(column.numbers()[position1], column.numbers()[position2]);
+    }
+
+    @Override
+    Literal createRandomizedLiteral(
+            ValueColumn column,
+            int position,
+            double distance,
+            int first,
+            int last,
+            Random random) {
+        double[] values = column.numbers();
+        double value = values[position];
+        double min = values[first];
+        double max = values[last];
         double noise;
         double randomizedValue = Double.MAX_VALUE;
-        while (randomizedValue > max.getDouble() || randomizedValue < min.getDouble()) {
+        while (randomizedValue > max || randomizedValue < min) {
             noise = random.nextDouble() * distance;
-            randomizedValue = value.getDouble() + noise > max.getDouble() ||
-                    value.getDouble() + noise < min.getDouble() ? value.getDouble() - noise : value.getDouble() + noise;
+            randomizedValue = value + noise > max || value + noise < min ? value - noise : value + noise;
         }
         return ResourceFactory.createTypedLiteral(randomizedValue);
     }
-
-    @Override
-    Comparator<Literal> getComparator() {
-        return Comparator.comparingDouble(Literal::getDouble);
-    }
 }
@@ -0,0 +1,27 @@
+package com.example.anonymization.service.anonymizer;
+
+import java.util.List;
+
+/**
+ * Anonymized values of one attribute, by position of the {@link ValueColumn} they were computed from. A value is a
+ * typed {@link org.apache.jena.rdf.model.Literal}, a string written as plain literal, or one of the buckets.
+ *
+ * @param values  anonymized value per position
+ * @param buckets the generalization buckets in ascending order, empty for other anonymizations
+ */
+public record ResultColumn(Object[] values, List<Bucket> buckets) {
+
+    public ResultColumn(Object[] values) {
+        this(values, List.of());
+    }
+
+    /**
+     * Generalization range of one bucket. A null bound is obfuscated.
+     *
+     * @param position position of the bucket in ascending order
+     * @param min      the lower bound: a Double, LocalDate or Calendar
+     * @param max      the upper bound of the same type
+     */
+    public record Bucket(int position, Object min, Object max) {
+    }
+}
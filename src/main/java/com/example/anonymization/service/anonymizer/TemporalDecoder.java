@@ -0,0 +1,202 @@
+package com.example.anonymization.service.anonymizer;
+
+import org.apache.jena.rdf.model.Literal;
+
+import java.time.ZoneOffset;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+import java.util.function.ToLongFunction;
+
+/**
+ * Decodes temporal values once into epoch days or epoch milliseconds. Lexical forms of the common ISO 8601 shapes
+ * are decoded directly; other forms are passed to the parser of the anonymizer, so values and errors are the same as
+ * with the parsed objects.
+ * <p>
+ * Epoch milliseconds are those of the calendar Jena creates for the value: values without timezone are in the
+ * default timezone of the JVM. They are only decoded directly if the default timezone has a fixed offset and the year
+ * is after the Gregorian cutover.
+ */
+final class TemporalDecoder {
+
+    private static final long INVALID = Long.MIN_VALUE;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final long FIRST_GREGORIAN_DAY = epochDay(1583, 1, 1);
+    private static final TimeZone UTC = TimeZone.getTimeZone("GMT");
+
+    private TemporalDecoder() {
+    }
+
+    /**
+     * @param cells the xsd:date values
+     * @param parser parser of lexical forms other than yyyy-MM-dd
+     * @return the values as epoch days
+     */
+    static long[] epochDays(Object[] cells, ToLongFunction<Object> parser) {
+        long[] days = new long[cells.length];
+        for (int i = 0; i < cells.length; i++) {
+            String lexical = lexicalOrNull(cells[i]);
+            long value = lexical != null ? epochDay(lexical) : INVALID;
+            days[i] = value != INVALID ? value : parser.applyAsLong(cells[i]);
+        }
+        return days;
+    }
+
+    /**
+     * @param cells the xsd:date or, if date times are allowed, xsd:dateTime values
+     * @param dateTimes whether xsd:dateTime values are decoded directly
+     * @param parser parser of the other lexical forms
+     * @return the values as epoch milliseconds
+     */
+    static long[] epochMillis(Object[] cells, boolean dateTimes, ToLongFunction<Object> parser) {
+        long[] millis = new long[cells.length];
+        long defaultOffset = defaultOffset();
+        for (int i = 0; i < cells.length; i++) {
+            String lexical = lexicalOrNull(cells[i]);
+            long value = lexical != null ? epochMillis(lexical, dateTimes, defaultOffset) : INVALID;
+            millis[i] = value != INVALID ? value : parser.applyAsLong(cells[i]);
+        }
+        return millis;
+    }
+
+    /**
+     * @param millis epoch milliseconds
+     * @return a calendar in UTC at the given time
+     */
+    static Calendar calendar(long millis) {
+        Calendar calendar = new GregorianCalendar(UTC);
+        calendar.setTimeInMillis(millis);
+        return calendar;
+    }
+
+    private static String lexicalOrNull(Object cell) {
+        if (cell instanceof String value) {
+            return value;
+        }
+        return cell instanceof Literal literal ? literal.getLexicalForm() : null;
+    }
+
+    /**
+     * @return epoch day of a lexical form yyyy-MM-dd, or INVALID
+     */
+    private static long epochDay(String lexical) {
+        return lexical.length() == 10 ? date(lexical) : INVALID;
+    }
+
+    /**
+     * @return epoch milliseconds of a lexical form yyyy-MM-dd or yyyy-MM-ddThh:mm:ss[.SSS], followed by an optional
+     *         timezone Z or, for date times, +hh:mm or -hh:mm, or INVALID
+     */
+    private static long epochMillis(String lexical, boolean dateTimes, long defaultOffset) {
+        long day = lexical.length() >= 10 ? date(lexical) : INVALID;
+        if (day == INVALID || day < FIRST_GREGORIAN_DAY) {
+            return INVALID;
+        }
+        long millis = day * MILLIS_PER_DAY;
+        int position = 10;
+        if (lexical.length() > position && lexical.charAt(position) == 'T') {
+            if (!dateTimes || lexical.length() < 19 || lexical.charAt(13) != ':' || lexical.charAt(16) != ':') {
+                return INVALID;
+            }
+            int hour = digits(lexical, 11, 2);
+            int minute = digits(lexical, 14, 2);
+            int second = digits(lexical, 17, 2);
+            if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+                return INVALID;
+            }
+            millis += ((hour * 60L + minute) * 60 + second) * 1_000;
+            position = 19;
+            if (lexical.length() > position && lexical.charAt(position) == '.') {
+                int end = position + 1;
+                while (end < lexical.length() && lexical.charAt(end) >= '0' && lexical.charAt(end) <= '9') {
+                    end++;
+                }
+                int length = end - position - 1;
+                if (length < 1 || length > 3) {
+                    return INVALID;
+                }
+                int fraction = digits(lexical, position + 1, length);
+                millis += length == 1 ? fraction * 100 : length == 2 ? fraction * 10 : fraction;
+                position = end;
+            }
+        }
+        if (position == lexical.length()) {
+            return defaultOffset == INVALID ? INVALID : millis - defaultOffset;
+        }
+        if (position + 1 == lexical.length() && lexical.charAt(position) == 'Z') {
+            return millis;
+        }
+        if (position == 10 || position + 6 != lexical.length() || lexical.charAt(position + 3) != ':') {
+            return INVALID;
+        }
+        char sign = lexical.charAt(position);
+        int hours = digits(lexical, position + 1, 2);
+        int minutes = digits(lexical, position + 4, 2);
+        if ((sign != '+' && sign != '-')
+                || hours < 0 || minutes < 0 || minutes > 59 || hours * 60 + minutes > 14 * 60) {
+            return INVALID;
+        }
+        long offset = (hours * 60L + minutes) * 60_000;
+        return sign == '+' ? millis - offset : millis + offset;
+    }
+
+    /**
+     * @return epoch day of the date yyyy-MM-dd at the start of the lexical form, or INVALID
+     */
+    private static long date(String lexical) {
+        if (lexical.charAt(4) != '-' || lexical.charAt(7) != '-') {
+            return INVALID;
+        }
+        int year = digits(lexical, 0, 4);
+        int month = digits(lexical, 5, 2);
+        int day = digits(lexical, 8, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return INVALID;
+        }
+        return epochDay(year, month, day);
+    }
+
+    /**
+     * @return the value of a run of decimal digits, or -1 if a character is not a digit
+     */
+    private static int digits(String lexical, int start, int length) {
+        int value = 0;
+        for (int i = start; i < start + length; i++) {
+            int digit = lexical.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    /**
+     * Days since 1970-01-01 in the proleptic Gregorian calendar for a year from 0 on
+     */
+    private static long epochDay(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+
+    /**
+     * @return offset of the default timezone in milliseconds, or INVALID if it is not fixed
+     */
+    private static long defaultOffset() {
+        return TimeZone.getDefault().toZoneId().normalized() instanceof ZoneOffset offset
+                ? offset.getTotalSeconds() * 1_000L
+                : INVALID;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.anonymization.service.anonymizer;
+
+import org.apache.jena.rdf.model.Literal;
+
+/**
+ * Values of one attribute decoded into a typed column. Numbers are held as doubles, dates as epoch days and date
+ * times as epoch milliseconds; other values, such as the attributes of nested objects, are kept as objects. A
+ * position of the column is the position of the cell the value was decoded from.
+ *
+ * @see BatchAnonymizer#decode(Object[])
+ */
+public final class ValueColumn {
+
+    public enum Type {
+        NUMBER,
+        EPOCH_DAY,
+        EPOCH_MILLIS,
+        OBJECT
+    }
+
+    private final Type type;
+    private final int size;
+    private final double[] numbers;
+    private final long[] epochs;
+    private final Object[] objects;
+
+    private ValueColumn(Type type, int size, double[] numbers, long[] epochs, Object[] objects) {
+        this.type = type;
+        this.size = size;
+        this.numbers = numbers;
+        this.epochs = epochs;
+        this.objects = objects;
+    }
+
+    public static ValueColumn numbers(double[] values) {
+        return new ValueColumn(Type.NUMBER, values.length, values, null, null);
+    }
+
+    public static ValueColumn epochDays(long[] days) {
+        return new ValueColumn(Type.EPOCH_DAY, days.length, null, days, null);
+    }
+
+    public static ValueColumn epochMillis(long[] millis) {
+        return new ValueColumn(Type.EPOCH_MILLIS, millis.length, null, millis, null);
+    }
+
+    public static ValueColumn objects(Object[] values) {
+        return new ValueColumn(Type.OBJECT, values.length, null, null, values);
+    }
+
+    public Type type() {
+        return type;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the values of a {@link Type#NUMBER} column
+     */
+    public double[] numbers() {
+        requireType(type == Type.NUMBER);
+        return numbers;
+    }
+
+    /**
+     * @return the values of a {@link Type#EPOCH_DAY} or {@link Type#EPOCH_MILLIS} column
+     */
+    public long[] epochs() {
+        requireType(type == Type.EPOCH_DAY || type == Type.EPOCH_MILLIS);
+        return epochs;
+    }
+
+    /**
+     * @return the values of an {@link Type#OBJECT} column
+     */
+    public Object[] objects() {
+        requireType(type == Type.OBJECT);
+        return objects;
+    }
+
+    private void requireType(boolean matches) {
+        if (!matches) {
+            throw new IllegalStateException("Column of type " + type + " does not hold the requested values");
+        }
+    }
+
+    /**
+     * @return the numeric value of a literal cell
+     */
+    public static double number(Object cell) {
+        if (cell instanceof Literal literal) {
+            return literal.getDouble();
+        }
+        return Double.parseDouble(lexical(cell));
+    }
+
+    /**
+     * @return the lexical form of a literal cell
+     */
+    public static String lexical(Object cell) {
+        if (cell instanceof String value) {
+            return value;
+        }
+        if (cell instanceof Literal literal) {
+            return literal.getLexicalForm();
+        }
+        throw new IllegalArgumentException("Cell is not a literal: " + cell);
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.anonymization.service.columnar;
+
+import com.example.anonymization.entities.Configuration;
+import com.example.anonymization.service.anonymizer.Anonymization;
+import com.example.anonymization.service.anonymizer.BatchAnonymizer;
+import com.example.anonymization.service.anonymizer.BatchContext;
+import com.example.anonymization.service.anonymizer.ResultColumn;
+import com.example.anonymization.service.anonymizer.ValueColumn;
+import org.apache.jena.datatypes.xsd.XSDDateTime;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Calendar;
+
+/**
+ * The anonymizers of the anonymizer package applied to the cells of one column of a {@link FlatTable}. Values are
+ * sorted stably, so rows with equal values keep the order of the request.
+ */
+final class ColumnAnonymizer {
+
+    private ColumnAnonymizer() {
+    }
+
+    /**
+     * Generalization range of one bucket. A null bound is obfuscated.
+     */
+    record Bucket(String uri, String min, String max) {
+    }
+
+    /**
+     * Anonymized values of one attribute
+     *
+     * @param property           URI of the original property
+     * @param anonymizedProperty URI of the property the values are written to
+     * @param anonymization      the anonymization that was applied
+     * @param rows               the rows that have a value for the property
+     * @param values             anonymized value per row: a string, a typed literal or a {@link Bucket}
+     * @param numberBuckets      number of buckets used for the attribute
+     * @param kpi                true if the attribute contributes to the KPIs
+     */
+    record Result(
+            String property,
+            String anonymizedProperty,
+            String anonymization,
+            int[] rows,
+            Object[] values,
+            int numberBuckets,
+            boolean kpi) {
+    }
+
+    /**
+     * Anonymizes the values of one attribute with the anonymizer resolved by {@link Configuration#batchAnonymizer()}
+     * @param property URI of the property
+     * @param config configuration of the property
+     * @param rows the rows that have a value for the property
+     * @param cells the values of the rows
+     * @param numberAttributes number of attributes anonymized by generalization or randomization
+     * @param seed seed for the randomization
+     * @return the anonymized values
+     */
+    static Result anonymize(
+            String property,
+            Configuration config,
+            int[] rows,
+            Object[] cells,
+            int numberAttributes,
+            long seed) {
+        String anonymizedProperty = property + config.getAnonymizedSuffix();
+        BatchAnonymizer anonymizer = config.batchAnonymizer();
+        int numberBuckets = anonymizer.bucketed()
+                ? Anonymization.calculateNumberOfBuckets(cells.length, numberAttributes)
+                : 0;
+        ResultColumn column = anonymizer.anonymize(
+                anonymizer.decode(cells),
+                new BatchContext(config, numberBuckets, seed));
+        Bucket[] buckets = column.buckets().stream()
+                .map(bucket -> new Bucket(
+                        property + "_" + bucket.position(),
+                        bound(bucket.min()),
+                        bound(bucket.max())))
+                .toArray(Bucket[]::new);
+        Object[] values = column.values();
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] instanceof ResultColumn.Bucket bucket) {
+                values[i] = buckets[bucket.position()];
+            }
+        }
+        return new Result(property, anonymizedProperty, config.getAnonymization(), rows, values, numberBuckets,
+                anonymizer.bucketed());
+    }
+
+    /**
+     * @return the lexical form of a bucket bound as in the literals of the model based anonymization, or null if the
+     *         bound is obfuscated
+     */
+    private static String bound(Object bound) {
+        return switch (bound) {
+            case null -> null;
+            case Calendar calendar -> new XSDDateTime(calendar).toString();
+            case LocalDate date -> date.format(DateTimeFormatter.ISO_LOCAL_DATE);
+            default -> bound.toString();
+        };
+    }
+
+    /**
+     * @return the numeric value of a literal cell
+     */
+    static double toDouble(Object cell) {
+        return ValueColumn.number(cell);
+    }
+
+    /**
+     * @return the lexical form of a literal cell
+     */
+    static String lexical(Object cell) {
+        return ValueColumn.lexical(cell);
+    }
+}
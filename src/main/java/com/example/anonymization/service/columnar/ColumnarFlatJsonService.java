@@ -0,0 +1,366 @@
+package com.example.anonymization.service.columnar;
+
+import com.example.anonymization.entities.AnonymizationPlan;
+import com.example.anonymization.entities.Configuration;
+import com.example.anonymization.service.ConfigurationService;
+import com.example.anonymization.service.FaltJsonService;
+import com.example.anonymization.service.KpiService;
+import com.example.anonymization.service.anonymizer.RandomizationDateTime;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.jena.rdf.model.Literal;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.ResourceFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.*;
+
+/**
+ * Anonymization of flat JSON requests without building a Jena model. The request data is decoded into a
+ * {@link FlatTable}, the anonymizations are applied to its columns and the output is written row by row. The
+ * results correspond to the model based implementation, except for the order in which rows with equal values are
+ * assigned to buckets and random values, which follows the order of the request.
+ */
+@Service
+public class ColumnarFlatJsonService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarFlatJsonService.class);
+
+    private static boolean enabled = false;
+
+    @Value("${anonymization.flat-json.columnar:false}")
+    void setEnabled(boolean enabled) {
+        ColumnarFlatJsonService.enabled = enabled;
+    }
+
+    /**
+     * @return true if flat JSON requests are processed by the columnar engine
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Generalization range of an output cell. A null bound is obfuscated.
+     */
+    public record Range(String min, String max) {
+    }
+
+    /**
+     * Applies the anonymization plans to the table and creates the flat JSON output.
+     * @param table decoded request data, changed by the anonymization
+     * @param plans anonymization plans by object type
+     * @return the flat JSON output with the data and the KPIs
+     */
+    public static ObjectNode anonymize(
+            FlatTable table,
+            Map<Resource, AnonymizationPlan> plans,
+            boolean calculateKpi,
+            boolean includeOriginalData,
+            long seed,
+            boolean useAdjustedAttributes) {
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode kpiNode = apply(table, plans, calculateKpi, includeOriginalData, seed, useAdjustedAttributes);
+        ObjectNode root = mapper.createObjectNode();
+        root.set("data", createDataArray(mapper, outputColumns(table, ConfigurationService.createFlatConfig(plans)),
+                table.rowCount()));
+        root.set("kpis", kpiNode);
+        return root;
+    }
+
+    /**
+     * Applies the anonymization plans to the table.
+     * @param table decoded request data, changed by the anonymization
+     * @param plans anonymization plans by object type
+     * @return the KPI nodes by object type, empty if no KPIs are calculated
+     */
+    public static ObjectNode apply(
+            FlatTable table,
+            Map<Resource, AnonymizationPlan> plans,
+            boolean calculateKpi,
+            boolean includeOriginalData,
+            long seed,
+            boolean useAdjustedAttributes) {
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode kpiNode = mapper.createObjectNode();
+        for (AnonymizationPlan plan : plans.values()) {
+            ObjectNode kpi = applyPlan(mapper, table, plan, calculateKpi, includeOriginalData, seed,
+                    useAdjustedAttributes);
+            if (kpi != null) {
+                kpiNode.set(localName(KpiService.KPI_OBJECT_URI + plan.objectType().getLocalName()), kpi);
+            }
+        }
+        return kpiNode;
+    }
+
+    /**
+     * @return the KPI node of the object type, or null if no KPIs are calculated
+     */
+    private static ObjectNode applyPlan(
+            ObjectMapper mapper,
+            FlatTable table,
+            AnonymizationPlan plan,
+            boolean calculateKpi,
+            boolean includeOriginalData,
+            long seed,
+            boolean useAdjustedAttributes) {
+        Resource anonymizationObject = plan.objectType();
+        int[] rows = table.rowsOfType(anonymizationObject.getURI());
+        Set<Property> attributes = new HashSet<>();
+        plan.configurations().keySet().forEach(property -> {
+            Object[] column = table.get(property.getURI());
+            if (column != null && Arrays.stream(rows).anyMatch(row -> column[row] != null)) {
+                attributes.add(property);
+            }
+        });
+        logger.debug("Applying columnar anonymization [object={}, attributes={}, records={}]",
+                anonymizationObject.getLocalName(), attributes.size(), rows.length);
+        int nrAnonymizeAttributes = plan.countAnonymizingAttributes(attributes);
+        List<ColumnAnonymizer.Result> results = new ArrayList<>();
+        for (Property property : attributes) {
+            Object[] column = table.get(property.getURI());
+            int[] valueRows = Arrays.stream(rows).filter(row -> column[row] != null).toArray();
+            Object[] cells = Arrays.stream(valueRows).mapToObj(row -> column[row]).toArray();
+            ColumnAnonymizer.Result result = ColumnAnonymizer.anonymize(
+                    property.getURI(),
+                    plan.configurations().get(property),
+                    valueRows,
+                    cells,
+                    nrAnonymizeAttributes,
+                    seed);
+            Object[] anonymized = table.column(result.anonymizedProperty());
+            for (int i = 0; i < valueRows.length; i++) {
+                anonymized[valueRows[i]] = result.values()[i];
+            }
+            results.add(result);
+        }
+
+        ObjectNode kpi = null;
+        if (calculateKpi) {
+            kpi = mapper.createObjectNode();
+            kpi.put("k-Anonymity", (long) calculateKAnonymity(table, plan, attributes, rows));
+            for (ColumnAnonymizer.Result result : results) {
+                if (result.kpi()) {
+                    ObjectNode attributeNode = mapper.createObjectNode();
+                    attributeNode.put("anonymization", result.anonymization());
+                    attributeNode.put("nrBuckets", (long) result.numberBuckets());
+                    kpi.set(localName(result.property()), attributeNode);
+                }
+            }
+        }
+        if (!includeOriginalData) {
+            plan.configurations().keySet().forEach(property -> {
+                Object[] column = table.get(property.getURI());
+                if (column != null) {
+                    Arrays.stream(rows).forEach(row -> column[row] = null);
+                }
+            });
+        }
+        if (!useAdjustedAttributes) {
+            // only the rows of the object type are renamed; other types may have values of the same attributes
+            for (Property property : attributes) {
+                String anonymizedProperty = plan.anonymizedProperties().get(property).getURI();
+                Object[] original = table.column(property.getURI());
+                Object[] anonymized = table.get(anonymizedProperty);
+                for (int row : rows) {
+                    original[row] = anonymized[row];
+                    anonymized[row] = null;
+                }
+                if (Arrays.stream(anonymized).allMatch(Objects::isNull)) {
+                    table.put(anonymizedProperty, null);
+                }
+            }
+        }
+        return kpi;
+    }
+
+    /**
+     * Groups the rows by their generalized values and splits the groups by the similarity of the randomized values,
+     * following {@link KpiService}.
+     */
+    private static int calculateKAnonymity(
+            FlatTable table,
+            AnonymizationPlan plan,
+            Set<Property> attributes,
+            int[] rows) {
+        if (rows.length == 0) {
+            // the grouping of an empty result yields a single empty group
+            return 1;
+        }
+        List<Object[]> generalized = plan.configurations().keySet().stream()
+                .map(property -> table.get(property.getURI() + "_generalized"))
+                .filter(Objects::nonNull)
+                .toList();
+        Map<List<Object>, Set<Integer>> groups = new HashMap<>();
+        for (int row : rows) {
+            List<Object> key = new ArrayList<>(generalized.size());
+            generalized.forEach(column -> key.add(column[row]));
+            groups.computeIfAbsent(key, _ -> new HashSet<>()).add(row);
+        }
+        Map<Integer, Set<Integer>> similarValues = new HashMap<>();
+        groups.values().forEach(group -> group.forEach(row -> similarValues.put(row, new HashSet<>(group))));
+
+        attributes.stream()
+                .filter(property -> plan.configurations().get(property).getAnonymization().equals("randomization"))
+                .forEach(property -> {
+                    Map<Integer, Set<Integer>> similarity = getSimilarValues(
+                            table.get(property.getURI()),
+                            table.get(property.getURI() + "_randomized"),
+                            rows,
+                            List.of("date", "dateTime").contains(plan.configurations().get(property).getDataType()));
+                    similarValues.forEach((row, similar) -> similar.retainAll(similarity.get(row)));
+                });
+        return similarValues.values().stream().mapToInt(Set::size).min().orElse(0);
+    }
+
+    private static Map<Integer, Set<Integer>> getSimilarValues(
+            Object[] original,
+            Object[] randomized,
+            int[] rows,
+            boolean date) {
+        List<Double> distances = new ArrayList<>();
+        Map<Integer, Double> randomizedData = new HashMap<>();
+        Set<Integer> nullValues = new HashSet<>();
+        NavigableMap<Double, Set<Integer>> originalValuesMap = new TreeMap<>();
+        for (int row : rows) {
+            if (original[row] != null) {
+                double originalValue = date ? toNumericDate(original[row]) : ColumnAnonymizer.toDouble(original[row]);
+                double randomizedValue = date
+                        ? toNumericDate(randomized[row])
+                        : ColumnAnonymizer.toDouble(randomized[row]);
+                distances.add(Math.abs(originalValue - randomizedValue));
+                randomizedData.put(row, randomizedValue);
+                originalValuesMap.computeIfAbsent(originalValue, _ -> new HashSet<>()).add(row);
+            } else {
+                nullValues.add(row);
+            }
+        }
+        Map<Integer, Set<Integer>> similarity = new HashMap<>();
+        if (!distances.isEmpty()) {
+            double benchmark = distances.stream().mapToDouble(Double::doubleValue).sum() * 2 / distances.size();
+            randomizedData.forEach((row, value) -> similarity.put(row,
+                    KpiService.findInRange(value, benchmark, originalValuesMap)));
+        }
+        nullValues.forEach(row -> similarity.put(row, nullValues));
+        return similarity;
+    }
+
+    private static double toNumericDate(Object cell) {
+        if (cell instanceof Literal literal) {
+            return RandomizationDateTime.literalToNumericDate(literal);
+        }
+        return RandomizationDateTime.parseDate(ColumnAnonymizer.lexical(cell)).getTimeInMillis() / 1_000d;
+    }
+
+    /**
+     * Collects the columns of the flat output of an anonymized table by output name, in the order of the entries of
+     * the flat JSON output. A cell is a string, a typed literal, a {@link Range} or, in the types column, the list of
+     * the type names of the row; rows without a value have a null cell.
+     * @param table the anonymized table
+     * @param configs configurations of the properties
+     * @return the output columns, empty if the prefix does not form absolute URIs
+     */
+    public static Map<String, Object[]> outputColumns(FlatTable table, Map<Property, Configuration> configs) {
+        Map<String, Object[]> columns = new LinkedHashMap<>();
+        if (!isAbsolute(table.prefix() + FaltJsonService.FLAT_OBJECT_NAME)) {
+            return columns;
+        }
+        Set<String> classificationColumns = new HashSet<>();
+        configs.forEach((property, config) -> {
+            if ("generalization".equals(config.getAnonymization())
+                    && List.of("integer", "float", "date", "dateTime").contains(config.getDataType())) {
+                classificationColumns.add(property.getURI() + "_generalized");
+            }
+        });
+        int rowCount = table.rowCount();
+        for (String uri : table.columnNames()) {
+            String name = localName(uri);
+            if ("counter".equals(name)) {
+                continue;
+            }
+            Object[] cells = table.get(uri);
+            for (int row = 0; row < rowCount; row++) {
+                if (cells[row] instanceof String || cells[row] instanceof Literal) {
+                    columns.computeIfAbsent(name, _ -> new Object[rowCount])[row] = cells[row];
+                }
+            }
+        }
+
+        String flatObject = table.prefix() + FaltJsonService.FLAT_OBJECT_NAME;
+        for (int row = 0; row < rowCount; row++) {
+            List<String> types = table.types(row).stream()
+                    .filter(type -> !type.equals(flatObject))
+                    .map(ColumnarFlatJsonService::localName)
+                    .toList();
+            if (!types.isEmpty()) {
+                columns.computeIfAbsent("types", _ -> new Object[rowCount])[row] = types;
+            }
+        }
+
+        for (String uri : classificationColumns) {
+            Object[] cells = table.get(uri);
+            if (cells == null) {
+                continue;
+            }
+            for (int row = 0; row < rowCount; row++) {
+                if (cells[row] instanceof ColumnAnonymizer.Bucket bucket) {
+                    columns.computeIfAbsent(localName(uri), _ -> new Object[rowCount])[row] =
+                            new Range(bucket.min(), bucket.max());
+                }
+            }
+        }
+        return columns;
+    }
+
+    private static ArrayNode createDataArray(ObjectMapper mapper, Map<String, Object[]> columns, int rowCount) {
+        ArrayNode dataArray = mapper.createArrayNode();
+        if (columns.isEmpty()) {
+            return dataArray;
+        }
+        for (int row = 0; row < rowCount; row++) {
+            ObjectNode entryNode = mapper.createObjectNode();
+            for (Map.Entry<String, Object[]> column : columns.entrySet()) {
+                String name = column.getKey();
+                switch (column.getValue()[row]) {
+                    case null -> {
+                    }
+                    case String value -> entryNode.put(name, value);
+                    case Literal literal -> entryNode.put(name, literal.getValue().toString());
+                    case Range range -> {
+                        ObjectNode genNode = mapper.createObjectNode();
+                        genNode.put("min", range.min() == null ? "obfuscated" : range.min());
+                        genNode.put("max", range.max() == null ? "obfuscated" : range.max());
+                        entryNode.set(name, genNode);
+                    }
+                    case List<?> types -> {
+                        ArrayNode typesArray = mapper.createArrayNode();
+                        types.forEach(type -> typesArray.add(type.toString()));
+                        entryNode.set(name, typesArray);
+                    }
+                    default -> throw new IllegalStateException("Unexpected output cell: " + column.getValue()[row]);
+                }
+            }
+            dataArray.add(entryNode);
+        }
+        return dataArray;
+    }
+
+    private static boolean isAbsolute(String uri) {
+        try {
+            return new URI(uri).isAbsolute();
+        } catch (URISyntaxException e) {
+            return false;
+        }
+    }
+
+    private static String localName(String uri) {
+        return ResourceFactory.createResource(uri).getLocalName();
+    }
+}
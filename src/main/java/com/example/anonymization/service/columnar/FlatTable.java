@@ -0,0 +1,145 @@
+package com.example.anonymization.service.columnar;
+
+import com.example.anonymization.dto.FlatJsonPayload;
+import com.example.anonymization.service.FaltJsonService;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Flat JSON request data decoded into one column per property. A cell holds the string value of a row, the values
+ * of a nested object keyed by property URI, or the result of an anonymization. Rows are addressed by their index in
+ * the request, which is also the order of the output.
+ */
+public final class FlatTable {
+
+    private final String prefix;
+    private final int rowCount;
+    private final Map<String, Object[]> columns = new LinkedHashMap<>();
+    private final List<Set<String>> types;
+
+    private FlatTable(String prefix, int rowCount) {
+        this.prefix = prefix;
+        this.rowCount = rowCount;
+        this.types = new ArrayList<>(rowCount);
+    }
+
+    /**
+     * Decodes the flat JSON entries of a request
+     * @param data data of the request
+     * @param prefix prefix for the properties
+     * @return the decoded table
+     */
+    public static FlatTable of(FlatJsonPayload data, String prefix) {
+        FlatTable table = new FlatTable(prefix, data.size());
+        boolean[] validated = new boolean[data.keys().size()];
+        Object[][] keyColumns = new Object[data.keys().size()][];
+        for (int row = 0; row < data.size(); row++) {
+            Set<String> rowTypes = new LinkedHashSet<>();
+            table.types.add(rowTypes);
+            int[] keyIndices = data.keyIndices(row);
+            Object[] values = data.values(row);
+            for (int i = 0; i < keyIndices.length; i++) {
+                String key = data.keys().get(keyIndices[i]);
+                if (!validated[keyIndices[i]]) {
+                    FaltJsonService.validateKey(key);
+                    validated[keyIndices[i]] = true;
+                    if (!key.equals("type")) {
+                        keyColumns[keyIndices[i]] = table.column(prefix + key);
+                    }
+                }
+                Object value = values[i];
+                if (key.equals("type")) {
+                    addTypes(rowTypes, value, prefix);
+                } else if (value instanceof Map<?, ?> map) {
+                    Map<String, String> object = new LinkedHashMap<>();
+                    map.forEach((subKey, subValue) -> object.put(prefix + subKey, subValue.toString()));
+                    keyColumns[keyIndices[i]][row] = object;
+                } else if (value != null) {
+                    keyColumns[keyIndices[i]][row] = value.toString();
+                }
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Creates a table from columns decoded by the reader of another format
+     * @param prefix prefix for the properties
+     * @param types URIs of the types of each row
+     * @param columns cells of each column by property URI, with one cell per row
+     * @return the table
+     */
+    public static FlatTable of(String prefix, List<Set<String>> types, Map<String, Object[]> columns) {
+        FlatTable table = new FlatTable(prefix, types.size());
+        table.types.addAll(types);
+        table.columns.putAll(columns);
+        return table;
+    }
+
+    private static void addTypes(Set<String> rowTypes, Object value, String prefix) {
+        if (value instanceof List<?> list) {
+            list.forEach(v -> rowTypes.add(prefix + v.toString()));
+        } else if (value != null) {
+            rowTypes.add(prefix + value);
+        }
+    }
+
+    public String prefix() {
+        return prefix;
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @param row index of the row
+     * @return URIs of the types of the row
+     */
+    public Set<String> types(int row) {
+        return types.get(row);
+    }
+
+    /**
+     * @param type URI of an object type
+     * @return indices of the rows of the given type in ascending order
+     */
+    public int[] rowsOfType(String type) {
+        return IntStream.range(0, rowCount).filter(row -> types.get(row).contains(type)).toArray();
+    }
+
+    /**
+     * @return URIs of all columns in the order they were created
+     */
+    public Set<String> columnNames() {
+        return columns.keySet();
+    }
+
+    /**
+     * @param uri URI of the property
+     * @return the cells of the column, or null if the table has no such column
+     */
+    public Object[] get(String uri) {
+        return columns.get(uri);
+    }
+
+    /**
+     * @param uri URI of the property
+     * @return the cells of the column, created empty if it does not exist yet
+     */
+    public Object[] column(String uri) {
+        return columns.computeIfAbsent(uri, _ -> new Object[rowCount]);
+    }
+
+    /**
+     * Replaces the column of the given property, or removes it if cells is null
+     */
+    public void put(String uri, Object[] cells) {
+        if (cells == null) {
+            columns.remove(uri);
+        } else {
+            columns.put(uri, cells);
+        }
+    }
+}
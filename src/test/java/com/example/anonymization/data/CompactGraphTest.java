@@ -0,0 +1,116 @@
+package com.example.anonymization.data;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.sparql.graph.GraphFactory;
+import org.apache.jena.util.iterator.ExtendedIterator;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactGraphTest {
+
+    private static final String EX = "http://example.org/";
+
+    @Test
+    void duplicatesAreStoredOnce() {
+        CompactGraph graph = new CompactGraph();
+        graph.add(triple(0, 0, 0));
+        graph.add(triple(0, 0, 0));
+        graph.add(Triple.create(uri("s0"), uri("p0"), NodeFactory.createLiteralString("0")));
+        graph.add(Triple.create(uri("s0"), uri("p0"), NodeFactory.createLiteralString("0")));
+
+        assertEquals(2, graph.size());
+        assertTrue(graph.contains(triple(0, 0, 0)));
+    }
+
+    @Test
+    void matchesTheDefaultGraph() {
+        CompactGraph graph = new CompactGraph();
+        Graph expected = GraphFactory.createDefaultGraph();
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            Triple triple = random.nextInt(4) == 0
+                    ? Triple.create(uri("s" + random.nextInt(50)), uri("p" + random.nextInt(5)),
+                            NodeFactory.createLiteralString(Integer.toString(random.nextInt(20))))
+                    : triple(random.nextInt(50), random.nextInt(5), random.nextInt(50));
+            if (random.nextInt(3) == 0) {
+                graph.delete(triple);
+                expected.delete(triple);
+            } else {
+                graph.add(triple);
+                expected.add(triple);
+            }
+        }
+
+        assertEquals(expected.size(), graph.size());
+        for (Triple pattern : List.of(
+                Triple.ANY,
+                Triple.create(uri("s3"), Node.ANY, Node.ANY),
+                Triple.create(Node.ANY, uri("p1"), Node.ANY),
+                Triple.create(Node.ANY, Node.ANY, uri("o4")),
+                Triple.create(Node.ANY, uri("p2"), NodeFactory.createLiteralString("5")),
+                Triple.create(uri("s9"), uri("p0"), uri("o9")))) {
+            assertEquals(expected.find(pattern).toSet(), graph.find(pattern).toSet(), pattern.toString());
+        }
+    }
+
+    @Test
+    void compactionKeepsTheLiveTriples() {
+        CompactGraph graph = new CompactGraph();
+        for (int i = 0; i < 4_000; i++) {
+            graph.add(triple(0, i % 3, i));
+        }
+        ExtendedIterator<Triple> open = graph.find(Triple.create(uri("s0"), uri("p1"), Node.ANY));
+        Triple first = open.next();
+        for (int i = 0; i < 3_000; i++) {
+            graph.delete(triple(0, i % 3, i));
+        }
+
+        assertEquals(1_000, graph.size());
+        assertFalse(graph.contains(triple(0, 0, 0)));
+        assertTrue(graph.contains(triple(0, 0, 3_000)));
+        List<Triple> live = graph.find(Triple.create(Node.ANY, uri("p1"), Node.ANY)).toList();
+        assertEquals(333, live.size());
+        graph.add(triple(0, 0, 0));
+        assertTrue(graph.contains(triple(0, 0, 0)));
+
+        // the iterator created before the compaction still returns every live triple
+        Set<Triple> seen = new HashSet<>(List.of(first));
+        open.forEachRemaining(seen::add);
+        assertTrue(seen.containsAll(live));
+    }
+
+    @Test
+    void iteratorRemovesTriples() {
+        CompactGraph graph = new CompactGraph();
+        for (int i = 0; i < 3_000; i++) {
+            graph.add(triple(i % 10, 0, i));
+        }
+        ExtendedIterator<Triple> iterator = graph.find(Triple.ANY);
+        while (iterator.hasNext()) {
+            if (iterator.next().getSubject().equals(uri("s0"))) {
+                continue;
+            }
+            iterator.remove();
+        }
+
+        assertEquals(300, graph.size());
+        assertEquals(300, graph.find(Triple.create(uri("s0"), Node.ANY, Node.ANY)).toList().size());
+    }
+
+    private static Triple triple(int s, int p, int o) {
+        return Triple.create(uri("s" + s), uri("p" + p), uri("o" + o));
+    }
+
+    private static Node uri(String localName) {
+        return NodeFactory.createURI(EX + localName);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.anonymization.data;
+
+import org.apache.jena.rdf.model.*;
+import org.apache.jena.vocabulary.RDF;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphIndexTest {
+
+    private static final String EX = "http://example.org/";
+
+    private final Model model = ModelFactory.createDefaultModel();
+    private final Resource person = model.createResource(EX + "Person");
+    private final Property age = model.createProperty(EX + "age");
+    private final Property ageGeneralized = model.createProperty(EX + "age_generalized");
+
+    @AfterEach
+    void enableIndex() {
+        new QueryService().setGraphIndexEnabled(true);
+    }
+
+    @Test
+    void noObjectsYieldNoGroups() {
+        model.createResource(EX + "rex").addProperty(RDF.type, model.createResource(EX + "Animal"));
+
+        assertEquals(List.of(), GraphIndex.of(model).getGeneralizationGroups(model, Set.of(age), person));
+        assertEquals(List.of(), QueryService.getGeneralizationGroups(model, person, Set.of(age)));
+    }
+
+    @Test
+    void groupsMatchTheQuery() {
+        Resource bucket0 = model.createResource(EX + "age_0");
+        Resource bucket1 = model.createResource(EX + "age_1");
+        for (int i = 0; i < 5; i++) {
+            model.createResource(EX + "p" + i)
+                    .addProperty(RDF.type, person)
+                    .addLiteral(age, 20L + i)
+                    .addProperty(ageGeneralized, i < 3 ? bucket0 : bucket1);
+        }
+
+        List<Set<Resource>> indexed = QueryService.getGeneralizationGroups(model, person, Set.of(age));
+        new QueryService().setGraphIndexEnabled(false);
+        List<Set<Resource>> queried = QueryService.getGeneralizationGroups(model, person, Set.of(age));
+
+        assertEquals(new HashSet<>(queried), new HashSet<>(indexed));
+        assertEquals(Set.of(3, 2), Set.of(indexed.get(0).size(), indexed.get(1).size()));
+    }
+
+    @Test
+    void followsChangesOfTheGraph() {
+        Resource alice = model.createResource(EX + "alice").addProperty(RDF.type, person).addLiteral(age, 30L);
+        GraphIndex index = GraphIndex.of(model);
+        assertTrue(index.contains(age.asNode()));
+
+        model.createResource(EX + "bob").addProperty(RDF.type, person).addLiteral(age, 40L);
+        model.removeAll(alice, age, null);
+
+        assertEquals(List.of(), index.values(alice.asNode(), age.asNode()));
+        assertEquals(2, index.subjects(person.asNode()).size());
+        model.removeAll(null, age, null);
+        assertFalse(index.contains(age.asNode()));
+    }
+
+    @Test
+    void manyValuesOfOneSubjectAreDeleted() {
+        Property address = model.createProperty(EX + "address");
+        Property street = model.createProperty(EX + "street");
+        Resource alice = model.createResource(EX + "alice").addProperty(RDF.type, person);
+        for (int i = 0; i < 10_000; i++) {
+            alice.addLiteral(age, (long) i);
+        }
+        Resource home = model.createResource(EX + "home").addProperty(street, "Main Street");
+        alice.addProperty(address, home);
+
+        GraphIndex.of(model).deleteOriginalProperties(model, Set.of(age, address), person);
+
+        assertEquals(List.of(RDF.type.asNode()), model.listStatements().mapWith(s -> s.getPredicate().asNode())
+                .toList());
+    }
+}
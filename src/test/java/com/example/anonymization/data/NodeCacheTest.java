@@ -0,0 +1,54 @@
+package com.example.anonymization.data;
+
+import org.apache.jena.rdf.model.*;
+import org.apache.jena.vocabulary.RDF;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NodeCacheTest {
+
+    private static final String EX = "http://example.org/";
+
+    private final Model model = ModelFactory.createDefaultModel();
+    private final Resource person = model.createResource(EX + "Person");
+
+    @AfterEach
+    void enableIndex() {
+        new QueryService().setGraphIndexEnabled(true);
+    }
+
+    @Test
+    void predicatesOfRequestDataAreNotCachedByTheQueries() {
+        new QueryService().setGraphIndexEnabled(false);
+        assertDataIsNotCached();
+    }
+
+    @Test
+    void predicatesOfRequestDataAreNotCachedByTheIndex() {
+        assertDataIsNotCached();
+    }
+
+    @Test
+    void configuredTermsAreCanonical() {
+        String uri = EX + "age_generalized";
+        assertSame(NodeCache.property(uri), NodeCache.property(uri));
+        assertSame(NodeCache.literal("*****"), NodeCache.literal("*****"));
+    }
+
+    private void assertDataIsNotCached() {
+        Property unique = model.createProperty(EX + "attribute-" + UUID.randomUUID());
+        model.createResource(EX + "alice").addProperty(RDF.type, person).addLiteral(unique, 30L);
+        int cached = NodeCache.size();
+
+        Map<Resource, Map<Property, RDFNode>> data = QueryService.getAllData(model, person);
+
+        assertEquals(Set.of(unique), data.get(model.getResource(EX + "alice")).keySet());
+        assertEquals(cached, NodeCache.size());
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.anonymization.data;
+
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.query.QuerySolutionMap;
+import org.apache.jena.query.ResultSet;
+import org.apache.jena.rdf.model.*;
+import org.apache.jena.sparql.algebra.Algebra;
+import org.apache.jena.sparql.algebra.Op;
+import org.apache.jena.vocabulary.RDF;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryCacheTest {
+
+    private static final String EX = "http://example.org/";
+    private static final String TEMPLATE = "SELECT ?object WHERE { ?object a ?objectType }";
+
+    private final QueryCache queryCache = new QueryCache();
+
+    @AfterEach
+    void reset() {
+        queryCache.setMaxSize(1000);
+    }
+
+    @Test
+    void templateIsBuiltOncePerShape() {
+        AtomicInteger built = new AtomicInteger();
+        String id = "test-" + System.nanoTime();
+        long hits = QueryCache.hitCount();
+
+        QueryCache.PreparedQuery first = QueryCache.query(id, () -> {
+            built.incrementAndGet();
+            return TEMPLATE;
+        });
+        QueryCache.PreparedQuery second = QueryCache.query(id, () -> {
+            built.incrementAndGet();
+            return TEMPLATE;
+        });
+
+        assertSame(first, second);
+        assertEquals(1, built.get());
+        assertTrue(QueryCache.hitCount() > hits);
+    }
+
+    @Test
+    void bindingsAreSubstitutedIntoTheCompiledQuery() {
+        Model model = ModelFactory.createDefaultModel();
+        Resource person = model.createResource(EX + "Person");
+        Resource alice = model.createResource(EX + "alice").addProperty(RDF.type, person);
+        model.createResource(EX + "rex").addProperty(RDF.type, model.createResource(EX + "Animal"));
+        QueryCache.PreparedQuery query = QueryCache.query("test-objects", () -> TEMPLATE);
+
+        for (int execution = 0; execution < 2; execution++) {
+            QuerySolutionMap bindings = new QuerySolutionMap();
+            bindings.add("objectType", person);
+            Set<Resource> objects = new HashSet<>();
+            try (QueryCache.Rows rows = query.select(model, bindings)) {
+                ResultSet rs = rows.resultSet();
+                rs.forEachRemaining(solution -> objects.add(solution.getResource("object")));
+            }
+            assertEquals(Set.of(alice), objects);
+        }
+    }
+
+    @Test
+    void compiledQueriesAreOptimized() {
+        String template = """
+                SELECT ?object ?value WHERE {
+                    ?object a ?objectType .
+                    OPTIONAL { ?object ?property ?value }
+                    FILTER(BOUND(?value))
+                }""";
+        Model model = ModelFactory.createDefaultModel();
+        Resource person = model.createResource(EX + "Person");
+        Property age = model.createProperty(EX + "age");
+        model.createResource(EX + "alice").addProperty(RDF.type, person).addLiteral(age, 30L);
+        model.createResource(EX + "bob").addProperty(RDF.type, person);
+
+        QueryCache.PreparedQuery query = QueryCache.query("test-optimized", () -> template);
+
+        Op compiled = Algebra.compile(QueryFactory.create(template));
+        assertNotEquals(compiled, query.op());
+        assertEquals(Algebra.optimize(compiled), query.op());
+        QuerySolutionMap bindings = new QuerySolutionMap();
+        bindings.add("objectType", person);
+        bindings.add("property", age);
+        try (QueryCache.Rows rows = query.select(model, bindings)) {
+            assertEquals(30L, rows.resultSet().next().getLiteral("value").getLong());
+            assertFalse(rows.resultSet().hasNext());
+        }
+    }
+
+    @Test
+    void leastRecentlyUsedShapesAreEvicted() {
+        queryCache.setMaxSize(2);
+        String prefix = "test-lru-" + System.nanoTime() + "-";
+        long evictions = QueryCache.evictionCount();
+        QueryCache.PreparedQuery first = QueryCache.query(prefix + 1, () -> TEMPLATE);
+        QueryCache.query(prefix + 2, () -> TEMPLATE);
+        QueryCache.query(prefix + 1, () -> TEMPLATE);
+        QueryCache.query(prefix + 3, () -> TEMPLATE);
+
+        assertEquals(2, QueryCache.size());
+        assertTrue(QueryCache.evictionCount() > evictions);
+        assertSame(first, QueryCache.query(prefix + 1, () -> TEMPLATE));
+        AtomicInteger built = new AtomicInteger();
+        QueryCache.query(prefix + 2, () -> {
+            built.incrementAndGet();
+            return TEMPLATE;
+        });
+        assertEquals(1, built.get());
+    }
+
+    @Test
+    void statisticsArePublished() throws JMException {
+        queryCache.registerStatistics();
+        QueryCache.query("test-statistics", () -> TEMPLATE);
+
+        Object hits = ManagementFactory.getPlatformMBeanServer()
+                .getAttribute(new ObjectName(QueryCache.OBJECT_NAME), "HitCount");
+        assertEquals(QueryCache.hitCount(), hits);
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.anonymization.data;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Resource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpillServiceTest {
+
+    private static final String EX = "http://example.org/";
+
+    private final SpillService spillService = new SpillService();
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void enableSpilling() {
+        spillService.setEnabled(true);
+        spillService.setThreshold(DataSize.ofBytes(16));
+        spillService.setBufferSize(DataSize.ofBytes(16));
+        spillService.setDirectory(directory.toString());
+    }
+
+    @AfterEach
+    void disableSpilling() {
+        spillService.setEnabled(false);
+        spillService.setThreshold(DataSize.ofGigabytes(1));
+        spillService.setBufferSize(DataSize.ofMegabytes(10));
+        spillService.setDirectory(System.getProperty("java.io.tmpdir"));
+    }
+
+    @Test
+    void bufferMovesContentToDiskFromTheThreshold() throws IOException {
+        SpillBuffer buffer = SpillService.buffer();
+        buffer.write("0123456789".getBytes(StandardCharsets.UTF_8));
+        assertFalse(buffer.isSpilled());
+        assertEquals(0, files());
+
+        buffer.write("abcdefghij".getBytes(StandardCharsets.UTF_8));
+        buffer.close();
+        assertTrue(buffer.isSpilled());
+        assertEquals(1, files());
+        assertEquals(20, buffer.size());
+        try (InputStream content = buffer.openStream()) {
+            assertEquals("0123456789abcdefghij", new String(content.readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        buffer.delete();
+        assertEquals(0, files());
+    }
+
+    @Test
+    void bufferMovesToDiskWhenModelsAreNotSpilled() throws IOException {
+        spillService.setEnabled(false);
+        SpillBuffer buffer = SpillService.buffer();
+        buffer.write(new byte[32]);
+        buffer.close();
+
+        assertTrue(buffer.isSpilled());
+        buffer.delete();
+        assertEquals(0, files());
+    }
+
+    @Test
+    void spoolMeasuresContentOfUnknownSize() throws IOException {
+        SpillBuffer small = SpillService.spool(new ByteArrayInputStream(new byte[8]));
+        SpillBuffer large = SpillService.spool(new ByteArrayInputStream(new byte[64]));
+
+        assertEquals(8, small.size());
+        assertFalse(small.isSpilled());
+        assertEquals(64, large.size());
+        assertTrue(large.isSpilled());
+        large.delete();
+        assertEquals(0, files());
+    }
+
+    @Test
+    void requestModelOnDiskIsDeletedWhenClosed() throws IOException {
+        for (int request = 0; request < 2; request++) {
+            RequestModel requestModel = SpillService.open(64);
+            assertTrue(requestModel.isOnDisk());
+            Model model = requestModel.model();
+            Resource alice = model.createResource(EX + "alice").addLiteral(model.createProperty(EX + "age"), 30L);
+            Model output = requestModel.createModel();
+            output.add(model.listStatements());
+            assertTrue(SpillService.isSpilled(model.getGraph()));
+            assertTrue(SpillService.isSpilled(output.getGraph()));
+            assertTrue(output.containsResource(alice));
+            assertEquals(1, files());
+
+            requestModel.close();
+            assertEquals(0, files());
+        }
+    }
+
+    @Test
+    void smallRequestsStayInMemory() {
+        try (RequestModel requestModel = SpillService.open(8)) {
+            assertFalse(requestModel.isOnDisk());
+            assertFalse(SpillService.isSpilled(requestModel.model().getGraph()));
+        }
+        spillService.setEnabled(false);
+        try (RequestModel requestModel = SpillService.open(64)) {
+            assertFalse(requestModel.isOnDisk());
+        }
+    }
+
+    private long files() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+}
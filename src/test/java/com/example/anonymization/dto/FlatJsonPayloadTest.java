@@ -0,0 +1,44 @@
+package com.example.anonymization.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlatJsonPayloadTest {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void lastValueOfADuplicateKeyWins() throws Exception {
+        FlatJsonPayload payload = mapper.readValue("""
+                [{"a": "1", "b": 2, "a": "3"}, {"b": null, "a": "4", "b": 5.5}]
+                """, FlatJsonPayload.class);
+
+        assertEquals(List.of("a", "b"), payload.keys());
+        assertArrayEquals(new int[] {0, 1}, payload.keyIndices(0));
+        assertArrayEquals(new Object[] {"3", "2"}, payload.values(0));
+        assertArrayEquals(new int[] {1, 0}, payload.keyIndices(1));
+        assertArrayEquals(new Object[] {"5.5", "4"}, payload.values(1));
+    }
+
+    @Test
+    void rowsWithManyKeysAreRead() throws Exception {
+        String row = IntStream.range(0, 40)
+                .mapToObj(i -> "\"k" + i + "\": " + i)
+                .collect(Collectors.joining(", ", "{", ", \"k0\": \"last\"}"));
+
+        FlatJsonPayload payload = mapper.readValue("[" + row + ", " + row + "]", FlatJsonPayload.class);
+
+        assertEquals(40, payload.keys().size());
+        for (int i = 0; i < 2; i++) {
+            assertEquals(40, payload.keyIndices(i).length);
+            assertEquals("last", payload.values(i)[0]);
+            assertEquals("39", payload.values(i)[39]);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.anonymization.grpc;
+
+import com.example.anonymization.service.ConfigurationRegistry;
+import io.grpc.stub.ServerCallStreamObserver;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RDFParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnonymizationGrpcServiceTest {
+
+    private static final String NS = "https://soya.ownyourdata.eu/AnonymisationDemo/";
+    private static final String CONFIGURATION_URL = "https://example.org/configs/grpc-test";
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void registerConfiguration() throws IOException {
+        Model ontology = ModelFactory.createDefaultModel();
+        RDFParser.fromString("""
+                @prefix soya: <https://w3id.org/soya/ns#> .
+                @prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .
+                @prefix xsd: <http://www.w3.org/2001/XMLSchema#> .
+                @prefix : <https://soya.ownyourdata.eu/AnonymisationDemo/> .
+                :PersonOverlay a soya:OverlayClassification ; soya:onBase :Person .
+                :name rdfs:domain :Person ; rdfs:range xsd:string ; soya:classification "masking" .
+                """, Lang.TURTLE).parse(ontology);
+        Path file = directory.resolve("grpc-test.jsonld");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            RDFDataMgr.write(out, ontology, Lang.JSONLD);
+        }
+        ConfigurationRegistry registry = new ConfigurationRegistry();
+        ReflectionTestUtils.invokeMethod(registry, "setMappings",
+                List.of(CONFIGURATION_URL + "=file:" + file.toAbsolutePath()));
+        ReflectionTestUtils.invokeMethod(registry, "setWatch", false);
+        ReflectionTestUtils.invokeMethod(registry, "preload");
+    }
+
+    @AfterEach
+    void reset() {
+        ConfigurationRegistry registry = new ConfigurationRegistry();
+        ReflectionTestUtils.invokeMethod(registry, "setMappings", List.<String>of());
+        ReflectionTestUtils.invokeMethod(registry, "setWatch", true);
+    }
+
+    @Test
+    void streamSendsBatchesOnlyWhileTheClientIsReady() {
+        TestObserver observer = new TestObserver();
+        new AnonymizationGrpcService(2).streamFlat(request(5), observer);
+
+        assertTrue(observer.responses.isEmpty());
+        assertNotNull(observer.onReadyHandler);
+
+        observer.ready = 2;
+        observer.onReadyHandler.run();
+        assertEquals(2, observer.responses.size());
+        assertFalse(observer.completed);
+
+        observer.ready = Integer.MAX_VALUE;
+        observer.onReadyHandler.run();
+        assertEquals(3, observer.responses.size());
+        assertTrue(observer.completed);
+        assertEquals(1, observer.responses.getLast().getBatch().getRecordsCount());
+        assertEquals(1, observer.responses.getLast().getKpisCount());
+        assertEquals(0, observer.responses.getFirst().getKpisCount());
+        FlatRecord record = observer.responses.getFirst().getBatch().getRecords(0);
+        assertTrue(record.getEntriesList().stream().anyMatch(entry -> "*****".equals(
+                entry.getValue().getStringValue())));
+        assertTrue(record.getEntriesList().stream().anyMatch(entry ->
+                entry.getValue().getKindCase() == FieldValue.KindCase.INT_VALUE));
+    }
+
+    @Test
+    void invalidRequestsFailBeforeStreaming() {
+        TestObserver observer = new TestObserver();
+        FlatRequest request = request(1).toBuilder()
+                .setOptions(Options.newBuilder().setConfigurationUrl(CONFIGURATION_URL)
+                        .setIncludeOriginalData(true).setUseAdjustedAttributes(false).setPrefix(NS))
+                .build();
+
+        new AnonymizationGrpcService(2).streamFlat(request, observer);
+
+        assertNotNull(observer.error);
+        assertTrue(observer.responses.isEmpty());
+    }
+
+    private static FlatRequest request(int records) {
+        RecordBatch.Builder batch = RecordBatch.newBuilder().addKeys("type").addKeys("name").addKeys("age");
+        for (int i = 0; i < records; i++) {
+            batch.addRecords(FlatRecord.newBuilder()
+                    .addEntries(Entry.newBuilder().setKey(0).setValue(FieldValue.newBuilder()
+                            .setStringValue("Person")))
+                    .addEntries(Entry.newBuilder().setKey(1).setValue(FieldValue.newBuilder()
+                            .setStringValue("name" + i)))
+                    .addEntries(Entry.newBuilder().setKey(2).setValue(FieldValue.newBuilder()
+                            .setIntValue(20 + i))));
+        }
+        return FlatRequest.newBuilder()
+                .setOptions(Options.newBuilder().setConfigurationUrl(CONFIGURATION_URL).setPrefix(NS)
+                        .setRandomSeed(1))
+                .addBatches(batch)
+                .build();
+    }
+
+    /**
+     * Call observer that is ready for a given number of messages
+     */
+    private static final class TestObserver extends ServerCallStreamObserver<FlatResponse> {
+
+        private final List<FlatResponse> responses = new ArrayList<>();
+        private int ready = 0;
+        private Runnable onReadyHandler;
+        private boolean completed;
+        private Throwable error;
+
+        @Override
+        public boolean isReady() {
+            return ready > 0;
+        }
+
+        @Override
+        public void onNext(FlatResponse value) {
+            responses.add(value);
+            ready--;
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error = t;
+        }
+
+        @Override
+        public void onCompleted() {
+            completed = true;
+        }
+
+        @Override
+        public void setOnReadyHandler(Runnable onReadyHandler) {
+            this.onReadyHandler = onReadyHandler;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public void setOnCancelHandler(Runnable onCancelHandler) {
+        }
+
+        @Override
+        public void setCompression(String compression) {
+        }
+
+        @Override
+        public void disableAutoInboundFlowControl() {
+        }
+
+        @Override
+        public void request(int count) {
+        }
+
+        @Override
+        public void setMessageCompression(boolean enable) {
+        }
+    }
+}
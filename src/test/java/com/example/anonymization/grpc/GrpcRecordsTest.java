@@ -0,0 +1,88 @@
+package com.example.anonymization.grpc;
+
+import com.example.anonymization.dto.FlatJsonPayload;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GrpcRecordsTest {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void valuesAreReturnedWithTheKindOfTheRequest() throws Exception {
+        GrpcRecords.PayloadBuilder payload = new GrpcRecords.PayloadBuilder();
+        payload.add(RecordBatch.newBuilder()
+                .addAllKeys(List.of("age", "score", "active", "name", "code"))
+                .addRecords(FlatRecord.newBuilder()
+                        .addEntries(entry(0, FieldValue.newBuilder().setIntValue(30)))
+                        .addEntries(entry(1, FieldValue.newBuilder().setDoubleValue(2.5)))
+                        .addEntries(entry(2, FieldValue.newBuilder().setBoolValue(true)))
+                        .addEntries(entry(3, FieldValue.newBuilder().setStringValue("Alice")))
+                        .addEntries(entry(4, FieldValue.newBuilder().setIntValue(7))))
+                .addRecords(FlatRecord.newBuilder()
+                        .addEntries(entry(4, FieldValue.newBuilder().setStringValue("007"))))
+                .build());
+        FlatJsonPayload data = payload.build();
+        assertArrayEquals(new Object[] {"30", "2.5", "true", "Alice", "7"}, data.values(0));
+
+        ArrayNode output = (ArrayNode) mapper.readTree("""
+                [{"age_randomized": "31", "score": "2.5", "active": "true", "name_masked": "*****",
+                  "code": "007", "count": 4, "ratio": 0.5}]
+                """);
+        RecordBatch batch = GrpcRecords.toBatches(output, 10, payload.kinds()).getFirst();
+        Map<String, FieldValue> values = new HashMap<>();
+        batch.getRecords(0).getEntriesList().forEach(entry -> values.put(batch.getKeys(entry.getKey()),
+                entry.getValue()));
+
+        assertEquals(31, values.get("age_randomized").getIntValue());
+        assertEquals(2.5, values.get("score").getDoubleValue());
+        assertTrue(values.get("active").getBoolValue());
+        assertEquals("*****", values.get("name_masked").getStringValue());
+        assertEquals("007", values.get("code").getStringValue());
+        assertEquals(4, values.get("count").getIntValue());
+        assertEquals(0.5, values.get("ratio").getDoubleValue());
+    }
+
+    @Test
+    void recordsAreSplitIntoBatches() throws Exception {
+        ArrayNode output = (ArrayNode) mapper.readTree("[{\"a\": \"1\"}, {\"a\": \"2\"}, {\"b\": \"3\"}]");
+
+        List<RecordBatch> batches = GrpcRecords.toBatches(output, 2, Map.of());
+
+        assertEquals(2, batches.size());
+        assertEquals(2, batches.get(0).getRecordsCount());
+        assertEquals(List.of("b"), batches.get(1).getKeysList());
+        assertEquals(1, GrpcRecords.toBatches(mapper.createArrayNode(), 2, Map.of()).size());
+    }
+
+    @Test
+    void lastValueOfADuplicateKeyWins() {
+        GrpcRecords.PayloadBuilder payload = new GrpcRecords.PayloadBuilder();
+        for (int batch = 0; batch < 2; batch++) {
+            payload.add(RecordBatch.newBuilder()
+                    .addAllKeys(List.of("b", "a"))
+                    .addRecords(FlatRecord.newBuilder()
+                            .addEntries(entry(1, FieldValue.newBuilder().setStringValue("x")))
+                            .addEntries(entry(0, FieldValue.newBuilder().setIntValue(batch)))
+                            .addEntries(entry(1, FieldValue.newBuilder().setStringValue("y"))))
+                    .build());
+        }
+        FlatJsonPayload data = payload.build();
+
+        assertEquals(2, data.size());
+        assertArrayEquals(new int[] {1, 0}, data.keyIndices(0));
+        assertArrayEquals(new Object[] {"y", "0"}, data.values(0));
+        assertArrayEquals(new Object[] {"y", "1"}, data.values(1));
+    }
+
+    private static Entry entry(int key, FieldValue.Builder value) {
+        return Entry.newBuilder().setKey(key).setValue(value).build();
+    }
+}
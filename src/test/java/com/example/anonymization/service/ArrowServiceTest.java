@@ -0,0 +1,155 @@
+package com.example.anonymization.service;
+
+import com.example.anonymization.entities.AnonymizationPlan;
+import com.example.anonymization.exceptions.RequestModelException;
+import com.example.anonymization.service.columnar.ColumnarFlatJsonService;
+import com.example.anonymization.service.columnar.FlatTable;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.*;
+import org.apache.arrow.vector.complex.StructVector;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.DateUnit;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.jena.rdf.model.Literal;
+import org.apache.jena.rdf.model.Resource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArrowServiceTest {
+
+    private static final String NS = TestConfigurations.NS;
+
+    private static final Map<Resource, AnonymizationPlan> PLANS = TestConfigurations.plans(
+            TestConfigurations.overlay("Person",
+                    "age, xsd:integer, generalization",
+                    "name, xsd:string, masking"));
+
+    @AfterEach
+    void resetMemoryLimit() {
+        new ArrowService().setMemoryLimit(DataSize.ofMegabytes(512));
+    }
+
+    @Test
+    void typedColumnsAreReadIntoTheTable() throws IOException {
+        FlatTable table = ArrowService.read(new ByteArrayInputStream(stream(4)), NS).table();
+
+        assertEquals(4, table.rowCount());
+        assertEquals(Set.of(NS + "Person", NS + "Employee"), table.types(0));
+        assertEquals(Set.of(NS + "Person"), table.types(1));
+        assertNull(table.get(NS + "type"));
+        Literal age = (Literal) table.get(NS + "age")[1];
+        assertEquals(31, age.getLong());
+        assertEquals(0.5, ((Literal) table.get(NS + "score")[0]).getDouble());
+        assertEquals("2020-01-03", table.get(NS + "birthday")[2]);
+        assertEquals("name0", table.get(NS + "name")[0]);
+        assertNull(table.get(NS + "name")[3]);
+    }
+
+    @Test
+    void anonymizedColumnsAreWrittenWithTheInputTypes() throws IOException {
+        ArrowService.ArrowData data = ArrowService.read(new ByteArrayInputStream(stream(24)), NS);
+        FlatTable table = data.table();
+        ColumnarFlatJsonService.apply(table, PLANS, false, false, 1, true);
+
+        byte[] out = ArrowService.write(
+                ColumnarFlatJsonService.outputColumns(table, ConfigurationService.createFlatConfig(PLANS)),
+                table.rowCount(),
+                data.types());
+
+        try (BufferAllocator allocator = new RootAllocator();
+                ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(out), allocator)) {
+            assertTrue(reader.loadNextBatch());
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            assertEquals(24, root.getRowCount());
+            assertNull(root.getSchema().getFields().stream()
+                    .filter(field -> field.getName().equals("age")).findAny().orElse(null));
+
+            Float8Vector score = (Float8Vector) root.getVector("score");
+            assertEquals(0.5, score.get(0));
+            DateDayVector birthday = (DateDayVector) root.getVector("birthday");
+            assertEquals(LocalDate.of(2020, 1, 3).toEpochDay(), birthday.get(2));
+            VarCharVector name = (VarCharVector) root.getVector("name_masked");
+            assertEquals("*****", new String(name.get(0), StandardCharsets.UTF_8));
+            assertTrue(name.isNull(23));
+            VarCharVector types = (VarCharVector) root.getVector("types");
+            assertEquals("Person;Employee", new String(types.get(0), StandardCharsets.UTF_8));
+
+            StructVector generalized = (StructVector) root.getVector("age_generalized");
+            Float8Vector min = (Float8Vector) generalized.getChild("min");
+            Float8Vector max = (Float8Vector) generalized.getChild("max");
+            assertTrue(min.isNull(0));
+            assertFalse(max.isNull(0));
+            assertFalse(min.isNull(23));
+            assertTrue(max.isNull(23));
+            assertFalse(reader.loadNextBatch());
+        }
+    }
+
+    @Test
+    void invalidStreamsAreRejected() {
+        assertThrows(RequestModelException.class, () -> ArrowService.read(
+                new ByteArrayInputStream(new byte[0]), NS));
+    }
+
+    @Test
+    void requestsAboveTheMemoryLimitAreRejected() throws IOException {
+        byte[] stream = stream(1000);
+        new ArrowService().setMemoryLimit(DataSize.ofKilobytes(1));
+
+        assertThrows(RequestModelException.class, () -> ArrowService.read(new ByteArrayInputStream(stream), NS));
+    }
+
+    /**
+     * @return an Arrow IPC stream of persons with typed columns, where the last person has no name
+     */
+    private static byte[] stream(int rows) throws IOException {
+        Schema schema = new Schema(List.of(
+                Field.nullable("type", ArrowType.Utf8.INSTANCE),
+                Field.nullable("name", ArrowType.Utf8.INSTANCE),
+                Field.nullable("age", new ArrowType.Int(32, true)),
+                Field.nullable("score", new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE)),
+                Field.nullable("birthday", new ArrowType.Date(DateUnit.DAY))));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (BufferAllocator allocator = new RootAllocator();
+                VectorSchemaRoot root = VectorSchemaRoot.create(schema, allocator);
+                ArrowStreamWriter writer = new ArrowStreamWriter(root, null, out)) {
+            root.allocateNew();
+            VarCharVector type = (VarCharVector) root.getVector("type");
+            VarCharVector name = (VarCharVector) root.getVector("name");
+            IntVector age = (IntVector) root.getVector("age");
+            Float8Vector score = (Float8Vector) root.getVector("score");
+            DateDayVector birthday = (DateDayVector) root.getVector("birthday");
+            for (int row = 0; row < rows; row++) {
+                type.setSafe(row, (row == 0 ? "Person;Employee" : "Person").getBytes(StandardCharsets.UTF_8));
+                if (row < rows - 1) {
+                    name.setSafe(row, ("name" + row).getBytes(StandardCharsets.UTF_8));
+                }
+                age.setSafe(row, 30 + row);
+                score.setSafe(row, 0.5 + row);
+                birthday.setSafe(row, (int) LocalDate.of(2020, 1, 1).plusDays(row).toEpochDay());
+            }
+            root.setRowCount(rows);
+            writer.start();
+            writer.writeBatch();
+            writer.end();
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.anonymization.service;
+
+import com.example.anonymization.entities.AnonymizationPlan;
+import com.example.anonymization.exceptions.OntologyException;
+import org.apache.jena.rdf.model.Resource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigurationCacheTest {
+
+    private static final String ONTOLOGY = TestConfigurations.jsonLd(
+            TestConfigurations.overlay("Person", "age, xsd:integer, generalization"));
+
+    private final ConfigurationCache cache = new ConfigurationCache();
+    private OntologyServer server;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = new OntologyServer(ONTOLOGY);
+    }
+
+    @AfterEach
+    void reset() {
+        server.close();
+        cache.setTtl(Duration.ofMinutes(10));
+        cache.setStaleWindow(Duration.ofHours(1));
+        cache.setNegativeTtl(Duration.ofSeconds(30));
+        cache.setStaleIfError(Duration.ofDays(1));
+        ConfigurationCache.clear();
+    }
+
+    @Test
+    void previousPlansAreServedWhenTheRevalidationFails() {
+        cache.setTtl(Duration.ZERO);
+        cache.setStaleWindow(Duration.ZERO);
+        String url = server.url("failing");
+        Map<Resource, AnonymizationPlan> plans = ConfigurationCache.getPlans(url);
+
+        server.respond(500, "");
+
+        assertSame(plans, ConfigurationCache.getPlans(url));
+        assertSame(plans, ConfigurationCache.getPlans(url));
+        assertEquals(2, server.requests(), "the failure is cached");
+        assertNotNull(ConfigurationCache.loadedEntries().get(url));
+    }
+
+    @Test
+    void failureIsReturnedAfterTheStaleIfErrorWindow() {
+        cache.setTtl(Duration.ZERO);
+        cache.setStaleWindow(Duration.ZERO);
+        String url = server.url("expiring");
+        Map<Resource, AnonymizationPlan> plans = ConfigurationCache.getPlans(url);
+        server.respond(500, "");
+        assertSame(plans, ConfigurationCache.getPlans(url));
+
+        cache.setStaleIfError(Duration.ZERO);
+
+        assertThrows(OntologyException.class, () -> ConfigurationCache.getPlans(url), "cached failure");
+        assertEquals(2, server.requests());
+        cache.setNegativeTtl(Duration.ZERO);
+        assertThrows(OntologyException.class, () -> ConfigurationCache.getPlans(url), "failed revalidation");
+        assertEquals(3, server.requests());
+    }
+
+    @Test
+    void revalidationResumesAfterTheNegativeTtl() {
+        cache.setTtl(Duration.ZERO);
+        cache.setStaleWindow(Duration.ZERO);
+        cache.setNegativeTtl(Duration.ZERO);
+        String url = server.url("recovering");
+        ConfigurationCache.getPlans(url);
+        server.respond(500, "");
+        ConfigurationCache.getPlans(url);
+
+        server.respond(200, TestConfigurations.jsonLd(TestConfigurations.overlay("Person",
+                "age, xsd:integer, generalization", "name, xsd:string, masking")));
+
+        AnonymizationPlan plan = ConfigurationCache.getPlans(url).values().iterator().next();
+        assertEquals(2, plan.configurations().size());
+    }
+
+    @Test
+    void failuresWithoutPreviousPlansAreCached() {
+        server.respond(200, "not json");
+        String url = server.url("invalid");
+
+        assertThrows(OntologyException.class, () -> ConfigurationCache.getPlans(url));
+        assertThrows(OntologyException.class, () -> ConfigurationCache.getPlans(url));
+        assertEquals(1, server.requests());
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.anonymization.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigurationRegistryTest {
+
+    private static final String PERSON = TestConfigurations.overlay("Person", "age, xsd:integer, generalization");
+    private static final String PET = TestConfigurations.overlay("Pet", "weight, xsd:double, randomization");
+
+    private final ConfigurationRegistry registry = new ConfigurationRegistry();
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void reset() {
+        registry.setLocations(List.of());
+        registry.setMappings(List.of());
+        registry.setWatch(true);
+    }
+
+    @Test
+    void reloadsChangedFilesOfALocation() throws IOException {
+        Path file = write("person.jsonld", PERSON);
+        String location = "file:" + directory.toAbsolutePath() + "/";
+        String url = location + "person.jsonld";
+        load(List.of(location), List.of());
+        assertEquals(1, ConfigurationRegistry.lookup(url).size());
+
+        write("person.jsonld", PERSON + PET);
+        ConfigurationRegistry.reload(file.toAbsolutePath(), StandardWatchEventKinds.ENTRY_MODIFY);
+        assertEquals(2, ConfigurationRegistry.lookup(url).size());
+
+        Path added = write("pet.jsonld", PET);
+        ConfigurationRegistry.reload(added.toAbsolutePath(), StandardWatchEventKinds.ENTRY_CREATE);
+        assertEquals(1, ConfigurationRegistry.lookup(location + "pet.jsonld").size());
+    }
+
+    @Test
+    void deletedMappedFileIsRegisteredAgainWhenCreated() throws IOException {
+        Path file = write("mapped.jsonld", PERSON);
+        String url = "https://example.org/configs/" + directory.getFileName();
+        load(List.of(), List.of(url + "=file:" + file.toAbsolutePath()));
+        assertNotNull(ConfigurationRegistry.lookup(url));
+
+        Files.delete(file);
+        ConfigurationRegistry.reload(file.toAbsolutePath(), StandardWatchEventKinds.ENTRY_DELETE);
+        assertNull(ConfigurationRegistry.lookup(url));
+
+        write("mapped.jsonld", PET);
+        ConfigurationRegistry.reload(file.toAbsolutePath(), StandardWatchEventKinds.ENTRY_CREATE);
+        assertTrue(ConfigurationRegistry.lookup(url).keySet().stream()
+                .anyMatch(type -> type.getURI().endsWith("Pet")));
+    }
+
+    @Test
+    void invalidChangeKeepsThePreviousVersion() throws IOException {
+        Path file = write("person.jsonld", PERSON);
+        String location = "file:" + directory.toAbsolutePath() + "/*.jsonld";
+        String url = "file:" + directory.toAbsolutePath() + "/person.jsonld";
+        load(List.of(location), List.of());
+
+        write("person.jsonld", "{ not json");
+        ConfigurationRegistry.reload(file.toAbsolutePath(), StandardWatchEventKinds.ENTRY_MODIFY);
+        assertEquals(1, ConfigurationRegistry.lookup(url).size());
+
+        Path other = write("notes.txt", PET);
+        ConfigurationRegistry.reload(other.toAbsolutePath(), StandardWatchEventKinds.ENTRY_CREATE);
+        assertNull(ConfigurationRegistry.lookup("file:" + directory.toAbsolutePath() + "/notes.txt"));
+    }
+
+    private void load(List<String> locations, List<String> mappings) {
+        registry.setLocations(locations);
+        registry.setMappings(mappings);
+        registry.setWatch(false);
+        registry.preload();
+    }
+
+    private Path write(String name, String turtle) throws IOException {
+        return Files.writeString(directory.resolve(name), turtle.startsWith("{")
+                ? turtle
+                : TestConfigurations.jsonLd(turtle));
+    }
+}
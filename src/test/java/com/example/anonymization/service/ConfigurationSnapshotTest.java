@@ -0,0 +1,54 @@
+package com.example.anonymization.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigurationSnapshotTest {
+
+    private static final String ONTOLOGY = TestConfigurations.jsonLd(
+            TestConfigurations.overlay("Person", "age, xsd:integer, generalization"));
+
+    @TempDir
+    Path directory;
+
+    private final ConfigurationSnapshot snapshot = new ConfigurationSnapshot();
+
+    @AfterEach
+    void reset() {
+        snapshot.setPath("");
+        snapshot.setSaveInterval(Duration.ofMinutes(5));
+        ConfigurationCache.clear();
+    }
+
+    @Test
+    void restoredConfigurationsKeepTheirFetchTime() throws Exception {
+        snapshot.setPath(directory.resolve("configs.snapshot").toString());
+        snapshot.setSaveInterval(Duration.ofHours(1));
+        try (OntologyServer server = new OntologyServer(ONTOLOGY)) {
+            String url = server.url("snapshot");
+            ConfigurationCache.getPlans(url);
+            Instant fetchedAt = ConfigurationCache.loadedEntries().get(url).fetchedAt();
+            snapshot.open();
+            snapshot.close();
+            ConfigurationCache.clear();
+
+            Thread.sleep(5);
+            snapshot.open();
+            ConfigurationCache.CacheEntry restored = ConfigurationSnapshot.restore(url);
+            snapshot.close();
+
+            assertNotNull(restored);
+            assertEquals(fetchedAt.truncatedTo(ChronoUnit.MILLIS), restored.fetchedAt());
+            assertEquals(1, restored.plans().size());
+            assertEquals(1, server.requests());
+        }
+    }
+}
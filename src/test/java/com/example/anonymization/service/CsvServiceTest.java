@@ -0,0 +1,100 @@
+package com.example.anonymization.service;
+
+import com.example.anonymization.dto.AnonymizationFlatJsonRequestDto;
+import com.example.anonymization.dto.FlatJsonPayload;
+import com.example.anonymization.entities.AnonymizationPlan;
+import com.example.anonymization.exceptions.RequestModelException;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import org.apache.jena.rdf.model.Resource;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvServiceTest {
+
+    private static final Map<Resource, AnonymizationPlan> PLANS = TestConfigurations.plans(
+            TestConfigurations.overlay("Person",
+                    "age, xsd:integer, generalization",
+                    "name, xsd:string, masking"));
+
+    @Test
+    void severalTypesAreSplit() {
+        FlatJsonPayload data = read("""
+                type,name,note
+                Person;Employee,Alice,"a, b"
+                Person,,"say ""hi\"""
+                """);
+
+        assertEquals(2, data.size());
+        assertEquals(List.of("type", "name", "note"), data.keys());
+        assertArrayEquals(new Object[] {List.of("Person", "Employee"), "Alice", "a, b"}, data.values(0));
+        assertArrayEquals(new int[] {0, 2}, data.keyIndices(1));
+        assertArrayEquals(new Object[] {"Person", "say \"hi\""}, data.values(1));
+    }
+
+    @Test
+    void anonymizedOutputIsReadBack() {
+        StringBuilder csv = new StringBuilder("type,name,age,note\r\n");
+        for (int i = 0; i < 24; i++) {
+            csv.append(i == 0 ? "Person;Employee" : "Person").append(",name").append(i).append(',')
+                    .append(20 + i).append(",\"x, ").append(i).append("\"\r\n");
+        }
+        AnonymizationFlatJsonRequestDto request = request(read(csv.toString()));
+
+        ArrayNode output = (ArrayNode) AnonymizationService.anonymizeFlat(request, PLANS, false).get("data");
+        FlatJsonPayload data = read(CsvService.write(output));
+
+        assertEquals(24, data.size());
+        List<String> keys = data.keys();
+        assertTrue(keys.containsAll(List.of("name_masked", "age_generalized.min", "age_generalized.max", "note",
+                "types")), keys.toString());
+        assertFalse(keys.contains("age"));
+        for (int row = 0; row < data.size(); row++) {
+            assertEquals(output.get(row).get("note").asText(), value(data, row, "note"));
+            assertEquals("*****", value(data, row, "name_masked"));
+            assertEquals(output.get(row).get("types").size() > 1 ? "Person;Employee" : "Person",
+                    value(data, row, "types"));
+        }
+    }
+
+    @Test
+    void tabularRequestsRequireConfigurationAndPrefix() {
+        AnonymizationFlatJsonRequestDto request = request(read("type,name\r\nPerson,Alice\r\n"));
+        request.setPrefix(" ");
+        assertThrows(RequestModelException.class, () -> AnonymizationService.applyAnonymizationFlat(request));
+
+        request.setPrefix(TestConfigurations.NS);
+        request.setConfigurationUrl("");
+        assertThrows(RequestModelException.class, () -> AnonymizationService.applyAnonymizationFlat(request));
+    }
+
+    private static FlatJsonPayload read(String csv) {
+        return CsvService.read(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static Object value(FlatJsonPayload data, int row, String key) {
+        int keyIndex = data.keys().indexOf(key);
+        int[] keyIndices = data.keyIndices(row);
+        for (int i = 0; i < keyIndices.length; i++) {
+            if (keyIndices[i] == keyIndex) {
+                return data.values(row)[i];
+            }
+        }
+        return null;
+    }
+
+    private static AnonymizationFlatJsonRequestDto request(FlatJsonPayload data) {
+        AnonymizationFlatJsonRequestDto request = new AnonymizationFlatJsonRequestDto();
+        request.setConfigurationUrl("https://example.org/configs/csv-test");
+        request.setPrefix(TestConfigurations.NS);
+        request.setData(data);
+        request.setCalculateKpi(false);
+        request.setRandomSeed(1);
+        return request;
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.anonymization.service;
+
+import com.example.anonymization.dto.AnonymizationFlatJsonRequestDto;
+import com.example.anonymization.entities.AnonymizationPlan;
+import com.example.anonymization.service.anonymizer.AnonymizerRegistry;
+import com.example.anonymization.service.anonymizer.BatchContext;
+import com.example.anonymization.service.anonymizer.Masking;
+import com.example.anonymization.service.anonymizer.ResultColumn;
+import com.example.anonymization.service.anonymizer.ValueColumn;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.jena.rdf.model.Resource;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The columnar engine and the model based anonymization produce the same flat JSON output for requests without
+ * equal values, where the order of rows with equal values cannot differ.
+ */
+class FlatEngineEquivalenceTest {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private static final Map<Resource, AnonymizationPlan> PLANS = TestConfigurations.plans(
+            TestConfigurations.overlay("Person",
+                    "age, xsd:integer, generalization",
+                    "income, xsd:double, generalization",
+                    "birthday, xsd:date, generalization",
+                    "address, :Address, generalization",
+                    "height, xsd:integer, randomization",
+                    "weight, xsd:double, randomization",
+                    "start, xsd:date, randomization",
+                    "updated, xsd:dateTime, generalization",
+                    "login, xsd:dateTime, randomization",
+                    "name, xsd:string, masking")
+                    + TestConfigurations.overlay("Pet",
+                    "legs, xsd:integer, generalization",
+                    "nickname, xsd:string, masking")
+                    + ":address soya:classification [ soya:attributeOrder (\"city\" \"country\") ] .\n");
+
+    @Test
+    void generalizedBucketsAreEqual() {
+        assertEquivalent(request(true, false, true));
+    }
+
+    @Test
+    void originalDataIsKeptEqually() {
+        assertEquivalent(request(true, true, true));
+    }
+
+    @Test
+    void anonymizedValuesReplaceTheOriginalAttributesEqually() {
+        assertEquivalent(request(false, false, false));
+    }
+
+    @Test
+    void registeredAnonymizersAreUsedEqually() {
+        AnonymizerRegistry.register(new Masking() {
+            @Override
+            public ResultColumn anonymize(ValueColumn column, BatchContext context) {
+                return new ResultColumn(Arrays.stream(column.objects())
+                        .map(cell -> ValueColumn.lexical(cell).charAt(0) + MASKED_VALUE)
+                        .toArray());
+            }
+        });
+        try {
+            AnonymizationFlatJsonRequestDto request = request(false, false, true);
+            assertEquivalent(request);
+            JsonNode row = AnonymizationService.anonymizeFlat(request, PLANS, true).get("data").get(0);
+            assertEquals("p" + Masking.MASKED_VALUE, row.get("name_masked").asText());
+        } finally {
+            AnonymizerRegistry.register(new Masking());
+        }
+    }
+
+    @Test
+    void dateBoundsAreIsoDates() {
+        ObjectNode output = AnonymizationService.anonymizeFlat(request(true, false, true), PLANS, true);
+        JsonNode bucket = output.get("data").get(1).get("birthday_generalized");
+        assertNotNull(bucket);
+        for (String bound : new String[] {"min", "max"}) {
+            String value = bucket.get(bound).asText();
+            assertTrue(value.equals("obfuscated") || value.matches("\\d{4}-\\d{2}-\\d{2}"), value);
+        }
+    }
+
+    @Test
+    void attributesOfOtherTypesKeepTheirValues() {
+        Map<Resource, AnonymizationPlan> plans = TestConfigurations.plans(
+                TestConfigurations.overlay("Person", "name, xsd:string, masking"));
+        ArrayNode data = mapper.createArrayNode();
+        data.addObject().put("name", "alice").put("type", "Person");
+        data.addObject().put("name", "acme").put("type", "Company");
+        AnonymizationFlatJsonRequestDto request = request(data, false, false, false);
+        assertEquivalent(request, plans);
+
+        ArrayNode output = (ArrayNode) AnonymizationService.anonymizeFlat(request, plans, true).get("data");
+        assertEquals(Masking.MASKED_VALUE, output.get(0).get("name").asText());
+        assertFalse(output.get(0).has("name_masked"));
+        assertEquals("acme", output.get(1).get("name").asText());
+    }
+
+    @Test
+    void dateTimeBoundsAreUtcDateTimes() {
+        Map<Resource, AnonymizationPlan> plans = TestConfigurations.plans(
+                TestConfigurations.overlay("Event", "updated, xsd:dateTime, generalization"));
+        ArrayNode data = mapper.createArrayNode();
+        for (int i = 0; i < 24; i++) {
+            data.addObject()
+                    .put("type", "Event")
+                    .put("updated", String.format("2020-01-%02dT%02d:30:00+01:00", 1 + i, i % 24));
+        }
+        AnonymizationFlatJsonRequestDto request = request(data, true, false, true);
+        assertEquivalent(request, plans);
+
+        ObjectNode output = AnonymizationService.anonymizeFlat(request, plans, true);
+        JsonNode bucket = output.get("data").get(12).get("updated_generalized");
+        assertEquals("2020-01-08T19:00:00Z", bucket.get("min").asText());
+        assertEquals("2020-01-17T03:00:00Z", bucket.get("max").asText());
+    }
+
+    private static void assertEquivalent(AnonymizationFlatJsonRequestDto request) {
+        assertEquivalent(request, PLANS);
+    }
+
+    private static void assertEquivalent(AnonymizationFlatJsonRequestDto request,
+            Map<Resource, AnonymizationPlan> plans) {
+        ObjectNode model = AnonymizationService.anonymizeFlat(request, plans, false);
+        ObjectNode columnar = AnonymizationService.anonymizeFlat(request, plans, true);
+        assertEquals(model.get("kpis"), columnar.get("kpis"));
+        ArrayNode modelData = (ArrayNode) model.get("data");
+        ArrayNode columnarData = (ArrayNode) columnar.get("data");
+        assertEquals(modelData.size(), columnarData.size());
+        for (int i = 0; i < modelData.size(); i++) {
+            assertEquals(modelData.get(i), columnarData.get(i), "row " + i);
+        }
+    }
+
+    private static AnonymizationFlatJsonRequestDto request(boolean kpi, boolean includeOriginal, boolean adjusted) {
+        ArrayNode data = mapper.createArrayNode();
+        for (int i = 0; i < 24; i++) {
+            ObjectNode row = data.addObject();
+            if (i % 5 == 4) {
+                row.put("type", "Pet");
+                row.put("legs", (i * 7) % 11);
+                row.put("nickname", "pet" + i);
+                continue;
+            }
+            row.put("type", "Person");
+            row.put("name", "person" + i);
+            row.put("age", 18 + (i * 13) % 60);
+            row.put("income", 1000.5 + (i * 37) % 97 * 10.25);
+            row.put("birthday", String.format("19%02d-%02d-%02d", 50 + (i * 7) % 50, 1 + i % 12, 1 + (i * 3) % 28));
+            row.put("updated", String.format("2020-%02d-%02dT%02d:%02d:00Z", 1 + i % 12, 1 + (i * 5) % 28, i,
+                    (i * 7) % 60));
+            ObjectNode address = row.putObject("address");
+            address.put("city", "city" + i % 4);
+            address.put("country", "country" + i % 2);
+            if (i % 3 != 0) {
+                row.put("height", 150 + (i * 17) % 50);
+                row.put("weight", 50.25 + (i * 19) % 40);
+                row.put("start", String.format("2010-%02d-%02d", 1 + (i * 5) % 12, 1 + i));
+                row.put("login", String.format("2021-03-%02dT08:%02d:30+02:00", 1 + i, (i * 11) % 60));
+            }
+        }
+        return request(data, kpi, includeOriginal, adjusted);
+    }
+
+    private static AnonymizationFlatJsonRequestDto request(ArrayNode data, boolean kpi, boolean includeOriginal,
+            boolean adjusted) {
+        ObjectNode body = mapper.createObjectNode();
+        body.put("configurationUrl", "https://example.org/configuration");
+        body.put("prefix", TestConfigurations.NS);
+        body.put("calculateKpi", kpi);
+        body.put("includeOriginalData", includeOriginal);
+        body.put("useAdjustedAttributes", adjusted);
+        body.put("randomSeed", 42);
+        body.set("data", data);
+        return mapper.convertValue(body, AnonymizationFlatJsonRequestDto.class);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.anonymization.service;
+
+import com.apicatalog.jsonld.JsonLdError;
+import com.apicatalog.jsonld.document.Document;
+import com.apicatalog.jsonld.loader.DocumentLoaderOptions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonLdDocumentLoaderTest {
+
+    private static final String CONTEXT = "{\"@context\": {\"name\": \"https://schema.org/name\"}}";
+
+    @TempDir
+    Path directory;
+
+    private final JsonLdDocumentLoader loader = new JsonLdDocumentLoader();
+
+    @BeforeEach
+    void useDiskCacheOnly() {
+        loader.setCacheDirectory(directory.toString());
+        loader.setOffline(true);
+    }
+
+    @AfterEach
+    void reset() {
+        loader.setCacheDirectory("");
+        loader.setOffline(false);
+        loader.setMaxSize(500);
+        loader.setTtl(Duration.ofHours(24));
+    }
+
+    @Test
+    void documentsAreCachedInMemory() throws Exception {
+        String url = context("cached");
+
+        Document document = load(url);
+
+        assertSame(document, load(url));
+    }
+
+    @Test
+    void leastRecentlyUsedDocumentsAreEvicted() throws Exception {
+        loader.setMaxSize(2);
+        String first = context("first");
+        Document document = load(first);
+        load(context("second"));
+        load(context("third"));
+
+        assertEquals(2, JsonLdDocumentLoader.size());
+        assertNotSame(document, load(first));
+    }
+
+    @Test
+    void expiredDocumentsAreLoadedAgain() throws Exception {
+        String url = context("expired");
+        Document document = load(url);
+        loader.setTtl(Duration.ZERO);
+
+        assertNotSame(document, load(url));
+    }
+
+    @Test
+    void unknownDocumentsAreNotLoadedOffline() {
+        assertThrows(JsonLdError.class, () -> load("https://example.org/contexts/unknown"));
+    }
+
+    /**
+     * @return the URL of a context that is available in the disk cache
+     */
+    private static String context(String name) throws IOException {
+        String url = "https://example.org/contexts/" + name + "-" + System.nanoTime();
+        Path file = JsonLdDocumentLoader.cacheFile(url);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, CONTEXT);
+        return url;
+    }
+
+    private static Document load(String url) throws JsonLdError {
+        return JsonLdDocumentLoader.loadDocument(URI.create(url), new DocumentLoaderOptions());
+    }
+}
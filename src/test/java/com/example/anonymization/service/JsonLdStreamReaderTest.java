@@ -0,0 +1,79 @@
+package com.example.anonymization.service;
+
+import com.example.anonymization.dto.JsonLdPayload;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonLdStreamReaderTest {
+
+    private static final String DOCUMENT = """
+            {
+              "@context": {
+                "@vocab": "http://example.org/",
+                "address": { "@type": "@id" }
+              },
+              "@graph": [
+                { "@id": "http://example.org/alice", "@type": "Person", "age": 30, "address": "_:home" },
+                { "@id": "http://example.org/bob", "@type": "Person", "age": 41, "address": "_:home" },
+                { "@id": "_:home", "city": "Wien", "note": "_:not-a-node" },
+                { "@id": "http://example.org/carol", "@type": "Person", "knows": { "@id": "_:friend" } },
+                { "@id": "_:friend", "age": 52, "knows": { "age": 7 } }
+              ]
+            }
+            """;
+
+    private final JsonLdStreamReader reader = new JsonLdStreamReader();
+
+    @BeforeEach
+    void streamSmallBatches() {
+        reader.setMinSize(DataSize.ofBytes(0));
+        reader.setBatchSize(1);
+    }
+
+    @AfterEach
+    void reset() {
+        reader.setMinSize(DataSize.ofMegabytes(10));
+        reader.setBatchSize(1000);
+    }
+
+    @Test
+    void blankNodesAreSharedAcrossBatches() throws IOException {
+        JsonLdPayload data = new JsonLdPayload(DOCUMENT.getBytes(StandardCharsets.UTF_8));
+        assertTrue(JsonLdStreamReader.isStreamingEnabled(data));
+
+        Model streamed = JsonLdStreamReader.read(data, ModelFactory.createDefaultModel());
+
+        Model parsed = ModelFactory.createDefaultModel();
+        RDFParser.fromString(DOCUMENT, Lang.JSONLD).parse(parsed);
+        assertNotNull(streamed);
+        assertTrue(streamed.isIsomorphicWith(parsed));
+        Resource home = streamed.getResource("http://example.org/alice")
+                .getPropertyResourceValue(streamed.createProperty("http://example.org/address"));
+        assertTrue(home.isAnon());
+        assertEquals("_:not-a-node", home.getProperty(streamed.createProperty("http://example.org/note"))
+                .getString());
+        assertEquals(2, streamed.listSubjectsWithProperty(
+                streamed.createProperty("http://example.org/address"), home).toList().size());
+    }
+
+    @Test
+    void documentsOfAnotherShapeAreNotStreamed() throws IOException {
+        JsonLdPayload data = new JsonLdPayload("""
+                { "@id": "http://example.org/alice", "http://example.org/age": 30 }
+                """.getBytes(StandardCharsets.UTF_8));
+
+        assertNull(JsonLdStreamReader.read(data, ModelFactory.createDefaultModel()));
+    }
+}
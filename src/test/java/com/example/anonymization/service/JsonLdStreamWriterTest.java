@@ -0,0 +1,57 @@
+package com.example.anonymization.service;
+
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.ReadWrite;
+import org.apache.jena.rdf.model.*;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.tdb2.TDB2Factory;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonLdStreamWriterTest {
+
+    private static final String EX = "http://example.org/";
+
+    @Test
+    void writtenGraphIsReadBackIsomorphic() throws IOException {
+        Dataset dataset = TDB2Factory.createDataset();
+        dataset.begin(ReadWrite.WRITE);
+        try {
+            Model model = dataset.getNamedModel("urn:anonymization:output:0");
+            Resource person = model.createResource(EX + "Person");
+            Property age = model.createProperty(EX + "age");
+            Property address = model.createProperty(EX + "address");
+            Resource home = model.createResource().addProperty(model.createProperty(EX + "city"), "Wien", "de");
+            model.createResource(EX + "alice").addProperty(RDF.type, person).addLiteral(age, 30L)
+                    .addProperty(address, home).addProperty(RDFS.label, "Alice")
+                    .addProperty(model.createProperty(EX + "age_generalized"), model.createResource(EX + "age_0"));
+            model.createResource(EX + "bob").addProperty(RDF.type, person).addLiteral(age, 41L)
+                    .addProperty(RDF.type, model.createResource(EX + "Employee"));
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            JsonLdStreamWriter.write(model.getGraph(), out);
+
+            Model read = ModelFactory.createDefaultModel();
+            RDFParser.fromString(out.toString(), Lang.JSONLD).parse(read);
+            assertTrue(read.isIsomorphicWith(model), out::toString);
+        } finally {
+            dataset.abort();
+            dataset.end();
+        }
+    }
+
+    @Test
+    void emptyGraphIsAnEmptyDocument() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonLdStreamWriter.write(ModelFactory.createDefaultModel().getGraph(), out);
+
+        assertEquals("{\"@graph\":[]}", out.toString());
+    }
+}
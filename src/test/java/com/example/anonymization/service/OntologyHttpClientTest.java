@@ -0,0 +1,101 @@
+package com.example.anonymization.service;
+
+import com.example.anonymization.exceptions.OntologyException;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OntologyHttpClientTest {
+
+    private final OntologyHttpClient client = new OntologyHttpClient();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private HttpServer server;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/slow", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write("{\"partial\":".getBytes(StandardCharsets.UTF_8));
+                body.flush();
+                Thread.sleep(5_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.createContext("/fast", exchange -> {
+            byte[] content = "{}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, content.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(content);
+            }
+        });
+        server.createContext("/stream", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write("{\"a\":".getBytes(StandardCharsets.UTF_8));
+                body.flush();
+                // the rest is only sent once the client has read the start of the body
+                if (started.await(2, TimeUnit.SECONDS)) {
+                    body.write("1}".getBytes(StandardCharsets.UTF_8));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        client.setRequestTimeout(Duration.ofMillis(500));
+        client.setMaxRequestsPerHost(1);
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+        client.setRequestTimeout(Duration.ofSeconds(15));
+        client.setMaxRequestsPerHost(8);
+    }
+
+    @Test
+    void slowBodiesFailAtTheDeadlineAndReleaseThePermit() {
+        long start = System.nanoTime();
+        assertThrows(OntologyException.class, () -> fetch("/slow"));
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(3)) < 0);
+
+        assertEquals("{}", fetch("/fast"));
+    }
+
+    @Test
+    void bodiesAreStreamedToTheHandler() {
+        client.setRequestTimeout(Duration.ofSeconds(5));
+
+        String content = OntologyHttpClient.get(
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/stream", Map.of(),
+                (status, headers, body) -> {
+                    String start = new String(body.readNBytes(5), StandardCharsets.UTF_8);
+                    started.countDown();
+                    return start + new String(body.readAllBytes(), StandardCharsets.UTF_8);
+                });
+
+        assertEquals("{\"a\":1}", content);
+    }
+
+    private String fetch(String path) {
+        return OntologyHttpClient.get("http://127.0.0.1:" + server.getAddress().getPort() + path, Map.of(),
+                (status, headers, body) -> new String(body.readAllBytes(), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.anonymization.service;
+
+import com.example.anonymization.dto.AnonymizationFlatJsonRequestDto;
+import com.example.anonymization.entities.AnonymizationPlan;
+import com.example.anonymization.entities.Configuration;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.ReadWrite;
+import org.apache.jena.rdf.model.*;
+import org.apache.jena.tdb2.TDB2Factory;
+import org.apache.jena.vocabulary.RDF;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutputProjectionTest {
+
+    private static final String EX = "http://example.org/";
+
+    private final Model model = ModelFactory.createDefaultModel();
+    private final Resource person = model.createResource(EX + "Person");
+    private final Resource animal = model.createResource(EX + "Animal");
+    private final Property age = model.createProperty(EX + "age");
+    private final Property ageGeneralized = model.createProperty(EX + "age_generalized");
+
+    @AfterEach
+    void reset() {
+        new AnonymizationService().setOutputProjectionEnabled(true);
+    }
+
+    private AnonymizationPlan plan() {
+        return new AnonymizationPlan(
+                person,
+                Map.of(age, new Configuration("integer", "generalization")),
+                Map.of(),
+                Map.of(age, ageGeneralized),
+                Set.of(age),
+                null,
+                null,
+                null);
+    }
+
+    @Test
+    void renamesAnonymizedValuesOnlyForSubjectsOfTheObjectType() {
+        model.setNsPrefix("ex", EX);
+        Resource alice = model.createResource(EX + "alice").addProperty(RDF.type, person)
+                .addLiteral(age, 30L);
+        Resource bucket = model.createResource(EX + "age_0");
+        alice.addProperty(ageGeneralized, bucket);
+        Resource rex = model.createResource(EX + "rex").addProperty(RDF.type, animal).addLiteral(age, 4L);
+
+        OutputProjection projection = new OutputProjection(false, false);
+        projection.add(plan(), Set.of(age));
+        Model output = projection.project(model, ModelFactory.createDefaultModel());
+
+        assertEquals(EX, output.getNsPrefixURI("ex"));
+        assertEquals(Set.of(bucket), output.listObjectsOfProperty(alice, age).toSet());
+        assertFalse(output.contains(alice, ageGeneralized));
+        assertTrue(output.containsLiteral(rex, age, 4L));
+    }
+
+    @Test
+    void dropsOriginalValuesAndStatementsAboutThem() {
+        Property address = model.createProperty(EX + "address");
+        Property street = model.createProperty(EX + "street");
+        Resource home = model.createResource(EX + "home").addProperty(street, "Main Street");
+        Resource alice = model.createResource(EX + "alice").addProperty(RDF.type, person)
+                .addLiteral(age, 30L).addProperty(address, home);
+        alice.addProperty(ageGeneralized, model.createResource(EX + "age_0"));
+        AnonymizationPlan plan = new AnonymizationPlan(
+                person,
+                Map.of(age, new Configuration("integer", "generalization"),
+                        address, new Configuration("string", "masking")),
+                Map.of(),
+                Map.of(age, ageGeneralized, address, model.createProperty(EX + "address_masked")),
+                Set.of(age),
+                null,
+                null,
+                null);
+
+        OutputProjection projection = new OutputProjection(false, true);
+        projection.add(plan, Set.of(age));
+        Model output = projection.project(model, ModelFactory.createDefaultModel());
+
+        assertFalse(output.contains(alice, age));
+        assertFalse(output.contains(alice, address));
+        assertFalse(output.contains(home, street));
+        assertTrue(output.contains(alice, ageGeneralized));
+    }
+
+    @Test
+    void projectsWithinADatasetOnDisk() {
+        Dataset dataset = TDB2Factory.createDataset();
+        dataset.begin(ReadWrite.WRITE);
+        try {
+            Model source = dataset.getDefaultModel();
+            Resource alice = source.createResource(EX + "alice").addProperty(RDF.type, person)
+                    .addLiteral(age, 30L);
+            Resource bucket = source.createResource(EX + "age_0");
+            alice.addProperty(ageGeneralized, bucket);
+            Resource rex = source.createResource(EX + "rex").addProperty(RDF.type, animal).addLiteral(age, 4L);
+
+            OutputProjection projection = new OutputProjection(false, false);
+            projection.add(plan(), Set.of(age));
+            Model output = projection.project(source, dataset.getNamedModel("urn:anonymization:output:0"));
+
+            assertEquals(Set.of(bucket), output.listObjectsOfProperty(alice, age).toSet());
+            assertTrue(output.containsLiteral(rex, age, 4L));
+            assertEquals(4, output.size());
+        } finally {
+            dataset.abort();
+            dataset.end();
+        }
+    }
+
+    @Test
+    void isNotRequiredWhenTheModelIsTheOutput() {
+        assertFalse(new OutputProjection(true, true).isRequired());
+        assertTrue(new OutputProjection(false, true).isRequired());
+    }
+
+    @Test
+    void inPlaceOutputEqualsTheProjection() {
+        Map<Resource, AnonymizationPlan> plans = TestConfigurations.plans(
+                TestConfigurations.overlay("Person", "name, xsd:string, masking", "age, xsd:integer, randomization")
+                        + TestConfigurations.overlay("Company", "employees, xsd:integer, generalization"));
+        ObjectMapper mapper = new ObjectMapper();
+        ArrayNode data = mapper.createArrayNode();
+        for (int i = 0; i < 8; i++) {
+            data.addObject().put("type", "Person").put("name", "person" + i).put("age", 20 + i);
+            data.addObject().put("type", "Company").put("name", "company" + i).put("age", 3 * i)
+                    .put("employees", 10 * i);
+        }
+        for (boolean[] options : new boolean[][] {{false, false}, {false, true}, {true, true}}) {
+            ObjectNode body = mapper.createObjectNode();
+            body.put("configurationUrl", "https://example.org/configuration");
+            body.put("prefix", TestConfigurations.NS);
+            body.put("includeOriginalData", options[0]);
+            body.put("useAdjustedAttributes", options[1]);
+            body.put("randomSeed", 7);
+            body.set("data", data);
+            AnonymizationFlatJsonRequestDto request = mapper.convertValue(body, AnonymizationFlatJsonRequestDto.class);
+
+            new AnonymizationService().setOutputProjectionEnabled(true);
+            ObjectNode projected = AnonymizationService.anonymizeFlat(request, plans, false);
+            new AnonymizationService().setOutputProjectionEnabled(false);
+            ObjectNode inPlace = AnonymizationService.anonymizeFlat(request, plans, false);
+
+            assertEquals(projected, inPlace, Arrays.toString(options));
+            assertEquals("company1", inPlace.get("data").get(3).get("name").asText());
+            assertEquals(3, inPlace.get("data").get(3).get("age").asInt());
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.anonymization.service;
+
+import com.example.anonymization.data.SpillService;
+import com.example.anonymization.exceptions.RequestModelException;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RDFParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Turtle, N-Triples and RDF Thrift request data is anonymized to the same graph
+ */
+class RdfInputTest {
+
+    private static final String CONFIGURATION_URL = "https://example.org/configs/rdf-input-test";
+
+    private static final String CONFIGURATION = TestConfigurations.overlay("Person",
+            "age, xsd:integer, generalization",
+            "name, xsd:string, masking");
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void registerConfiguration() throws IOException {
+        Path file = directory.resolve("rdf-input-test.jsonld");
+        Files.writeString(file, TestConfigurations.jsonLd(CONFIGURATION));
+        ConfigurationRegistry registry = new ConfigurationRegistry();
+        registry.setMappings(List.of(CONFIGURATION_URL + "=file:" + file.toAbsolutePath()));
+        registry.setWatch(false);
+        registry.preload();
+    }
+
+    @AfterEach
+    void reset() {
+        ConfigurationRegistry registry = new ConfigurationRegistry();
+        registry.setMappings(List.of());
+        registry.setWatch(true);
+    }
+
+    @Test
+    void formatsAreAnonymizedEqually() throws IOException {
+        Model data = data();
+
+        Model turtle = anonymize(data, Lang.TURTLE);
+        Model nTriples = anonymize(data, Lang.NTRIPLES);
+        Model thrift = anonymize(data, Lang.RDFTHRIFT);
+
+        assertTrue(turtle.isIsomorphicWith(nTriples));
+        assertTrue(turtle.isIsomorphicWith(thrift));
+        Resource person = turtle.getResource(TestConfigurations.NS + "person0");
+        assertFalse(person.hasProperty(turtle.getProperty(TestConfigurations.NS + "age")));
+        assertTrue(person.hasProperty(turtle.getProperty(TestConfigurations.NS + "age_generalized")));
+        assertTrue(turtle.contains(person, turtle.getProperty(TestConfigurations.NS + "name_masked"), "*****"));
+    }
+
+    @Test
+    void dataOfUnknownSizeIsSpooledAndDeleted() throws IOException {
+        Path spill = Files.createDirectory(directory.resolve("spill"));
+        SpillService spillService = new SpillService();
+        ReflectionTestUtils.invokeMethod(spillService, "setEnabled", true);
+        ReflectionTestUtils.invokeMethod(spillService, "setThreshold", DataSize.ofBytes(16));
+        ReflectionTestUtils.invokeMethod(spillService, "setBufferSize", DataSize.ofBytes(16));
+        ReflectionTestUtils.invokeMethod(spillService, "setDirectory", spill.toString());
+        try {
+            Model data = data();
+
+            assertTrue(anonymize(data, Lang.NTRIPLES, false).isIsomorphicWith(anonymize(data, Lang.NTRIPLES, true)));
+            try (Stream<Path> files = Files.list(spill)) {
+                assertEquals(0, files.count());
+            }
+        } finally {
+            ReflectionTestUtils.invokeMethod(spillService, "setEnabled", false);
+            ReflectionTestUtils.invokeMethod(spillService, "setThreshold", DataSize.ofGigabytes(1));
+            ReflectionTestUtils.invokeMethod(spillService, "setBufferSize", DataSize.ofMegabytes(10));
+            ReflectionTestUtils.invokeMethod(spillService, "setDirectory", System.getProperty("java.io.tmpdir"));
+        }
+    }
+
+    @Test
+    void invalidDataIsRejected() {
+        byte[] body = "<a> <b> .".getBytes(StandardCharsets.UTF_8);
+
+        assertThrows(RequestModelException.class, () -> AnonymizationService.applyAnonymization(
+                new ByteArrayInputStream(body), Lang.NTRIPLES, body.length, CONFIGURATION_URL,
+                false, false, 1L, false));
+    }
+
+    private static Model anonymize(Model data, Lang lang) throws IOException {
+        return anonymize(data, lang, true);
+    }
+
+    /**
+     * @param sized whether the size of the request body is passed
+     */
+    private static Model anonymize(Model data, Lang lang, boolean sized) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        RDFDataMgr.write(body, data, lang);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonLdOutput output = AnonymizationService.applyAnonymization(
+                new ByteArrayInputStream(body.toByteArray()), lang, sized ? body.size() : -1, CONFIGURATION_URL,
+                true, false, 1L, true)) {
+            output.writeTo(out);
+        }
+        Model model = ModelFactory.createDefaultModel();
+        RDFParser.fromString(out.toString(StandardCharsets.UTF_8), Lang.JSONLD).parse(model);
+        return model;
+    }
+
+    private static Model data() {
+        StringBuilder turtle = new StringBuilder("@prefix : <" + TestConfigurations.NS + "> .\n");
+        for (int i = 0; i < 16; i++) {
+            turtle.append(":person").append(i).append(" a :Person ; :age ").append(20 + (i * 7) % 16 * 3)
+                    .append(" ; :name \"person").append(i).append("\" .\n");
+        }
+        Model model = ModelFactory.createDefaultModel();
+        RDFParser.fromString(turtle.toString(), Lang.TURTLE).parse(model);
+        return model;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.anonymization.service;
+
+import com.example.anonymization.entities.AnonymizationPlan;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RDFParser;
+
+import java.io.StringWriter;
+import java.util.Map;
+
+/**
+ * Anonymization plans of small ontologies written in Turtle, so tests do not fetch configurations
+ */
+final class TestConfigurations {
+
+    static final String NS = "https://soya.ownyourdata.eu/AnonymisationDemo/";
+
+    private static final String PREFIXES = """
+            @prefix soya: <https://w3id.org/soya/ns#> .
+            @prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .
+            @prefix xsd: <http://www.w3.org/2001/XMLSchema#> .
+            @prefix : <https://soya.ownyourdata.eu/AnonymisationDemo/> .
+            """;
+
+    private TestConfigurations() {
+    }
+
+    /**
+     * @param turtle the classification overlays and properties, with the prefixes soya, rdfs, xsd and the default
+     *               prefix {@link #NS}
+     * @return the anonymization plans by object type
+     */
+    static Map<Resource, AnonymizationPlan> plans(String turtle) {
+        return ConfigurationService.extractConfig(model(turtle));
+    }
+
+    /**
+     * @return the ontology with the properties of {@link #plans(String)}
+     */
+    static String ontology(String turtle) {
+        return PREFIXES + turtle;
+    }
+
+    /**
+     * Classification overlay of an object type with one line "local name, range, anonymization" per property
+     */
+    static String overlay(String objectType, String... properties) {
+        StringBuilder turtle = new StringBuilder(":" + objectType + "Overlay a soya:OverlayClassification ; "
+                + "soya:onBase :" + objectType + " .\n");
+        for (String property : properties) {
+            String[] parts = property.split(",\\s*");
+            turtle.append(":").append(parts[0]).append(" rdfs:domain :").append(objectType)
+                    .append(" ; rdfs:range ").append(parts[1])
+                    .append(" ; soya:classification \"").append(parts[2]).append("\" .\n");
+        }
+        return turtle.toString();
+    }
+
+    /**
+     * @return the ontology of {@link #plans(String)} as JSON-LD, as read from configuration files
+     */
+    static String jsonLd(String turtle) {
+        StringWriter out = new StringWriter();
+        RDFDataMgr.write(out, model(turtle), Lang.JSONLD);
+        return out.toString();
+    }
+
+    private static Model model(String turtle) {
+        Model model = ModelFactory.createDefaultModel();
+        RDFParser.fromString(ontology(turtle), Lang.TURTLE).parse(model);
+        return model;
+    }
+}
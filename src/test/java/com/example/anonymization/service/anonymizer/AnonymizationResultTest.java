@@ -0,0 +1,64 @@
+package com.example.anonymization.service.anonymizer;
+
+import com.example.anonymization.entities.Configuration;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.vocabulary.RDF;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnonymizationResultTest {
+
+    private static final String NS = "https://example.org/";
+
+    @Test
+    void valuesAndStatementsAreWrittenTogether() {
+        Model model = ModelFactory.createDefaultModel();
+        Property property = model.createProperty(NS + "age_masked");
+        AnonymizationResult result = new AnonymizationResult(property, 1);
+        for (int i = 0; i < 5; i++) {
+            result.put(model.createResource(NS + "person" + i), model.createLiteral("*****"));
+        }
+        result.add(model.createResource(NS + "bucket"), RDF.type, model.createLiteral("bucket"));
+
+        assertEquals(5, result.size());
+        assertTrue(model.isEmpty());
+
+        result.writeTo(model);
+
+        assertEquals(6, model.size());
+        assertTrue(model.contains(model.createResource(NS + "person4"), property, "*****"));
+    }
+
+    @Test
+    void anonymizationOnlyReadsTheModel() {
+        Model model = ModelFactory.createDefaultModel();
+        Property age = model.createProperty(NS + "age");
+        Map<Resource, RDFNode> data = new LinkedHashMap<>();
+        for (int i = 0; i < 16; i++) {
+            Resource person = model.createResource(NS + "person" + i).addLiteral(age, (long) i);
+            data.put(person, person.getProperty(age).getObject());
+        }
+        long size = model.size();
+
+        AnonymizationResult result = new Configuration("integer", "generalization").anonymizerFactory()
+                .create(model, age, data, 1, model.createResource(NS + "Person"), true, 1L)
+                .anonymization();
+
+        assertEquals(size, model.size());
+        assertEquals(16, result.size());
+
+        result.writeTo(model);
+
+        Property generalized = model.createProperty(NS + "age_generalized");
+        data.keySet().forEach(person -> assertTrue(model.contains(person, generalized)));
+        assertTrue(model.size() > size + 16);
+    }
+}
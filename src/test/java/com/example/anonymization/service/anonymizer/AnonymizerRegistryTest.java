@@ -0,0 +1,99 @@
+package com.example.anonymization.service.anonymizer;
+
+import com.example.anonymization.entities.Configuration;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.vocabulary.RDF;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnonymizerRegistryTest {
+
+    @AfterEach
+    void reset() {
+        AnonymizerRegistry.register(new Masking());
+    }
+
+    @Test
+    void implementationsOfTheServiceFileAreRegistered() {
+        assertInstanceOf(GeneralizationNumeric.class, AnonymizerRegistry.get("generalization", "integer"));
+        assertInstanceOf(GeneralizationNumeric.class, AnonymizerRegistry.get("generalization", "double"));
+        assertInstanceOf(GeneralizationDate.class, AnonymizerRegistry.get("generalization", "date"));
+        assertInstanceOf(GeneralizationDateTime.class, AnonymizerRegistry.get("generalization", "dateTime"));
+        assertInstanceOf(GeneralizationObject.class,
+                AnonymizerRegistry.get("generalization", GeneralizationObject.DATA_TYPE));
+        assertInstanceOf(RandomizationNumeric.class, AnonymizerRegistry.get("randomization", "integer"));
+        assertInstanceOf(RandomizationDate.class, AnonymizerRegistry.get("randomization", "date"));
+        assertInstanceOf(RandomizationDateTime.class, AnonymizerRegistry.get("randomization", "dateTime"));
+        // masking applies to every datatype
+        assertInstanceOf(Masking.class, AnonymizerRegistry.get("masking", "string"));
+        assertNull(AnonymizerRegistry.get("generalization", "string"));
+    }
+
+    @Test
+    void unsupportedCombinationsAreRejected() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> new Configuration("string", "generalization").batchAnonymizer());
+        assertEquals("No Generalization possible for type string", exception.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> new Configuration("string", "shuffling").batchAnonymizer());
+
+        // the factory of a plan is built, but fails when it is applied to data
+        AnonymizerFactory factory = new Configuration("string", "shuffling").anonymizerFactory();
+        Model model = ModelFactory.createDefaultModel();
+        assertThrows(IllegalArgumentException.class, () -> factory.create(model, RDF.value, Map.of(), 1,
+                model.createResource("https://example.org/Person"), false, 1L));
+    }
+
+    @Test
+    void beansReplaceRegisteredImplementations() {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory(Map.of("masking", new PartialMasking()));
+
+        new AnonymizerRegistry(beans.getBeanProvider(BatchAnonymizer.class));
+
+        BatchAnonymizer anonymizer = new Configuration("string", "masking").batchAnonymizer();
+        assertInstanceOf(PartialMasking.class, anonymizer);
+        ResultColumn result = anonymizer.anonymize(anonymizer.decode(new Object[] {"Alice", "Bob"}),
+                new BatchContext(new Configuration("string", "masking"), 0, 1L));
+        assertArrayEquals(new Object[] {"A****", "B**"}, result.values());
+    }
+
+    /**
+     * Masking that keeps the first character
+     */
+    static class PartialMasking implements BatchAnonymizer {
+
+        @Override
+        public String anonymization() {
+            return "masking";
+        }
+
+        @Override
+        public Set<String> dataTypes() {
+            return Set.of(ANY_DATA_TYPE);
+        }
+
+        @Override
+        public boolean bucketed() {
+            return false;
+        }
+
+        @Override
+        public ValueColumn decode(Object[] cells) {
+            return ValueColumn.objects(Arrays.stream(cells).map(ValueColumn::lexical).toArray());
+        }
+
+        @Override
+        public ResultColumn anonymize(ValueColumn column, BatchContext context) {
+            return new ResultColumn(Arrays.stream(column.objects())
+                    .map(value -> ((String) value).charAt(0) + "*".repeat(((String) value).length() - 1))
+                    .toArray());
+        }
+    }
+}
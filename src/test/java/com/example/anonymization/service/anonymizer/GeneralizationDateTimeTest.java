@@ -0,0 +1,54 @@
+package com.example.anonymization.service.anonymizer;
+
+import com.example.anonymization.entities.Configuration;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Calendar;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeneralizationDateTimeTest {
+
+    private final GeneralizationDateTime generalization = new GeneralizationDateTime();
+
+    @Test
+    void dateTimesAreDecodedDirectlyAndByTheParser() {
+        Object[] cells = {
+                "2020-01-01T10:30:00Z",
+                "2020-01-01T10:30:00.5+02:00",
+                // fraction too long for the direct decoding
+                "2020-01-01T10:30:00.1234Z",
+                "2020-01-01Z"
+        };
+
+        long[] millis = generalization.decode(cells).epochs();
+
+        assertEquals(Instant.parse("2020-01-01T10:30:00Z").toEpochMilli(), millis[0]);
+        assertEquals(Instant.parse("2020-01-01T08:30:00.500Z").toEpochMilli(), millis[1]);
+        assertEquals(Instant.parse("2020-01-01T10:30:00.123Z").toEpochMilli(), millis[2]);
+        assertEquals(Instant.parse("2020-01-01T00:00:00Z").toEpochMilli(), millis[3]);
+    }
+
+    @Test
+    void invalidValuesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> generalization.decode(new Object[] {"2020-13-01T00:00Z"}));
+    }
+
+    @Test
+    void mediansAreInUtc() {
+        Object[] cells = IntStream.range(0, 4)
+                .mapToObj(i -> String.format("2020-01-01T%02d:00:00Z", 2 * i))
+                .toArray();
+
+        ResultColumn result = generalization.anonymize(generalization.decode(cells),
+                new BatchContext(new Configuration("dateTime", "generalization"), 2, 1L));
+
+        Calendar bound = (Calendar) result.buckets().getFirst().max();
+        assertEquals(0, bound.getTimeZone().getRawOffset());
+        assertEquals(Instant.parse("2020-01-01T03:00:00Z").toEpochMilli(), bound.getTimeInMillis());
+        assertSame(result.buckets().getFirst(), result.values()[1]);
+        assertSame(result.buckets().getLast(), result.values()[2]);
+    }
+}
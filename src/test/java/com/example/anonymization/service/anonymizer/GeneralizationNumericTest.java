@@ -0,0 +1,66 @@
+package com.example.anonymization.service.anonymizer;
+
+import com.example.anonymization.entities.Configuration;
+import org.apache.jena.rdf.model.ResourceFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeneralizationNumericTest {
+
+    private final GeneralizationNumeric generalization = new GeneralizationNumeric();
+
+    @Test
+    void bucketsMatchAStableSortOfBoxedValues() {
+        Random random = new Random(7);
+        // few distinct values, so many equal values are split across buckets
+        Object[] cells = IntStream.range(0, 1000)
+                .mapToObj(i -> i % 3 == 0 ? Integer.toString(random.nextInt(20)) : random.nextInt(20) + ".5")
+                .toArray();
+        double[] numbers = generalization.decode(cells).numbers();
+        int numberBuckets = 7;
+
+        ResultColumn result = generalization.anonymize(generalization.decode(cells),
+                new BatchContext(new Configuration("double", "generalization"), numberBuckets, 1L));
+
+        List<Integer> order = IntStream.range(0, cells.length).boxed()
+                .sorted(Comparator.comparingDouble(position -> numbers[position]))
+                .toList();
+        for (int i = 0; i < order.size(); i++) {
+            ResultColumn.Bucket bucket = (ResultColumn.Bucket) result.values()[order.get(i)];
+            assertEquals(numberBuckets * i / cells.length, bucket.position(), "position " + order.get(i));
+        }
+        for (int position = 1; position < numberBuckets; position++) {
+            int split = position * cells.length / numberBuckets;
+            double median = (numbers[order.get(split - 1)] + numbers[order.get(split)]) / 2.0;
+            assertEquals(median, result.buckets().get(position).min());
+            assertEquals(median, result.buckets().get(position - 1).max());
+        }
+        assertNull(result.buckets().getFirst().min());
+        assertNull(result.buckets().getLast().max());
+    }
+
+    @Test
+    void literalsAndLexicalFormsAreDecoded() {
+        double[] numbers = generalization.decode(new Object[] {
+                ResourceFactory.createTypedLiteral(3L), "2.5", ResourceFactory.createTypedLiteral(-1.25)
+        }).numbers();
+
+        assertArrayEquals(new double[] {3, 2.5, -1.25}, numbers);
+        assertThrows(IllegalArgumentException.class, () -> generalization.decode(new Object[] {"abc"}));
+    }
+
+    @Test
+    void emptyColumnsHaveNoBuckets() {
+        ResultColumn result = generalization.anonymize(generalization.decode(new Object[0]),
+                new BatchContext(new Configuration("integer", "generalization"), 1, 1L));
+
+        assertEquals(0, result.values().length);
+        assertTrue(result.buckets().isEmpty());
+    }
+}
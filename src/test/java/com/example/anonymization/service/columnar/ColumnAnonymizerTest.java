@@ -0,0 +1,66 @@
+package com.example.anonymization.service.columnar;
+
+import com.example.anonymization.entities.Configuration;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.rdf.model.Literal;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnAnonymizerTest {
+
+    private static final String PROPERTY = "https://example.org/value";
+
+    @Test
+    void dateTimeBoundsAreXsdDateTimes() {
+        Object[] cells = IntStream.range(0, 16)
+                .mapToObj(i -> String.format("2020-01-%02d", i + 1))
+                .toArray();
+        ColumnAnonymizer.Result result = anonymize(new Configuration("dateTime", "generalization"), cells);
+
+        ColumnAnonymizer.Bucket first = (ColumnAnonymizer.Bucket) result.values()[0];
+        assertNull(first.min());
+        assertBoundsMatchModel(first.max(), XSDDatatype.XSDdateTime);
+        assertTrue(first.max().matches("2020-01-\\d{2}T\\d{2}:\\d{2}:\\d{2}Z"), first.max());
+    }
+
+    @Test
+    void dateBoundsAreIsoDates() {
+        Object[] cells = IntStream.range(0, 16)
+                .mapToObj(i -> String.format("2020-%02d-15", i % 12 + 1))
+                .toArray();
+        ColumnAnonymizer.Result result = anonymize(new Configuration("date", "generalization"), cells);
+
+        ColumnAnonymizer.Bucket last = (ColumnAnonymizer.Bucket) result.values()[11];
+        assertNull(last.max());
+        assertTrue(last.min().matches("2020-\\d{2}-\\d{2}"), last.min());
+    }
+
+    @Test
+    void numericBoundsAreMedians() {
+        Object[] cells = IntStream.range(0, 16).mapToObj(Integer::toString).toArray();
+        ColumnAnonymizer.Result result = anonymize(new Configuration("integer", "generalization"), cells);
+
+        assertEquals(2, result.numberBuckets());
+        ColumnAnonymizer.Bucket first = (ColumnAnonymizer.Bucket) result.values()[0];
+        assertEquals("7.5", first.max());
+        assertSame(first, result.values()[7]);
+        assertEquals("7.5", ((ColumnAnonymizer.Bucket) result.values()[8]).min());
+    }
+
+    private static ColumnAnonymizer.Result anonymize(Configuration config, Object[] cells) {
+        int[] rows = IntStream.range(0, cells.length).toArray();
+        ColumnAnonymizer.Result result = ColumnAnonymizer.anonymize(PROPERTY, config, rows, cells, 1, 1L);
+        assertTrue(Arrays.stream(result.values()).allMatch(ColumnAnonymizer.Bucket.class::isInstance));
+        return result;
+    }
+
+    private static void assertBoundsMatchModel(String bound, XSDDatatype datatype) {
+        Literal literal = ModelFactory.createDefaultModel().createTypedLiteral(bound, datatype);
+        assertEquals(bound, literal.getValue().toString());
+    }
+}